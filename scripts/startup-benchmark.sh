@@ -0,0 +1,85 @@
+#!/usr/bin/env bash
+# Time from JVM launch to the first successful redirect (HTTP 302), default mode vs fast-start mode.
+#
+# Prerequisites:
+#   docker compose up -d postgres
+#   ./mvnw -Pfast-start package -DskipTests     (AOT classes + target/fast-start/application.jsa)
+#
+# Usage: scripts/startup-benchmark.sh [runs-per-mode]
+# Results are appended to target/startup-benchmark.csv (mode,run,millis).
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=${PORT:-8080}
+DIR="$(cd "$(dirname "$0")/.." && pwd)/target/fast-start"
+JAR=demo-0.0.1-SNAPSHOT.jar
+CSV="$DIR/../startup-benchmark.csv"
+TARGET_URL="https://fiverr.com/startup-benchmark"
+
+if [[ ! -f "$DIR/$JAR" || ! -f "$DIR/application.jsa" ]]; then
+    echo "Missing $DIR/$JAR or application.jsa; run ./mvnw -Pfast-start package -DskipTests first" >&2
+    exit 1
+fi
+
+# default: ddl-auto=update, no AOT, no CDS. fast-start: Flyway, AOT bean definitions, CDS archive.
+DEFAULT_OPTS=()
+FAST_START_OPTS=(-XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true -Dspring.profiles.active=fast-start)
+
+APP_PID=
+stop_app() {
+    if [[ -n "$APP_PID" ]]; then
+        kill "$APP_PID" 2>/dev/null || true
+        wait "$APP_PID" 2>/dev/null || true
+        APP_PID=
+    fi
+}
+trap stop_app EXIT
+
+start_app() {
+    (cd "$DIR" && exec java "$@" -Dserver.port="$PORT" -jar "$JAR" >/dev/null 2>&1) &
+    APP_PID=$!
+}
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+# Seed one link and remember its short code. The fast-start instance goes first so that
+# Flyway, not ddl-auto, creates the schema on an empty database.
+start_app "${FAST_START_OPTS[@]}"
+until SHORT_CODE=$(curl -sf -X POST "http://localhost:$PORT/links" \
+        -H 'Content-Type: application/json' \
+        -d "{\"targetUrl\":\"$TARGET_URL\"}" | sed -n 's/.*"shortCode":"\([^"]*\)".*/\1/p') \
+        && [[ -n "$SHORT_CODE" ]]; do
+    if ! kill -0 "$APP_PID" 2>/dev/null; then
+        echo "Application failed to start; is PostgreSQL up on localhost:5433?" >&2
+        exit 1
+    fi
+    sleep 0.5
+done
+stop_app
+
+measure() {
+    local mode=$1; shift
+    for run in $(seq 1 "$RUNS"); do
+        local start
+        start=$(now_ms)
+        start_app "$@"
+        until [[ "$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:$PORT/$SHORT_CODE")" == "302" ]]; do
+            sleep 0.02
+        done
+        local elapsed=$(( $(now_ms) - start ))
+        stop_app
+        echo "$mode,$run,$elapsed" >> "$CSV"
+        echo "$mode run $run: ${elapsed} ms to first redirect"
+    done
+}
+
+[[ -f "$CSV" ]] || echo "mode,run,millis" > "$CSV"
+measure default "${DEFAULT_OPTS[@]}"
+measure fast-start "${FAST_START_OPTS[@]}"
+
+for mode in default fast-start; do
+    grep "^$mode," "$CSV" | cut -d, -f3 | sort -n | awk -v mode="$mode" \
+        '{ v[NR] = $1 } END { printf "%s median: %d ms (%d runs)\n", mode, v[int((NR + 1) / 2)], NR }'
+done
@@ -0,0 +1,47 @@
+package com.fiverr.demo.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fiverr.demo.service.ClickEventSink;
+import com.fiverr.demo.service.InMemoryClickEventSink;
+import com.fiverr.demo.service.RollingFileClickEventSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// The ClickEventSink that ClickOutboxRelay publishes to: app.click-outbox.sink=file (rolling
+// NDJSON files, the default) or memory (a bounded in-process queue). The relay deletes outbox
+// rows once the sink accepts them, so events in the memory queue are lost on restart; it is
+// only for consumers in this JVM that tolerate that. Any other ClickEventSink bean replaces both.
+@Configuration
+public class ClickOutboxConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ClickOutboxConfig.class);
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ClickEventSink clickEventSink(ObjectMapper objectMapper,
+                                         @Value("${app.click-outbox.enabled:false}") boolean enabled,
+                                         @Value("${app.click-outbox.sink:file}") String sink,
+                                         @Value("${app.click-outbox.memory.capacity:100000}") int capacity,
+                                         @Value("${app.click-outbox.file.directory:data/click-events}") String directory,
+                                         @Value("${app.click-outbox.file.max-bytes:67108864}") long maxFileBytes)
+            throws IOException {
+        return switch (sink) {
+            case "memory" -> {
+                if (enabled) {
+                    log.warn("app.click-outbox.sink=memory: published click events are lost on restart "
+                        + "and pile up unless a consumer in this JVM polls InMemoryClickEventSink");
+                }
+                yield new InMemoryClickEventSink(capacity);
+            }
+            case "file" -> new RollingFileClickEventSink(Path.of(directory), maxFileBytes, objectMapper);
+            default -> throw new IllegalArgumentException("Unknown app.click-outbox.sink: " + sink);
+        };
+    }
+}
@@ -0,0 +1,134 @@
+package com.fiverr.demo.config;
+
+import com.fiverr.demo.repository.ClickShardRouter;
+import com.fiverr.demo.repository.ClickShards;
+import com.fiverr.demo.repository.ConnectionGate;
+import com.fiverr.demo.repository.WorkloadPools;
+import com.fiverr.demo.repository.WorkloadPools.Workload;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+
+// Click storage shards. Without app.click-shards.urls the clicks table stays in the primary
+// database as the only shard. Each configured shard gets its own pool and its own click id
+// range, (index + 1) << 48 onwards, so ids stay unique when ClickRebalancer moves rows. Shard
+// pools sit behind a ConnectionGate like the clicks workload pool.
+// In the primary database, clicks are written through the clicks workload pool and read through
+// the analytics one.
+@Configuration
+public class ClickShardConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ClickShardConfig.class);
+
+    static final String CREATE_CLICKS_SQL = """
+        CREATE TABLE IF NOT EXISTS clicks (
+            id         BIGINT GENERATED BY DEFAULT AS IDENTITY (START WITH %d) PRIMARY KEY,
+            link_id    BIGINT       NOT NULL,
+            clicked_at TIMESTAMP(6) NOT NULL,
+            is_valid   BOOLEAN      NOT NULL
+        )
+        """;
+    static final String CREATE_INDEX_SQL =
+        "CREATE INDEX IF NOT EXISTS idx_link_clicked_at ON clicks (link_id, clicked_at)";
+    static final String CREATE_OUTBOX_SQL = """
+        CREATE TABLE IF NOT EXISTS click_outbox (
+            id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+            event_type SMALLINT     NOT NULL,
+            click_id   BIGINT,
+            link_id    BIGINT       NOT NULL,
+            clicked_at TIMESTAMP(6) NOT NULL,
+            is_valid   BOOLEAN      NOT NULL
+        )
+        """;
+
+    static final String CREATE_PENDING_CHECKS_SQL = """
+        CREATE TABLE IF NOT EXISTS pending_fraud_checks (
+            click_id BIGINT PRIMARY KEY,
+            link_id  BIGINT NOT NULL
+        )
+        """;
+
+    // A clicks table created by ddl-auto before the compact layout still has earnings NOT NULL
+    // until db/compact-clicks/migrate.sql has run, and click writes no longer set earnings
+    static final String LEGACY_EARNINGS_SQL = """
+        SELECT COUNT(*) FROM information_schema.columns
+        WHERE table_schema = CURRENT_SCHEMA AND LOWER(table_name) = 'clicks'
+          AND LOWER(column_name) = 'earnings' AND is_nullable = 'NO'
+        """;
+    static final String RELAX_LEGACY_EARNINGS_SQL = "ALTER TABLE clicks ALTER COLUMN earnings DROP NOT NULL";
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ClickShardRouter clickShardRouter() {
+        return ClickShardRouter.HASH;
+    }
+
+    @Bean(destroyMethod = "close")
+    public ClickShards clickShards(WorkloadPools workloadPools,
+                                   ClickShardRouter router,
+                                   ObjectProvider<StatementBudget> statementBudget,
+                                   @Value("${app.click-shards.urls:}") List<String> urls,
+                                   @Value("${app.click-shards.username:}") String username,
+                                   @Value("${app.click-shards.password:}") String password,
+                                   @Value("${app.click-shards.pool-size:10}") int poolSize,
+                                   @Value("${app.click-shards.initialize-schema:true}") boolean initializeSchema) {
+        if (urls.isEmpty()) {
+            relaxLegacyEarnings(workloadPools.jdbc(Workload.CLICKS));
+            return ClickShards.primary(workloadPools.jdbc(Workload.CLICKS), workloadPools.jdbc(Workload.ANALYTICS),
+                workloadPools.transactions(Workload.CLICKS), router);
+        }
+        List<JdbcTemplate> shards = new ArrayList<>(urls.size());
+        List<TransactionTemplate> transactions = new ArrayList<>(urls.size());
+        List<Closeable> pools = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(urls.get(i))
+                .username(username)
+                .password(password)
+                .build();
+            dataSource.setPoolName("click-shard-" + i);
+            dataSource.setMaximumPoolSize(poolSize);
+            pools.add(dataSource);
+            DataSource gated = new ConnectionGate(dataSource, dataSource.getPoolName(), poolSize,
+                dataSource.getConnectionTimeout());
+            DataSource counted = StatementBudgetConfig.countStatements(gated, dataSource.getPoolName(),
+                statementBudget);
+            JdbcTemplate shard = new JdbcTemplate(counted);
+            if (initializeSchema) {
+                shard.execute(CREATE_CLICKS_SQL.formatted((i + 1L) << 48));
+                shard.execute(CREATE_INDEX_SQL);
+                shard.execute(CREATE_OUTBOX_SQL);
+                shard.execute(CREATE_PENDING_CHECKS_SQL);
+            }
+            shards.add(shard);
+            transactions.add(new TransactionTemplate(new JdbcTransactionManager(counted)));
+        }
+        return new ClickShards(shards, transactions, router, pools);
+    }
+
+    // Runs before anything can write a click. Dropping NOT NULL only changes the catalog, so it
+    // holds the table lock for a moment; migrate.sql later drops the column with the table swap
+    static void relaxLegacyEarnings(JdbcTemplate primary) {
+        Long legacy = primary.queryForObject(LEGACY_EARNINGS_SQL, Long.class);
+        if (legacy != null && legacy > 0) {
+            log.warn("clicks.earnings is still NOT NULL; dropping the constraint until "
+                + "db/compact-clicks/migrate.sql moves the table to the compact layout");
+            primary.execute(RELAX_LEGACY_EARNINGS_SQL);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.fiverr.demo.config;
+
+import com.fiverr.demo.service.FraudBackend;
+import com.fiverr.demo.service.FraudDetectionService;
+import com.fiverr.demo.service.HedgedFraudBackend;
+import com.fiverr.demo.service.SimulatedFraudBackend;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Fraud backends behind ResilientFraudValidator. app.fraud.backends names the instances, each
+// configured under app.fraud.backend.<name>.*; without names the built-in FraudDetectionService
+// is the only backend and nothing is hedged. Every named backend needs a type: "local" is the
+// built-in FraudDetectionService, and "simulated" a SimulatedFraudBackend stub, so naming a
+// backend never swaps the real check for a stub by accident.
+@Configuration
+public class FraudBackendConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    @Primary
+    public HedgedFraudBackend hedgedFraudBackend(FraudDetectionService fraudDetectionService,
+                                                 MeterRegistry meterRegistry,
+                                                 Environment environment,
+                                                 @Value("${app.fraud.backends:}") List<String> names,
+                                                 @Value("${app.fraud.hedge.enabled:true}") boolean hedgingEnabled,
+                                                 @Value("${app.fraud.hedge.percentile:0.95}") double percentile,
+                                                 @Value("${app.fraud.hedge.min-delay-ms:5}") long minDelayMs,
+                                                 @Value("${app.fraud.hedge.min-samples:20}") int minSamples) {
+        List<FraudBackend> backends = new ArrayList<>(names.size());
+        for (String name : names) {
+            String prefix = "app.fraud.backend." + name + ".";
+            String type = environment.getProperty(prefix + "type", "");
+            switch (type) {
+                case "local" -> backends.add(fraudDetectionService);
+                case "simulated" -> backends.add(new SimulatedFraudBackend(name,
+                    environment.getProperty(prefix + "latency-ms", Long.class, 100L),
+                    environment.getProperty(prefix + "tail-latency-ms", Long.class, 100L),
+                    environment.getProperty(prefix + "tail-probability", Double.class, 0.0),
+                    environment.getProperty(prefix + "fraud-rate", Double.class, 0.1)));
+                default -> throw new IllegalStateException(
+                    prefix + "type must be local or simulated, not '" + type + "'");
+            }
+        }
+        if (backends.isEmpty()) {
+            backends.add(fraudDetectionService);
+        }
+        return new HedgedFraudBackend(backends, meterRegistry, hedgingEnabled, percentile, minDelayMs, minSamples);
+    }
+}
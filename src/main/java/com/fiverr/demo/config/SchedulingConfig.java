@@ -0,0 +1,51 @@
+package com.fiverr.demo.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+// Scheduler threads for the @Scheduled jobs. The short, frequent ones (counter flush, link store
+// sync) share the default taskScheduler. Jobs that block on the fraud check, a client socket or
+// a month of clicks each get a thread of their own, named by the scheduler attribute of their
+// @Scheduled, so none of them can hold up the 1 s counter flush.
+@Configuration
+public class SchedulingConfig {
+
+    public static final String DEFERRED_FRAUD_CHECKS = "deferredFraudCheckScheduler";
+    public static final String CLICK_ARCHIVE = "clickArchiveScheduler";
+    public static final String CLICK_OUTBOX = "clickOutboxScheduler";
+    public static final String LIVE_STATS = "liveStatsScheduler";
+
+    // Spring Boot backs off its own taskScheduler once any TaskScheduler bean exists
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler() {
+        return scheduler("scheduling-", 2);
+    }
+
+    @Bean(DEFERRED_FRAUD_CHECKS)
+    public ThreadPoolTaskScheduler deferredFraudCheckScheduler() {
+        return scheduler("deferred-fraud-", 1);
+    }
+
+    @Bean(CLICK_ARCHIVE)
+    public ThreadPoolTaskScheduler clickArchiveScheduler() {
+        return scheduler("click-archive-", 1);
+    }
+
+    @Bean(CLICK_OUTBOX)
+    public ThreadPoolTaskScheduler clickOutboxScheduler() {
+        return scheduler("click-outbox-", 1);
+    }
+
+    @Bean(LIVE_STATS)
+    public ThreadPoolTaskScheduler liveStatsScheduler() {
+        return scheduler("live-stats-", 1);
+    }
+
+    private static ThreadPoolTaskScheduler scheduler(String threadNamePrefix, int poolSize) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setThreadNamePrefix(threadNamePrefix);
+        scheduler.setPoolSize(poolSize);
+        return scheduler;
+    }
+}
@@ -0,0 +1,46 @@
+package com.fiverr.demo.config;
+
+import com.fiverr.demo.util.StatementStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+// Publishes the statement stats of finished requests and transactions and flags the ones
+// over budget
+public class StatementBudget {
+
+    public static final String REQUEST = "request";
+    public static final String TRANSACTION = "transaction";
+
+    private static final Logger log = LoggerFactory.getLogger(StatementBudget.class);
+
+    private final MeterRegistry meterRegistry;
+    private final int maxStatementsPerRequest;
+    private final long maxStatementNanosPerRequest;
+    private final int maxStatementsPerTransaction;
+
+    public StatementBudget(MeterRegistry meterRegistry, int maxStatementsPerRequest,
+                           long maxStatementMsPerRequest, int maxStatementsPerTransaction) {
+        this.meterRegistry = meterRegistry;
+        this.maxStatementsPerRequest = maxStatementsPerRequest;
+        this.maxStatementNanosPerRequest = TimeUnit.MILLISECONDS.toNanos(maxStatementMsPerRequest);
+        this.maxStatementsPerTransaction = maxStatementsPerTransaction;
+    }
+
+    public void report(String scope, String name, StatementStats stats) {
+        meterRegistry.summary("sql.statements", "scope", scope, "name", name).record(stats.getStatements());
+        meterRegistry.summary("sql.rows", "scope", scope, "name", name).record(stats.getRows());
+        meterRegistry.timer("sql.time", "scope", scope, "name", name)
+            .record(stats.getStatementNanos(), TimeUnit.NANOSECONDS);
+
+        boolean overBudget = REQUEST.equals(scope)
+            ? stats.getStatements() > maxStatementsPerRequest || stats.getStatementNanos() > maxStatementNanosPerRequest
+            : stats.getStatements() > maxStatementsPerTransaction;
+        if (overBudget) {
+            meterRegistry.counter("sql.budget.exceeded", "scope", scope, "name", name).increment();
+            log.warn("SQL budget exceeded by {} {}: {}", scope, name, stats);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.fiverr.demo.config;
+
+import com.fiverr.demo.controller.StatementBudgetFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+// Counts SQL statements, rows and time per request and per transaction (app.sql-budget.*).
+// Every JDBC call goes through a proxy while this is on, so it is off by default.
+@Configuration
+@ConditionalOnProperty(name = "app.sql-budget.enabled", havingValue = "true")
+public class StatementBudgetConfig {
+
+    @Bean
+    public StatementBudget statementBudget(
+            MeterRegistry meterRegistry,
+            @Value("${app.sql-budget.request.max-statements:10}") int maxStatementsPerRequest,
+            @Value("${app.sql-budget.request.max-statement-time-ms:100}") long maxStatementMsPerRequest,
+            @Value("${app.sql-budget.transaction.max-statements:10}") int maxStatementsPerTransaction) {
+        return new StatementBudget(meterRegistry, maxStatementsPerRequest, maxStatementMsPerRequest,
+            maxStatementsPerTransaction);
+    }
+
+    @Bean
+    public static BeanPostProcessor statementCountingDataSources(ObjectProvider<StatementBudget> budget) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource) {
+                    return bean;
+                }
+                return countStatements(dataSource, beanName, budget.getObject());
+            }
+        };
+    }
+
+    // Pools that are not beans (WorkloadPoolConfig, ClickShardConfig) are wrapped through this too
+    static DataSource countStatements(DataSource dataSource, String name, StatementBudget budget) {
+        StatementCountingListener listener = new StatementCountingListener(budget);
+        return ProxyDataSourceBuilder.create(dataSource)
+            .name(name)
+            .listener(listener)
+            .methodListener(listener)
+            .proxyResultSet()
+            .build();
+    }
+
+    // The data source as is when statement budgets are off
+    static DataSource countStatements(DataSource dataSource, String name, ObjectProvider<StatementBudget> budget) {
+        StatementBudget statementBudget = budget.getIfAvailable();
+        return statementBudget == null ? dataSource : countStatements(dataSource, name, statementBudget);
+    }
+
+    @Bean
+    @Profile("!reactive")
+    public FilterRegistrationBean<StatementBudgetFilter> statementBudgetFilter(StatementBudget budget) {
+        FilterRegistrationBean<StatementBudgetFilter> registration =
+            new FilterRegistrationBean<>(new StatementBudgetFilter(budget));
+        // Inside ServerTimingFilter, outside RedirectFilter
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 7);
+        return registration;
+    }
+}
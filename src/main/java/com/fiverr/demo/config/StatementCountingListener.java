@@ -0,0 +1,87 @@
+package com.fiverr.demo.config;
+
+import com.fiverr.demo.util.StatementStats;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.ResultSet;
+import java.util.List;
+
+// Feeds every executed statement into the open StatementStats scopes, and opens one scope per
+// Spring transaction on its first statement, reported when the transaction completes
+class StatementCountingListener implements QueryExecutionListener, MethodExecutionListener {
+
+    private static final String START_NANOS = StatementCountingListener.class.getName() + ".start";
+
+    private final StatementBudget budget;
+
+    StatementCountingListener(StatementBudget budget) {
+        this.budget = budget;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.hasResource(this)) {
+            openTransactionScope();
+        }
+        execInfo.addCustomValue(START_NANOS, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long nanos = System.nanoTime() - execInfo.getCustomValue(START_NANOS, Long.class);
+        StatementStats.recordStatement(nanos, updatedRows(execInfo.getResult()));
+    }
+
+    // Rows read are counted as the result set is consumed
+    @Override
+    public void afterMethod(MethodExecutionContext context) {
+        if (context.getTarget() instanceof ResultSet
+                && "next".equals(context.getMethod().getName())
+                && Boolean.TRUE.equals(context.getResult())) {
+            StatementStats.recordRows(1);
+        }
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext context) {
+    }
+
+    private void openTransactionScope() {
+        String name = TransactionSynchronizationManager.getCurrentTransactionName();
+        StatementStats stats = StatementStats.open(name != null ? name : "UNKNOWN");
+        TransactionSynchronizationManager.bindResource(this, stats);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(StatementCountingListener.this);
+                stats.close();
+                budget.report(StatementBudget.TRANSACTION, stats.getName(), stats);
+            }
+        });
+    }
+
+    private static long updatedRows(Object result) {
+        if (result instanceof Integer count) {
+            return Math.max(count, 0);
+        }
+        if (result instanceof Long count) {
+            return Math.max(count, 0);
+        }
+        if (result instanceof int[] counts) {
+            long rows = 0;
+            for (int count : counts) {
+                rows += Math.max(count, 0);
+            }
+            return rows;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,86 @@
+package com.fiverr.demo.config;
+
+import com.fiverr.demo.repository.ConnectionGate;
+import com.fiverr.demo.repository.WorkloadPools;
+import com.fiverr.demo.repository.WorkloadPools.Workload;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// One Hikari pool per workload (redirect, clicks, analytics), each configured under
+// app.pools.<name>.*. A size of 0, the default, keeps the workload on the primary datasource.
+// The url and credentials default to spring.datasource.*, so a pool can also point at a replica.
+// Pools report hikaricp.connections.* with a pool=<name> tag, acquire time included, and count
+// towards the statement budgets (app.sql-budget.*) like the primary datasource. The clicks pool
+// sits behind a ConnectionGate, so redirects can wait for it less than its connection timeout.
+@Configuration
+public class WorkloadPoolConfig {
+
+    @Bean(destroyMethod = "close")
+    public WorkloadPools workloadPools(JdbcTemplate jdbcTemplate,
+                                       PlatformTransactionManager transactionManager,
+                                       MeterRegistry meterRegistry,
+                                       ObjectProvider<StatementBudget> statementBudget,
+                                       Environment environment) {
+        Map<Workload, JdbcTemplate> templates = new EnumMap<>(Workload.class);
+        Map<Workload, TransactionTemplate> transactions = new EnumMap<>(Workload.class);
+        Set<Workload> isolated = EnumSet.noneOf(Workload.class);
+        List<Closeable> pools = new ArrayList<>();
+        for (Workload workload : Workload.values()) {
+            String prefix = "app.pools." + workload.propertyName() + ".";
+            int size = environment.getProperty(prefix + "size", Integer.class, 0);
+            TransactionTemplate transactionTemplate;
+            if (size > 0) {
+                HikariDataSource dataSource = new HikariDataSource();
+                dataSource.setPoolName(workload.propertyName());
+                dataSource.setJdbcUrl(environment.getProperty(prefix + "url",
+                    environment.getRequiredProperty("spring.datasource.url")));
+                dataSource.setUsername(environment.getProperty(prefix + "username",
+                    environment.getProperty("spring.datasource.username")));
+                dataSource.setPassword(environment.getProperty(prefix + "password",
+                    environment.getProperty("spring.datasource.password")));
+                String driver = environment.getProperty("spring.datasource.driver-class-name");
+                if (driver != null) {
+                    dataSource.setDriverClassName(driver);
+                }
+                dataSource.setMaximumPoolSize(size);
+                dataSource.setMinimumIdle(environment.getProperty(prefix + "min-idle", Integer.class, size));
+                dataSource.setConnectionTimeout(
+                    environment.getProperty(prefix + "connection-timeout-ms", Long.class, 30000L));
+                dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+                pools.add(dataSource);
+                DataSource pool = workload == Workload.CLICKS
+                    ? new ConnectionGate(dataSource, workload.propertyName(), size, dataSource.getConnectionTimeout())
+                    : dataSource;
+                DataSource counted = StatementBudgetConfig.countStatements(pool, workload.propertyName(),
+                    statementBudget);
+                templates.put(workload, new JdbcTemplate(counted));
+                transactionTemplate = new TransactionTemplate(new JdbcTransactionManager(counted));
+                isolated.add(workload);
+            } else {
+                templates.put(workload, jdbcTemplate);
+                transactionTemplate = new TransactionTemplate(transactionManager);
+            }
+            transactionTemplate.setReadOnly(workload == Workload.ANALYTICS);
+            transactions.put(workload, transactionTemplate);
+        }
+        return new WorkloadPools(templates, transactions, isolated, pools);
+    }
+}
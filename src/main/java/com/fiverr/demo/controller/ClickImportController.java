@@ -0,0 +1,57 @@
+package com.fiverr.demo.controller;
+
+import com.fiverr.demo.dto.ClickImportReport;
+import com.fiverr.demo.service.ClickImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+// Admin endpoint for bulk click backfills. The body is streamed, never held in memory:
+// curl -H 'Content-Type: text/csv' --data-binary @clicks.csv localhost:8080/admin/clicks/import
+// The endpoint has no authentication of its own, so it exists only with app.click-import.enabled;
+// turn it on for the backfill, on an instance that is not reachable from outside.
+@RestController
+@Profile("!reactive")
+@ConditionalOnProperty(name = "app.click-import.enabled", havingValue = "true")
+public class ClickImportController {
+
+    private static final String TEXT_CSV = "text/csv";
+
+    private final ClickImportService clickImportService;
+
+    public ClickImportController(ClickImportService clickImportService) {
+        this.clickImportService = clickImportService;
+    }
+
+    @PostMapping(value = "/admin/clicks/import", consumes = {TEXT_CSV, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ClickImportReport> importClicks(
+        @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+        HttpServletRequest request
+    ) throws IOException {
+        ClickImportService.Format format = MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)
+            ? ClickImportService.Format.NDJSON
+            : ClickImportService.Format.CSV;
+        try (Reader body = new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8)) {
+            return ResponseEntity.ok(clickImportService.importClicks(body, format));
+        }
+    }
+
+    // 503 with what was imported, so the backfill can be resumed after the reported rows
+    @ExceptionHandler(ClickImportService.FraudCheckUnavailableException.class)
+    public ResponseEntity<ClickImportReport> fraudCheckUnavailable(ClickImportService.FraudCheckUnavailableException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getReport());
+    }
+}
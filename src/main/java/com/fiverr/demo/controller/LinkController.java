@@ -3,36 +3,102 @@ package com.fiverr.demo.controller;
 import com.fiverr.demo.dto.CreateLinkRequest;
 import com.fiverr.demo.dto.LinkResponse;
 import com.fiverr.demo.dto.LinkStatsDto;
+import com.fiverr.demo.dto.ResolveRequest;
+import com.fiverr.demo.dto.ResolveResponse;
+import com.fiverr.demo.dto.StatsRange;
+import com.fiverr.demo.service.LinkCreationCoalescer;
 import com.fiverr.demo.service.LinkService;
+import com.fiverr.demo.service.LiveStatsService;
 import jakarta.validation.Valid;
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping
+@Profile("!reactive")
 public class LinkController {
 
+    // Clients may keep a copy but must revalidate it with If-None-Match
+    private static final CacheControl STATS_CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
     private final LinkService linkService;
+    private final LiveStatsService liveStatsService;
+    private final LinkCreationCoalescer linkCreationCoalescer;
 
-    public LinkController(LinkService linkService) {
+    public LinkController(LinkService linkService, LiveStatsService liveStatsService,
+                          LinkCreationCoalescer linkCreationCoalescer) {
         this.linkService = linkService;
+        this.liveStatsService = liveStatsService;
+        this.linkCreationCoalescer = linkCreationCoalescer;
     }
 
     @PostMapping("/links")
     public ResponseEntity<LinkResponse> createLink(@Valid @RequestBody CreateLinkRequest request) {
-        LinkResponse response = linkService.createShortLink(request.getTargetUrl());
+        // Coalesced outside the creation transaction, so waiters hold no connection
+        LinkResponse response = linkCreationCoalescer.create(request.getTargetUrl(), linkService::createShortLink);
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/resolve")
+    public ResponseEntity<ResolveResponse> resolve(@Valid @RequestBody ResolveRequest request) {
+        return ResponseEntity.ok(linkService.resolve(request.getShortCodes()));
+    }
+
     @GetMapping("/stats")
     public ResponseEntity<Page<LinkStatsDto>> getStats(
         @RequestParam(defaultValue = "0") int page,
-        @RequestParam(defaultValue = "10") int size
+        @RequestParam(defaultValue = "10") int size,
+        @RequestParam(required = false) String from,
+        @RequestParam(required = false) String to,
+        @RequestParam(required = false) String granularity,
+        WebRequest request
     ) {
         Pageable pageable = PageRequest.of(page, size);
-        return ResponseEntity.ok(linkService.getStats(pageable));
+        LinkService.StatsSnapshot snapshot = linkService.snapshotStats(pageable, range(from, to, granularity));
+        if (request.checkNotModified(snapshot.getETag())) {
+            // Nothing changed since the caller's copy: skip the click aggregates entirely
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(snapshot.getETag())
+                .cacheControl(STATS_CACHE_CONTROL)
+                .build();
+        }
+        return ResponseEntity.ok()
+            .eTag(snapshot.getETag())
+            .cacheControl(STATS_CACHE_CONTROL)
+            .body(linkService.getStats(snapshot));
+    }
+
+    @GetMapping("/stats/{shortCode}")
+    public ResponseEntity<LinkStatsDto> getLinkStats(
+        @PathVariable String shortCode,
+        @RequestParam(required = false) String from,
+        @RequestParam(required = false) String to,
+        @RequestParam(required = false) String granularity
+    ) {
+        return ResponseEntity.ok(linkService.getLinkStats(shortCode, range(from, to, granularity)));
+    }
+
+    // Totals, then click deltas of one link as server-sent events, instead of polling /stats
+    @GetMapping(value = "/stats/{shortCode}/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter liveStats(@PathVariable String shortCode) {
+        return liveStatsService.subscribe(shortCode, linkService::liveTotals);
+    }
+
+    private static StatsRange range(String from, String to, String granularity) {
+        try {
+            return StatsRange.of(from, to, granularity);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
 }
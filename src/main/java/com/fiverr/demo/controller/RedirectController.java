@@ -1,6 +1,9 @@
 package com.fiverr.demo.controller;
 
+import com.fiverr.demo.dto.ClientInfo;
 import com.fiverr.demo.service.LinkService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -9,6 +12,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
+@Profile("!reactive")
 public class RedirectController {
 
     private final LinkService linkService;
@@ -18,8 +22,9 @@ public class RedirectController {
     }
 
     @GetMapping("/{shortCode}")
-    public ResponseEntity<Void> redirect(@PathVariable String shortCode) {
-        String targetUrl = linkService.redirectAndTrack(shortCode);
+    public ResponseEntity<Void> redirect(@PathVariable String shortCode, HttpServletRequest request) {
+        ClientInfo client = new ClientInfo(request.getRemoteAddr(), request.getHeader(HttpHeaders.USER_AGENT));
+        String targetUrl = linkService.redirectAndTrack(shortCode, client);
 
         HttpHeaders headers = new HttpHeaders();
         headers.add("Location", targetUrl);
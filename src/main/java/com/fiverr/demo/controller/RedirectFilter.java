@@ -0,0 +1,90 @@
+package com.fiverr.demo.controller;
+
+import com.fiverr.demo.dto.ClientInfo;
+import com.fiverr.demo.service.LinkService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Serves {@code GET /{shortCode}} before the DispatcherServlet: no handler mapping, argument
+ * binding or {@code ResponseEntity}. Only single-segment paths made of Base62 characters are
+ * handled; everything else (including the MVC routes in {@link #RESERVED}) goes down the chain
+ * unchanged, and {@link RedirectController} still serves redirects when the filter is disabled.
+ * Runs after the observation filter, so redirects keep their {@code http.server.requests} metrics.
+ */
+@Component
+@Profile("!reactive")
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class RedirectFilter extends OncePerRequestFilter {
+
+    // Longest Base62 encoding of a positive long
+    static final int MAX_SHORT_CODE_LENGTH = 11;
+    // Single-segment paths owned by other handlers
+    static final Set<String> RESERVED = Set.of("links", "resolve", "stats", "actuator", "error");
+
+    private final LinkService linkService;
+    private final boolean enabled;
+
+    public RedirectFilter(LinkService linkService,
+                          @Value("${app.redirect-filter.enabled:true}") boolean enabled) {
+        this.linkService = linkService;
+        this.enabled = enabled;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !"GET".equals(request.getMethod()) || shortCode(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        String shortCode = shortCode(request);
+        // The route MVC would have matched, for filters that report per route
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/{shortCode}");
+        ClientInfo client = new ClientInfo(request.getRemoteAddr(), request.getHeader(HttpHeaders.USER_AGENT));
+        Optional<String> targetUrl = linkService.tryRedirectAndTrack(shortCode, client);
+        if (targetUrl.isEmpty()) {
+            // Same error body as RedirectController's ResponseStatusException
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "Short link not found");
+            return;
+        }
+        response.setStatus(HttpServletResponse.SC_FOUND);
+        response.setHeader(HttpHeaders.LOCATION, targetUrl.get());
+    }
+
+    // The short code of a redirect path, or null when the path is not one
+    static String shortCode(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        int start = request.getContextPath().length() + 1;
+        int length = uri.length() - start;
+        if (length < 1 || length > MAX_SHORT_CODE_LENGTH || uri.charAt(start - 1) != '/') {
+            return null;
+        }
+        for (int i = start; i < uri.length(); i++) {
+            if (!isBase62(uri.charAt(i))) {
+                return null;
+            }
+        }
+        String shortCode = uri.substring(start);
+        return RESERVED.contains(shortCode) ? null : shortCode;
+    }
+
+    private static boolean isBase62(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+    }
+}
@@ -0,0 +1,66 @@
+package com.fiverr.demo.controller;
+
+import com.fiverr.demo.util.RequestPhases;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+/**
+ * Debug aid: adds a {@code Server-Timing} header with the request's phases (see
+ * {@link RequestPhases}). The body is buffered until the phases are known, so this is off by
+ * default and never applies to the live stats event stream. Ordered before
+ * {@link RedirectFilter} so redirects are covered.
+ */
+@Component
+@Profile("!reactive")
+@Order(Ordered.HIGHEST_PRECEDENCE + 5)
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    static final String SERVER_TIMING = "Server-Timing";
+    // GET /stats/{shortCode}/live; a redirect of the short code "live" must still be timed
+    private static final Pattern LIVE_STATS_PATH = Pattern.compile("/stats/[^/]+/live");
+
+    private final boolean enabled;
+
+    public ServerTimingFilter(@Value("${app.server-timing.enabled:false}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || isLiveStats(request);
+    }
+
+    static boolean isLiveStats(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return LIVE_STATS_PATH.matcher(uri).region(request.getContextPath().length(), uri.length()).matches();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        ContentCachingResponseWrapper buffered = new ContentCachingResponseWrapper(response);
+        RequestPhases.startServerTiming();
+        String timing;
+        try {
+            chain.doFilter(request, buffered);
+        } finally {
+            timing = RequestPhases.stopServerTiming();
+        }
+        if (!timing.isEmpty()) {
+            buffered.addHeader(SERVER_TIMING, timing);
+        }
+        buffered.copyBodyToResponse();
+    }
+}
@@ -0,0 +1,37 @@
+package com.fiverr.demo.controller;
+
+import com.fiverr.demo.config.StatementBudget;
+import com.fiverr.demo.util.StatementStats;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+// Opens a StatementStats scope per request and reports it under "METHOD /route/pattern";
+// registered by StatementBudgetConfig when app.sql-budget.enabled is set
+public class StatementBudgetFilter extends OncePerRequestFilter {
+
+    private final StatementBudget budget;
+
+    public StatementBudgetFilter(StatementBudget budget) {
+        this.budget = budget;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        StatementStats stats = StatementStats.open(request.getRequestURI());
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            stats.close();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String route = request.getMethod() + " " + (pattern != null ? pattern : "UNKNOWN");
+            budget.report(StatementBudget.REQUEST, route, stats);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.fiverr.demo.dto;
+
+import java.time.LocalDateTime;
+
+// One click_outbox row as published to a ClickEventSink. (shard, sequence) identifies the event,
+// so consumers can drop the repeats that at-least-once delivery allows
+public class ClickEvent {
+
+    public enum Type {
+        // A click was recorded
+        CLICK,
+        // A recorded click was found fraudulent and is no longer valid
+        INVALIDATED;
+
+        public static Type ofCode(int code) {
+            return values()[code];
+        }
+
+        // Stored in click_outbox.event_type
+        public int code() {
+            return ordinal();
+        }
+    }
+
+    private final int shard;
+    private final long sequence;
+    private final Type type;
+    private final Long clickId;
+    private final long linkId;
+    private final LocalDateTime clickedAt;
+    private final boolean isValid;
+
+    public ClickEvent(int shard, long sequence, Type type, Long clickId, long linkId,
+                      LocalDateTime clickedAt, boolean isValid) {
+        this.shard = shard;
+        this.sequence = sequence;
+        this.type = type;
+        this.clickId = clickId;
+        this.linkId = linkId;
+        this.clickedAt = clickedAt;
+        this.isValid = isValid;
+    }
+
+    public int getShard() {
+        return shard;
+    }
+
+    // click_outbox id on the shard
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    // Null for imported clicks, which are loaded without returning their ids
+    public Long getClickId() {
+        return clickId;
+    }
+
+    public long getLinkId() {
+        return linkId;
+    }
+
+    public LocalDateTime getClickedAt() {
+        return clickedAt;
+    }
+
+    public boolean isValid() {
+        return isValid;
+    }
+}
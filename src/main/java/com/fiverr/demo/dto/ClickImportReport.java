@@ -0,0 +1,52 @@
+package com.fiverr.demo.dto;
+
+// Outcome of one bulk click import
+public class ClickImportReport {
+    private final long rows;
+    private final long importedClicks;
+    private final long validClicks;
+    private final long invalidClicks;
+    private final long unknownShortCodes;
+    private final long malformedRows;
+    private final long elapsedMs;
+
+    public ClickImportReport(long rows, long importedClicks, long validClicks, long invalidClicks,
+                             long unknownShortCodes, long malformedRows, long elapsedMs) {
+        this.rows = rows;
+        this.importedClicks = importedClicks;
+        this.validClicks = validClicks;
+        this.invalidClicks = invalidClicks;
+        this.unknownShortCodes = unknownShortCodes;
+        this.malformedRows = malformedRows;
+        this.elapsedMs = elapsedMs;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getImportedClicks() {
+        return importedClicks;
+    }
+
+    public long getValidClicks() {
+        return validClicks;
+    }
+
+    public long getInvalidClicks() {
+        return invalidClicks;
+    }
+
+    // Rows skipped because their short code does not exist
+    public long getUnknownShortCodes() {
+        return unknownShortCodes;
+    }
+
+    public long getMalformedRows() {
+        return malformedRows;
+    }
+
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+}
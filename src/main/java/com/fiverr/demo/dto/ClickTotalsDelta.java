@@ -0,0 +1,48 @@
+package com.fiverr.demo.dto;
+
+import java.math.BigDecimal;
+
+public class ClickTotalsDelta {
+    private final long linkId;
+    private final long validClicks;
+    private final long invalidClicks;
+    private final long earningsCents;
+    private final long deduplicatedClicks;
+
+    public ClickTotalsDelta(long linkId, long validClicks, long invalidClicks, long earningsCents,
+                            long deduplicatedClicks) {
+        this.linkId = linkId;
+        this.validClicks = validClicks;
+        this.invalidClicks = invalidClicks;
+        this.earningsCents = earningsCents;
+        this.deduplicatedClicks = deduplicatedClicks;
+    }
+
+    public boolean isEmpty() {
+        return validClicks == 0 && invalidClicks == 0 && earningsCents == 0 && deduplicatedClicks == 0;
+    }
+
+    public long getLinkId() {
+        return linkId;
+    }
+
+    public long getValidClicks() {
+        return validClicks;
+    }
+
+    public long getInvalidClicks() {
+        return invalidClicks;
+    }
+
+    public long getEarningsCents() {
+        return earningsCents;
+    }
+
+    public long getDeduplicatedClicks() {
+        return deduplicatedClicks;
+    }
+
+    public BigDecimal getEarnings() {
+        return BigDecimal.valueOf(earningsCents, 2);
+    }
+}
@@ -0,0 +1,29 @@
+package com.fiverr.demo.dto;
+
+public class ClientInfo {
+    private static final ClientInfo UNKNOWN = new ClientInfo(null, null);
+
+    private final String ipAddress;
+    private final String userAgent;
+
+    public ClientInfo(String ipAddress, String userAgent) {
+        this.ipAddress = ipAddress;
+        this.userAgent = userAgent;
+    }
+
+    public static ClientInfo unknown() {
+        return UNKNOWN;
+    }
+
+    public boolean isKnown() {
+        return ipAddress != null;
+    }
+
+    public String getIpAddress() {
+        return ipAddress;
+    }
+
+    public String getUserAgent() {
+        return userAgent;
+    }
+}
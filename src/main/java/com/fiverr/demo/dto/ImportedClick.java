@@ -0,0 +1,28 @@
+package com.fiverr.demo.dto;
+
+import java.time.LocalDateTime;
+
+// A historical click from a bulk import, with its fraud verdict
+public class ImportedClick {
+    private final long linkId;
+    private final LocalDateTime clickedAt;
+    private final boolean isValid;
+
+    public ImportedClick(long linkId, LocalDateTime clickedAt, boolean isValid) {
+        this.linkId = linkId;
+        this.clickedAt = clickedAt;
+        this.isValid = isValid;
+    }
+
+    public long getLinkId() {
+        return linkId;
+    }
+
+    public LocalDateTime getClickedAt() {
+        return clickedAt;
+    }
+
+    public boolean isValid() {
+        return isValid;
+    }
+}
@@ -1,14 +1,21 @@
 package com.fiverr.demo.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.math.BigDecimal;
 import java.util.Map;
 
+// Lifetime totals plus either the lifetime monthlyBreakdown (default) or, when a range or
+// granularity was requested, that range's breakdown and clicksInRange
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class LinkStatsDto {
     private String shortCode;
     private String targetUrl;
     private long totalClicks;
     private BigDecimal totalEarnings;
     private Map<String, Long> monthlyBreakdown;
+    private Map<String, Long> breakdown;
+    private Long clicksInRange;
 
     public LinkStatsDto(String shortCode, String targetUrl, long totalClicks,
                         BigDecimal totalEarnings, Map<String, Long> monthlyBreakdown) {
@@ -19,6 +26,16 @@ public class LinkStatsDto {
         this.monthlyBreakdown = monthlyBreakdown;
     }
 
+    public LinkStatsDto(String shortCode, String targetUrl, long totalClicks, BigDecimal totalEarnings,
+                        Map<String, Long> breakdown, long clicksInRange) {
+        this.shortCode = shortCode;
+        this.targetUrl = targetUrl;
+        this.totalClicks = totalClicks;
+        this.totalEarnings = totalEarnings;
+        this.breakdown = breakdown;
+        this.clicksInRange = clicksInRange;
+    }
+
     // Getters and Setters
     public String getShortCode() {
         return shortCode;
@@ -59,4 +76,20 @@ public class LinkStatsDto {
     public void setMonthlyBreakdown(Map<String, Long> monthlyBreakdown) {
         this.monthlyBreakdown = monthlyBreakdown;
     }
+
+    public Map<String, Long> getBreakdown() {
+        return breakdown;
+    }
+
+    public void setBreakdown(Map<String, Long> breakdown) {
+        this.breakdown = breakdown;
+    }
+
+    public Long getClicksInRange() {
+        return clicksInRange;
+    }
+
+    public void setClicksInRange(Long clicksInRange) {
+        this.clicksInRange = clicksInRange;
+    }
 }
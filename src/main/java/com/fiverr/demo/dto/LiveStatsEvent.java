@@ -0,0 +1,35 @@
+package com.fiverr.demo.dto;
+
+import java.math.BigDecimal;
+
+// Click counts and earnings of one link: its lifetime totals in a live stream's first event,
+// then the change since the previous event
+public class LiveStatsEvent {
+    private final String shortCode;
+    private final long validClicks;
+    private final long invalidClicks;
+    private final BigDecimal earnings;
+
+    public LiveStatsEvent(String shortCode, long validClicks, long invalidClicks, BigDecimal earnings) {
+        this.shortCode = shortCode;
+        this.validClicks = validClicks;
+        this.invalidClicks = invalidClicks;
+        this.earnings = earnings;
+    }
+
+    public String getShortCode() {
+        return shortCode;
+    }
+
+    public long getValidClicks() {
+        return validClicks;
+    }
+
+    public long getInvalidClicks() {
+        return invalidClicks;
+    }
+
+    public BigDecimal getEarnings() {
+        return earnings;
+    }
+}
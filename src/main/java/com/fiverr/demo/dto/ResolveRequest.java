@@ -0,0 +1,23 @@
+package com.fiverr.demo.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class ResolveRequest {
+    public static final int MAX_SHORT_CODES = 1000;
+
+    @NotEmpty(message = "At least one short code is required")
+    @Size(max = MAX_SHORT_CODES, message = "At most " + MAX_SHORT_CODES + " short codes per request")
+    private List<@NotBlank String> shortCodes;
+
+    public List<String> getShortCodes() {
+        return shortCodes;
+    }
+
+    public void setShortCodes(List<String> shortCodes) {
+        this.shortCodes = shortCodes;
+    }
+}
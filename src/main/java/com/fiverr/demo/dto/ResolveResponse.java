@@ -0,0 +1,32 @@
+package com.fiverr.demo.dto;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Target URLs of the requested short codes in request order; unknown codes are listed separately
+public class ResolveResponse {
+    private final Map<String, String> targetUrls = new LinkedHashMap<>();
+    private final Set<String> notFound = new LinkedHashSet<>();
+
+    public ResolveResponse(List<String> shortCodes, Map<String, ResolvedLink> resolved) {
+        for (String shortCode : shortCodes) {
+            ResolvedLink link = resolved.get(shortCode);
+            if (link != null) {
+                targetUrls.put(shortCode, link.getTargetUrl());
+            } else {
+                notFound.add(shortCode);
+            }
+        }
+    }
+
+    public Map<String, String> getTargetUrls() {
+        return targetUrls;
+    }
+
+    public Set<String> getNotFound() {
+        return notFound;
+    }
+}
@@ -0,0 +1,26 @@
+package com.fiverr.demo.dto;
+
+// What a redirect needs to know about a link; links never change once created
+public class ResolvedLink {
+    private final Long id;
+    private final String shortCode;
+    private final String targetUrl;
+
+    public ResolvedLink(Long id, String shortCode, String targetUrl) {
+        this.id = id;
+        this.shortCode = shortCode;
+        this.targetUrl = targetUrl;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getShortCode() {
+        return shortCode;
+    }
+
+    public String getTargetUrl() {
+        return targetUrl;
+    }
+}
@@ -0,0 +1,92 @@
+package com.fiverr.demo.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.IsoFields;
+import java.util.Locale;
+
+// Half-open time range [from, to) of the click breakdown and its bucket size; a null bound is
+// open. LIFETIME (no bounds, monthly) is the default /stats breakdown.
+public class StatsRange {
+
+    public enum Granularity {
+        DAY,
+        WEEK,
+        MONTH;
+
+        // The label ShardedClickRepository's TO_CHAR gives the same time
+        public String label(LocalDateTime time) {
+            return switch (this) {
+                case DAY -> time.toLocalDate().toString();
+                case WEEK -> String.format("%04d-W%02d",
+                    time.get(IsoFields.WEEK_BASED_YEAR), time.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+                case MONTH -> String.format("%04d-%02d", time.getYear(), time.getMonthValue());
+            };
+        }
+    }
+
+    public static final StatsRange LIFETIME = new StatsRange(null, null, Granularity.MONTH);
+
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final Granularity granularity;
+
+    public StatsRange(LocalDateTime from, LocalDateTime to, Granularity granularity) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        this.from = from;
+        this.to = to;
+        this.granularity = granularity;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public Granularity getGranularity() {
+        return granularity;
+    }
+
+    public boolean isLifetime() {
+        return this == LIFETIME;
+    }
+
+    // From request parameters: bounds are ISO dates (midnight) or date-times, granularity is
+    // day, week or month (default). No parameters at all means LIFETIME
+    public static StatsRange of(String from, String to, String granularity) {
+        if (from == null && to == null && granularity == null) {
+            return LIFETIME;
+        }
+        Granularity bucket = Granularity.MONTH;
+        if (granularity != null) {
+            try {
+                bucket = Granularity.valueOf(granularity.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("granularity must be day, week or month");
+            }
+        }
+        return new StatsRange(parseBound(from, "from"), parseBound(to, "to"), bucket);
+    }
+
+    private static LocalDateTime parseBound(String value, String name) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return value.length() == 10 ? LocalDate.parse(value).atStartOfDay() : LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(name + " must be an ISO date or date-time");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return isLifetime() ? "lifetime" : "[" + from + ", " + to + ") by " + granularity;
+    }
+}
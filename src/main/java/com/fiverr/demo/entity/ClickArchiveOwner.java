@@ -0,0 +1,36 @@
+package com.fiverr.demo.entity;
+
+import jakarta.persistence.*;
+
+// The one row ClickArchiveLock locks for the duration of an archiver run, and the id of the
+// archive directory the segments are written to. Mapped only so the schema is created with the
+// others; the row is written and locked through JDBC.
+@Entity
+@Table(name = "click_archive_owner")
+public class ClickArchiveOwner {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    // ClickArchive.storageId() of the directory the first archiver run wrote to
+    @Column(name = "storage_id", length = 64)
+    private String storageId;
+
+    // Getters and Setters
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getStorageId() {
+        return storageId;
+    }
+
+    public void setStorageId(String storageId) {
+        this.storageId = storageId;
+    }
+}
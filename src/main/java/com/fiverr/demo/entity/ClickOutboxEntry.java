@@ -0,0 +1,82 @@
+package com.fiverr.demo.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Transactional outbox of click events: written with the click it describes, in the same
+// transaction, and deleted by ClickOutboxRelay once a ClickEventSink has accepted it. Mapped
+// only so the schema is created with the others; rows are written and read through JDBC
+// (ShardedClickRepository). No foreign key, as shard databases hold no links.
+@Entity
+@Table(name = "click_outbox")
+public class ClickOutboxEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // ClickEvent.Type code
+    @Column(name = "event_type", nullable = false)
+    private short eventType;
+
+    @Column(name = "click_id")
+    private Long clickId;
+
+    @Column(name = "link_id", nullable = false)
+    private long linkId;
+
+    @Column(name = "clicked_at", nullable = false)
+    private LocalDateTime clickedAt;
+
+    @Column(name = "is_valid", nullable = false)
+    private boolean isValid;
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public short getEventType() {
+        return eventType;
+    }
+
+    public void setEventType(short eventType) {
+        this.eventType = eventType;
+    }
+
+    public Long getClickId() {
+        return clickId;
+    }
+
+    public void setClickId(Long clickId) {
+        this.clickId = clickId;
+    }
+
+    public long getLinkId() {
+        return linkId;
+    }
+
+    public void setLinkId(long linkId) {
+        this.linkId = linkId;
+    }
+
+    public LocalDateTime getClickedAt() {
+        return clickedAt;
+    }
+
+    public void setClickedAt(LocalDateTime clickedAt) {
+        this.clickedAt = clickedAt;
+    }
+
+    public boolean getIsValid() {
+        return isValid;
+    }
+
+    public void setIsValid(boolean isValid) {
+        this.isValid = isValid;
+    }
+}
@@ -0,0 +1,81 @@
+package com.fiverr.demo.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.math.BigDecimal;
+
+@Entity
+@Table(name = "link_click_totals")
+public class LinkClickTotals {
+
+    @Id
+    @Column(name = "link_id")
+    private Long linkId;
+
+    @Column(name = "valid_clicks", nullable = false)
+    private long validClicks;
+
+    @Column(name = "invalid_clicks", nullable = false)
+    private long invalidClicks;
+
+    @Column(name = "earnings", nullable = false, precision = 14, scale = 2)
+    private BigDecimal earnings = BigDecimal.ZERO;
+
+    // Repeat clicks ClickDeduplicator suppressed, for reconciliation against traffic logs. Not
+    // part of the stats. The default lets ddl-auto add the column to a table that has rows.
+    @ColumnDefault("0")
+    @Column(name = "deduplicated_clicks", nullable = false)
+    private long deduplicatedClicks;
+
+    public LinkClickTotals() {
+    }
+
+    public LinkClickTotals(Long linkId, long validClicks, long invalidClicks, BigDecimal earnings) {
+        this.linkId = linkId;
+        this.validClicks = validClicks;
+        this.invalidClicks = invalidClicks;
+        this.earnings = earnings;
+    }
+
+    // Getters and Setters
+    public Long getLinkId() {
+        return linkId;
+    }
+
+    public void setLinkId(Long linkId) {
+        this.linkId = linkId;
+    }
+
+    public long getValidClicks() {
+        return validClicks;
+    }
+
+    public void setValidClicks(long validClicks) {
+        this.validClicks = validClicks;
+    }
+
+    public long getInvalidClicks() {
+        return invalidClicks;
+    }
+
+    public void setInvalidClicks(long invalidClicks) {
+        this.invalidClicks = invalidClicks;
+    }
+
+    public BigDecimal getEarnings() {
+        return earnings;
+    }
+
+    public void setEarnings(BigDecimal earnings) {
+        this.earnings = earnings;
+    }
+
+    public long getDeduplicatedClicks() {
+        return deduplicatedClicks;
+    }
+
+    public void setDeduplicatedClicks(long deduplicatedClicks) {
+        this.deduplicatedClicks = deduplicatedClicks;
+    }
+}
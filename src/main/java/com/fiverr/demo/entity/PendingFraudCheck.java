@@ -0,0 +1,36 @@
+package com.fiverr.demo.entity;
+
+import jakarta.persistence.*;
+
+// A provisional click whose deferred fraud check has not run yet: written with the click, in the
+// same transaction and on the same shard, and deleted once DeferredFraudCheckService has a
+// verdict. Mapped only so the schema is created with the others; rows are written and read
+// through JDBC (ShardedClickRepository). No foreign key, as shard databases hold no links.
+@Entity
+@Table(name = "pending_fraud_checks")
+public class PendingFraudCheck {
+
+    @Id
+    @Column(name = "click_id")
+    private Long clickId;
+
+    @Column(name = "link_id", nullable = false)
+    private long linkId;
+
+    // Getters and Setters
+    public Long getClickId() {
+        return clickId;
+    }
+
+    public void setClickId(Long clickId) {
+        this.clickId = clickId;
+    }
+
+    public long getLinkId() {
+        return linkId;
+    }
+
+    public void setLinkId(long linkId) {
+        this.linkId = linkId;
+    }
+}
@@ -0,0 +1,66 @@
+package com.fiverr.demo.reactive;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+// R2DBC mapping of clicks; the JPA entity Click owns the schema
+@Table("clicks")
+public class ClickRow {
+
+    @Id
+    private Long id;
+
+    @Column("link_id")
+    private Long linkId;
+
+    @Column("clicked_at")
+    private LocalDateTime clickedAt;
+
+    @Column("is_valid")
+    private boolean valid;
+
+    public ClickRow() {
+    }
+
+    public ClickRow(Long linkId, LocalDateTime clickedAt, boolean valid) {
+        this.linkId = linkId;
+        this.clickedAt = clickedAt;
+        this.valid = valid;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getLinkId() {
+        return linkId;
+    }
+
+    public void setLinkId(Long linkId) {
+        this.linkId = linkId;
+    }
+
+    public LocalDateTime getClickedAt() {
+        return clickedAt;
+    }
+
+    public void setClickedAt(LocalDateTime clickedAt) {
+        this.clickedAt = clickedAt;
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+
+    public void setValid(boolean valid) {
+        this.valid = valid;
+    }
+}
@@ -0,0 +1,63 @@
+package com.fiverr.demo.reactive;
+
+import com.fiverr.demo.entity.LinkClickTotals;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+
+// R2DBC mapping of link_click_totals; the JPA entity LinkClickTotals owns the schema
+@Table("link_click_totals")
+public class ClickTotalsRow {
+
+    @Id
+    @Column("link_id")
+    private Long linkId;
+
+    @Column("valid_clicks")
+    private long validClicks;
+
+    @Column("invalid_clicks")
+    private long invalidClicks;
+
+    @Column("earnings")
+    private BigDecimal earnings;
+
+    public LinkClickTotals toTotals() {
+        return new LinkClickTotals(linkId, validClicks, invalidClicks, earnings);
+    }
+
+    // Getters and Setters
+    public Long getLinkId() {
+        return linkId;
+    }
+
+    public void setLinkId(Long linkId) {
+        this.linkId = linkId;
+    }
+
+    public long getValidClicks() {
+        return validClicks;
+    }
+
+    public void setValidClicks(long validClicks) {
+        this.validClicks = validClicks;
+    }
+
+    public long getInvalidClicks() {
+        return invalidClicks;
+    }
+
+    public void setInvalidClicks(long invalidClicks) {
+        this.invalidClicks = invalidClicks;
+    }
+
+    public BigDecimal getEarnings() {
+        return earnings;
+    }
+
+    public void setEarnings(BigDecimal earnings) {
+        this.earnings = earnings;
+    }
+}
@@ -0,0 +1,65 @@
+package com.fiverr.demo.reactive;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+// R2DBC mapping of shortened_links; the JPA entity ShortenedLink owns the schema
+@Table("shortened_links")
+public class LinkRow {
+
+    @Id
+    private Long id;
+
+    @Column("short_code")
+    private String shortCode;
+
+    @Column("target_url")
+    private String targetUrl;
+
+    @Column("created_at")
+    private LocalDateTime createdAt;
+
+    public LinkRow() {
+    }
+
+    public LinkRow(String targetUrl, LocalDateTime createdAt) {
+        this.targetUrl = targetUrl;
+        this.createdAt = createdAt;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getShortCode() {
+        return shortCode;
+    }
+
+    public void setShortCode(String shortCode) {
+        this.shortCode = shortCode;
+    }
+
+    public String getTargetUrl() {
+        return targetUrl;
+    }
+
+    public void setTargetUrl(String targetUrl) {
+        this.targetUrl = targetUrl;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
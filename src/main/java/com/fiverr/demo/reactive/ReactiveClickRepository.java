@@ -0,0 +1,25 @@
+package com.fiverr.demo.reactive;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ReactiveClickRepository extends R2dbcRepository<ClickRow, Long> {
+    // The click's ClickEvent for ClickOutboxRelay; written in the click's transaction
+    @Modifying
+    @Query("""
+        INSERT INTO click_outbox (event_type, click_id, link_id, clicked_at, is_valid)
+        VALUES (:eventType, :clickId, :linkId, :clickedAt, :valid)
+        """)
+    Mono<Integer> insertOutboxEvent(int eventType, Long clickId, Long linkId, LocalDateTime clickedAt, boolean valid);
+
+    // The owed check of a provisional click for DeferredFraudCheckService; written in the click's transaction
+    @Modifying
+    @Query("INSERT INTO pending_fraud_checks (click_id, link_id) VALUES (:clickId, :linkId)")
+    Mono<Integer> insertPendingFraudCheck(Long clickId, Long linkId);
+}
@@ -0,0 +1,76 @@
+package com.fiverr.demo.reactive;
+
+import com.fiverr.demo.dto.StatsRange;
+import com.fiverr.demo.repository.ClickArchive;
+import com.fiverr.demo.repository.ShardedClickRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+// The click aggregates of ShardedClickRepository over R2DBC: one statement for a whole page of
+// links, with the same SQL, plus the archived months from ClickArchive. The reactive runtime
+// has no shards, so there is nothing to scatter.
+@Repository
+@Profile("reactive")
+public class ReactiveClickStatsRepository {
+
+    private final DatabaseClient databaseClient;
+    private final ClickArchive archive;
+
+    public ReactiveClickStatsRepository(DatabaseClient databaseClient, ClickArchive archive) {
+        this.databaseClient = databaseClient;
+        this.archive = archive;
+    }
+
+    public Mono<Map<Long, Long>> countValidClicks(Collection<Long> linkIds) {
+        if (linkIds.isEmpty()) {
+            return Mono.just(new HashMap<>());
+        }
+        return databaseClient.sql(ShardedClickRepository.COUNT_VALID_SQL)
+            .bind("linkIds", linkIds)
+            .map(row -> new long[] {row.get(0, Long.class), row.get(1, Long.class)})
+            .all()
+            .collect(HashMap<Long, Long>::new, (counts, row) -> counts.merge(row[0], row[1], Long::sum))
+            .map(counts -> {
+                archive.addValidClicks(linkIds, counts);
+                return counts;
+            });
+    }
+
+    // Valid clicks per bucket of the range (newest first) of each link that has any. Partly
+    // archived months are scanned from their segment files, off the event loop
+    public Mono<Map<Long, Map<String, Long>>> validClicksByBucket(Collection<Long> linkIds, StatsRange range) {
+        if (linkIds.isEmpty()) {
+            return Mono.just(new HashMap<>());
+        }
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(ShardedClickRepository.bucketSql(range))
+            .bind("linkIds", linkIds);
+        if (range.getFrom() != null) {
+            spec = spec.bind("from", range.getFrom());
+        }
+        if (range.getTo() != null) {
+            spec = spec.bind("to", range.getTo());
+        }
+        return spec.map(row -> new Object[] {row.get(0, Long.class), row.get(1, String.class), row.get(2, Long.class)})
+            .all()
+            .collect(HashMap<Long, TreeMap<String, Long>>::new, (merged, row) ->
+                merged.computeIfAbsent((Long) row[0], id -> new TreeMap<>(Comparator.reverseOrder()))
+                    .merge((String) row[1], (Long) row[2], Long::sum))
+            .publishOn(Schedulers.boundedElastic())
+            .map(merged -> {
+                archive.addValidClicksByBucket(linkIds, range, merged);
+                Map<Long, Map<String, Long>> breakdowns = new HashMap<>();
+                merged.forEach((linkId, buckets) -> breakdowns.put(linkId, new LinkedHashMap<>(buckets)));
+                return breakdowns;
+            });
+    }
+}
@@ -0,0 +1,8 @@
+package com.fiverr.demo.reactive;
+
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReactiveClickTotalsRepository extends R2dbcRepository<ClickTotalsRow, Long> {
+}
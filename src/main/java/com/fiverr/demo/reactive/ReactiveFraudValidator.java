@@ -0,0 +1,142 @@
+package com.fiverr.demo.reactive;
+
+import com.fiverr.demo.service.FraudDetectionService;
+import com.fiverr.demo.service.FraudVerdict;
+import com.fiverr.demo.service.HedgedFraudBackend;
+import com.fiverr.demo.service.ResilientFraudValidator;
+import com.fiverr.demo.util.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeoutException;
+
+// Counterpart of ResilientFraudValidator: same deadline, circuit breaker and fallback settings.
+// Without app.fraud.backends the built-in check is a timer, so no thread is held while it is in
+// flight and there is no bulkhead to size. With backends, checks go through the same
+// HedgedFraudBackend as on the servlet stack, whose calls block: they run on a bounded elastic
+// scheduler of app.fraud.max-concurrent-calls threads, behind a bulkhead of as many calls. The
+// event loop never waits for a permit, so a full bulkhead is rejected at once instead of after
+// app.fraud.bulkhead-wait-ms.
+@Service
+@Profile("reactive")
+public class ReactiveFraudValidator {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveFraudValidator.class);
+
+    private final FraudDetectionService fraudDetectionService;
+    private final HedgedFraudBackend fraudBackend;
+    private final MeterRegistry meterRegistry;
+    private final CircuitBreaker circuitBreaker;
+    private final Duration timeout;
+    private final ResilientFraudValidator.Fallback fallback;
+    private final Semaphore bulkhead;
+    private final Scheduler backendScheduler;
+
+    public ReactiveFraudValidator(FraudDetectionService fraudDetectionService,
+                                  HedgedFraudBackend fraudBackend,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.fraud.backends:}") List<String> backendNames,
+                                  @Value("${app.fraud.timeout-ms:500}") long timeoutMs,
+                                  @Value("${app.fraud.max-concurrent-calls:32}") int maxConcurrentCalls,
+                                  @Value("${app.fraud.circuit.failure-threshold:5}") int failureThreshold,
+                                  @Value("${app.fraud.circuit.open-ms:10000}") long openMs,
+                                  @Value("${app.fraud.fallback:ACCEPT_PROVISIONAL}") ResilientFraudValidator.Fallback fallback) {
+        this.fraudDetectionService = fraudDetectionService;
+        // Null: the built-in non-blocking check
+        this.fraudBackend = backendNames.isEmpty() ? null : fraudBackend;
+        this.meterRegistry = meterRegistry;
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.fallback = fallback;
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, openMs, (from, to) -> {
+            log.warn("Reactive fraud check circuit {} -> {}", from, to);
+            meterRegistry.counter("fraud.circuit.transitions", "to", to.name()).increment();
+        });
+        if (this.fraudBackend != null) {
+            this.bulkhead = new Semaphore(maxConcurrentCalls);
+            this.backendScheduler = Schedulers.newBoundedElastic(maxConcurrentCalls, maxConcurrentCalls,
+                "reactive-fraud-check", 60, true);
+        } else {
+            this.bulkhead = null;
+            this.backendScheduler = null;
+        }
+    }
+
+    public Mono<FraudVerdict> validate() {
+        return Mono.defer(() -> {
+            if (bulkhead != null && !bulkhead.tryAcquire()) {
+                return Mono.just(reject("bulkhead_full"));
+            }
+            if (!circuitBreaker.tryAcquirePermission()) {
+                releaseBulkhead();
+                return Mono.just(reject("circuit_open"));
+            }
+            return backendCall()
+                .timeout(timeout)
+                .map(isValid -> {
+                    circuitBreaker.onSuccess();
+                    return isValid ? FraudVerdict.VALID : FraudVerdict.INVALID;
+                })
+                .onErrorResume(e -> {
+                    if (e instanceof RejectedExecutionException) {
+                        // Every backend thread is busy and its queue is full
+                        circuitBreaker.releasePermission();
+                        return Mono.just(reject("bulkhead_full"));
+                    }
+                    circuitBreaker.onFailure();
+                    if (e instanceof TimeoutException) {
+                        return Mono.just(reject("timeout"));
+                    }
+                    log.warn("Fraud check failed", e);
+                    return Mono.just(reject("error"));
+                })
+                // Subscriber went away (client disconnected) before a verdict arrived
+                .doOnCancel(circuitBreaker::releasePermission)
+                .doFinally(signal -> releaseBulkhead());
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (backendScheduler != null) {
+            backendScheduler.dispose();
+        }
+    }
+
+    // A timeout cancels the call, which interrupts its thread
+    private Mono<Boolean> backendCall() {
+        if (fraudBackend == null) {
+            return fraudDetectionService.validateClickReactive();
+        }
+        return Mono.fromCallable(fraudBackend::validateClick).subscribeOn(backendScheduler);
+    }
+
+    private void releaseBulkhead() {
+        if (bulkhead != null) {
+            bulkhead.release();
+        }
+    }
+
+    private FraudVerdict reject(String reason) {
+        meterRegistry.counter("fraud.calls.rejected", "reason", reason).increment();
+        switch (fallback) {
+            case ACCEPT:
+                return FraudVerdict.VALID;
+            case REJECT:
+                return FraudVerdict.INVALID;
+            default:
+                return FraudVerdict.PROVISIONAL;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.fiverr.demo.reactive;
+
+import com.fiverr.demo.dto.CreateLinkRequest;
+import com.fiverr.demo.dto.LinkResponse;
+import com.fiverr.demo.dto.LinkStatsDto;
+import com.fiverr.demo.dto.ResolveRequest;
+import com.fiverr.demo.dto.ResolveResponse;
+import com.fiverr.demo.dto.StatsRange;
+import jakarta.validation.Valid;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping
+@Profile("reactive")
+public class ReactiveLinkController {
+
+    private final ReactiveLinkService linkService;
+
+    public ReactiveLinkController(ReactiveLinkService linkService) {
+        this.linkService = linkService;
+    }
+
+    @PostMapping("/links")
+    public Mono<ResponseEntity<LinkResponse>> createLink(@Valid @RequestBody CreateLinkRequest request) {
+        return linkService.createShortLink(request.getTargetUrl()).map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/resolve")
+    public Mono<ResponseEntity<ResolveResponse>> resolve(@Valid @RequestBody ResolveRequest request) {
+        return linkService.resolve(request.getShortCodes()).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/stats")
+    public Mono<ResponseEntity<Page<LinkStatsDto>>> getStats(
+        @RequestParam(defaultValue = "0") int page,
+        @RequestParam(defaultValue = "10") int size,
+        @RequestParam(required = false) String from,
+        @RequestParam(required = false) String to,
+        @RequestParam(required = false) String granularity
+    ) {
+        return linkService.getStats(PageRequest.of(page, size), range(from, to, granularity)).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/stats/{shortCode}")
+    public Mono<ResponseEntity<LinkStatsDto>> getLinkStats(
+        @PathVariable String shortCode,
+        @RequestParam(required = false) String from,
+        @RequestParam(required = false) String to,
+        @RequestParam(required = false) String granularity
+    ) {
+        return linkService.getLinkStats(shortCode, range(from, to, granularity)).map(ResponseEntity::ok);
+    }
+
+    private static StatsRange range(String from, String to, String granularity) {
+        try {
+            return StatsRange.of(from, to, granularity);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.fiverr.demo.reactive;
+
+import com.fiverr.demo.dto.ClickEvent;
+import com.fiverr.demo.dto.ClientInfo;
+import com.fiverr.demo.dto.LinkResponse;
+import com.fiverr.demo.dto.LinkStatsDto;
+import com.fiverr.demo.dto.ResolveResponse;
+import com.fiverr.demo.dto.ResolvedLink;
+import com.fiverr.demo.dto.StatsRange;
+import com.fiverr.demo.entity.Click;
+import com.fiverr.demo.entity.LinkClickTotals;
+import com.fiverr.demo.service.ClickCounterService;
+import com.fiverr.demo.service.ClickDeduplicator;
+import com.fiverr.demo.service.ClickLoadShedder;
+import com.fiverr.demo.service.DeferredFraudCheckService;
+import com.fiverr.demo.service.FraudPreFilter;
+import com.fiverr.demo.service.FraudVerdict;
+import com.fiverr.demo.service.LinkCreationCoalescer;
+import com.fiverr.demo.service.LinkResolver;
+import com.fiverr.demo.service.LinkService;
+import com.fiverr.demo.util.Base62Encoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// LinkService for the reactive runtime. Business rules are shared with the servlet
+// stack (pre-filter, load shedder, counters, deferred fraud checks); only the I/O
+// is non-blocking.
+@Service
+@Profile("reactive")
+public class ReactiveLinkService {
+
+    private final ReactiveShortenedLinkRepository linkRepository;
+    private final ReactiveClickRepository clickRepository;
+    private final ReactiveClickTotalsRepository totalsRepository;
+    private final ReactiveClickStatsRepository clickStatsRepository;
+    private final ReactiveFraudValidator fraudValidator;
+    private final FraudPreFilter fraudPreFilter;
+    private final ClickCounterService clickCounterService;
+    private final ClickLoadShedder clickLoadShedder;
+    private final DeferredFraudCheckService deferredFraudCheckService;
+    private final TransactionalOperator transactionalOperator;
+    private final LinkResolver linkResolver;
+    private final LinkCreationCoalescer linkCreationCoalescer;
+    private final ClickDeduplicator clickDeduplicator;
+
+    @Value("${app.base-url:http://localhost:8080}")
+    private String baseUrl;
+
+    @Value("${app.click-outbox.enabled:false}")
+    private boolean outboxEnabled;
+
+    public ReactiveLinkService(ReactiveShortenedLinkRepository linkRepository,
+                               ReactiveClickRepository clickRepository,
+                               ReactiveClickTotalsRepository totalsRepository,
+                               ReactiveClickStatsRepository clickStatsRepository,
+                               ReactiveFraudValidator fraudValidator,
+                               FraudPreFilter fraudPreFilter,
+                               ClickCounterService clickCounterService,
+                               ClickLoadShedder clickLoadShedder,
+                               DeferredFraudCheckService deferredFraudCheckService,
+                               TransactionalOperator transactionalOperator,
+                               LinkResolver linkResolver,
+                               LinkCreationCoalescer linkCreationCoalescer,
+                               ClickDeduplicator clickDeduplicator) {
+        this.linkRepository = linkRepository;
+        this.clickRepository = clickRepository;
+        this.totalsRepository = totalsRepository;
+        this.clickStatsRepository = clickStatsRepository;
+        this.fraudValidator = fraudValidator;
+        this.fraudPreFilter = fraudPreFilter;
+        this.clickCounterService = clickCounterService;
+        this.clickLoadShedder = clickLoadShedder;
+        this.deferredFraudCheckService = deferredFraudCheckService;
+        this.transactionalOperator = transactionalOperator;
+        this.linkResolver = linkResolver;
+        this.linkCreationCoalescer = linkCreationCoalescer;
+        this.clickDeduplicator = clickDeduplicator;
+    }
+
+    public Mono<LinkResponse> createShortLink(String targetUrl) {
+        return linkCreationCoalescer.createReactive(targetUrl, this::findOrCreate);
+    }
+
+    private Mono<LinkResponse> findOrCreate(String targetUrl) {
+        Mono<LinkRow> created = linkRepository.save(new LinkRow(targetUrl, LocalDateTime.now()))
+            .flatMap(link -> {
+                link.setShortCode(Base62Encoder.encode(link.getId()));
+                return linkRepository.save(link);
+            })
+            .as(transactionalOperator::transactional)
+            .doOnNext(link -> linkResolver.linkCreated(
+                new ResolvedLink(link.getId(), link.getShortCode(), link.getTargetUrl())))
+            // Race condition: another request created it
+            .onErrorResume(DataIntegrityViolationException.class,
+                e -> linkRepository.findByTargetUrl(targetUrl));
+
+        return linkRepository.findByTargetUrl(targetUrl)
+            .switchIfEmpty(Mono.defer(() -> created))
+            .map(this::toResponse);
+    }
+
+    public Mono<String> redirectAndTrack(String shortCode, ClientInfo client) {
+        // The cache is in memory, so only a miss goes to the database
+        return Mono.justOrEmpty(linkResolver.getCached(shortCode))
+            .switchIfEmpty(Mono.defer(() -> linkRepository.findByShortCode(shortCode)
+                .map(row -> new ResolvedLink(row.getId(), row.getShortCode(), row.getTargetUrl()))
+                .doOnNext(linkResolver::put)))
+            .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Short link not found")))
+            .flatMap(link -> {
+                // A double tap or prefetch: no fraud check, no insert
+                if (clickDeduplicator.isDuplicate(client, link.getId())) {
+                    return Mono.just(link.getTargetUrl());
+                }
+                // Under overload the redirect is still served; only click handling degrades
+                ClickLoadShedder.Admission admission = clickLoadShedder.admit();
+                if (admission == ClickLoadShedder.Admission.REJECT) {
+                    return Mono.just(link.getTargetUrl());
+                }
+                return trackClick(link, client, admission == ClickLoadShedder.Admission.ACCEPT_DEFER_FRAUD_CHECK)
+                    .doFinally(signal -> clickLoadShedder.release())
+                    .thenReturn(link.getTargetUrl());
+            });
+    }
+
+    // Target URLs for link previews without tracking clicks: cached links first, then one
+    // findAllById for the rest
+    public Mono<ResolveResponse> resolve(List<String> shortCodes) {
+        Map<String, ResolvedLink> resolved = new HashMap<>();
+        Map<Long, String> missing = new HashMap<>();
+        for (String shortCode : shortCodes) {
+            Optional<ResolvedLink> cached = linkResolver.getCached(shortCode);
+            if (cached.isPresent()) {
+                resolved.put(shortCode, cached.get());
+                continue;
+            }
+            long id = LinkResolver.idOf(shortCode);
+            if (id > 0) {
+                missing.put(id, shortCode);
+            }
+        }
+        if (missing.isEmpty()) {
+            return Mono.just(new ResolveResponse(shortCodes, resolved));
+        }
+        return linkRepository.findAllById(missing.keySet())
+            .filter(row -> row.getShortCode() != null && row.getShortCode().equals(missing.get(row.getId())))
+            .collectMap(LinkRow::getShortCode,
+                row -> new ResolvedLink(row.getId(), row.getShortCode(), row.getTargetUrl()),
+                () -> resolved)
+            .map(links -> new ResolveResponse(shortCodes, links));
+    }
+
+    private Mono<Void> trackClick(ResolvedLink link, ClientInfo client, boolean deferFraudCheck) {
+        return verdictFor(link, client, deferFraudCheck).flatMap(verdict -> {
+            boolean isValid = verdict.isValid();
+            boolean provisional = verdict == FraudVerdict.PROVISIONAL;
+            Mono<ClickRow> saved = clickRepository.save(new ClickRow(link.getId(), LocalDateTime.now(), isValid));
+            if (provisional) {
+                saved = saved.flatMap(click -> clickRepository.insertPendingFraudCheck(click.getId(), click.getLinkId())
+                    .thenReturn(click));
+            }
+            if (outboxEnabled) {
+                saved = saved.flatMap(click -> clickRepository.insertOutboxEvent(ClickEvent.Type.CLICK.code(),
+                        click.getId(), click.getLinkId(), click.getClickedAt(), click.isValid())
+                        .thenReturn(click));
+            }
+            if (provisional || outboxEnabled) {
+                // The click, its pending check and its outbox event commit together, as in ShardedClickRepository
+                saved = saved.as(transactionalOperator::transactional);
+            }
+            return saved
+                .doOnNext(click -> {
+                    clickCounterService.recordClick(link.getId(), isValid);
+                    // Provisional clicks are re-checked by DeferredFraudCheckService
+                    if (provisional) {
+                        deferredFraudCheckService.enqueue(click.getId(), link.getId());
+                    }
+                });
+        }).then();
+    }
+
+    private Mono<FraudVerdict> verdictFor(ResolvedLink link, ClientInfo client, boolean deferFraudCheck) {
+        FraudPreFilter.Decision decision = fraudPreFilter.evaluate(client, link.getId());
+        if (decision == FraudPreFilter.Decision.REJECT) {
+            return Mono.just(FraudVerdict.INVALID);
+        } else if (decision == FraudPreFilter.Decision.ACCEPT) {
+            return Mono.just(FraudVerdict.VALID);
+        } else if (deferFraudCheck) {
+            return Mono.just(FraudVerdict.PROVISIONAL);
+        }
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return fraudValidator.validate()
+                .doOnNext(verdict -> clickLoadShedder.recordFraudLatency(System.nanoTime() - start));
+        });
+    }
+
+    public Mono<Page<LinkStatsDto>> getStats(Pageable pageable, StatsRange range) {
+        return linkRepository.findAllBy(pageable)
+            .collectList()
+            .flatMap(links -> toStats(links, range))
+            .zipWith(linkRepository.count())
+            .map(pageAndTotal -> new PageImpl<>(pageAndTotal.getT1(), pageable, pageAndTotal.getT2()));
+    }
+
+    public Mono<LinkStatsDto> getLinkStats(String shortCode, StatsRange range) {
+        return linkRepository.findByShortCode(shortCode)
+            .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Short link not found")))
+            .flatMap(link -> toStats(List.of(link), range))
+            .map(stats -> stats.get(0));
+    }
+
+    // At most three statements for the whole page, never one per link, as in LinkService.getStats:
+    // the totals by primary key, the valid clicks of links never flushed, and the breakdown
+    private Mono<List<LinkStatsDto>> toStats(List<LinkRow> links, StatsRange range) {
+        if (links.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        List<Long> linkIds = links.stream().map(LinkRow::getId).toList();
+        return totalsRepository.findAllById(linkIds)
+            .map(ClickTotalsRow::toTotals)
+            .collectList()
+            .map(clickCounterService::withPending)
+            .flatMap(totals -> {
+                // Never flushed: every committed click is still only in the clicks table
+                List<Long> uncounted = linkIds.stream().filter(id -> !totals.containsKey(id)).toList();
+                return clickStatsRepository.countValidClicks(uncounted)
+                    .zipWith(clickStatsRepository.validClicksByBucket(linkIds, range), (counted, breakdowns) ->
+                        links.stream().map(link -> {
+                            LinkClickTotals linkTotals = totals.get(link.getId());
+                            long totalClicks = linkTotals != null ? linkTotals.getValidClicks()
+                                : counted.getOrDefault(link.getId(), 0L);
+                            BigDecimal totalEarnings = linkTotals != null ? linkTotals.getEarnings()
+                                : Click.EARNINGS_PER_VALID_CLICK.multiply(new BigDecimal(totalClicks));
+                            return LinkService.toStats(link.getShortCode(), link.getTargetUrl(), totalClicks,
+                                totalEarnings, breakdowns.getOrDefault(link.getId(), new LinkedHashMap<>()), range);
+                        }).toList());
+            });
+    }
+
+    private LinkResponse toResponse(LinkRow link) {
+        String shortUrl = baseUrl + "/" + link.getShortCode();
+        return new LinkResponse(link.getShortCode(), shortUrl, link.getTargetUrl());
+    }
+}
@@ -0,0 +1,38 @@
+package com.fiverr.demo.reactive;
+
+import com.fiverr.demo.dto.ClientInfo;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+@RestController
+@Profile("reactive")
+public class ReactiveRedirectController {
+
+    private final ReactiveLinkService linkService;
+
+    public ReactiveRedirectController(ReactiveLinkService linkService) {
+        this.linkService = linkService;
+    }
+
+    @GetMapping("/{shortCode}")
+    public Mono<ResponseEntity<Void>> redirect(@PathVariable String shortCode, ServerHttpRequest request) {
+        InetSocketAddress remote = request.getRemoteAddress();
+        String ip = remote == null || remote.getAddress() == null ? null : remote.getAddress().getHostAddress();
+        ClientInfo client = new ClientInfo(ip, request.getHeaders().getFirst(HttpHeaders.USER_AGENT));
+
+        return linkService.redirectAndTrack(shortCode, client).map(targetUrl -> {
+            HttpHeaders headers = new HttpHeaders();
+            headers.add("Location", targetUrl);
+            return new ResponseEntity<>(headers, HttpStatus.FOUND);
+        });
+    }
+}
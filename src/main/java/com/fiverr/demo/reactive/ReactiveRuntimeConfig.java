@@ -0,0 +1,65 @@
+package com.fiverr.demo.reactive;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.orm.jpa.JpaTransactionManager;
+
+import java.util.List;
+
+// Spring Boot backs off the JDBC DataSource once an R2DBC ConnectionFactory exists.
+// The reactive runtime still needs it for JPA (counter flush, deferred fraud checks),
+// so it is declared explicitly here from the usual spring.datasource.* settings, and
+// the JPA transaction manager is made primary so plain @Transactional keeps using it.
+// Redirects write clicks through R2DBC to the primary database only, so the reactive runtime
+// refuses to start with click shards configured rather than split a link's clicks across both.
+// With server.forward-headers-strategy=native, Netty takes forwarded headers only from the
+// proxies Tomcat trusts (TrustedProxyForwardedHeaders), so both runtimes see the same client IPs.
+@Configuration
+@Profile("reactive")
+public class ReactiveRuntimeConfig {
+
+    public ReactiveRuntimeConfig(@Value("${app.click-shards.urls:}") List<String> clickShardUrls) {
+        if (!clickShardUrls.isEmpty()) {
+            throw new IllegalStateException("The reactive runtime writes clicks to the primary database only; "
+                + "unset app.click-shards.urls or run without the reactive profile");
+        }
+    }
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties dataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public NettyServerCustomizer trustedProxyForwardedHeaders(ServerProperties serverProperties) {
+        if (serverProperties.getForwardHeadersStrategy() != ServerProperties.ForwardHeadersStrategy.NATIVE) {
+            return server -> server;
+        }
+        TrustedProxyForwardedHeaders handler =
+            new TrustedProxyForwardedHeaders(serverProperties.getTomcat().getRemoteip().getInternalProxies());
+        return server -> server.forwarded(handler);
+    }
+
+    @Bean
+    @Primary
+    public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+        return new JpaTransactionManager(entityManagerFactory);
+    }
+}
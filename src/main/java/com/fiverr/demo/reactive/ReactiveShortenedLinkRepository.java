@@ -0,0 +1,14 @@
+package com.fiverr.demo.reactive;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface ReactiveShortenedLinkRepository extends R2dbcRepository<LinkRow, Long> {
+    Mono<LinkRow> findByTargetUrl(String targetUrl);
+    Mono<LinkRow> findByShortCode(String shortCode);
+    Flux<LinkRow> findAllBy(Pageable pageable);
+}
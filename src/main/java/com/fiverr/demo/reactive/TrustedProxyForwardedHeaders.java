@@ -0,0 +1,108 @@
+package com.fiverr.demo.reactive;
+
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.util.NetUtil;
+import reactor.netty.http.server.ConnectionInfo;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.function.BiFunction;
+import java.util.regex.Pattern;
+
+// Reactor Netty's own forwarded header handling takes X-Forwarded-For from every client, so one
+// that sends the header itself would pick its own IP for the pre-filter and deduplication. This
+// one follows Tomcat's RemoteIpValve: the headers count only when the peer matches the trusted
+// proxies pattern (server.tomcat.remoteip.internal-proxies), and X-Forwarded-For is read from the
+// right, taking the first address that is not a trusted proxy. X-Forwarded-Proto of a trusted
+// peer sets the scheme; other forwarded headers are ignored.
+class TrustedProxyForwardedHeaders implements BiFunction<ConnectionInfo, HttpRequest, ConnectionInfo> {
+
+    static final String X_FORWARDED_FOR = "X-Forwarded-For";
+    static final String X_FORWARDED_PROTO = "X-Forwarded-Proto";
+
+    private final Pattern trustedProxies;
+
+    TrustedProxyForwardedHeaders(String trustedProxies) {
+        this.trustedProxies = Pattern.compile(trustedProxies);
+    }
+
+    @Override
+    public ConnectionInfo apply(ConnectionInfo connectionInfo, HttpRequest request) {
+        InetSocketAddress peer = connectionInfo.getRemoteAddress();
+        if (!isTrusted(peer)) {
+            return connectionInfo;
+        }
+        ConnectionInfo forwarded = connectionInfo.withRemoteAddress(
+            clientAddress(peer, request.headers().get(X_FORWARDED_FOR)));
+        String proto = request.headers().get(X_FORWARDED_PROTO);
+        if (proto != null) {
+            String scheme = proto.split(",")[0].trim().toLowerCase();
+            if (scheme.equals("http") || scheme.equals("https")) {
+                forwarded = forwarded.withScheme(scheme);
+            }
+        }
+        return forwarded;
+    }
+
+    // The peer itself unless it is a trusted proxy. Behind one: the rightmost X-Forwarded-For
+    // address that is not a trusted proxy, the leftmost when all are, or the peer when the header
+    // has none
+    InetSocketAddress clientAddress(InetSocketAddress peer, String forwardedFor) {
+        if (forwardedFor == null || !isTrusted(peer)) {
+            return peer;
+        }
+        InetSocketAddress client = peer;
+        String[] hops = forwardedFor.split(",");
+        for (int i = hops.length - 1; i >= 0; i--) {
+            InetSocketAddress hop = parse(hops[i].trim());
+            if (hop == null) {
+                // Not an IP: nothing left of it can be told apart from what the client sent
+                break;
+            }
+            client = hop;
+            if (!isTrusted(hop)) {
+                break;
+            }
+        }
+        return client;
+    }
+
+    private boolean isTrusted(InetSocketAddress address) {
+        return address != null && address.getAddress() != null
+            && trustedProxies.matcher(address.getAddress().getHostAddress()).matches();
+    }
+
+    // An IP literal, optionally with a port ("203.0.113.7:4711", "[2001:db8::1]:4711"); null for
+    // anything else, so a hostname is never looked up
+    private static InetSocketAddress parse(String hop) {
+        String host = hop;
+        int port = 0;
+        if (hop.startsWith("[")) {
+            int end = hop.indexOf(']');
+            if (end < 0) {
+                return null;
+            }
+            host = hop.substring(1, end);
+            if (hop.length() > end + 1) {
+                if (hop.charAt(end + 1) != ':') {
+                    return null;
+                }
+                port = parsePort(hop.substring(end + 2));
+            }
+        } else if (hop.indexOf(':') >= 0 && hop.indexOf(':') == hop.lastIndexOf(':')) {
+            host = hop.substring(0, hop.indexOf(':'));
+            port = parsePort(hop.substring(hop.indexOf(':') + 1));
+        }
+        InetAddress address = NetUtil.createInetAddressFromIpAddressString(host);
+        return address == null || port < 0 ? null : new InetSocketAddress(address, port);
+    }
+
+    private static int parsePort(String port) {
+        try {
+            int value = Integer.parseInt(port);
+            return value <= 65535 ? value : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package com.fiverr.demo.repository;
+
+import com.fiverr.demo.dto.StatsRange;
+import com.fiverr.demo.util.ClickSegment;
+import com.fiverr.demo.util.LinkClickCounts;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// Cold tier of the clicks table: closed months that ClickArchiver moved out of the database, as
+// immutable ClickSegment files under <directory>/<yyyy-MM>/shard-<n>-<part>.seg. A segment whose
+// rows are not yet all deleted from the database has a <segment>.ids file beside it listing their
+// click ids (ClickIdFile), and a <segment>.counts file holds its valid clicks per link
+// (LinkClickCounts). Only the segment headers and those counts are kept in memory, one per
+// segment, so lifetime stats and whole months never inflate a segment. Day and week buckets and
+// partial months scan the segments whose link id and time bounds can hold a match, and stop at
+// the first row past the highest link id asked for.
+//
+// With more than one instance the directory is shared storage, written by the one instance
+// holding ClickArchiveLock. The others pick up its segments on refresh(), once their .ids file is
+// gone, and leave every file alone: leftovers of a failed run are removed by the next archiver.
+@Repository
+public class ClickArchive {
+
+    private static final Logger log = LoggerFactory.getLogger(ClickArchive.class);
+    private static final Pattern MONTH_NAME = Pattern.compile("\\d{4}-\\d{2}");
+    private static final Pattern SEGMENT_NAME = Pattern.compile("shard-(\\d+)-(\\d+)\\.seg");
+    private static final String IDS_SUFFIX = ".ids";
+    private static final String COUNTS_SUFFIX = ".counts";
+    private static final String STORAGE_ID_FILE = "archive.id";
+
+    private final Path directory;
+    // Sorted by month, then path; replaced whole, never changed in place
+    private volatile List<Segment> segments = List.of();
+
+    public ClickArchive(@Value("${app.click-archive.directory:data/click-archive}") String directory) {
+        this.directory = Path.of(directory);
+    }
+
+    @PostConstruct
+    public void load() throws IOException {
+        refresh();
+        log.info("Loaded {} click archive segments from {}", segments.size(), directory.toAbsolutePath());
+    }
+
+    // Adds the segments on disk that are not yet published here and have no pending deletes
+    public synchronized void refresh() throws IOException {
+        List<Segment> current = segments;
+        Set<Path> known = new HashSet<>();
+        current.forEach(segment -> known.add(segment.path));
+        List<Segment> grown = new ArrayList<>(current);
+        for (Path file : segmentFiles()) {
+            if (!known.contains(file) && !Files.exists(idsOf(file))) {
+                grown.add(open(file));
+            }
+        }
+        if (grown.size() > current.size()) {
+            grown.sort(Comparator.comparing((Segment segment) -> segment.month).thenComparing(segment -> segment.path));
+            segments = List.copyOf(grown);
+        }
+    }
+
+    // Removes what failed runs left behind and writes the counts files older segments lack. Only
+    // for the instance holding ClickArchiveLock, as a running export's files look the same
+    public synchronized void cleanUp() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> leftovers = Files.list(directory)) {
+            // Id spills of exports that died before their segment was written
+            for (Path file : leftovers.filter(path -> path.getFileName().toString().endsWith(".ids.tmp")).toList()) {
+                Files.delete(file);
+            }
+        }
+        for (Path monthDirectory : monthDirectories()) {
+            try (Stream<Path> files = Files.list(monthDirectory)) {
+                for (Path file : files.toList()) {
+                    String name = file.getFileName().toString();
+                    if (name.endsWith(".tmp")) {
+                        Files.delete(file);
+                    } else if (name.endsWith(IDS_SUFFIX) && !Files.exists(segmentOf(file))) {
+                        // Its segment never made it to disk, so none of these rows were deleted
+                        Files.delete(file);
+                    }
+                }
+            }
+        }
+        for (Path file : segmentFiles()) {
+            if (!Files.exists(countsOf(file))) {
+                LinkClickCounts.count(ClickSegment.read(file)).write(countsOf(file));
+            }
+        }
+    }
+
+    public int size() {
+        return segments.size();
+    }
+
+    public long rowCount() {
+        return segments.stream().mapToLong(segment -> segment.header.getRowCount()).sum();
+    }
+
+    // Random id of this directory, kept in it, which ClickArchiveLock records for the database
+    public String storageId() throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve(STORAGE_ID_FILE);
+        if (!Files.exists(file)) {
+            Path temporary = Files.createTempFile(directory, "archive-", ".id.tmp");
+            Files.writeString(temporary, UUID.randomUUID().toString());
+            try {
+                Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        }
+        return Files.readString(file).trim();
+    }
+
+    // The id if storageId() was ever called for this directory, else null
+    public String existingStorageId() throws IOException {
+        Path file = directory.resolve(STORAGE_ID_FILE);
+        return Files.exists(file) ? Files.readString(file).trim() : null;
+    }
+
+    // A fresh file for ClickArchiver to spill the exported click ids to
+    public Path newIdsFile() throws IOException {
+        Files.createDirectories(directory);
+        return Files.createTempFile(directory, "export-", ".ids.tmp");
+    }
+
+    // Writes the rows as the shard and month's next segment file, with the forced exportedIds file
+    // moved beside it first and its counts file after it. Reads ignore the segment until it is
+    // published, and other instances until its .ids file is gone
+    public synchronized Path write(int shard, YearMonth month, ClickSegment.Writer writer, long maxClickId,
+                                   Path exportedIds) throws IOException {
+        Path monthDirectory = directory.resolve(month.toString());
+        Files.createDirectories(monthDirectory);
+        long part = 1;
+        // From the disk, as a previous archiver may have written segments not yet published here
+        try (Stream<Path> files = Files.list(monthDirectory)) {
+            for (Path existing : files.toList()) {
+                Matcher name = SEGMENT_NAME.matcher(existing.getFileName().toString());
+                if (name.matches() && Integer.parseInt(name.group(1)) == shard) {
+                    part = Math.max(part, Long.parseLong(name.group(2)) + 1);
+                }
+            }
+        }
+        Path file = monthDirectory.resolve("shard-" + shard + "-" + part + ".seg");
+        Files.move(exportedIds, idsOf(file), StandardCopyOption.ATOMIC_MOVE);
+        try {
+            writer.finish(file, maxClickId);
+            LinkClickCounts.count(ClickSegment.read(file)).write(countsOf(file));
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(idsOf(file));
+            throw e;
+        }
+        return file;
+    }
+
+    public synchronized void publish(Path file) throws IOException {
+        List<Segment> current = segments;
+        if (current.stream().anyMatch(segment -> segment.path.equals(file))) {
+            return;
+        }
+        List<Segment> grown = new ArrayList<>(current);
+        grown.add(open(file));
+        grown.sort(Comparator.comparing((Segment segment) -> segment.month).thenComparing(segment -> segment.path));
+        segments = List.copyOf(grown);
+    }
+
+    private static int shardOf(Path file) {
+        Matcher name = SEGMENT_NAME.matcher(file.getFileName().toString());
+        if (!name.matches()) {
+            throw new IllegalArgumentException("Not a segment file name: " + file);
+        }
+        return Integer.parseInt(name.group(1));
+    }
+
+    private static Segment open(Path file) throws IOException {
+        YearMonth month = YearMonth.parse(file.getParent().getFileName().toString());
+        Path counts = countsOf(file);
+        LinkClickCounts validClicks = Files.exists(counts)
+            ? LinkClickCounts.read(counts)
+            // Archived before counts files existed, until the next archiver run writes one
+            : LinkClickCounts.count(ClickSegment.read(file));
+        return new Segment(file, month, ClickSegment.readHeader(file), validClicks);
+    }
+
+    private List<Path> monthDirectories() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> months = Files.list(directory)) {
+            return months.filter(Files::isDirectory)
+                .filter(path -> MONTH_NAME.matcher(path.getFileName().toString()).matches())
+                .sorted()
+                .toList();
+        }
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        List<Path> found = new ArrayList<>();
+        for (Path monthDirectory : monthDirectories()) {
+            try (Stream<Path> files = Files.list(monthDirectory)) {
+                files.filter(file -> SEGMENT_NAME.matcher(file.getFileName().toString()).matches())
+                    .sorted()
+                    .forEach(found::add);
+            }
+        }
+        return found;
+    }
+
+    // Segments whose rows may still be in the database, with their shard. From the disk, so an
+    // archiver finishes the deletes of one that died on another instance
+    public Map<Path, Integer> pendingDeletes() throws IOException {
+        Map<Path, Integer> pending = new LinkedHashMap<>();
+        for (Path file : segmentFiles()) {
+            if (Files.exists(idsOf(file))) {
+                pending.put(file, shardOf(file));
+            }
+        }
+        return pending;
+    }
+
+    // The ClickIdFile of the click ids in the segment, until deletesDone
+    public Path exportedIds(Path segment) {
+        return idsOf(segment);
+    }
+
+    // The segment's rows are gone from the database
+    public void deletesDone(Path segment) throws IOException {
+        Files.deleteIfExists(idsOf(segment));
+    }
+
+    private static Path idsOf(Path segment) {
+        return segment.resolveSibling(segment.getFileName() + IDS_SUFFIX);
+    }
+
+    private static Path countsOf(Path segment) {
+        return segment.resolveSibling(segment.getFileName() + COUNTS_SUFFIX);
+    }
+
+    private static Path segmentOf(Path idsFile) {
+        String name = idsFile.getFileName().toString();
+        return idsFile.resolveSibling(name.substring(0, name.length() - IDS_SUFFIX.length()));
+    }
+
+    // Adds the archived valid clicks per bucket of the range to the database counts. Monthly
+    // buckets of months the range covers whole come from the counts; the rest is scanned
+    public void addValidClicksByBucket(Collection<Long> linkIds, StatsRange range,
+                                       Map<Long, TreeMap<String, Long>> into) {
+        List<Segment> current = segments;
+        Predicate<YearMonth> fromCounts = month -> range.getGranularity() == StatsRange.Granularity.MONTH
+            && (range.getFrom() == null || !range.getFrom().isAfter(month.atDay(1).atStartOfDay()))
+            && (range.getTo() == null || !range.getTo().isBefore(month.plusMonths(1).atDay(1).atStartOfDay()));
+        for (Segment segment : current) {
+            if (!fromCounts.test(segment.month)) {
+                continue;
+            }
+            String bucket = range.getGranularity().label(segment.month.atDay(1).atStartOfDay());
+            for (Long linkId : linkIds) {
+                long count = segment.validClicks.get(linkId);
+                if (count > 0) {
+                    into.computeIfAbsent(linkId, id -> new TreeMap<>(Comparator.reverseOrder()))
+                        .merge(bucket, count, Long::sum);
+                }
+            }
+        }
+        long from = range.getFrom() == null ? Long.MIN_VALUE : ClickSegment.toMicros(range.getFrom());
+        long to = range.getTo() == null ? Long.MAX_VALUE : ClickSegment.toMicros(range.getTo());
+        scan(current, linkIds, fromCounts.negate(), from, to, (linkId, clickedAt, valid) -> {
+            if (valid && clickedAt >= from && clickedAt < to) {
+                String bucket = range.getGranularity().label(ClickSegment.fromMicros(clickedAt));
+                into.computeIfAbsent(linkId, id -> new TreeMap<>(Comparator.reverseOrder()))
+                    .merge(bucket, 1L, Long::sum);
+            }
+        });
+    }
+
+    // Adds the archived valid clicks to the database counts, from the counts alone
+    public void addValidClicks(Collection<Long> linkIds, Map<Long, Long> into) {
+        for (Segment segment : segments) {
+            for (Long linkId : linkIds) {
+                if (linkId >= segment.header.getMinLinkId() && linkId <= segment.header.getMaxLinkId()) {
+                    long count = segment.validClicks.get(linkId);
+                    if (count > 0) {
+                        into.merge(linkId, count, Long::sum);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void scan(List<Segment> current, Collection<Long> linkIds, Predicate<YearMonth> months,
+                             long from, long to, RowConsumer matches) {
+        if (current.isEmpty() || linkIds.isEmpty()) {
+            return;
+        }
+        Set<Long> wanted = new HashSet<>(linkIds);
+        long lowest = Collections.min(wanted);
+        long highest = Collections.max(wanted);
+        for (Segment segment : current) {
+            ClickSegment header = segment.header;
+            if (!months.test(segment.month) || header.getMaxLinkId() < lowest || header.getMinLinkId() > highest
+                || header.getMaxClickedAt() < from || header.getMinClickedAt() >= to) {
+                continue;
+            }
+            try {
+                ClickSegment.read(segment.path).scan((linkId, clickedAt, valid) -> {
+                    if (wanted.contains(linkId)) {
+                        matches.accept(linkId, clickedAt, valid);
+                    }
+                    return linkId <= highest;
+                });
+            } catch (IOException e) {
+                throw new DataAccessResourceFailureException("Reading click segment " + segment.path + " failed", e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowConsumer {
+        void accept(long linkId, long clickedAt, boolean valid);
+    }
+
+    private static final class Segment {
+        private final Path path;
+        private final YearMonth month;
+        private final ClickSegment header;
+        private final LinkClickCounts validClicks;
+
+        private Segment(Path path, YearMonth month, ClickSegment header, LinkClickCounts validClicks) {
+            this.path = path;
+            this.month = month;
+            this.header = header;
+            this.validClicks = validClicks;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.fiverr.demo.repository;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+// Keeps archiving to one instance at a time. A run holds a row lock on click_archive_owner in a
+// transaction of its own on the primary database, on a connection taken for the whole run and
+// used for nothing else. Another instance skips the locked row and does not archive. The lock
+// goes with the connection, so an archiver that dies frees it for the next run elsewhere.
+//
+// The row also records the id of the archive directory the first run wrote to
+// (ClickArchive.storageId()). Every instance reads segments from its own app.click-archive.directory,
+// so an instance whose directory carries another id is not on the shared storage: it refuses to
+// archive, and ClickArchive refuses to start, as its stats would miss the archived months.
+@Repository
+public class ClickArchiveLock {
+
+    private static final String NAME = "click-archiver";
+
+    private static final String SEED_SQL = """
+        INSERT INTO click_archive_owner (name, storage_id)
+        SELECT ?, NULL WHERE NOT EXISTS (SELECT 1 FROM click_archive_owner WHERE name = ?)
+        """;
+    private static final String CLAIM_SQL =
+        "UPDATE click_archive_owner SET storage_id = ? WHERE name = ? AND storage_id IS NULL";
+    private static final String OWNER_SQL = "SELECT storage_id FROM click_archive_owner WHERE name = ?";
+    private static final String LOCK_SQL =
+        "SELECT storage_id FROM click_archive_owner WHERE name = ? FOR UPDATE SKIP LOCKED";
+
+    @FunctionalInterface
+    public interface Task {
+        void run() throws IOException;
+    }
+
+    private final DataSource dataSource;
+    private final JdbcTemplate primary;
+
+    public ClickArchiveLock(DataSource dataSource, JdbcTemplate primary) {
+        this.dataSource = dataSource;
+        this.primary = primary;
+    }
+
+    // The id of the directory archived to so far, or null before the first run anywhere
+    public String ownerStorageId() {
+        List<String> owner = primary.queryForList(OWNER_SQL, String.class, NAME);
+        return owner.isEmpty() ? null : owner.get(0);
+    }
+
+    // Runs the task unless another instance is archiving; returns whether it ran. Fails, without
+    // running it, when the segments so far went to a directory other than storageId's
+    public boolean runExclusively(String storageId, Task task) throws IOException {
+        try {
+            primary.update(SEED_SQL, NAME, NAME);
+        } catch (DataIntegrityViolationException e) {
+            // Seeded by another instance after the NOT EXISTS check
+        }
+        primary.update(CLAIM_SQL, storageId, NAME);
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                String owner = lockedOwner(connection);
+                if (owner == null) {
+                    return false;
+                }
+                if (!owner.equals(storageId)) {
+                    throw new IllegalStateException("The click archive is at the directory with id " + owner
+                        + ", not at this instance's app.click-archive.directory (id " + storageId
+                        + "); every instance must mount the same shared directory");
+                }
+                task.run();
+                return true;
+            } finally {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("Taking the click archive lock failed", e);
+        }
+    }
+
+    // The claimed storage id, or null when another instance holds the lock
+    private static String lockedOwner(Connection connection) throws SQLException {
+        try (PreparedStatement select = connection.prepareStatement(LOCK_SQL)) {
+            select.setString(1, NAME);
+            try (ResultSet rows = select.executeQuery()) {
+                return rows.next() ? rows.getString(1) : null;
+            }
+        }
+    }
+}
@@ -22,3 +22,4 @@ public interface ClickRepository extends JpaRepository<Click, Long> {
         """)
     List<MonthlyClickStats> getMonthlyStats(@Param("linkId") Long linkId);
 }
+
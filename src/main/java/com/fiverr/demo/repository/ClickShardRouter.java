@@ -0,0 +1,12 @@
+package com.fiverr.demo.repository;
+
+// Picks the clicks shard of a link. Declare a bean of this type to replace the hash routing;
+// changing the routing (or the shard count) needs a ClickRebalancer run to move existing clicks.
+@FunctionalInterface
+public interface ClickShardRouter {
+
+    ClickShardRouter HASH = (linkId, shardCount) ->
+        Math.floorMod(Long.hashCode(linkId * 0x9E3779B97F4A7C15L), shardCount);
+
+    int shardFor(long linkId, int shardCount);
+}
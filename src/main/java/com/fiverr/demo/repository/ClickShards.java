@@ -0,0 +1,162 @@
+package com.fiverr.demo.repository;
+
+import com.fiverr.demo.util.StatementStats;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * The databases holding the clicks table, routed by link id. With a single shard (the default,
+ * the primary database) every call runs inline on the caller's thread; with several, queries
+ * over all shards run in parallel on one thread per shard. Reads may use other pools than writes
+ * (see WorkloadPools), over the same databases.
+ */
+public class ClickShards implements Closeable {
+
+    private final List<JdbcTemplate> shards;
+    private final List<JdbcTemplate> readShards;
+    private final List<TransactionTemplate> transactions;
+    private final boolean inPrimaryDatabase;
+    private final ClickShardRouter router;
+    private final List<Closeable> resources;
+    private final ExecutorService executor;
+
+    public ClickShards(List<JdbcTemplate> shards, List<TransactionTemplate> transactions, ClickShardRouter router,
+                       List<Closeable> resources) {
+        this(shards, shards, transactions, false, router, resources);
+    }
+
+    private ClickShards(List<JdbcTemplate> shards, List<JdbcTemplate> readShards,
+                        List<TransactionTemplate> transactions, boolean inPrimaryDatabase,
+                        ClickShardRouter router, List<Closeable> resources) {
+        if (shards.isEmpty() || readShards.size() != shards.size() || transactions.size() != shards.size()) {
+            throw new IllegalArgumentException(
+                "At least one clicks shard, with one read pool and transaction manager each, is required");
+        }
+        this.shards = List.copyOf(shards);
+        this.readShards = List.copyOf(readShards);
+        this.transactions = List.copyOf(transactions);
+        this.inPrimaryDatabase = inPrimaryDatabase;
+        this.router = router;
+        this.resources = List.copyOf(resources);
+        if (shards.size() > 1) {
+            AtomicInteger threads = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(shards.size(), task -> {
+                Thread thread = new Thread(task, "click-shard-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.executor = null;
+        }
+    }
+
+    // The clicks table of the primary database as the only shard, written and read through the
+    // given pools
+    public static ClickShards primary(JdbcTemplate writes, JdbcTemplate reads, TransactionTemplate transactions,
+                                      ClickShardRouter router) {
+        return new ClickShards(List.of(writes), List.of(reads), List.of(transactions), true, router, List.of());
+    }
+
+    public int size() {
+        return shards.size();
+    }
+
+    public int shardFor(long linkId) {
+        return router.shardFor(linkId, shards.size());
+    }
+
+    public JdbcTemplate shard(int index) {
+        return shards.get(index);
+    }
+
+    // The shard through its read pool, for queries that write nothing
+    public JdbcTemplate readShard(int index) {
+        return readShards.get(index);
+    }
+
+    // Transactions on the shard's write pool, for statements that must commit together
+    public TransactionTemplate transactions(int index) {
+        return transactions.get(index);
+    }
+
+    public JdbcTemplate forLink(long linkId) {
+        return shards.get(shardFor(linkId));
+    }
+
+    public boolean isInPrimaryDatabase() {
+        return inPrimaryDatabase;
+    }
+
+    // Runs the query on every shard, in parallel when there are several; results in shard order
+    public <T> List<T> scatter(Function<JdbcTemplate, T> query) {
+        return scatter(shards, query);
+    }
+
+    // scatter over the read pools
+    public <T> List<T> scatterReads(Function<JdbcTemplate, T> query) {
+        return scatter(readShards, query);
+    }
+
+    private <T> List<T> scatter(List<JdbcTemplate> targets, Function<JdbcTemplate, T> query) {
+        if (executor == null) {
+            return List.of(query.apply(targets.get(0)));
+        }
+        // The caller's statement scopes are thread-local, so each shard counts into a scope of
+        // its own on its thread, added to the caller's once the shard is done
+        boolean counted = StatementStats.isOpen();
+        StatementStats[] shardStats = new StatementStats[targets.size()];
+        List<CompletableFuture<T>> futures = new ArrayList<>(targets.size());
+        for (int i = 0; i < targets.size(); i++) {
+            int index = i;
+            JdbcTemplate shard = targets.get(i);
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                if (!counted) {
+                    return query.apply(shard);
+                }
+                try (StatementStats stats = StatementStats.open("click-shard-" + index)) {
+                    shardStats[index] = stats;
+                    return query.apply(shard);
+                }
+            }, executor));
+        }
+        List<T> results = new ArrayList<>(targets.size());
+        try {
+            for (CompletableFuture<T> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        } finally {
+            for (int i = 0; i < futures.size(); i++) {
+                if (futures.get(i).isDone() && shardStats[i] != null) {
+                    shardStats[i].addToCurrent();
+                }
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        for (Closeable resource : resources) {
+            resource.close();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.fiverr.demo.repository;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * A pool with one permit per connection in front of it, so that how long a caller waits for a
+ * connection can be chosen per call: a caller inside withAcquireTimeout gives up after its own,
+ * shorter timeout, everyone else waits up to the pool's connection timeout. A permit is held
+ * from getConnection until the connection is closed, so a caller holding one does not wait on
+ * the pool behind it. Redirects insert their clicks this way and shed the click rather than
+ * wait behind flushes, re-checks and imports on the same pool.
+ */
+public class ConnectionGate extends DelegatingDataSource {
+
+    private static final ThreadLocal<Long> ACQUIRE_TIMEOUT_MS = new ThreadLocal<>();
+
+    private final String name;
+    private final Semaphore permits;
+    private final long timeoutMs;
+
+    public ConnectionGate(DataSource pool, String name, int connections, long timeoutMs) {
+        super(pool);
+        this.name = name;
+        this.permits = new Semaphore(connections);
+        this.timeoutMs = timeoutMs;
+    }
+
+    // Runs the action with connections from any gate waited for at most timeoutMs
+    public static <T> T withAcquireTimeout(long timeoutMs, Supplier<T> action) {
+        Long previous = ACQUIRE_TIMEOUT_MS.get();
+        ACQUIRE_TIMEOUT_MS.set(timeoutMs);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                ACQUIRE_TIMEOUT_MS.remove();
+            } else {
+                ACQUIRE_TIMEOUT_MS.set(previous);
+            }
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    private void acquire() throws SQLException {
+        Long scoped = ACQUIRE_TIMEOUT_MS.get();
+        long waitMs = scoped != null ? Math.min(scoped, timeoutMs) : timeoutMs;
+        try {
+            if (!permits.tryAcquire(waitMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException(
+                    name + " - Connection is not available, request timed out after " + waitMs + "ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException(name + " - Interrupted during connection acquisition", e);
+        }
+    }
+
+    private Connection releasingOnClose(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+            (proxy, method, args) -> {
+                if (method.getName().equals("close") && released.compareAndSet(false, true)) {
+                    try {
+                        connection.close();
+                    } finally {
+                        permits.release();
+                    }
+                    return null;
+                }
+                try {
+                    return method.invoke(connection, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+    }
+}
@@ -0,0 +1,9 @@
+package com.fiverr.demo.repository;
+
+import com.fiverr.demo.entity.LinkClickTotals;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface LinkClickTotalsRepository extends JpaRepository<LinkClickTotals, Long>, LinkClickTotalsUpsert {
+}
@@ -0,0 +1,9 @@
+package com.fiverr.demo.repository;
+
+import com.fiverr.demo.dto.ClickTotalsDelta;
+
+import java.util.List;
+
+public interface LinkClickTotalsUpsert {
+    void addDeltas(List<ClickTotalsDelta> deltas);
+}
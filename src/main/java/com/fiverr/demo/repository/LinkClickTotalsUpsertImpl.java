@@ -0,0 +1,48 @@
+package com.fiverr.demo.repository;
+
+import com.fiverr.demo.dto.ClickTotalsDelta;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+public class LinkClickTotalsUpsertImpl implements LinkClickTotalsUpsert {
+
+    // Standard MERGE runs unchanged on PostgreSQL 15+ and H2; the casts give the
+    // VALUES row typed columns on PostgreSQL.
+    private static final String UPSERT_SQL = """
+        MERGE INTO link_click_totals t
+        USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS NUMERIC(14,2)),
+                       CAST(? AS BIGINT)))
+            AS d(link_id, valid_clicks, invalid_clicks, earnings, deduplicated_clicks)
+        ON t.link_id = d.link_id
+        WHEN MATCHED THEN UPDATE SET
+            valid_clicks = t.valid_clicks + d.valid_clicks,
+            invalid_clicks = t.invalid_clicks + d.invalid_clicks,
+            earnings = t.earnings + d.earnings,
+            deduplicated_clicks = t.deduplicated_clicks + d.deduplicated_clicks
+        WHEN NOT MATCHED THEN INSERT (link_id, valid_clicks, invalid_clicks, earnings, deduplicated_clicks)
+            VALUES (d.link_id, d.valid_clicks, d.invalid_clicks, d.earnings, d.deduplicated_clicks)
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // Counter flushes are click writes, on the clicks workload pool
+    public LinkClickTotalsUpsertImpl(WorkloadPools workloadPools) {
+        this.jdbcTemplate = workloadPools.jdbc(WorkloadPools.Workload.CLICKS);
+        this.transactionTemplate = workloadPools.transactions(WorkloadPools.Workload.CLICKS);
+    }
+
+    @Override
+    public void addDeltas(List<ClickTotalsDelta> deltas) {
+        transactionTemplate.executeWithoutResult(status ->
+            jdbcTemplate.batchUpdate(UPSERT_SQL, deltas, deltas.size(), (ps, delta) -> {
+                ps.setLong(1, delta.getLinkId());
+                ps.setLong(2, delta.getValidClicks());
+                ps.setLong(3, delta.getInvalidClicks());
+                ps.setBigDecimal(4, delta.getEarnings());
+                ps.setLong(5, delta.getDeduplicatedClicks());
+            }));
+    }
+}
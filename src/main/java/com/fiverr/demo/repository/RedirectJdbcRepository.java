@@ -0,0 +1,72 @@
+package com.fiverr.demo.repository;
+
+import com.fiverr.demo.dto.ResolvedLink;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Plain JDBC for the redirect hot path: no session, no entity hydration, no dirty checking.
+// The JPA entities (ShortenedLink, Click) stay in use for link creation and stats.
+// Clicks are inserted by ShardedClickRepository. The PostgreSQL driver turns the lookup into a
+// server-side prepared statement after a few executions on a connection (prepareThreshold),
+// so it is parsed once per connection. Runs on the redirect workload pool, so stats queries and
+// click writes holding connections never make a redirect wait.
+@Repository
+public class RedirectJdbcRepository {
+
+    private static final String RESOLVE_SQL = "SELECT id, target_url FROM shortened_links WHERE short_code = ?";
+
+    private static final String RESOLVE_BY_IDS_SQL =
+        "SELECT id, short_code, target_url FROM shortened_links WHERE id IN (:ids)";
+
+    private static final String RESOLVE_IDS_SQL =
+        "SELECT short_code, id FROM shortened_links WHERE short_code IN (:shortCodes)";
+    private static final int MAX_IN_LIST = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public RedirectJdbcRepository(WorkloadPools workloadPools) {
+        this.jdbcTemplate = workloadPools.jdbc(WorkloadPools.Workload.REDIRECT);
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    public Optional<ResolvedLink> findByShortCode(String shortCode) {
+        List<ResolvedLink> links = jdbcTemplate.query(RESOLVE_SQL,
+            (rs, rowNum) -> new ResolvedLink(rs.getLong(1), shortCode, rs.getString(2)), shortCode);
+        return links.isEmpty() ? Optional.empty() : Optional.of(links.get(0));
+    }
+
+    // Links by primary key for bulk resolution; unknown ids are absent from the result
+    public List<ResolvedLink> findByIds(Collection<Long> ids) {
+        List<ResolvedLink> links = new ArrayList<>();
+        List<Long> keys = new ArrayList<>(ids);
+        for (int from = 0; from < keys.size(); from += MAX_IN_LIST) {
+            List<Long> chunk = keys.subList(from, Math.min(keys.size(), from + MAX_IN_LIST));
+            links.addAll(namedJdbcTemplate.query(RESOLVE_BY_IDS_SQL, Map.of("ids", chunk),
+                (rs, rowNum) -> new ResolvedLink(rs.getLong(1), rs.getString(2), rs.getString(3))));
+        }
+        return links;
+    }
+
+    // Link ids by short code for bulk imports; unknown codes are absent from the result
+    public Map<String, Long> findIdsByShortCodes(Collection<String> shortCodes) {
+        Map<String, Long> ids = new HashMap<>();
+        List<String> codes = new ArrayList<>(shortCodes);
+        for (int from = 0; from < codes.size(); from += MAX_IN_LIST) {
+            List<String> chunk = codes.subList(from, Math.min(codes.size(), from + MAX_IN_LIST));
+            namedJdbcTemplate.query(RESOLVE_IDS_SQL, Map.of("shortCodes", chunk),
+                rs -> {
+                    ids.put(rs.getString(1), rs.getLong(2));
+                });
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,503 @@
+package com.fiverr.demo.repository;
+
+import com.fiverr.demo.dto.ClickEvent;
+import com.fiverr.demo.dto.ImportedClick;
+import com.fiverr.demo.dto.StatsRange;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Click reads and writes over ClickShards. Writes go to the link's shard; reads scatter to all
+// shards and sum, so they stay correct while a ClickRebalancer run has a link split across two.
+// Reads and archival exports go through the shards' read pools. With app.click-outbox.enabled,
+// every click written also writes its ClickEvent to click_outbox on the same shard, in the same
+// transaction, for ClickOutboxRelay. A provisional click, accepted without a fraud check, is
+// written with its row in pending_fraud_checks, which DeferredFraudCheckService deletes once the
+// check has run, so the checks still owed survive a restart.
+@Repository
+public class ShardedClickRepository {
+
+    private static final String INSERT_CLICK_SQL =
+        "INSERT INTO clicks (link_id, clicked_at, is_valid) VALUES (?, ?, ?)";
+    private static final String[] GENERATED_ID = {"id"};
+    private static final String COPY_CLICKS_SQL =
+        "COPY clicks (link_id, clicked_at, is_valid) FROM STDIN (FORMAT csv)";
+    private static final int INSERT_BATCH_SIZE = 1000;
+    private static final String MARK_INVALID_SQL =
+        "UPDATE clicks SET is_valid = FALSE WHERE id = ? AND is_valid = TRUE";
+    public static final String COUNT_VALID_SQL = """
+        SELECT link_id, COUNT(*) FROM clicks
+        WHERE link_id IN (:linkIds) AND is_valid = TRUE
+        GROUP BY link_id
+        """;
+    private static final String COUNT_INVALID_SQL = """
+        SELECT link_id, COUNT(*) FROM clicks
+        WHERE link_id IN (:linkIds) AND is_valid = FALSE
+        GROUP BY link_id
+        """;
+    private static final String MOST_CLICKED_SQL = """
+        SELECT link_id, COUNT(*) AS click_count FROM clicks
+        WHERE clicked_at >= ?
+        GROUP BY link_id
+        ORDER BY click_count DESC
+        LIMIT ?
+        """;
+
+    private static final String OLDEST_CLICK_SQL = "SELECT MIN(clicked_at) FROM clicks WHERE clicked_at < ?";
+    private static final String MAX_CLICK_ID_SQL =
+        "SELECT MAX(id) FROM clicks WHERE clicked_at >= ? AND clicked_at < ?";
+    private static final String EXPORT_CLICKS_SQL = """
+        SELECT id, link_id, clicked_at, is_valid FROM clicks
+        WHERE clicked_at >= ? AND clicked_at < ? AND id <= ?
+          AND (link_id > ? OR (link_id = ? AND id > ?))
+        ORDER BY link_id, id
+        LIMIT ?
+        """;
+    private static final int EXPORT_PAGE_SIZE = 10000;
+    private static final String DELETE_CLICKS_SQL = "DELETE FROM clicks WHERE id IN (:ids)";
+
+    private static final String INSERT_OUTBOX_SQL =
+        "INSERT INTO click_outbox (event_type, click_id, link_id, clicked_at, is_valid) VALUES (?, ?, ?, ?, ?)";
+    private static final String COPY_OUTBOX_SQL =
+        "COPY click_outbox (link_id, clicked_at, is_valid, event_type) FROM STDIN (FORMAT csv)";
+    private static final String INVALIDATED_OUTBOX_SQL = """
+        INSERT INTO click_outbox (event_type, click_id, link_id, clicked_at, is_valid)
+        SELECT CAST(? AS SMALLINT), id, link_id, clicked_at, is_valid FROM clicks WHERE id = ?
+        """;
+    // Locked, so a second relay on another instance waits instead of publishing the same rows
+    private static final String READ_OUTBOX_SQL = """
+        SELECT id, event_type, click_id, link_id, clicked_at, is_valid FROM click_outbox
+        ORDER BY id
+        LIMIT ?
+        FOR UPDATE
+        """;
+    private static final String DELETE_OUTBOX_SQL = "DELETE FROM click_outbox WHERE id IN (:ids)";
+
+    private static final String INSERT_PENDING_CHECK_SQL =
+        "INSERT INTO pending_fraud_checks (click_id, link_id) VALUES (?, ?)";
+    private static final String DELETE_PENDING_CHECK_SQL = "DELETE FROM pending_fraud_checks WHERE click_id = ?";
+    private static final String READ_PENDING_CHECKS_SQL =
+        "SELECT click_id, link_id FROM pending_fraud_checks ORDER BY click_id LIMIT ?";
+    private static final int MAX_IN_LIST = 1000;
+
+    @FunctionalInterface
+    public interface ExportedRow {
+        void accept(long clickId, long linkId, LocalDateTime clickedAt, boolean valid) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface OutboxPublisher {
+        // Returns once the events are durably accepted
+        void publish(List<ClickEvent> events) throws IOException;
+    }
+
+    private final ClickShards shards;
+    private final ClickArchive archive;
+    private final boolean outboxEnabled;
+    private final long redirectAcquireTimeoutMs;
+
+    public ShardedClickRepository(ClickShards shards,
+                                  ClickArchive archive,
+                                  @Value("${app.click-outbox.enabled:false}") boolean outboxEnabled,
+                                  @Value("${app.pools.clicks.redirect-acquire-timeout-ms:50}")
+                                  long redirectAcquireTimeoutMs) {
+        this.shards = shards;
+        this.archive = archive;
+        this.outboxEnabled = outboxEnabled;
+        this.redirectAcquireTimeoutMs = redirectAcquireTimeoutMs;
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    // Returns the new click id. Without the outbox this is a single auto-committed statement.
+    // Redirect inserts wait at most app.pools.clicks.redirect-acquire-timeout-ms for a connection,
+    // then fail with CannotGetJdbcConnectionException (CannotCreateTransactionException in a transaction)
+    public long insertClick(long linkId, boolean isValid) {
+        Timestamp clickedAt = Timestamp.valueOf(LocalDateTime.now());
+        int shard = shards.shardFor(linkId);
+        return ConnectionGate.withAcquireTimeout(redirectAcquireTimeoutMs, () -> {
+            if (!outboxEnabled) {
+                return insertClick(shards.shard(shard), linkId, clickedAt, isValid);
+            }
+            return shards.transactions(shard).execute(status -> {
+                long clickId = insertClick(shards.shard(shard), linkId, clickedAt, isValid);
+                shards.shard(shard).update(INSERT_OUTBOX_SQL, ClickEvent.Type.CLICK.code(), clickId, linkId,
+                    clickedAt, isValid);
+                return clickId;
+            });
+        });
+    }
+
+    // A valid click whose fraud check is owed, with its pending check in the same transaction.
+    // Waits for a connection like insertClick
+    public long insertProvisionalClick(long linkId) {
+        Timestamp clickedAt = Timestamp.valueOf(LocalDateTime.now());
+        int shard = shards.shardFor(linkId);
+        return ConnectionGate.withAcquireTimeout(redirectAcquireTimeoutMs, () ->
+            shards.transactions(shard).execute(status -> {
+                long clickId = insertClick(shards.shard(shard), linkId, clickedAt, true);
+                shards.shard(shard).update(INSERT_PENDING_CHECK_SQL, clickId, linkId);
+                if (outboxEnabled) {
+                    shards.shard(shard).update(INSERT_OUTBOX_SQL, ClickEvent.Type.CLICK.code(), clickId, linkId,
+                        clickedAt, true);
+                }
+                return clickId;
+            }));
+    }
+
+    private static long insertClick(JdbcTemplate shard, long linkId, Timestamp clickedAt, boolean isValid) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        shard.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(INSERT_CLICK_SQL, GENERATED_ID);
+            ps.setLong(1, linkId);
+            ps.setTimestamp(2, clickedAt);
+            ps.setBoolean(3, isValid);
+            return ps;
+        }, keyHolder);
+        return keyHolder.getKeyAs(Long.class);
+    }
+
+    // Bulk load for imports: each shard's rows go in one COPY on PostgreSQL, or in JDBC batches
+    // elsewhere (H2), with the shards loaded in parallel. Returns the number of rows loaded
+    public long insertClicks(List<ImportedClick> clicks) {
+        Map<JdbcTemplate, List<ImportedClick>> byShard = new HashMap<>();
+        Map<JdbcTemplate, Integer> shardIndexes = new HashMap<>();
+        for (ImportedClick click : clicks) {
+            int index = shards.shardFor(click.getLinkId());
+            shardIndexes.put(shards.shard(index), index);
+            byShard.computeIfAbsent(shards.shard(index), shard -> new ArrayList<>()).add(click);
+        }
+        long loaded = 0;
+        for (long rows : shards.scatter(shard -> {
+                List<ImportedClick> shardClicks = byShard.getOrDefault(shard, List.of());
+                if (shardClicks.isEmpty() || !outboxEnabled) {
+                    return load(shard, shardClicks, false);
+                }
+                // The clicks and their outbox events commit together
+                return shards.transactions(shardIndexes.get(shard)).execute(status -> load(shard, shardClicks, true));
+            })) {
+            loaded += rows;
+        }
+        return loaded;
+    }
+
+    // 1 when the click was valid and is now invalid
+    public int markInvalid(long linkId, long clickId) {
+        int shard = shards.shardFor(linkId);
+        int updated = markInvalid(shard, clickId);
+        if (updated == 0 && shards.size() > 1) {
+            // Click ids are unique across shards, so a click moved by a rebalance is found elsewhere
+            for (int i = 0; i < shards.size() && updated == 0; i++) {
+                if (i != shard) {
+                    updated = markInvalid(i, clickId);
+                }
+            }
+        }
+        return updated;
+    }
+
+    // Records the deferred fraud check of a provisional click: flips it to invalid when fraudulent,
+    // then drops its pending check. A crash in between leaves the check pending, and running it
+    // again changes nothing. Returns 1 when the click was flipped
+    public int resolvePendingCheck(long linkId, long clickId, boolean fraudulent) {
+        int updated = fraudulent ? markInvalid(linkId, clickId) : 0;
+        int shard = shards.shardFor(linkId);
+        // The check stays on the shard the click was written to when a rebalance moves the click
+        if (shards.shard(shard).update(DELETE_PENDING_CHECK_SQL, clickId) == 0) {
+            for (int i = 0; i < shards.size(); i++) {
+                if (i != shard && shards.shard(i).update(DELETE_PENDING_CHECK_SQL, clickId) > 0) {
+                    break;
+                }
+            }
+        }
+        return updated;
+    }
+
+    // Up to limit pending checks, click id to link id, lowest click ids of each shard first
+    public Map<Long, Long> pendingChecks(int limit) {
+        Map<Long, Long> pending = new LinkedHashMap<>();
+        for (int shard = 0; shard < shards.size() && pending.size() < limit; shard++) {
+            shards.shard(shard).query(READ_PENDING_CHECKS_SQL,
+                (RowCallbackHandler) rs -> pending.put(rs.getLong(1), rs.getLong(2)), limit - pending.size());
+        }
+        return pending;
+    }
+
+    private int markInvalid(int shard, long clickId) {
+        if (!outboxEnabled) {
+            return shards.shard(shard).update(MARK_INVALID_SQL, clickId);
+        }
+        return shards.transactions(shard).execute(status -> {
+            int updated = shards.shard(shard).update(MARK_INVALID_SQL, clickId);
+            if (updated > 0) {
+                shards.shard(shard).update(INVALIDATED_OUTBOX_SQL, ClickEvent.Type.INVALIDATED.code(), clickId);
+            }
+            return updated;
+        });
+    }
+
+    // Hands up to limit of the shard's oldest outbox events to the publisher and deletes them, in
+    // one transaction on the shard. The delete is the relay's checkpoint: when publish throws,
+    // nothing is deleted and the events are handed over again on the next call. Returns the number
+    // of events published
+    public int relayOutbox(int shard, int limit, OutboxPublisher publisher) {
+        return shards.transactions(shard).execute(status -> {
+            List<ClickEvent> events = shards.shard(shard).query(READ_OUTBOX_SQL,
+                (rs, rowNum) -> new ClickEvent(shard, rs.getLong(1), ClickEvent.Type.ofCode(rs.getInt(2)),
+                    rs.getObject(3, Long.class), rs.getLong(4), rs.getTimestamp(5).toLocalDateTime(),
+                    rs.getBoolean(6)),
+                limit);
+            if (events.isEmpty()) {
+                return 0;
+            }
+            try {
+                publisher.publish(events);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            List<Long> ids = events.stream().map(ClickEvent::getSequence).toList();
+            for (int from = 0; from < ids.size(); from += MAX_IN_LIST) {
+                named(shards.shard(shard)).update(DELETE_OUTBOX_SQL,
+                    Map.of("ids", ids.subList(from, Math.min(ids.size(), from + MAX_IN_LIST))));
+            }
+            return events.size();
+        });
+    }
+
+    public Map<Long, Long> countValidClicks(Collection<Long> linkIds) {
+        Map<Long, Long> counts = new HashMap<>();
+        if (linkIds.isEmpty()) {
+            return counts;
+        }
+        Map<String, Object> params = Map.of("linkIds", linkIds);
+        for (List<Object[]> rows : shards.scatterReads(shard -> named(shard).query(COUNT_VALID_SQL, params,
+                (rs, rowNum) -> new Object[] {rs.getLong(1), rs.getLong(2)}))) {
+            for (Object[] row : rows) {
+                counts.merge((Long) row[0], (Long) row[1], Long::sum);
+            }
+        }
+        archive.addValidClicks(linkIds, counts);
+        return counts;
+    }
+
+    // Invalid clicks still in the database. The archive keeps valid counts only; a link with
+    // archived clicks has had its totals flushed, or backfilled, long before
+    public Map<Long, Long> countInvalidClicks(Collection<Long> linkIds) {
+        Map<Long, Long> counts = new HashMap<>();
+        if (linkIds.isEmpty()) {
+            return counts;
+        }
+        Map<String, Object> params = Map.of("linkIds", linkIds);
+        for (List<Object[]> rows : shards.scatterReads(shard -> named(shard).query(COUNT_INVALID_SQL, params,
+                (rs, rowNum) -> new Object[] {rs.getLong(1), rs.getLong(2)}))) {
+            for (Object[] row : rows) {
+                counts.merge((Long) row[0], (Long) row[1], Long::sum);
+            }
+        }
+        return counts;
+    }
+
+    // Valid clicks per bucket of the range (newest first) of each link that has any. The bounds are
+    // plain timestamp comparisons, so each shard range-scans idx_link_clicked_at per link and only
+    // the clicks inside the range are read and bucketed. Labels: YYYY-MM-DD, IYYY-"W"IW, YYYY-MM.
+    // Archived months are added from the ClickArchive segments
+    public Map<Long, Map<String, Long>> validClicksByBucket(Collection<Long> linkIds, StatsRange range) {
+        Map<Long, TreeMap<String, Long>> merged = new HashMap<>();
+        if (!linkIds.isEmpty()) {
+            MapSqlParameterSource params = new MapSqlParameterSource("linkIds", linkIds);
+            if (range.getFrom() != null) {
+                params.addValue("from", Timestamp.valueOf(range.getFrom()));
+            }
+            if (range.getTo() != null) {
+                params.addValue("to", Timestamp.valueOf(range.getTo()));
+            }
+            String sql = bucketSql(range);
+            for (List<Object[]> rows : shards.scatterReads(shard -> named(shard).query(sql, params,
+                    (rs, rowNum) -> new Object[] {rs.getLong(1), rs.getString(2), rs.getLong(3)}))) {
+                for (Object[] row : rows) {
+                    merged.computeIfAbsent((Long) row[0], id -> new TreeMap<>(Comparator.reverseOrder()))
+                        .merge((String) row[1], (Long) row[2], Long::sum);
+                }
+            }
+            archive.addValidClicksByBucket(linkIds, range, merged);
+        }
+        Map<Long, Map<String, Long>> breakdowns = new HashMap<>();
+        merged.forEach((linkId, buckets) -> breakdowns.put(linkId, new LinkedHashMap<>(buckets)));
+        return breakdowns;
+    }
+
+    // Ids of the links with the most clicks since the given time, most clicked first
+    public List<Long> findMostClickedLinkIdsSince(LocalDateTime since, int limit) {
+        Map<Long, Long> counts = new HashMap<>();
+        for (List<Object[]> rows : shards.scatterReads(shard -> shard.query(MOST_CLICKED_SQL,
+                (rs, rowNum) -> new Object[] {rs.getLong(1), rs.getLong(2)}, Timestamp.valueOf(since), limit))) {
+            for (Object[] row : rows) {
+                counts.merge((Long) row[0], (Long) row[1], Long::sum);
+            }
+        }
+        List<Map.Entry<Long, Long>> ranked = new ArrayList<>(counts.entrySet());
+        ranked.sort(Map.Entry.<Long, Long>comparingByValue(Collections.reverseOrder()));
+        List<Long> linkIds = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (int i = 0; i < ranked.size() && i < limit; i++) {
+            linkIds.add(ranked.get(i).getKey());
+        }
+        return linkIds;
+    }
+
+    // Clicks of the shard older than the given time, for archival
+    public LocalDateTime oldestClickBefore(int shard, LocalDateTime before) {
+        Timestamp oldest = shards.readShard(shard).queryForObject(OLDEST_CLICK_SQL, Timestamp.class,
+            Timestamp.valueOf(before));
+        return oldest == null ? null : oldest.toLocalDateTime();
+    }
+
+    // Highest click id of the shard in the month, or null when the month has no clicks
+    public Long maxClickId(int shard, YearMonth month) {
+        return shards.readShard(shard).queryForObject(MAX_CLICK_ID_SQL, Long.class, monthStart(month),
+            monthStart(month.plusMonths(1)));
+    }
+
+    // Hands the shard's clicks of the month with ids up to upToId to the consumer, in (link_id, id)
+    // order and keyset pages, so neither side holds the month in memory. Archived rows have left
+    // the table, so every row found is unarchived, whatever its id: rows moved in by ClickRebalancer
+    // keep the ids of their old shard
+    public void exportClicks(int shard, YearMonth month, long upToId, ExportedRow consumer) {
+        long lastLinkId = Long.MIN_VALUE;
+        long lastId = Long.MIN_VALUE;
+        int read;
+        do {
+            List<Object[]> rows = shards.readShard(shard).query(EXPORT_CLICKS_SQL,
+                (rs, rowNum) -> new Object[] {rs.getLong(1), rs.getLong(2), rs.getTimestamp(3), rs.getBoolean(4)},
+                monthStart(month), monthStart(month.plusMonths(1)), upToId,
+                lastLinkId, lastLinkId, lastId, EXPORT_PAGE_SIZE);
+            for (Object[] row : rows) {
+                try {
+                    consumer.accept((Long) row[0], (Long) row[1], ((Timestamp) row[2]).toLocalDateTime(),
+                        (Boolean) row[3]);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                lastId = (Long) row[0];
+                lastLinkId = (Long) row[1];
+            }
+            read = rows.size();
+        } while (read == EXPORT_PAGE_SIZE);
+    }
+
+    // Deletes exactly the given clicks, chunk by chunk, in one transaction on the shard, so archived
+    // rows leave the table in a single commit. Ids that are already gone are skipped
+    public long deleteClicks(int shard, Iterator<List<Long>> idChunks) {
+        return shards.transactions(shard).execute(status -> {
+            long deleted = 0;
+            while (idChunks.hasNext()) {
+                deleted += named(shards.shard(shard)).update(DELETE_CLICKS_SQL, Map.of("ids", idChunks.next()));
+            }
+            return deleted;
+        });
+    }
+
+    private static Timestamp monthStart(YearMonth month) {
+        return Timestamp.valueOf(month.atDay(1).atStartOfDay());
+    }
+
+    // The bucket format is a constant per granularity, never user input. ReactiveClickStatsRepository
+    // runs the same SQL
+    public static String bucketSql(StatsRange range) {
+        String bucket = switch (range.getGranularity()) {
+            case DAY -> "TO_CHAR(clicked_at, 'YYYY-MM-DD')";
+            case WEEK -> "TO_CHAR(clicked_at, 'IYYY-\"W\"IW')";
+            case MONTH -> "TO_CHAR(clicked_at, 'YYYY-MM')";
+        };
+        StringBuilder sql = new StringBuilder("SELECT link_id, ").append(bucket)
+            .append(", COUNT(*) FROM clicks WHERE link_id IN (:linkIds)");
+        if (range.getFrom() != null) {
+            sql.append(" AND clicked_at >= :from");
+        }
+        if (range.getTo() != null) {
+            sql.append(" AND clicked_at < :to");
+        }
+        return sql.append(" AND is_valid = TRUE GROUP BY link_id, ").append(bucket).toString();
+    }
+
+    // Imported clicks go to the outbox without their ids, which COPY and batches do not return
+    private static long load(JdbcTemplate shard, List<ImportedClick> clicks, boolean withOutbox) {
+        if (clicks.isEmpty()) {
+            return 0;
+        }
+        Long copied = shard.execute((ConnectionCallback<Long>) connection -> {
+            if (!connection.isWrapperFor(PGConnection.class)) {
+                return null;
+            }
+            StringBuilder csv = new StringBuilder(clicks.size() * 48);
+            for (ImportedClick click : clicks) {
+                csv.append(click.getLinkId()).append(',')
+                    .append(Timestamp.valueOf(click.getClickedAt())).append(',')
+                    .append(click.isValid()).append('\n');
+            }
+            try {
+                long rows = connection.unwrap(PGConnection.class).getCopyAPI()
+                    .copyIn(COPY_CLICKS_SQL, new StringReader(csv.toString()));
+                if (withOutbox) {
+                    String events = csv.toString().replace("\n", "," + ClickEvent.Type.CLICK.code() + "\n");
+                    connection.unwrap(PGConnection.class).getCopyAPI()
+                        .copyIn(COPY_OUTBOX_SQL, new StringReader(events));
+                }
+                return rows;
+            } catch (IOException e) {
+                throw new DataAccessResourceFailureException("COPY into clicks failed", e);
+            }
+        });
+        if (copied != null) {
+            return copied;
+        }
+        shard.batchUpdate(INSERT_CLICK_SQL, clicks, INSERT_BATCH_SIZE, (ps, click) -> {
+            ps.setLong(1, click.getLinkId());
+            ps.setTimestamp(2, Timestamp.valueOf(click.getClickedAt()));
+            ps.setBoolean(3, click.isValid());
+        });
+        if (withOutbox) {
+            shard.batchUpdate(INSERT_OUTBOX_SQL, clicks, INSERT_BATCH_SIZE, (ps, click) -> {
+                ps.setInt(1, ClickEvent.Type.CLICK.code());
+                ps.setNull(2, Types.BIGINT);
+                ps.setLong(3, click.getLinkId());
+                ps.setTimestamp(4, Timestamp.valueOf(click.getClickedAt()));
+                ps.setBoolean(5, click.isValid());
+            });
+        }
+        return clicks.size();
+    }
+
+    private static NamedParameterJdbcTemplate named(JdbcTemplate shard) {
+        return new NamedParameterJdbcTemplate(shard);
+    }
+}
@@ -1,13 +1,22 @@
 package com.fiverr.demo.repository;
 
+import com.fiverr.demo.dto.ResolvedLink;
 import com.fiverr.demo.entity.ShortenedLink;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ShortenedLinkRepository extends JpaRepository<ShortenedLink, Long> {
     Optional<ShortenedLink> findByTargetUrl(String targetUrl);
     Optional<ShortenedLink> findByShortCode(String shortCode);
+
+    @Query("SELECT new com.fiverr.demo.dto.ResolvedLink(l.id, l.shortCode, l.targetUrl) " +
+           "FROM ShortenedLink l WHERE l.id > :afterId AND l.shortCode IS NOT NULL ORDER BY l.id")
+    List<ResolvedLink> findResolvedAfter(@Param("afterId") long afterId, Pageable pageable);
 }
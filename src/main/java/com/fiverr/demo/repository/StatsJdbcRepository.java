@@ -0,0 +1,95 @@
+package com.fiverr.demo.repository;
+
+import com.fiverr.demo.entity.LinkClickTotals;
+import com.fiverr.demo.entity.ShortenedLink;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+// Link and totals reads for the stats endpoints, on the analytics workload pool, so a burst of
+// stats requests waits for analytics connections instead of taking the ones redirects and click
+// writes need. Read-only, with no entity state: the JPA repositories stay in use for link creation.
+@Repository
+public class StatsJdbcRepository {
+
+    private static final String LINKS_PAGE_SQL =
+        "SELECT id, short_code, target_url, created_at FROM shortened_links ORDER BY id LIMIT ? OFFSET ?";
+    private static final String COUNT_LINKS_SQL = "SELECT COUNT(*) FROM shortened_links";
+    private static final String LINK_BY_SHORT_CODE_SQL =
+        "SELECT id, short_code, target_url, created_at FROM shortened_links WHERE short_code = ?";
+    private static final String TOTALS_SQL = """
+        SELECT link_id, valid_clicks, invalid_clicks, earnings FROM link_click_totals
+        WHERE link_id IN (:linkIds)
+        """;
+    private static final int MAX_IN_LIST = 1000;
+
+    private static final RowMapper<ShortenedLink> LINK_ROW = (rs, rowNum) -> {
+        ShortenedLink link = new ShortenedLink();
+        link.setId(rs.getLong(1));
+        link.setShortCode(rs.getString(2));
+        link.setTargetUrl(rs.getString(3));
+        link.setCreatedAt(rs.getTimestamp(4).toLocalDateTime());
+        return link;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate snapshotTemplate;
+
+    public StatsJdbcRepository(WorkloadPools workloadPools) {
+        this.jdbcTemplate = workloadPools.jdbc(WorkloadPools.Workload.ANALYTICS);
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = workloadPools.transactions(WorkloadPools.Workload.ANALYTICS);
+        this.snapshotTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager(),
+            transactionTemplate);
+        this.snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    // Runs the reads in one read-only transaction on the analytics pool. Repeatable read gives
+    // every statement the same snapshot, so a page and its totals are never from different moments
+    public <T> T inSnapshot(Supplier<T> reads) {
+        return snapshotTemplate.execute(status -> reads.get());
+    }
+
+    // A page of links in id order; the page and its count are read on one connection
+    public Page<ShortenedLink> findLinks(Pageable pageable) {
+        return transactionTemplate.execute(status -> {
+            List<ShortenedLink> links = jdbcTemplate.query(LINKS_PAGE_SQL, LINK_ROW,
+                pageable.getPageSize(), pageable.getOffset());
+            return PageableExecutionUtils.getPage(links, pageable,
+                () -> jdbcTemplate.queryForObject(COUNT_LINKS_SQL, Long.class));
+        });
+    }
+
+    public Optional<ShortenedLink> findByShortCode(String shortCode) {
+        List<ShortenedLink> links = jdbcTemplate.query(LINK_BY_SHORT_CODE_SQL, LINK_ROW, shortCode);
+        return links.isEmpty() ? Optional.empty() : Optional.of(links.get(0));
+    }
+
+    // Persisted click totals; links that were never flushed are absent
+    public List<LinkClickTotals> findTotals(Collection<Long> linkIds) {
+        List<LinkClickTotals> totals = new ArrayList<>();
+        List<Long> ids = new ArrayList<>(linkIds);
+        for (int from = 0; from < ids.size(); from += MAX_IN_LIST) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + MAX_IN_LIST));
+            totals.addAll(namedJdbcTemplate.query(TOTALS_SQL, Map.of("linkIds", chunk),
+                (rs, rowNum) -> new LinkClickTotals(rs.getLong(1), rs.getLong(2), rs.getLong(3),
+                    rs.getBigDecimal(4))));
+        }
+        return totals;
+    }
+}
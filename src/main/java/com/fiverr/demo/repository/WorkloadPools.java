@@ -0,0 +1,67 @@
+package com.fiverr.demo.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Connection pools per workload, so one kind of traffic cannot take the connections another
+ * needs: redirect lookups, click writes and stats queries each wait only for their own pool.
+ * A workload without a pool of its own shares the primary datasource and its transaction manager.
+ */
+public class WorkloadPools implements Closeable {
+
+    public enum Workload {
+        REDIRECT, CLICKS, ANALYTICS;
+
+        // Name under app.pools.* and the Hikari pool name
+        public String propertyName() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final Map<Workload, JdbcTemplate> templates;
+    private final Map<Workload, TransactionTemplate> transactions;
+    private final Set<Workload> isolated;
+    private final List<Closeable> resources;
+
+    public WorkloadPools(Map<Workload, JdbcTemplate> templates, Map<Workload, TransactionTemplate> transactions,
+                         Set<Workload> isolated, List<Closeable> resources) {
+        for (Workload workload : Workload.values()) {
+            if (!templates.containsKey(workload) || !transactions.containsKey(workload)) {
+                throw new IllegalArgumentException("No connection pool for workload " + workload);
+            }
+        }
+        this.templates = new EnumMap<>(templates);
+        this.transactions = new EnumMap<>(transactions);
+        this.isolated = Set.copyOf(isolated);
+        this.resources = List.copyOf(resources);
+    }
+
+    public JdbcTemplate jdbc(Workload workload) {
+        return templates.get(workload);
+    }
+
+    // Transactions on the workload's pool; JdbcTemplate calls inside them share one connection
+    public TransactionTemplate transactions(Workload workload) {
+        return transactions.get(workload);
+    }
+
+    public boolean isIsolated(Workload workload) {
+        return isolated.contains(workload);
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Closeable resource : resources) {
+            resource.close();
+        }
+    }
+}
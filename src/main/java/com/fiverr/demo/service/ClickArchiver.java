@@ -0,0 +1,177 @@
+package com.fiverr.demo.service;
+
+import com.fiverr.demo.config.SchedulingConfig;
+import com.fiverr.demo.repository.ClickArchive;
+import com.fiverr.demo.repository.ClickArchiveLock;
+import com.fiverr.demo.repository.ShardedClickRepository;
+import com.fiverr.demo.util.ClickIdFile;
+import com.fiverr.demo.util.ClickSegment;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Map;
+
+// Moves closed months of clicks out of the database into ClickArchive segments, one segment per
+// shard and month. Per-link totals live in link_click_totals and are not touched; the monthly
+// breakdown reads the archived months from the segments. Disabled by default.
+//
+// Rows are deleted by exact id: the ids that went into a segment are spilled to a ClickIdFile
+// that ClickArchive keeps beside the segment until the delete has committed, and a run that died
+// between the two finishes the delete on the next run. Rows that reach an archived month later,
+// imported or moved in by ClickRebalancer with whatever id they carry, are still in the table on
+// the next run and go into a further segment.
+//
+// Every instance may have it enabled: a run archives only while holding ClickArchiveLock, so one
+// instance at a time writes segments and deletes rows, and the others only refresh() the archive
+// to pick up its segments. That needs app.click-archive.directory on storage all instances share;
+// an instance whose directory is not the one archived to so far refuses to start.
+@Service
+public class ClickArchiver implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ClickArchiver.class);
+    // Ids per DELETE ... IN statement
+    private static final int DELETE_CHUNK_SIZE = 1000;
+
+    private final ShardedClickRepository clickRepository;
+    private final ClickArchive archive;
+    private final ClickArchiveLock archiveLock;
+    private final boolean enabled;
+    private final int retainMonths;
+    private final Counter archivedClicks;
+
+    public ClickArchiver(ShardedClickRepository clickRepository,
+                         ClickArchive archive,
+                         ClickArchiveLock archiveLock,
+                         MeterRegistry meterRegistry,
+                         @Value("${app.click-archive.enabled:false}") boolean enabled,
+                         @Value("${app.click-archive.retain-months:3}") int retainMonths) {
+        if (retainMonths < 1) {
+            throw new IllegalArgumentException("app.click-archive.retain-months must be at least 1");
+        }
+        this.clickRepository = clickRepository;
+        this.archive = archive;
+        this.archiveLock = archiveLock;
+        this.enabled = enabled;
+        this.retainMonths = retainMonths;
+        this.archivedClicks = meterRegistry.counter("clicks.archived");
+        Gauge.builder("clicks.archive.segments", archive, ClickArchive::size).register(meterRegistry);
+    }
+
+    // Checked after the schema is in place, and not at all in the database-less CDS training run
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (!enabled) {
+            return;
+        }
+        String owner = archiveLock.ownerStorageId();
+        if (owner != null && !owner.equals(archive.existingStorageId())) {
+            throw new IllegalStateException("app.click-archive.directory is not the directory the clicks were archived"
+                + " to (id " + owner + "); every instance must mount the same shared directory");
+        }
+    }
+
+    // Archives every month before the current one minus retain-months
+    @Scheduled(fixedDelayString = "${app.click-archive.interval-ms:3600000}",
+               scheduler = SchedulingConfig.CLICK_ARCHIVE)
+    public long archive() throws IOException {
+        if (!enabled) {
+            return 0;
+        }
+        return archiveBefore(YearMonth.now().minusMonths(retainMonths));
+    }
+
+    // Picks up the segments another instance archived
+    @Scheduled(fixedDelayString = "${app.click-archive.refresh-interval-ms:10000}",
+               scheduler = SchedulingConfig.CLICK_ARCHIVE)
+    public void refresh() throws IOException {
+        if (enabled) {
+            archive.refresh();
+        }
+    }
+
+    // Archives the months before cutoff on every shard; returns the number of clicks moved, or 0
+    // when another instance holds the archive lock
+    public long archiveBefore(YearMonth cutoff) throws IOException {
+        long[] archived = {0};
+        archiveLock.runExclusively(archive.storageId(), () -> archived[0] = archiveLocked(cutoff));
+        return archived[0];
+    }
+
+    private long archiveLocked(YearMonth cutoff) throws IOException {
+        archive.cleanUp();
+        // Rows a previous run wrote to a segment but did not get to delete
+        for (Map.Entry<Path, Integer> pending : archive.pendingDeletes().entrySet()) {
+            try (ClickIdFile.Reader ids = idChunks(pending.getKey())) {
+                clickRepository.deleteClicks(pending.getValue(), ids);
+            }
+            archive.deletesDone(pending.getKey());
+            archive.publish(pending.getKey());
+        }
+        LocalDateTime cutoffStart = cutoff.atDay(1).atStartOfDay();
+        long archived = 0;
+        for (int shard = 0; shard < clickRepository.shardCount(); shard++) {
+            LocalDateTime oldest = clickRepository.oldestClickBefore(shard, cutoffStart);
+            if (oldest == null) {
+                continue;
+            }
+            for (YearMonth month = YearMonth.from(oldest); month.isBefore(cutoff); month = month.plusMonths(1)) {
+                archived += archiveMonth(shard, month);
+            }
+        }
+        if (archived > 0) {
+            log.info("Archived {} clicks before {}; {} segments, {} archived clicks in total",
+                archived, cutoff, archive.size(), archive.rowCount());
+        }
+        return archived;
+    }
+
+    private long archiveMonth(int shard, YearMonth month) throws IOException {
+        Long maxClickId = clickRepository.maxClickId(shard, month);
+        if (maxClickId == null) {
+            return 0;
+        }
+        ClickSegment.Writer writer = new ClickSegment.Writer();
+        Path exportedIds = archive.newIdsFile();
+        try (ClickIdFile.Writer ids = new ClickIdFile.Writer(exportedIds)) {
+            clickRepository.exportClicks(shard, month, maxClickId, (clickId, linkId, clickedAt, valid) -> {
+                writer.add(linkId, clickedAt, valid);
+                ids.add(clickId);
+            });
+            ids.force();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(exportedIds);
+            throw e;
+        }
+        if (writer.getRowCount() == 0) {
+            Files.delete(exportedIds);
+            return 0;
+        }
+        Path segment = archive.write(shard, month, writer, maxClickId, exportedIds);
+        try (ClickIdFile.Reader ids = idChunks(segment)) {
+            clickRepository.deleteClicks(shard, ids);
+        } finally {
+            // Published even when the delete failed, so the next run deletes instead of rewriting
+            archive.publish(segment);
+        }
+        archive.deletesDone(segment);
+        archivedClicks.increment(writer.getRowCount());
+        return writer.getRowCount();
+    }
+
+    private ClickIdFile.Reader idChunks(Path segment) throws IOException {
+        return new ClickIdFile.Reader(archive.exportedIds(segment), DELETE_CHUNK_SIZE);
+    }
+}
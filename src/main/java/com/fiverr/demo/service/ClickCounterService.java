@@ -0,0 +1,146 @@
+package com.fiverr.demo.service;
+
+import com.fiverr.demo.dto.ClickTotalsDelta;
+import com.fiverr.demo.entity.Click;
+import com.fiverr.demo.entity.LinkClickTotals;
+import com.fiverr.demo.repository.LinkClickTotalsRepository;
+import com.fiverr.demo.util.LinkCounterTable;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Per-link click counters kept in memory and flushed to link_click_totals in one
+// batched upsert per interval, so hot links never become row-lock hotspots. A link's counters
+// are dropped after app.click-counters.evict-after-idle-flushes flushes without a click.
+@Service
+public class ClickCounterService {
+
+    private static final Logger log = LoggerFactory.getLogger(ClickCounterService.class);
+    private static final long CENTS_PER_VALID_CLICK =
+        Click.EARNINGS_PER_VALID_CLICK.movePointRight(2).longValueExact();
+
+    private final LinkClickTotalsRepository totalsRepository;
+    private final LiveStatsService liveStatsService;
+    private final LinkCounterTable pending = new LinkCounterTable();
+    private final int evictAfterIdleFlushes;
+
+    public ClickCounterService(LinkClickTotalsRepository totalsRepository,
+                               LiveStatsService liveStatsService,
+                               @Value("${app.click-counters.evict-after-idle-flushes:60}") int evictAfterIdleFlushes) {
+        this.totalsRepository = totalsRepository;
+        this.liveStatsService = liveStatsService;
+        this.evictAfterIdleFlushes = evictAfterIdleFlushes;
+    }
+
+    public void recordClick(long linkId, boolean isValid) {
+        if (isValid) {
+            pending.add(linkId, 1, 0, CENTS_PER_VALID_CLICK);
+            liveStatsService.record(linkId, 1, 0, CENTS_PER_VALID_CLICK);
+        } else {
+            pending.add(linkId, 0, 1, 0);
+            liveStatsService.record(linkId, 0, 1, 0);
+        }
+    }
+
+    // Clicks loaded in bulk by ClickImportService
+    public void recordClicks(long linkId, long validClicks, long invalidClicks) {
+        long cents = validClicks * CENTS_PER_VALID_CLICK;
+        pending.add(linkId, validClicks, invalidClicks, cents);
+        liveStatsService.record(linkId, validClicks, invalidClicks, cents);
+    }
+
+    // ClickDeduplicator suppressed a repeat click; not counted in the stats
+    public void recordDeduplicated(long linkId) {
+        pending.addDeduplicated(linkId, 1);
+    }
+
+    // A deferred fraud check overturned an accepted click
+    public void recordClickInvalidated(long linkId) {
+        pending.add(linkId, -1, 1, -CENTS_PER_VALID_CLICK);
+        liveStatsService.record(linkId, -1, 1, -CENTS_PER_VALID_CLICK);
+    }
+
+    @Scheduled(fixedDelayString = "${app.click-counters.flush-interval-ms:1000}",
+               initialDelayString = "${app.click-counters.flush-interval-ms:1000}")
+    public synchronized int flush() {
+        List<ClickTotalsDelta> deltas = new ArrayList<>();
+        pending.forEach(cell -> {
+            LinkCounterTable.Drained drained = cell.drain();
+            if (drained == LinkCounterTable.Drained.EMPTY) {
+                return;
+            }
+            ClickTotalsDelta delta = new ClickTotalsDelta(cell.getLinkId(), drained.getValidClicks(),
+                drained.getInvalidClicks(), drained.getEarningsCents(), drained.getDeduplicatedClicks());
+            if (!delta.isEmpty()) {
+                deltas.add(delta);
+            }
+        });
+        pending.evictIdle(evictAfterIdleFlushes);
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            totalsRepository.addDeltas(deltas);
+        } catch (RuntimeException e) {
+            // Put the deltas back so the next flush retries them
+            for (ClickTotalsDelta delta : deltas) {
+                pending.add(delta.getLinkId(), delta.getValidClicks(), delta.getInvalidClicks(),
+                    delta.getEarningsCents());
+                pending.addDeduplicated(delta.getLinkId(), delta.getDeduplicatedClicks());
+            }
+            log.warn("Failed to flush click counters for {} links, will retry", deltas.size(), e);
+            return 0;
+        }
+        return deltas.size();
+    }
+
+    // Grows with every click recorded for the link by this instance, and never goes back when
+    // the link's counters are evicted; 0 before the first
+    public long version(long linkId) {
+        return pending.version(linkId);
+    }
+
+    // Persisted totals plus unflushed deltas, for the links that have a persisted row.
+    // Links missing from the result have never been flushed and must be counted from clicks.
+    public Map<Long, LinkClickTotals> currentTotals(Collection<Long> linkIds) {
+        return withPending(totalsRepository.findAllById(linkIds));
+    }
+
+    // The persisted rows with the unflushed deltas added, by link id
+    public Map<Long, LinkClickTotals> withPending(Collection<LinkClickTotals> persistedTotals) {
+        Map<Long, LinkClickTotals> totals = new HashMap<>();
+        for (LinkClickTotals persisted : persistedTotals) {
+            totals.put(persisted.getLinkId(), withPending(persisted));
+        }
+        return totals;
+    }
+
+    // Copy of the persisted totals with the unflushed deltas added
+    public LinkClickTotals withPending(LinkClickTotals persisted) {
+        LinkClickTotals merged = new LinkClickTotals(persisted.getLinkId(),
+            persisted.getValidClicks(), persisted.getInvalidClicks(), persisted.getEarnings());
+        LinkCounterTable.Cell cell = pending.peek(persisted.getLinkId());
+        if (cell != null) {
+            merged.setValidClicks(merged.getValidClicks() + cell.getValidClicks());
+            merged.setInvalidClicks(merged.getInvalidClicks() + cell.getInvalidClicks());
+            merged.setEarnings(merged.getEarnings().add(BigDecimal.valueOf(cell.getEarningsCents(), 2)));
+        }
+        return merged;
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
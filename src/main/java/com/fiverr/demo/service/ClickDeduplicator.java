@@ -0,0 +1,48 @@
+package com.fiverr.demo.service;
+
+import com.fiverr.demo.dto.ClientInfo;
+import com.fiverr.demo.util.RecentKeySet;
+import com.fiverr.demo.util.SlidingWindowCounter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+// Drops repeat clicks of one client on one link within a short window (double taps, browser
+// prefetches) before the fraud check and the insert; the redirect itself is still served.
+// The client fingerprint is IP + user agent; clients without an IP are never deduplicated.
+// Suppressed clicks are counted per link in link_click_totals.deduplicated_clicks, and in total
+// in clicks.deduplicated, so they can be reconciled against traffic logs. A window of 0
+// disables deduplication.
+@Service
+public class ClickDeduplicator {
+
+    private static final int BUCKETS = 5;
+
+    private final RecentKeySet recent;
+    private final ClickCounterService clickCounterService;
+    private final Counter suppressed;
+
+    public ClickDeduplicator(ClickCounterService clickCounterService,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.click-dedup.window-ms:10000}") long windowMs,
+                             @Value("${app.click-dedup.max-entries:100000}") int maxEntries) {
+        this.clickCounterService = clickCounterService;
+        this.recent = windowMs > 0 ? new RecentKeySet(windowMs, BUCKETS, maxEntries) : null;
+        this.suppressed = meterRegistry.counter("clicks.deduplicated");
+    }
+
+    // True when the client already clicked the link within the window; records the click otherwise
+    public boolean isDuplicate(ClientInfo client, long linkId) {
+        if (recent == null || !client.isKnown()) {
+            return false;
+        }
+        long fingerprint = SlidingWindowCounter.hash(client.getIpAddress() + '|' + client.getUserAgent());
+        if (recent.add(fingerprint ^ (linkId * 0x9E3779B97F4A7C15L), System.currentTimeMillis())) {
+            return false;
+        }
+        suppressed.increment();
+        clickCounterService.recordDeduplicated(linkId);
+        return true;
+    }
+}
@@ -0,0 +1,20 @@
+package com.fiverr.demo.service;
+
+import com.fiverr.demo.dto.ClickEvent;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+// Destination of the click events ClickOutboxRelay moves out of click_outbox. publish returns
+// once the whole batch is durably accepted; on an exception the batch stays in the outbox and
+// is published again, so a sink may see an event more than once but never loses one.
+// Define a bean of this type to replace the built-in sinks (app.click-outbox.sink).
+public interface ClickEventSink extends Closeable {
+
+    void publish(List<ClickEvent> events) throws IOException;
+
+    @Override
+    default void close() throws IOException {
+    }
+}
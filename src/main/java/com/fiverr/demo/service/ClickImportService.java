@@ -0,0 +1,284 @@
+package com.fiverr.demo.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fiverr.demo.dto.ClickImportReport;
+import com.fiverr.demo.dto.ImportedClick;
+import com.fiverr.demo.repository.RedirectJdbcRepository;
+import com.fiverr.demo.repository.ShardedClickRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Bulk load of historical clicks (e.g. replayed CDN logs) without going through redirects.
+// The input is streamed in batches: short codes are resolved in one query per batch, the fraud
+// check runs once per batch, rows are loaded with COPY per shard, and the click counters (and
+// through them link_click_totals and live stats) get one delta per link. A backfill has no
+// latency budget, so a batch the fraud check gives no verdict for is retried with a growing
+// delay rather than accepted unchecked; when the attempts run out the import fails, after the
+// batches before it were loaded.
+@Service
+public class ClickImportService {
+
+    public enum Format {
+        // short_code,clicked_at per line; a header line is skipped
+        CSV,
+        // {"shortCode": ..., "clickedAt": ...} per line
+        NDJSON
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(ClickImportService.class);
+
+    private final RedirectJdbcRepository redirectRepository;
+    private final ShardedClickRepository clickRepository;
+    private final ResilientFraudValidator fraudValidator;
+    private final ClickCounterService clickCounterService;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final int fraudCheckAttempts;
+    private final long fraudRetryDelayMs;
+
+    public ClickImportService(RedirectJdbcRepository redirectRepository,
+                              ShardedClickRepository clickRepository,
+                              ResilientFraudValidator fraudValidator,
+                              ClickCounterService clickCounterService,
+                              ObjectMapper objectMapper,
+                              @Value("${app.click-import.batch-size:5000}") int batchSize,
+                              @Value("${app.click-import.fraud-check-attempts:5}") int fraudCheckAttempts,
+                              @Value("${app.click-import.fraud-retry-delay-ms:1000}") long fraudRetryDelayMs) {
+        this.redirectRepository = redirectRepository;
+        this.clickRepository = clickRepository;
+        this.fraudValidator = fraudValidator;
+        this.clickCounterService = clickCounterService;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.fraudCheckAttempts = fraudCheckAttempts;
+        this.fraudRetryDelayMs = fraudRetryDelayMs;
+    }
+
+    public ClickImportReport importClicks(Reader input, Format format) throws IOException {
+        Run run = new Run();
+        BufferedReader reader = new BufferedReader(input, 1 << 16);
+        List<ParsedClick> batch = new ArrayList<>(batchSize);
+        boolean firstLine = true;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            if (firstLine && format == Format.CSV && line.regionMatches(true, 0, "short_code", 0, 10)) {
+                firstLine = false;
+                continue;
+            }
+            firstLine = false;
+            run.rows++;
+            ParsedClick click = format == Format.CSV ? parseCsv(line) : parseJson(line);
+            if (click == null) {
+                run.malformed++;
+                continue;
+            }
+            batch.add(click);
+            if (batch.size() >= batchSize) {
+                load(batch, run);
+                batch.clear();
+                run.loadedRows = run.rows;
+            }
+        }
+        load(batch, run);
+
+        ClickImportReport report = run.report();
+        log.info("Imported {} of {} click rows in {} ms ({} unknown short codes, {} malformed)",
+            report.getImportedClicks(), report.getRows(), report.getElapsedMs(),
+            report.getUnknownShortCodes(), report.getMalformedRows());
+        return report;
+    }
+
+    private void load(List<ParsedClick> batch, Run run) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Set<String> unresolved = new LinkedHashSet<>();
+        for (ParsedClick click : batch) {
+            if (!run.linkIds.containsKey(click.shortCode) && !run.unknownCodes.contains(click.shortCode)) {
+                unresolved.add(click.shortCode);
+            }
+        }
+        if (!unresolved.isEmpty()) {
+            Map<String, Long> found = redirectRepository.findIdsByShortCodes(unresolved);
+            run.linkIds.putAll(found);
+            for (String shortCode : unresolved) {
+                if (!found.containsKey(shortCode)) {
+                    run.unknownCodes.add(shortCode);
+                }
+            }
+        }
+
+        List<ParsedClick> known = new ArrayList<>(batch.size());
+        for (ParsedClick click : batch) {
+            if (run.linkIds.containsKey(click.shortCode)) {
+                known.add(click);
+            } else {
+                run.unknown++;
+            }
+        }
+        if (known.isEmpty()) {
+            return;
+        }
+
+        FraudVerdict[] verdicts = checkFraud(known.size(), run);
+        List<ImportedClick> clicks = new ArrayList<>(known.size());
+        Map<Long, long[]> perLink = new HashMap<>();
+        for (int i = 0; i < known.size(); i++) {
+            long linkId = run.linkIds.get(known.get(i).shortCode);
+            boolean isValid = verdicts[i].isValid();
+            clicks.add(new ImportedClick(linkId, known.get(i).clickedAt, isValid));
+            perLink.computeIfAbsent(linkId, id -> new long[2])[isValid ? 0 : 1]++;
+        }
+
+        run.imported += clickRepository.insertClicks(clicks);
+        perLink.forEach((linkId, counts) -> {
+            clickCounterService.recordClicks(linkId, counts[0], counts[1]);
+            run.valid += counts[0];
+            run.invalid += counts[1];
+        });
+    }
+
+    // The batch's verdicts, retried with a doubling delay while the backend gives none
+    private FraudVerdict[] checkFraud(int count, Run run) {
+        long delayMs = fraudRetryDelayMs;
+        for (int attempt = 1; ; attempt++) {
+            Optional<FraudVerdict[]> verdicts = fraudValidator.validateBatch(count);
+            if (verdicts.isPresent()) {
+                return verdicts.get();
+            }
+            if (attempt >= fraudCheckAttempts) {
+                break;
+            }
+            log.warn("No fraud verdict for an import batch, attempt {} of {}, retrying in {} ms",
+                attempt, fraudCheckAttempts, delayMs);
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            delayMs *= 2;
+        }
+        log.warn("Click import stopped: no fraud verdict after {} attempts, {} rows loaded",
+            fraudCheckAttempts, run.loadedRows);
+        run.rows = run.loadedRows;
+        throw new FraudCheckUnavailableException(run.report());
+    }
+
+    private static ParsedClick parseCsv(String line) {
+        String[] fields = line.split(",", 3);
+        if (fields.length < 2) {
+            return null;
+        }
+        return parsed(unquote(fields[0]), unquote(fields[1]));
+    }
+
+    private ParsedClick parseJson(String line) {
+        try {
+            JsonNode node = objectMapper.readTree(line);
+            return parsed(node.path("shortCode").asText(null), node.path("clickedAt").asText(null));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static ParsedClick parsed(String shortCode, String clickedAt) {
+        if (shortCode == null || shortCode.isEmpty() || clickedAt == null) {
+            return null;
+        }
+        LocalDateTime time = parseTime(clickedAt);
+        return time != null ? new ParsedClick(shortCode, time) : null;
+    }
+
+    // ISO-8601 local or with an offset, or epoch milliseconds; clicks are stored in local time
+    static LocalDateTime parseTime(String value) {
+        try {
+            if (!value.isEmpty() && value.chars().allMatch(Character::isDigit)) {
+                return LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(value)), ZoneId.systemDefault());
+            }
+            String iso = value.replace(' ', 'T');
+            if (iso.endsWith("Z") || iso.lastIndexOf('+') > 0 || iso.lastIndexOf('-') > iso.indexOf('T')) {
+                return LocalDateTime.ofInstant(OffsetDateTime.parse(iso).toInstant(), ZoneId.systemDefault());
+            }
+            return LocalDateTime.parse(iso);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String unquote(String field) {
+        String trimmed = field.trim();
+        if (trimmed.length() >= 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+            return trimmed.substring(1, trimmed.length() - 1);
+        }
+        return trimmed;
+    }
+
+    // The import stopped at a batch the fraud check gave no verdict for. The report covers the
+    // batches loaded before it; its rows are the rows to skip when the import is resumed
+    public static class FraudCheckUnavailableException extends RuntimeException {
+        private final ClickImportReport report;
+
+        FraudCheckUnavailableException(ClickImportReport report) {
+            super("Fraud check unavailable after " + report.getRows() + " imported rows");
+            this.report = report;
+        }
+
+        public ClickImportReport getReport() {
+            return report;
+        }
+    }
+
+    private static final class ParsedClick {
+        private final String shortCode;
+        private final LocalDateTime clickedAt;
+
+        ParsedClick(String shortCode, LocalDateTime clickedAt) {
+            this.shortCode = shortCode;
+            this.clickedAt = clickedAt;
+        }
+    }
+
+    // Counters and resolved short codes of one import
+    private static final class Run {
+        private final long startNanos = System.nanoTime();
+        private final Map<String, Long> linkIds = new HashMap<>();
+        private final Set<String> unknownCodes = new HashSet<>();
+        private long rows;
+        private long loadedRows;
+        private long imported;
+        private long valid;
+        private long invalid;
+        private long unknown;
+        private long malformed;
+
+        ClickImportReport report() {
+            return new ClickImportReport(rows, imported, valid, invalid, unknown, malformed,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        }
+    }
+}
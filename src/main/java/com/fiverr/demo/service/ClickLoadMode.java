@@ -0,0 +1,14 @@
+package com.fiverr.demo.service;
+
+// Degradation levels of the click path, in the order they are applied under overload.
+// Redirects are served in every mode; only click handling degrades.
+public enum ClickLoadMode {
+    // Fraud check and insert inline
+    NORMAL,
+    // Click recorded as provisionally valid, fraud check queued for later
+    DEFER_FRAUD_CHECK,
+    // Only one click in app.click-load.sample-rate is recorded, fraud check deferred
+    SAMPLE,
+    // No clicks recorded, every loss counted
+    DROP
+}
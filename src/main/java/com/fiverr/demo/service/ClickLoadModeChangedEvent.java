@@ -0,0 +1,32 @@
+package com.fiverr.demo.service;
+
+public class ClickLoadModeChangedEvent {
+    private final ClickLoadMode previousMode;
+    private final ClickLoadMode mode;
+    private final int backlog;
+    private final double fraudLatencyMs;
+
+    public ClickLoadModeChangedEvent(ClickLoadMode previousMode, ClickLoadMode mode,
+                                     int backlog, double fraudLatencyMs) {
+        this.previousMode = previousMode;
+        this.mode = mode;
+        this.backlog = backlog;
+        this.fraudLatencyMs = fraudLatencyMs;
+    }
+
+    public ClickLoadMode getPreviousMode() {
+        return previousMode;
+    }
+
+    public ClickLoadMode getMode() {
+        return mode;
+    }
+
+    public int getBacklog() {
+        return backlog;
+    }
+
+    public double getFraudLatencyMs() {
+        return fraudLatencyMs;
+    }
+}
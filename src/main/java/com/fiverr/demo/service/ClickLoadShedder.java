@@ -0,0 +1,171 @@
+package com.fiverr.demo.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Admission control for the click path. The backlog is the number of clicks currently
+// between admission and insert; fraud latency is an EWMA of recent validateClick() calls.
+// Crossing a limit escalates the mode immediately; recovery steps down one level per cooldown.
+@Service
+public class ClickLoadShedder {
+
+    public enum Admission {
+        ACCEPT,
+        ACCEPT_DEFER_FRAUD_CHECK,
+        REJECT
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(ClickLoadShedder.class);
+    private static final double LATENCY_SMOOTHING = 0.2;
+
+    private final int deferBacklog;
+    private final int sampleBacklog;
+    private final int dropBacklog;
+    private final long fraudLatencyLimitMs;
+    private final long latencyWindowNanos;
+    private final long cooldownNanos;
+    private final int sampleRate;
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+    private final Counter sampledOut;
+    private final Counter dropped;
+    private final Counter poolBusy;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong sampleSequence = new AtomicLong();
+    private final AtomicReference<ClickLoadMode> mode = new AtomicReference<>(ClickLoadMode.NORMAL);
+    private volatile long lastTransitionNanos = System.nanoTime();
+    private volatile double fraudLatencyMs;
+    private volatile long lastLatencySampleNanos;
+
+    public ClickLoadShedder(ApplicationEventPublisher eventPublisher,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.click-load.defer-backlog:64}") int deferBacklog,
+                            @Value("${app.click-load.sample-backlog:128}") int sampleBacklog,
+                            @Value("${app.click-load.drop-backlog:256}") int dropBacklog,
+                            @Value("${app.click-load.fraud-latency-limit-ms:500}") long fraudLatencyLimitMs,
+                            @Value("${app.click-load.latency-window-ms:10000}") long latencyWindowMs,
+                            @Value("${app.click-load.cooldown-ms:5000}") long cooldownMs,
+                            @Value("${app.click-load.sample-rate:10}") int sampleRate) {
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
+        this.deferBacklog = deferBacklog;
+        this.sampleBacklog = sampleBacklog;
+        this.dropBacklog = dropBacklog;
+        this.fraudLatencyLimitMs = fraudLatencyLimitMs;
+        this.latencyWindowNanos = TimeUnit.MILLISECONDS.toNanos(latencyWindowMs);
+        this.cooldownNanos = TimeUnit.MILLISECONDS.toNanos(cooldownMs);
+        this.sampleRate = Math.max(1, sampleRate);
+
+        this.sampledOut = Counter.builder("clicks.shed").tag("reason", "sampled").register(meterRegistry);
+        this.dropped = Counter.builder("clicks.shed").tag("reason", "dropped").register(meterRegistry);
+        this.poolBusy = Counter.builder("clicks.shed").tag("reason", "pool_busy").register(meterRegistry);
+        Gauge.builder("clicks.load.mode", mode, m -> m.get().ordinal()).register(meterRegistry);
+        Gauge.builder("clicks.backlog", inFlight, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("clicks.fraud.latency.ewma", this, s -> s.currentFraudLatencyMs(System.nanoTime()))
+            .baseUnit("milliseconds")
+            .register(meterRegistry);
+    }
+
+    // Every ACCEPT* admission must be paired with release() once the click is handled
+    public Admission admit() {
+        ClickLoadMode current = updateMode();
+        switch (current) {
+            case DROP:
+                dropped.increment();
+                return Admission.REJECT;
+            case SAMPLE:
+                if (sampleSequence.getAndIncrement() % sampleRate != 0) {
+                    sampledOut.increment();
+                    return Admission.REJECT;
+                }
+                break;
+            default:
+                break;
+        }
+        inFlight.incrementAndGet();
+        return current == ClickLoadMode.NORMAL ? Admission.ACCEPT : Admission.ACCEPT_DEFER_FRAUD_CHECK;
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    // An admitted click dropped because the clicks pool had no connection within the redirect's wait
+    public void shedPoolBusy() {
+        poolBusy.increment();
+    }
+
+    public void recordFraudLatency(long nanos) {
+        double sampleMs = nanos / 1_000_000.0;
+        long now = System.nanoTime();
+        double previous = currentFraudLatencyMs(now);
+        fraudLatencyMs = previous == 0 ? sampleMs : previous + LATENCY_SMOOTHING * (sampleMs - previous);
+        lastLatencySampleNanos = now;
+    }
+
+    public ClickLoadMode getMode() {
+        return updateMode();
+    }
+
+    private ClickLoadMode updateMode() {
+        long now = System.nanoTime();
+        ClickLoadMode current = mode.get();
+        ClickLoadMode target = targetMode(now);
+        ClickLoadMode next;
+        if (target.compareTo(current) > 0) {
+            next = target;
+        } else if (target.compareTo(current) < 0 && now - lastTransitionNanos >= cooldownNanos) {
+            next = ClickLoadMode.values()[current.ordinal() - 1];
+        } else {
+            return current;
+        }
+        if (mode.compareAndSet(current, next)) {
+            lastTransitionNanos = now;
+            onTransition(current, next, now);
+        }
+        return mode.get();
+    }
+
+    private ClickLoadMode targetMode(long now) {
+        int backlog = inFlight.get();
+        if (backlog >= dropBacklog) {
+            return ClickLoadMode.DROP;
+        }
+        if (backlog >= sampleBacklog) {
+            return ClickLoadMode.SAMPLE;
+        }
+        if (backlog >= deferBacklog || currentFraudLatencyMs(now) >= fraudLatencyLimitMs) {
+            return ClickLoadMode.DEFER_FRAUD_CHECK;
+        }
+        return ClickLoadMode.NORMAL;
+    }
+
+    // Latency samples only arrive while fraud checks run, so an old reading must not pin the mode
+    private double currentFraudLatencyMs(long now) {
+        if (lastLatencySampleNanos == 0 || now - lastLatencySampleNanos > latencyWindowNanos) {
+            return 0;
+        }
+        return fraudLatencyMs;
+    }
+
+    private void onTransition(ClickLoadMode from, ClickLoadMode to, long now) {
+        int backlog = inFlight.get();
+        double latency = currentFraudLatencyMs(now);
+        meterRegistry.counter("clicks.load.transitions", "from", from.name(), "to", to.name()).increment();
+        log.warn("Click load mode {} -> {} (backlog={}, fraudLatencyMs={})", from, to, backlog, Math.round(latency));
+        eventPublisher.publishEvent(new ClickLoadModeChangedEvent(from, to, backlog, latency));
+    }
+}
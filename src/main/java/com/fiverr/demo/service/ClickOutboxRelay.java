@@ -0,0 +1,79 @@
+package com.fiverr.demo.service;
+
+import com.fiverr.demo.config.SchedulingConfig;
+import com.fiverr.demo.repository.ShardedClickRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+// Moves click events from click_outbox to the ClickEventSink, batch by batch and shard by shard,
+// so analytics consumers read a stream instead of scanning the clicks table. Delivery is
+// at-least-once: a batch leaves the outbox only after the sink accepted it, so a failed publish
+// or a crash in between publishes the batch again. Runs while app.click-outbox.enabled is set.
+@Service
+public class ClickOutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(ClickOutboxRelay.class);
+
+    private final ShardedClickRepository clickRepository;
+    private final ClickEventSink sink;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Counter published;
+    private final Counter failures;
+
+    public ClickOutboxRelay(ShardedClickRepository clickRepository,
+                            ClickEventSink sink,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.click-outbox.enabled:false}") boolean enabled,
+                            @Value("${app.click-outbox.relay.batch-size:500}") int batchSize,
+                            @Value("${app.click-outbox.relay.max-batches-per-run:100}") int maxBatchesPerRun) {
+        this.clickRepository = clickRepository;
+        this.sink = sink;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.published = meterRegistry.counter("clicks.outbox.published");
+        this.failures = meterRegistry.counter("clicks.outbox.failures");
+    }
+
+    @Scheduled(fixedDelayString = "${app.click-outbox.relay.interval-ms:1000}",
+               scheduler = SchedulingConfig.CLICK_OUTBOX)
+    public long relay() {
+        if (!enabled) {
+            return 0;
+        }
+        long relayed = 0;
+        for (int shard = 0; shard < clickRepository.shardCount(); shard++) {
+            relayed += relay(shard);
+        }
+        return relayed;
+    }
+
+    // Drains the shard's outbox, up to maxBatchesPerRun batches; stops at the first failure
+    private long relay(int shard) {
+        long relayed = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int count;
+            try {
+                count = clickRepository.relayOutbox(shard, batchSize, sink::publish);
+            } catch (RuntimeException e) {
+                failures.increment();
+                log.warn("Publishing click events of shard {} failed; retrying on the next run: {}",
+                    shard, e.getMessage());
+                break;
+            }
+            relayed += count;
+            published.increment(count);
+            if (count < batchSize) {
+                break;
+            }
+        }
+        return relayed;
+    }
+}
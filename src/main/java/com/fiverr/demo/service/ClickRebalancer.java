@@ -0,0 +1,128 @@
+package com.fiverr.demo.service;
+
+import com.fiverr.demo.repository.ClickShards;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Moves clicks to the shard their link routes to: a backfill out of the primary database when
+ * shards are first configured, and a reshard after the shard count or the router changes.
+ * Rows keep their id, so a copy is skipped when the target already has it and an interrupted
+ * run can simply be started again. Runs with live traffic: reads sum over all shards, so a
+ * link split mid-move is still counted once (a batch may count twice between copy and delete).
+ * A fraud re-check can mark a click invalid on the source after it was read: a row is deleted
+ * only while is_valid is what was copied, and one left behind is read again and its copy
+ * invalidated. Clicks only ever turn invalid, so each row is read at most twice.
+ */
+@Service
+public class ClickRebalancer implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ClickRebalancer.class);
+
+    private static final String LINK_IDS_SQL =
+        "SELECT DISTINCT link_id FROM clicks WHERE link_id > ? ORDER BY link_id LIMIT ?";
+    private static final String SELECT_BATCH_SQL =
+        "SELECT id, clicked_at, is_valid FROM clicks WHERE link_id = ? ORDER BY id LIMIT ?";
+    private static final String COPY_SQL = """
+        INSERT INTO clicks (id, link_id, clicked_at, is_valid)
+        SELECT ?, ?, ?, ? WHERE NOT EXISTS (SELECT 1 FROM clicks WHERE id = ?)
+        """;
+    // An earlier copy of a click that was marked invalid on the source in the meantime
+    private static final String INVALIDATE_COPY_SQL =
+        "UPDATE clicks SET is_valid = FALSE WHERE id = ? AND is_valid = TRUE";
+    private static final String DELETE_SQL = "DELETE FROM clicks WHERE id = ? AND is_valid = ?";
+
+    private final ClickShards shards;
+    private final JdbcTemplate primary;
+    private final boolean runOnStartup;
+    private final int batchSize;
+
+    public ClickRebalancer(ClickShards shards,
+                           JdbcTemplate primary,
+                           @Value("${app.click-shards.rebalance-on-startup:false}") boolean runOnStartup,
+                           @Value("${app.click-shards.rebalance-batch-size:1000}") int batchSize) {
+        this.shards = shards;
+        this.primary = primary;
+        this.runOnStartup = runOnStartup;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (runOnStartup) {
+            rebalance();
+        }
+    }
+
+    // Returns the number of clicks moved
+    public long rebalance() {
+        long moved = 0;
+        if (!shards.isInPrimaryDatabase()) {
+            moved += moveMisplaced(primary, -1, "primary");
+        }
+        for (int i = 0; i < shards.size(); i++) {
+            moved += moveMisplaced(shards.shard(i), i, "shard " + i);
+        }
+        log.info("Click rebalance done, {} clicks moved", moved);
+        return moved;
+    }
+
+    private long moveMisplaced(JdbcTemplate source, int sourceShard, String sourceName) {
+        long moved = 0;
+        long afterLinkId = Long.MIN_VALUE;
+        while (true) {
+            List<Long> linkIds = source.queryForList(LINK_IDS_SQL, Long.class, afterLinkId, batchSize);
+            if (linkIds.isEmpty()) {
+                break;
+            }
+            for (long linkId : linkIds) {
+                int target = shards.shardFor(linkId);
+                if (target != sourceShard) {
+                    moved += moveLink(source, shards.shard(target), linkId);
+                }
+            }
+            afterLinkId = linkIds.get(linkIds.size() - 1);
+        }
+        if (moved > 0) {
+            log.info("Moved {} clicks out of {}", moved, sourceName);
+        }
+        return moved;
+    }
+
+    private long moveLink(JdbcTemplate source, JdbcTemplate target, long linkId) {
+        long moved = 0;
+        while (true) {
+            List<Object[]> rows = source.query(SELECT_BATCH_SQL,
+                (rs, rowNum) -> new Object[] {rs.getLong(1), rs.getTimestamp(2), rs.getBoolean(3)},
+                linkId, batchSize);
+            if (rows.isEmpty()) {
+                return moved;
+            }
+            target.batchUpdate(COPY_SQL, rows.stream()
+                .map(row -> new Object[] {row[0], linkId, (Timestamp) row[1], row[2], row[0]})
+                .toList());
+            List<Object[]> invalid = rows.stream()
+                .filter(row -> !(boolean) row[2])
+                .map(row -> new Object[] {row[0]})
+                .toList();
+            if (!invalid.isEmpty()) {
+                target.batchUpdate(INVALIDATE_COPY_SQL, invalid);
+            }
+            // A row marked invalid since the select stays, and is read again by the next batch
+            int[] deleted = source.batchUpdate(DELETE_SQL,
+                rows.stream().map(row -> new Object[] {row[0], row[2]}).toList());
+            for (int count : deleted) {
+                moved += count == Statement.SUCCESS_NO_INFO ? 1 : count;
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.fiverr.demo.service;
+
+import com.fiverr.demo.config.SchedulingConfig;
+import com.fiverr.demo.repository.ShardedClickRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+// Clicks accepted without a fraud check are queued here and validated once the
+// click path is back to NORMAL. A click found fraudulent is flipped to invalid.
+//
+// The queue is only a cache of pending_fraud_checks, where each provisional click was written
+// with its row (ShardedClickRepository). Whenever the queue runs dry after a start or after an
+// overflow, it is refilled from that table, so no owed check is lost to a restart or a full queue.
+@Service
+public class DeferredFraudCheckService {
+
+    private static final Logger log = LoggerFactory.getLogger(DeferredFraudCheckService.class);
+
+    private final ResilientFraudValidator fraudValidator;
+    private final ShardedClickRepository clickRepository;
+    private final ClickCounterService clickCounterService;
+    private final ClickLoadShedder clickLoadShedder;
+    private final BlockingQueue<PendingCheck> queue;
+    private final int batchSize;
+    // Checks may be in pending_fraud_checks that are not in the queue
+    private volatile boolean reloadNeeded = true;
+
+    private final Counter overflow;
+    private final Counter confirmed;
+    private final Counter rejected;
+
+    public DeferredFraudCheckService(ResilientFraudValidator fraudValidator,
+                                     ShardedClickRepository clickRepository,
+                                     ClickCounterService clickCounterService,
+                                     ClickLoadShedder clickLoadShedder,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${app.click-load.deferred-queue-capacity:100000}") int capacity,
+                                     @Value("${app.click-load.deferred-batch-size:50}") int batchSize) {
+        this.fraudValidator = fraudValidator;
+        this.clickRepository = clickRepository;
+        this.clickCounterService = clickCounterService;
+        this.clickLoadShedder = clickLoadShedder;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+
+        this.overflow = Counter.builder("clicks.deferred").tag("outcome", "overflow").register(meterRegistry);
+        this.confirmed = Counter.builder("clicks.deferred").tag("outcome", "confirmed").register(meterRegistry);
+        this.rejected = Counter.builder("clicks.deferred").tag("outcome", "rejected").register(meterRegistry);
+        Gauge.builder("clicks.deferred.pending", queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    public void enqueue(long clickId, long linkId) {
+        if (!queue.offer(new PendingCheck(clickId, linkId))) {
+            // Still in pending_fraud_checks, so it is reloaded once the queue has drained
+            reloadNeeded = true;
+            overflow.increment();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.click-load.deferred-interval-ms:1000}",
+               scheduler = SchedulingConfig.DEFERRED_FRAUD_CHECKS)
+    public int revalidatePending() {
+        int processed = 0;
+        while (processed < batchSize && clickLoadShedder.getMode() == ClickLoadMode.NORMAL) {
+            PendingCheck check = queue.poll();
+            if (check == null && reloadNeeded) {
+                reload();
+                check = queue.poll();
+            }
+            if (check == null) {
+                break;
+            }
+            if (!revalidate(check)) {
+                // Fraud check still unavailable, try again on the next run
+                enqueue(check.clickId, check.linkId);
+                break;
+            }
+            processed++;
+        }
+        return processed;
+    }
+
+    // Refills the empty queue with the oldest pending checks
+    private void reload() {
+        reloadNeeded = false;
+        int limit = queue.remainingCapacity();
+        Map<Long, Long> pending = clickRepository.pendingChecks(limit);
+        pending.forEach((clickId, linkId) -> queue.offer(new PendingCheck(clickId, linkId)));
+        if (pending.size() >= limit) {
+            // There may be more than fitted
+            reloadNeeded = true;
+        }
+    }
+
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    private boolean revalidate(PendingCheck check) {
+        long start = System.nanoTime();
+        Optional<FraudVerdict> verdict = fraudValidator.validateWithoutFallback();
+        clickLoadShedder.recordFraudLatency(System.nanoTime() - start);
+
+        // A fallback ACCEPT or REJECT is no verdict on this click, so it stays queued
+        if (verdict.isEmpty()) {
+            return false;
+        }
+        boolean fraudulent = verdict.get() != FraudVerdict.VALID;
+        try {
+            if (clickRepository.resolvePendingCheck(check.linkId, check.clickId, fraudulent) == 1) {
+                clickCounterService.recordClickInvalidated(check.linkId);
+            }
+            (fraudulent ? rejected : confirmed).increment();
+        } catch (RuntimeException e) {
+            log.warn("Failed to record the deferred check of click {}, requeueing", check.clickId, e);
+            enqueue(check.clickId, check.linkId);
+        }
+        return true;
+    }
+
+    private static final class PendingCheck {
+        private final long clickId;
+        private final long linkId;
+
+        private PendingCheck(long clickId, long linkId) {
+            this.clickId = clickId;
+            this.linkId = linkId;
+        }
+    }
+}
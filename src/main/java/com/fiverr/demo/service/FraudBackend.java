@@ -0,0 +1,19 @@
+package com.fiverr.demo.service;
+
+// One fraud-detection service instance. validateClick blocks until the verdict arrives
+// (true = valid click) and must give up promptly when its thread is interrupted.
+// validateClicks checks a batch in one round trip, for bulk imports.
+public interface FraudBackend {
+
+    String getName();
+
+    boolean validateClick() throws Exception;
+
+    default boolean[] validateClicks(int count) throws Exception {
+        boolean[] verdicts = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            verdicts[i] = validateClick();
+        }
+        return verdicts;
+    }
+}
@@ -1,20 +1,52 @@
 package com.fiverr.demo.service;
 
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.Random;
 
+// The built-in simulated backend: used when no app.fraud.backends are configured, and by
+// the reactive runtime
 @Service
-public class FraudDetectionService {
+public class FraudDetectionService implements FraudBackend {
+    private static final Duration SIMULATED_DELAY = Duration.ofMillis(100);
+
     private final Random random = new Random();
 
+    @Override
+    public String getName() {
+        return "default";
+    }
+
+    @Override
     public boolean validateClick() {
         try {
             // Simulate fraud detection delay
-            Thread.sleep(100);
+            Thread.sleep(SIMULATED_DELAY.toMillis());
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
         }
+        return randomVerdict();
+    }
+
+    // One simulated round trip for the whole batch
+    @Override
+    public boolean[] validateClicks(int count) throws InterruptedException {
+        Thread.sleep(SIMULATED_DELAY.toMillis());
+        boolean[] verdicts = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            verdicts[i] = randomVerdict();
+        }
+        return verdicts;
+    }
+
+    // Same simulation for the reactive runtime: the delay is a timer, not a parked thread
+    public Mono<Boolean> validateClickReactive() {
+        return Mono.delay(SIMULATED_DELAY).map(tick -> randomVerdict());
+    }
+
+    private boolean randomVerdict() {
         // Randomly mark 10% of clicks as fraudulent
         return random.nextInt(10) != 0;
     }
@@ -0,0 +1,74 @@
+package com.fiverr.demo.service;
+
+import com.fiverr.demo.dto.ClientInfo;
+import com.fiverr.demo.util.SlidingWindowCounter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+// Cheap in-memory rules in front of the expensive fraud check. Clicks over the per-IP
+// or per-IP+link rate are rejected outright, clicks under the low-risk rates are
+// accepted outright, and only the ambiguous middle is sent to the fraud check.
+@Service
+public class FraudPreFilter {
+
+    public enum Decision {
+        REJECT,
+        ACCEPT,
+        CHECK
+    }
+
+    private final SlidingWindowCounter perIp;
+    private final SlidingWindowCounter perIpAndLink;
+    private final long maxPerIp;
+    private final long maxPerIpAndLink;
+    private final long lowRiskPerIp;
+    private final long lowRiskPerIpAndLink;
+
+    private final Counter rejected;
+    private final Counter accepted;
+    private final Counter checked;
+
+    public FraudPreFilter(MeterRegistry meterRegistry,
+                          @Value("${app.fraud.prefilter.window-ms:60000}") long windowMs,
+                          @Value("${app.fraud.prefilter.sketch-width:16384}") int sketchWidth,
+                          @Value("${app.fraud.prefilter.max-per-ip:300}") long maxPerIp,
+                          @Value("${app.fraud.prefilter.max-per-ip-and-link:30}") long maxPerIpAndLink,
+                          @Value("${app.fraud.prefilter.low-risk-per-ip:0}") long lowRiskPerIp,
+                          @Value("${app.fraud.prefilter.low-risk-per-ip-and-link:0}") long lowRiskPerIpAndLink) {
+        this.perIp = new SlidingWindowCounter(windowMs, 6, sketchWidth);
+        this.perIpAndLink = new SlidingWindowCounter(windowMs, 6, sketchWidth);
+        this.maxPerIp = maxPerIp;
+        this.maxPerIpAndLink = maxPerIpAndLink;
+        this.lowRiskPerIp = lowRiskPerIp;
+        this.lowRiskPerIpAndLink = lowRiskPerIpAndLink;
+
+        this.rejected = Counter.builder("fraud.prefilter.decisions").tag("decision", "reject").register(meterRegistry);
+        this.accepted = Counter.builder("fraud.prefilter.decisions").tag("decision", "accept").register(meterRegistry);
+        this.checked = Counter.builder("fraud.prefilter.decisions").tag("decision", "check").register(meterRegistry);
+    }
+
+    public Decision evaluate(ClientInfo client, long linkId) {
+        if (!client.isKnown()) {
+            checked.increment();
+            return Decision.CHECK;
+        }
+        long now = System.currentTimeMillis();
+        long ipKey = SlidingWindowCounter.hash(client.getIpAddress());
+        long ipCount = perIp.incrementAndGet(ipKey, now);
+        long pairCount = perIpAndLink.incrementAndGet(ipKey ^ (linkId * 0x9E3779B97F4A7C15L), now);
+
+        if (ipCount > maxPerIp || pairCount > maxPerIpAndLink) {
+            rejected.increment();
+            return Decision.REJECT;
+        }
+        // Low-risk thresholds of 0 disable outright acceptance
+        if (ipCount <= lowRiskPerIp && pairCount <= lowRiskPerIpAndLink) {
+            accepted.increment();
+            return Decision.ACCEPT;
+        }
+        checked.increment();
+        return Decision.CHECK;
+    }
+}
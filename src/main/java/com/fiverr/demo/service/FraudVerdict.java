@@ -0,0 +1,12 @@
+package com.fiverr.demo.service;
+
+public enum FraudVerdict {
+    VALID,
+    INVALID,
+    // Fraud check unavailable: accepted for now, must be re-validated later
+    PROVISIONAL;
+
+    public boolean isValid() {
+        return this != INVALID;
+    }
+}
@@ -0,0 +1,184 @@
+package com.fiverr.demo.service;
+
+import com.fiverr.demo.util.LatencyWindow;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Spreads fraud checks round-robin over the backends and hedges slow ones: when the first
+// backend has not answered within its recent latency percentile, the same check goes to the
+// next backend, the first verdict wins and the other call is cancelled. A failed first call
+// is hedged at once. A cancelled loser still feeds the latency percentile, as a censored sample
+// of the time it ran: its backend took at least that long. Dropping it would bias the percentile
+// towards the calls fast enough to finish, and a backend that always loses would never reach
+// min-samples. With a single backend this is a plain pass-through.
+public class HedgedFraudBackend implements FraudBackend {
+
+    private final List<Backend> backends;
+    private final boolean hedgingEnabled;
+    private final double percentile;
+    private final long minDelayNanos;
+    private final int minSamples;
+    private final ExecutorService executor;
+    private final AtomicInteger nextBackend = new AtomicInteger();
+    private final Counter calls;
+    private final MeterRegistry meterRegistry;
+
+    public HedgedFraudBackend(List<? extends FraudBackend> backends, MeterRegistry meterRegistry,
+                              boolean hedgingEnabled, double percentile, long minDelayMs, int minSamples) {
+        if (backends.isEmpty()) {
+            throw new IllegalArgumentException("At least one fraud backend is required");
+        }
+        this.meterRegistry = meterRegistry;
+        this.backends = new ArrayList<>(backends.size());
+        for (FraudBackend backend : backends) {
+            this.backends.add(new Backend(backend, meterRegistry));
+        }
+        this.hedgingEnabled = hedgingEnabled && backends.size() > 1;
+        this.percentile = percentile;
+        this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(minDelayMs);
+        this.minSamples = minSamples;
+        this.calls = meterRegistry.counter("fraud.hedge.calls");
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "fraud-backend-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public String getName() {
+        return "hedged";
+    }
+
+    @Override
+    public boolean validateClick() throws Exception {
+        calls.increment();
+        int first = Math.floorMod(nextBackend.getAndIncrement(), backends.size());
+        CompletionService<Boolean> completion = new ExecutorCompletionService<>(executor);
+        List<Future<Boolean>> attempts = new ArrayList<>(2);
+        List<Backend> attempted = new ArrayList<>(2);
+        Backend primary = backends.get(first);
+        attempts.add(completion.submit(primary::call));
+        attempted.add(primary);
+
+        long hedgeDelay = hedgeDelayNanos(primary);
+        long hedgeAt = System.nanoTime() + hedgeDelay;
+        int pending = 1;
+        Exception failure = null;
+        try {
+            while (true) {
+                Future<Boolean> done = null;
+                if (hedgingEnabled && attempts.size() == 1 && (failure != null || hedgeDelay >= 0)) {
+                    // A failed first attempt is hedged without waiting for the delay
+                    if (failure == null) {
+                        done = completion.poll(hedgeAt - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    }
+                    if (done == null) {
+                        Backend hedge = backends.get((first + 1) % backends.size());
+                        meterRegistry.counter("fraud.hedge.sent", "backend", hedge.name).increment();
+                        attempts.add(completion.submit(hedge::call));
+                        attempted.add(hedge);
+                        pending++;
+                        continue;
+                    }
+                } else if (pending == 0) {
+                    throw failure;
+                } else {
+                    done = completion.take();
+                }
+                pending--;
+
+                try {
+                    boolean isValid = done.get();
+                    int index = attempts.indexOf(done);
+                    meterRegistry.counter("fraud.hedge.wins",
+                        "attempt", index == 0 ? "primary" : "hedge",
+                        "backend", attempted.get(index).name).increment();
+                    return isValid;
+                } catch (ExecutionException e) {
+                    failure = e.getCause() instanceof Exception cause ? cause : e;
+                }
+            }
+        } finally {
+            for (Future<Boolean> attempt : attempts) {
+                attempt.cancel(true);
+            }
+        }
+    }
+
+    // Batches are throughput-bound, so they are spread round-robin but never hedged
+    @Override
+    public boolean[] validateClicks(int count) throws Exception {
+        int backend = Math.floorMod(nextBackend.getAndIncrement(), backends.size());
+        return backends.get(backend).backend.validateClicks(count);
+    }
+
+    // Delay before hedging a call to the backend, or -1 to not hedge
+    private long hedgeDelayNanos(Backend backend) {
+        if (!hedgingEnabled || backend.latencies.size() < minSamples) {
+            return -1;
+        }
+        return Math.max(minDelayNanos, backend.latencies.percentile(percentile));
+    }
+
+    // Latency samples held for the backend at this index
+    int latencySamples(int backend) {
+        return backends.get(backend).latencies.size();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static final class Backend {
+        private final FraudBackend backend;
+        private final String name;
+        private final LatencyWindow latencies = new LatencyWindow(256);
+        private final Timer succeeded;
+        private final Timer failed;
+
+        Backend(FraudBackend backend, MeterRegistry meterRegistry) {
+            this.backend = backend;
+            this.name = backend.getName();
+            this.succeeded = meterRegistry.timer("fraud.backend.latency", "backend", name, "outcome", "success");
+            this.failed = meterRegistry.timer("fraud.backend.latency", "backend", name, "outcome", "error");
+        }
+
+        boolean call() throws Exception {
+            long start = System.nanoTime();
+            try {
+                boolean isValid = backend.validateClick();
+                long elapsed = System.nanoTime() - start;
+                succeeded.record(elapsed, TimeUnit.NANOSECONDS);
+                latencies.record(elapsed);
+                return isValid;
+            } catch (InterruptedException e) {
+                // Cancelled loser, not a backend error; it took at least this long
+                latencies.record(System.nanoTime() - start);
+                throw e;
+            } catch (Exception e) {
+                long elapsed = System.nanoTime() - start;
+                // A backend may report the interrupt of a cancelled call as some other exception
+                if (!Thread.currentThread().isInterrupted()) {
+                    failed.record(elapsed, TimeUnit.NANOSECONDS);
+                }
+                latencies.record(elapsed);
+                throw e;
+            }
+        }
+    }
+}
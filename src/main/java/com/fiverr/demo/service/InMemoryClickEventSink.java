@@ -0,0 +1,46 @@
+package com.fiverr.demo.service;
+
+import com.fiverr.demo.dto.ClickEvent;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Bounded in-process queue of click events, for consumers in the same JVM. A batch that does
+// not fit is refused whole, so a slow consumer leaves the events in the outbox instead of
+// growing the heap. Not durable: the relay drops a batch from the outbox once it is queued, so
+// events not yet polled are lost on restart.
+public class InMemoryClickEventSink implements ClickEventSink {
+
+    private final BlockingQueue<ClickEvent> queue;
+
+    public InMemoryClickEventSink(int capacity) {
+        this.queue = new LinkedBlockingQueue<>(capacity);
+    }
+
+    @Override
+    public synchronized void publish(List<ClickEvent> events) throws IOException {
+        if (queue.remainingCapacity() < events.size()) {
+            throw new IOException("Click event queue is full");
+        }
+        queue.addAll(events);
+    }
+
+    // Up to max events, waiting at most the timeout for the first one
+    public List<ClickEvent> poll(int max, long timeout, TimeUnit unit) throws InterruptedException {
+        List<ClickEvent> events = new ArrayList<>();
+        ClickEvent first = queue.poll(timeout, unit);
+        if (first != null) {
+            events.add(first);
+            queue.drainTo(events, max - 1);
+        }
+        return events;
+    }
+
+    public int size() {
+        return queue.size();
+    }
+}
@@ -0,0 +1,128 @@
+package com.fiverr.demo.service;
+
+import com.fiverr.demo.entity.ShortenedLink;
+import com.fiverr.demo.repository.ShardedClickRepository;
+import com.fiverr.demo.repository.ShortenedLinkRepository;
+import com.fiverr.demo.util.Base62Encoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Runs before the node reports ready: Spring Boot only publishes ReadinessState.ACCEPTING_TRAFFIC
+// after all ApplicationRunners return, so /actuator/health/readiness stays down until warm-up
+// finishes or its time budget runs out.
+@Component
+public class LinkCacheWarmer implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(LinkCacheWarmer.class);
+
+    private final ShardedClickRepository clickRepository;
+    private final ShortenedLinkRepository linkRepository;
+    private final LinkResolver linkResolver;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final long windowHours;
+    private final int maxLinks;
+    private final long timeBudgetMs;
+    private final int jitIterations;
+
+    public LinkCacheWarmer(ShardedClickRepository clickRepository,
+                           ShortenedLinkRepository linkRepository,
+                           LinkResolver linkResolver,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.warmup.enabled:true}") boolean enabled,
+                           @Value("${app.warmup.window-hours:24}") long windowHours,
+                           @Value("${app.warmup.max-links:10000}") int maxLinks,
+                           @Value("${app.warmup.time-budget-ms:30000}") long timeBudgetMs,
+                           @Value("${app.warmup.jit-iterations:20000}") int jitIterations) {
+        this.clickRepository = clickRepository;
+        this.linkRepository = linkRepository;
+        this.linkResolver = linkResolver;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.windowHours = windowHours;
+        this.maxLinks = maxLinks;
+        this.timeBudgetMs = timeBudgetMs;
+        this.jitIterations = jitIterations;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            warmUp();
+        }
+    }
+
+    // Returns true when warm-up completed within the time budget
+    public boolean warmUp() {
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "link-cache-warmup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Future<?> warmUp = executor.submit(this::preloadAndExercise);
+        String outcome = "completed";
+        try {
+            warmUp.get(timeBudgetMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            warmUp.cancel(true);
+            outcome = "timed_out";
+        } catch (ExecutionException e) {
+            // A cold cache is slower, not broken: never keep the node out of rotation for it
+            log.warn("Link cache warm-up failed", e.getCause());
+            outcome = "failed";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            warmUp.cancel(true);
+            outcome = "interrupted";
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        meterRegistry.timer("startup.warmup", "outcome", outcome).record(elapsedNanos, TimeUnit.NANOSECONDS);
+        log.info("Link cache warm-up {} in {} ms, {} links cached", outcome,
+            TimeUnit.NANOSECONDS.toMillis(elapsedNanos), linkResolver.size());
+        return outcome.equals("completed");
+    }
+
+    private void preloadAndExercise() {
+        List<Long> hotLinkIds = clickRepository.findMostClickedLinkIdsSince(
+            LocalDateTime.now().minusHours(windowHours), maxLinks);
+        List<ShortenedLink> hotLinks = linkRepository.findAllById(hotLinkIds);
+        linkResolver.preload(hotLinks);
+
+        List<String> shortCodes = new ArrayList<>(hotLinks.size());
+        for (ShortenedLink link : hotLinks) {
+            if (link.getShortCode() != null) {
+                shortCodes.add(link.getShortCode());
+            }
+        }
+        exercise(shortCodes);
+    }
+
+    // Drives the redirect lookup and the short code codec enough times for the JIT to compile them
+    private void exercise(List<String> shortCodes) {
+        for (int i = 0; i < jitIterations && !Thread.currentThread().isInterrupted(); i++) {
+            if (!shortCodes.isEmpty()) {
+                linkResolver.resolve(shortCodes.get(i % shortCodes.size()));
+            }
+            Base62Encoder.decode(Base62Encoder.encode(i + 1));
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.fiverr.demo.service;
+
+import com.fiverr.demo.dto.LinkResponse;
+import com.fiverr.demo.util.UrlNormalizer;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+// Single-flight for link creation, keyed by the normalized target URL. Concurrent creates of the
+// same URL run the creation once and every waiter gets its result, so a viral URL costs one
+// transaction instead of a burst of inserts racing on the unique constraint. Results are kept
+// in a bounded cache, so repeat creates skip the database; links are never deleted, so an entry
+// never goes stale. Waiters block outside any transaction: the creator is the transactional call.
+@Service
+public class LinkCreationCoalescer {
+
+    private final ConcurrentMap<String, CompletableFuture<LinkResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Cache<String, LinkResponse> recent;
+    private final Counter created;
+    private final Counter coalesced;
+    private final Counter cached;
+
+    public LinkCreationCoalescer(MeterRegistry meterRegistry,
+                                 @Value("${app.link-creation.recent-max-entries:10000}") long recentMaxEntries) {
+        if (recentMaxEntries > 0) {
+            this.recent = Caffeine.newBuilder()
+                .maximumSize(recentMaxEntries)
+                .recordStats()
+                .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, recent, "recent-links");
+        } else {
+            this.recent = null;
+        }
+        this.created = meterRegistry.counter("links.create", "outcome", "created");
+        this.coalesced = meterRegistry.counter("links.create", "outcome", "coalesced");
+        this.cached = meterRegistry.counter("links.create", "outcome", "cached");
+    }
+
+    // The creator gets the normalized URL and runs on the calling thread of the first request
+    public LinkResponse create(String targetUrl, Function<String, LinkResponse> creator) {
+        String key = UrlNormalizer.normalize(targetUrl);
+        LinkResponse known = recent(key);
+        if (known != null) {
+            return known;
+        }
+        CompletableFuture<LinkResponse> mine = new CompletableFuture<>();
+        CompletableFuture<LinkResponse> leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null) {
+            coalesced.increment();
+            return await(leader);
+        }
+        try {
+            // A leader that finished between the cache check and putIfAbsent left its result here
+            LinkResponse response = recent(key);
+            if (response == null) {
+                response = creator.apply(key);
+                remember(key, response);
+                created.increment();
+            }
+            mine.complete(response);
+            return response;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    // Reactive variant: the first subscriber's creation is shared with concurrent subscribers
+    public Mono<LinkResponse> createReactive(String targetUrl, Function<String, Mono<LinkResponse>> creator) {
+        return Mono.defer(() -> {
+            String key = UrlNormalizer.normalize(targetUrl);
+            LinkResponse known = recent(key);
+            if (known != null) {
+                return Mono.just(known);
+            }
+            CompletableFuture<LinkResponse> mine = new CompletableFuture<>();
+            CompletableFuture<LinkResponse> leader = inFlight.putIfAbsent(key, mine);
+            if (leader != null) {
+                coalesced.increment();
+                // One waiter cancelling must not cancel the shared creation
+                return Mono.fromFuture(leader, true);
+            }
+            return creator.apply(key)
+                .doOnNext(response -> {
+                    remember(key, response);
+                    created.increment();
+                    mine.complete(response);
+                })
+                .doOnError(mine::completeExceptionally)
+                .doFinally(signal -> {
+                    inFlight.remove(key, mine);
+                    if (!mine.isDone()) {
+                        mine.completeExceptionally(new CancellationException("Link creation cancelled"));
+                    }
+                });
+        });
+    }
+
+    private LinkResponse recent(String key) {
+        LinkResponse response = recent != null ? recent.getIfPresent(key) : null;
+        if (response != null) {
+            cached.increment();
+        }
+        return response;
+    }
+
+    private void remember(String key, LinkResponse response) {
+        if (recent != null) {
+            recent.put(key, response);
+        }
+    }
+
+    private static LinkResponse await(CompletableFuture<LinkResponse> leader) {
+        try {
+            return leader.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
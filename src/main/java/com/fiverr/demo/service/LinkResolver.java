@@ -0,0 +1,131 @@
+package com.fiverr.demo.service;
+
+import com.fiverr.demo.dto.ResolvedLink;
+import com.fiverr.demo.entity.ShortenedLink;
+import com.fiverr.demo.repository.RedirectJdbcRepository;
+import com.fiverr.demo.util.Base62Encoder;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+
+// Short code -> link lookups for redirects: a bounded in-memory cache of hot links, then the
+// off-heap LinkStore, then the database. Misses are not cached, so a link created on another
+// node resolves on first use.
+@Service
+public class LinkResolver {
+
+    private final RedirectJdbcRepository redirectRepository;
+    private final LinkStore linkStore;
+    private final Cache<String, ResolvedLink> cache;
+
+    public LinkResolver(RedirectJdbcRepository redirectRepository,
+                        LinkStore linkStore,
+                        MeterRegistry meterRegistry,
+                        @Value("${app.link-cache.max-entries:100000}") long maxEntries) {
+        this.redirectRepository = redirectRepository;
+        this.linkStore = linkStore;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxEntries)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "links");
+    }
+
+    public Optional<ResolvedLink> resolve(String shortCode) {
+        ResolvedLink cached = cache.getIfPresent(shortCode);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<ResolvedLink> stored = linkStore.find(shortCode);
+        if (stored.isPresent()) {
+            return stored;
+        }
+        Optional<ResolvedLink> resolved = redirectRepository.findByShortCode(shortCode);
+        resolved.ifPresent(link -> {
+            put(link);
+            linkStore.append(link);
+        });
+        return resolved;
+    }
+
+    // Bulk lookup for link previews: the cache and the LinkStore first, then one query by
+    // primary key for the rest. Database hits go to the store but not to the cache, so a
+    // preview of many cold links does not evict the links that are being clicked.
+    public Map<String, ResolvedLink> resolveAll(Collection<String> shortCodes) {
+        Map<String, ResolvedLink> resolved = new HashMap<>(cache.getAllPresent(shortCodes));
+        Map<Long, String> missing = new HashMap<>();
+        for (String shortCode : new LinkedHashSet<>(shortCodes)) {
+            if (resolved.containsKey(shortCode)) {
+                continue;
+            }
+            Optional<ResolvedLink> stored = linkStore.find(shortCode);
+            if (stored.isPresent()) {
+                resolved.put(shortCode, stored.get());
+                continue;
+            }
+            long id = idOf(shortCode);
+            if (id > 0) {
+                missing.put(id, shortCode);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (ResolvedLink link : redirectRepository.findByIds(missing.keySet())) {
+                if (link.getShortCode().equals(missing.get(link.getId()))) {
+                    resolved.put(link.getShortCode(), link);
+                    linkStore.append(link);
+                }
+            }
+        }
+        return resolved;
+    }
+
+    // Link id a short code was encoded from, or 0 when no link can have it: not Base62, or
+    // not the canonical encoding ("01" and overflowing codes decode to another link's id)
+    public static long idOf(String shortCode) {
+        long id;
+        try {
+            id = Base62Encoder.decode(shortCode);
+        } catch (IllegalArgumentException e) {
+            return 0;
+        }
+        return id > 0 && Base62Encoder.encode(id).equals(shortCode) ? id : 0;
+    }
+
+    // A newly committed link goes straight to the store, not the cache: it is not hot yet
+    public void linkCreated(ResolvedLink link) {
+        linkStore.append(link);
+    }
+
+    public Optional<ResolvedLink> getCached(String shortCode) {
+        return Optional.ofNullable(cache.getIfPresent(shortCode));
+    }
+
+    public void put(ResolvedLink link) {
+        cache.put(link.getShortCode(), link);
+    }
+
+    public void preload(Iterable<ShortenedLink> links) {
+        for (ShortenedLink link : links) {
+            if (link.getShortCode() != null) {
+                put(toResolved(link));
+            }
+        }
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private static ResolvedLink toResolved(ShortenedLink link) {
+        return new ResolvedLink(link.getId(), link.getShortCode(), link.getTargetUrl());
+    }
+}
@@ -1,55 +1,100 @@
 package com.fiverr.demo.service;
 
+import com.fiverr.demo.dto.ClientInfo;
 import com.fiverr.demo.dto.LinkResponse;
 import com.fiverr.demo.dto.LinkStatsDto;
-import com.fiverr.demo.dto.MonthlyClickStats;
+import com.fiverr.demo.dto.LiveStatsEvent;
+import com.fiverr.demo.dto.ResolveResponse;
+import com.fiverr.demo.dto.ResolvedLink;
+import com.fiverr.demo.dto.StatsRange;
 import com.fiverr.demo.entity.Click;
+import com.fiverr.demo.entity.LinkClickTotals;
 import com.fiverr.demo.entity.ShortenedLink;
-import com.fiverr.demo.repository.ClickRepository;
+import com.fiverr.demo.repository.RedirectJdbcRepository;
+import com.fiverr.demo.repository.ShardedClickRepository;
 import com.fiverr.demo.repository.ShortenedLinkRepository;
+import com.fiverr.demo.repository.StatsJdbcRepository;
 import com.fiverr.demo.util.Base62Encoder;
+import com.fiverr.demo.util.RequestPhaseEvent;
+import com.fiverr.demo.util.RequestPhases;
+import com.fiverr.demo.util.TransactionHooks;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 
 @Service
 public class LinkService {
 
     private final ShortenedLinkRepository linkRepository;
-    private final ClickRepository clickRepository;
-    private final FraudDetectionService fraudDetectionService;
+    private final ShardedClickRepository clickRepository;
+    private final ResilientFraudValidator fraudValidator;
+    private final FraudPreFilter fraudPreFilter;
+    private final ClickCounterService clickCounterService;
+    private final ClickLoadShedder clickLoadShedder;
+    private final DeferredFraudCheckService deferredFraudCheckService;
+    private final LinkResolver linkResolver;
+    private final RedirectJdbcRepository redirectRepository;
+    private final ClickDeduplicator clickDeduplicator;
+    private final StatsJdbcRepository statsRepository;
+    // Click versions restart at 0, so ETags from a previous run must not match
+    private final String statsEpoch = UUID.randomUUID().toString();
 
     @Value("${app.base-url:http://localhost:8080}")
     private String baseUrl;
 
     public LinkService(ShortenedLinkRepository linkRepository,
-                      ClickRepository clickRepository,
-                      FraudDetectionService fraudDetectionService) {
+                      ShardedClickRepository clickRepository,
+                      ResilientFraudValidator fraudValidator,
+                      FraudPreFilter fraudPreFilter,
+                      ClickCounterService clickCounterService,
+                      ClickLoadShedder clickLoadShedder,
+                      DeferredFraudCheckService deferredFraudCheckService,
+                      LinkResolver linkResolver,
+                      RedirectJdbcRepository redirectRepository,
+                      ClickDeduplicator clickDeduplicator,
+                      StatsJdbcRepository statsRepository) {
         this.linkRepository = linkRepository;
         this.clickRepository = clickRepository;
-        this.fraudDetectionService = fraudDetectionService;
+        this.fraudValidator = fraudValidator;
+        this.fraudPreFilter = fraudPreFilter;
+        this.clickCounterService = clickCounterService;
+        this.clickLoadShedder = clickLoadShedder;
+        this.deferredFraudCheckService = deferredFraudCheckService;
+        this.linkResolver = linkResolver;
+        this.redirectRepository = redirectRepository;
+        this.clickDeduplicator = clickDeduplicator;
+        this.statsRepository = statsRepository;
     }
 
     @Transactional
     public LinkResponse createShortLink(String targetUrl) {
         // Check for existing
+        RequestPhaseEvent lookup = RequestPhases.begin("create", "lookup");
         Optional<ShortenedLink> existing = linkRepository.findByTargetUrl(targetUrl);
+        RequestPhases.end(lookup, existing.map(ShortenedLink::getId).orElse(0L),
+            existing.isPresent() ? "existing" : "new");
         if (existing.isPresent()) {
             return toResponse(existing.get());
         }
 
         // Create new
+        RequestPhaseEvent insert = RequestPhases.begin("create", "insert");
         try {
             ShortenedLink link = new ShortenedLink();
             link.setTargetUrl(targetUrl);
@@ -57,55 +102,246 @@ public class LinkService {
 
             link.setShortCode(Base62Encoder.encode(link.getId()));
             link = linkRepository.save(link);
+            ResolvedLink created = new ResolvedLink(link.getId(), link.getShortCode(), link.getTargetUrl());
+            TransactionHooks.afterCommit(() -> linkResolver.linkCreated(created));
+            RequestPhases.end(insert, link.getId(), "created");
             return toResponse(link);
         } catch (DataIntegrityViolationException e) {
             // Race condition: another thread created it
-            return toResponse(linkRepository.findByTargetUrl(targetUrl).orElseThrow());
+            ShortenedLink raced = linkRepository.findByTargetUrl(targetUrl).orElseThrow();
+            RequestPhases.end(insert, raced.getId(), "race");
+            return toResponse(raced);
         }
     }
 
-    @Transactional
     public String redirectAndTrack(String shortCode) {
-        ShortenedLink link = linkRepository.findByShortCode(shortCode)
+        return redirectAndTrack(shortCode, ClientInfo.unknown());
+    }
+
+    public String redirectAndTrack(String shortCode, ClientInfo client) {
+        return tryRedirectAndTrack(shortCode, client)
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Short link not found"));
+    }
 
-        boolean isValid = fraudDetectionService.validateClick(); // 100ms delay
+    // Target URL with the click tracked, or empty for an unknown short code.
+    // Deliberately not @Transactional: the JDBC statements auto-commit, so no connection is
+    // held across the fraud check
+    public Optional<String> tryRedirectAndTrack(String shortCode, ClientInfo client) {
+        RequestPhaseEvent lookup = RequestPhases.begin("redirect", "lookup");
+        Optional<ResolvedLink> resolved = linkResolver.resolve(shortCode);
+        if (resolved.isEmpty()) {
+            RequestPhases.end(lookup, 0, "miss");
+            return Optional.empty();
+        }
+        ResolvedLink link = resolved.get();
+        RequestPhases.end(lookup, link.getId(), "hit");
 
-        Click click = new Click();
-        click.setLink(link);
-        click.setIsValid(isValid);
-        click.setEarnings(isValid ? new BigDecimal("0.05") : BigDecimal.ZERO);
-        clickRepository.save(click);
+        // A double tap or prefetch: no fraud check, no insert
+        if (clickDeduplicator.isDuplicate(client, link.getId())) {
+            return Optional.of(link.getTargetUrl());
+        }
 
-        return link.getTargetUrl();
+        // Under overload the redirect is still served; only click handling degrades
+        ClickLoadShedder.Admission admission = clickLoadShedder.admit();
+        if (admission == ClickLoadShedder.Admission.REJECT) {
+            return Optional.of(link.getTargetUrl());
+        }
+        try {
+            trackClick(link, client, admission == ClickLoadShedder.Admission.ACCEPT_DEFER_FRAUD_CHECK);
+        } finally {
+            clickLoadShedder.release();
+        }
+
+        return Optional.of(link.getTargetUrl());
     }
 
-    @Transactional(readOnly = true)
-    public Page<LinkStatsDto> getStats(Pageable pageable) {
-        Page<ShortenedLink> links = linkRepository.findAll(pageable);
+    // Target URLs for link previews. No click is tracked and no fraud check is made, so
+    // previews neither count as clicks nor earn anything
+    public ResolveResponse resolve(List<String> shortCodes) {
+        return new ResolveResponse(shortCodes, linkResolver.resolveAll(shortCodes));
+    }
 
-        return links.map(link -> {
-            long totalClicks = clickRepository.countByLinkIdAndIsValidTrue(link.getId());
-            BigDecimal totalEarnings = new BigDecimal("0.05").multiply(new BigDecimal(totalClicks));
+    private void trackClick(ResolvedLink link, ClientInfo client, boolean deferFraudCheck) {
+        RequestPhaseEvent fraudCheck = RequestPhases.begin("redirect", "fraud-check");
+        FraudVerdict verdict;
+        FraudPreFilter.Decision decision = fraudPreFilter.evaluate(client, link.getId());
+        if (decision == FraudPreFilter.Decision.REJECT) {
+            verdict = FraudVerdict.INVALID;
+        } else if (decision == FraudPreFilter.Decision.ACCEPT) {
+            verdict = FraudVerdict.VALID;
+        } else if (deferFraudCheck) {
+            verdict = FraudVerdict.PROVISIONAL;
+        } else {
+            long start = System.nanoTime();
+            verdict = fraudValidator.validate(); // 100ms delay
+            clickLoadShedder.recordFraudLatency(System.nanoTime() - start);
+        }
+        RequestPhases.end(fraudCheck, link.getId(), verdict.name());
+        boolean isValid = verdict.isValid();
+        // Provisional clicks are re-checked by DeferredFraudCheckService
+        boolean revalidate = verdict == FraudVerdict.PROVISIONAL;
 
-            List<MonthlyClickStats> monthlyStats = clickRepository.getMonthlyStats(link.getId());
-            Map<String, Long> monthlyBreakdown = new LinkedHashMap<>();
-            for (MonthlyClickStats stat : monthlyStats) {
-                monthlyBreakdown.put(stat.getMonth(), stat.getClickCount());
+        long linkId = link.getId();
+        RequestPhaseEvent insert = RequestPhases.begin("redirect", "click-insert");
+        long clickId;
+        try {
+            clickId = revalidate ? clickRepository.insertProvisionalClick(linkId)
+                : clickRepository.insertClick(linkId, isValid);
+        } catch (CannotGetJdbcConnectionException | CannotCreateTransactionException e) {
+            // The clicks pool is busy: shed the click rather than hold up the redirect
+            clickLoadShedder.shedPoolBusy();
+            RequestPhases.end(insert, linkId, "pool-busy");
+            return;
+        }
+        RequestPhases.end(insert, linkId, isValid ? "valid" : "invalid");
+        TransactionHooks.afterCommit(() -> {
+            clickCounterService.recordClick(linkId, isValid);
+            if (revalidate) {
+                deferredFraudCheckService.enqueue(clickId, linkId);
             }
+        });
+    }
+
+    public Page<LinkStatsDto> getStats(Pageable pageable) {
+        return getStats(snapshotStats(pageable));
+    }
 
-            return new LinkStatsDto(
-                link.getShortCode(),
-                link.getTargetUrl(),
-                totalClicks,
-                totalEarnings,
-                monthlyBreakdown
-            );
+    public StatsSnapshot snapshotStats(Pageable pageable) {
+        return snapshotStats(pageable, StatsRange.LIFETIME);
+    }
+
+    // The page of links and their click totals, with an ETag for the stats built from them.
+    // Costs the page query and a primary key lookup of the totals; no click aggregates.
+    // Stats read only through the analytics workload pool, never a JPA session on the primary,
+    // and the page and its totals in one read-only transaction there.
+    public StatsSnapshot snapshotStats(Pageable pageable, StatsRange range) {
+        RequestPhaseEvent phase = RequestPhases.begin("stats", "snapshot");
+        StatsSnapshot snapshot = statsRepository.inSnapshot(() -> {
+            Page<ShortenedLink> links = statsRepository.findLinks(pageable);
+            Map<Long, LinkClickTotals> totals = clickCounterService.withPending(
+                statsRepository.findTotals(links.map(ShortenedLink::getId).getContent()));
+            return new StatsSnapshot(links, totals, range, statsETag(links, totals, range));
         });
+        RequestPhases.end(phase, 0, snapshot.links.getNumberOfElements() + " links");
+        return snapshot;
+    }
+
+    // At most two queries per shard for the whole page, never one per link
+    public Page<LinkStatsDto> getStats(StatsSnapshot snapshot) {
+        Map<Long, LinkClickTotals> totals = snapshot.totals;
+        List<Long> linkIds = snapshot.links.map(ShortenedLink::getId).getContent();
+        RequestPhaseEvent phase = RequestPhases.begin("stats", "aggregates");
+
+        // Never flushed: every committed click is still only in the clicks table
+        List<Long> uncounted = linkIds.stream().filter(id -> !totals.containsKey(id)).toList();
+        Map<Long, Long> counted = clickRepository.countValidClicks(uncounted);
+        Map<Long, Map<String, Long>> breakdowns = clickRepository.validClicksByBucket(linkIds, snapshot.range);
+        RequestPhases.end(phase, 0, uncounted.size() + " of " + linkIds.size() + " links counted");
+
+        return snapshot.links.map(link -> {
+            long totalClicks;
+            BigDecimal totalEarnings;
+            LinkClickTotals linkTotals = totals.get(link.getId());
+            if (linkTotals != null) {
+                totalClicks = linkTotals.getValidClicks();
+                totalEarnings = linkTotals.getEarnings();
+            } else {
+                totalClicks = counted.getOrDefault(link.getId(), 0L);
+                totalEarnings = Click.EARNINGS_PER_VALID_CLICK.multiply(new BigDecimal(totalClicks));
+            }
+            Map<String, Long> breakdown = breakdowns.getOrDefault(link.getId(), new LinkedHashMap<>());
+            return toStats(link, totalClicks, totalEarnings, breakdown, snapshot.range);
+        });
+    }
+
+    // One link's stats; the breakdown costs one range scan of the link's clicks per shard
+    public LinkStatsDto getLinkStats(String shortCode, StatsRange range) {
+        ShortenedLink link = statsRepository.findByShortCode(shortCode)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Short link not found"));
+        LinkClickTotals linkTotals = lifetimeTotals(link.getId());
+        Map<String, Long> breakdown = clickRepository.validClicksByBucket(List.of(link.getId()), range)
+            .getOrDefault(link.getId(), new LinkedHashMap<>());
+        return toStats(link, linkTotals.getValidClicks(), linkTotals.getEarnings(), breakdown, range);
+    }
+
+    // The first event of a live stats stream
+    public LiveStatsEvent liveTotals(ResolvedLink link) {
+        LinkClickTotals linkTotals = lifetimeTotals(link.getId());
+        return new LiveStatsEvent(link.getShortCode(), linkTotals.getValidClicks(), linkTotals.getInvalidClicks(),
+            linkTotals.getEarnings());
+    }
+
+    // Persisted totals plus unflushed deltas; a link never flushed is counted from its clicks
+    private LinkClickTotals lifetimeTotals(long linkId) {
+        LinkClickTotals linkTotals = clickCounterService.withPending(statsRepository.findTotals(List.of(linkId)))
+            .get(linkId);
+        if (linkTotals != null) {
+            return linkTotals;
+        }
+        long totalClicks = clickRepository.countValidClicks(List.of(linkId)).getOrDefault(linkId, 0L);
+        long invalidClicks = clickRepository.countInvalidClicks(List.of(linkId)).getOrDefault(linkId, 0L);
+        return new LinkClickTotals(linkId, totalClicks, invalidClicks,
+            Click.EARNINGS_PER_VALID_CLICK.multiply(new BigDecimal(totalClicks)));
+    }
+
+    private static LinkStatsDto toStats(ShortenedLink link, long totalClicks, BigDecimal totalEarnings,
+                                        Map<String, Long> breakdown, StatsRange range) {
+        return toStats(link.getShortCode(), link.getTargetUrl(), totalClicks, totalEarnings, breakdown, range);
+    }
+
+    // Shared with ReactiveLinkService, so both runtimes shape stats the same way
+    public static LinkStatsDto toStats(String shortCode, String targetUrl, long totalClicks, BigDecimal totalEarnings,
+                                       Map<String, Long> breakdown, StatsRange range) {
+        if (range.isLifetime()) {
+            return new LinkStatsDto(shortCode, targetUrl, totalClicks, totalEarnings, breakdown);
+        }
+        long clicksInRange = breakdown.values().stream().mapToLong(Long::longValue).sum();
+        return new LinkStatsDto(shortCode, targetUrl, totalClicks, totalEarnings, breakdown, clicksInRange);
+    }
+
+    // Local click versions cover this instance's clicks at once; the persisted totals pick up
+    // other instances' clicks when they flush their counters
+    private String statsETag(Page<ShortenedLink> links, Map<Long, LinkClickTotals> totals, StatsRange range) {
+        StringBuilder state = new StringBuilder(statsEpoch)
+            .append('|').append(range)
+            .append('|').append(links.getNumber())
+            .append('|').append(links.getSize())
+            .append('|').append(links.getTotalElements());
+        for (ShortenedLink link : links) {
+            state.append('|').append(link.getId())
+                .append(':').append(link.getShortCode())
+                .append(':').append(clickCounterService.version(link.getId()));
+            LinkClickTotals linkTotals = totals.get(link.getId());
+            if (linkTotals != null) {
+                state.append(':').append(linkTotals.getValidClicks())
+                    .append(':').append(linkTotals.getInvalidClicks())
+                    .append(':').append(linkTotals.getEarnings());
+            }
+        }
+        return "W/\"" + DigestUtils.md5DigestAsHex(state.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
     }
 
     private LinkResponse toResponse(ShortenedLink link) {
         String shortUrl = baseUrl + "/" + link.getShortCode();
         return new LinkResponse(link.getShortCode(), shortUrl, link.getTargetUrl());
     }
+
+    public static final class StatsSnapshot {
+        private final Page<ShortenedLink> links;
+        private final Map<Long, LinkClickTotals> totals;
+        private final StatsRange range;
+        private final String eTag;
+
+        private StatsSnapshot(Page<ShortenedLink> links, Map<Long, LinkClickTotals> totals,
+                              StatsRange range, String eTag) {
+            this.links = links;
+            this.totals = totals;
+            this.range = range;
+            this.eTag = eTag;
+        }
+
+        public String getETag() {
+            return eTag;
+        }
+    }
 }
@@ -0,0 +1,125 @@
+package com.fiverr.demo.service;
+
+import com.fiverr.demo.dto.ResolvedLink;
+import com.fiverr.demo.repository.ShortenedLinkRepository;
+import com.fiverr.demo.util.Base62Encoder;
+import com.fiverr.demo.util.MappedLinkStore;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+// Off-heap copy of shortened_links (see MappedLinkStore) so redirects resolve without the
+// database. Filled incrementally from the table, appended to on link creation, and reopened
+// as-is after a restart. Disabled by default; when off every lookup misses.
+@Service
+public class LinkStore {
+
+    private static final Logger log = LoggerFactory.getLogger(LinkStore.class);
+
+    private final ShortenedLinkRepository linkRepository;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentBytes;
+    private final int syncBatchSize;
+    private volatile MappedLinkStore store;
+
+    public LinkStore(ShortenedLinkRepository linkRepository,
+                     MeterRegistry meterRegistry,
+                     @Value("${app.link-store.enabled:false}") boolean enabled,
+                     @Value("${app.link-store.directory:data/link-store}") String directory,
+                     @Value("${app.link-store.segment-bytes:1073741824}") int segmentBytes,
+                     @Value("${app.link-store.sync-batch-size:10000}") int syncBatchSize) {
+        this.linkRepository = linkRepository;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.segmentBytes = segmentBytes;
+        this.syncBatchSize = syncBatchSize;
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        store = new MappedLinkStore(directory, segmentBytes);
+        log.info("Opened link store at {} with {} links (highest id {})",
+            directory.toAbsolutePath(), store.size(), store.getHighestId());
+        Gauge.builder("links.store.size", store, MappedLinkStore::size).register(meterRegistry);
+    }
+
+    public Optional<ResolvedLink> find(String shortCode) {
+        MappedLinkStore current = store;
+        if (current == null) {
+            return Optional.empty();
+        }
+        long id;
+        try {
+            id = Base62Encoder.decode(shortCode);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        String targetUrl = current.targetUrl(id, shortCode);
+        return targetUrl == null ? Optional.empty() : Optional.of(new ResolvedLink(id, shortCode, targetUrl));
+    }
+
+    public void append(ResolvedLink link) {
+        MappedLinkStore current = store;
+        if (current == null || link.getShortCode() == null) {
+            return;
+        }
+        try {
+            current.append(link.getId(), link.getShortCode(), link.getTargetUrl());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Copies links created since the last sync (including on other nodes). Links that
+    // commit out of id order are skipped here, and filled in by LinkResolver on their
+    // first lookup.
+    @Scheduled(fixedDelayString = "${app.link-store.sync-interval-ms:5000}")
+    public int sync() {
+        MappedLinkStore current = store;
+        if (current == null) {
+            return 0;
+        }
+        int copied = 0;
+        List<ResolvedLink> batch;
+        do {
+            batch = linkRepository.findResolvedAfter(current.getHighestId(), PageRequest.of(0, syncBatchSize));
+            for (ResolvedLink link : batch) {
+                append(link);
+            }
+            copied += batch.size();
+        } while (batch.size() == syncBatchSize);
+        if (copied > 0) {
+            current.force();
+            log.info("Link store synced {} links, {} total", copied, current.size());
+        }
+        return copied;
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        MappedLinkStore current = store;
+        store = null;
+        if (current != null) {
+            current.close();
+        }
+    }
+}
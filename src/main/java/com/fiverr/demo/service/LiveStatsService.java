@@ -0,0 +1,246 @@
+package com.fiverr.demo.service;
+
+import com.fiverr.demo.config.SchedulingConfig;
+import com.fiverr.demo.dto.LiveStatsEvent;
+import com.fiverr.demo.dto.ResolvedLink;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// Server-sent click deltas per link. A stream opens with the link's current totals; after that,
+// clicks are accumulated in memory only for links that have subscribers and pushed at most once
+// per interval, without reading the database. Deltas come from the clicks this instance records,
+// so with several instances behind a load balancer a stream misses the others' clicks.
+//
+// The scheduler thread only hands the deltas out: each subscriber keeps its own pending deltas,
+// and a pool of app.live-stats.send-threads writes them, one send in flight per subscriber.
+// Deltas that arrive while a subscriber's send is in flight are added to its next event, so a
+// slow client gets fewer, larger events and holds up no one else. A subscriber whose send has
+// been writing for app.live-stats.send-timeout-ms is dropped and its writer interrupted.
+@Service
+public class LiveStatsService {
+
+    private final LinkResolver linkResolver;
+    private final int maxSubscribers;
+    private final long timeoutMs;
+    private final long sendTimeoutNanos;
+    private final ExecutorService sender;
+    private final Counter droppedSlow;
+    private final Map<Long, Topic> topics = new ConcurrentHashMap<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+
+    public LiveStatsService(LinkResolver linkResolver,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.live-stats.max-subscribers:1000}") int maxSubscribers,
+                            @Value("${app.live-stats.timeout-ms:1800000}") long timeoutMs,
+                            @Value("${app.live-stats.send-threads:4}") int sendThreads,
+                            @Value("${app.live-stats.send-timeout-ms:5000}") long sendTimeoutMs) {
+        this.linkResolver = linkResolver;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMs = timeoutMs;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        // Unbounded queue, but each subscriber has at most one send queued or running
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(sendThreads, runnable -> {
+            Thread thread = new Thread(runnable, "live-stats-send-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.droppedSlow = meterRegistry.counter("stats.live.dropped", "reason", "slow_client");
+        Gauge.builder("stats.live.subscribers", subscribers, AtomicInteger::get).register(meterRegistry);
+    }
+
+    // currentTotals reads the link's lifetime totals, sent as the first event of the stream
+    public SseEmitter subscribe(String shortCode, Function<ResolvedLink, LiveStatsEvent> currentTotals) {
+        ResolvedLink link = linkResolver.resolve(shortCode)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Short link not found"));
+        if (subscribers.incrementAndGet() > maxSubscribers) {
+            subscribers.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many live stats subscribers");
+        }
+
+        SseEmitter emitter = newEmitter(timeoutMs);
+        try {
+            // Sent before the emitter joins the topic, so it always precedes the first delta.
+            // Clicks recorded while the totals are read may be missed or counted twice.
+            emitter.send(SseEmitter.event().name("totals").data(currentTotals.apply(link), MediaType.APPLICATION_JSON));
+        } catch (IOException e) {
+            subscribers.decrementAndGet();
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            subscribers.decrementAndGet();
+            throw e;
+        }
+        long linkId = link.getId();
+        Subscriber subscriber = new Subscriber(emitter);
+        topics.compute(linkId, (id, topic) -> {
+            Topic subscribed = topic != null ? topic : new Topic(link.getShortCode());
+            subscribed.subscribers.add(subscriber);
+            return subscribed;
+        });
+        emitter.onCompletion(() -> unsubscribe(linkId, subscriber));
+        emitter.onTimeout(() -> unsubscribe(linkId, subscriber));
+        emitter.onError(e -> unsubscribe(linkId, subscriber));
+        return emitter;
+    }
+
+    // Called for every processed click; a map lookup when nobody is watching the link
+    public void record(long linkId, long validClicks, long invalidClicks, long earningsCents) {
+        Topic topic = topics.get(linkId);
+        if (topic != null) {
+            topic.validClicks.addAndGet(validClicks);
+            topic.invalidClicks.addAndGet(invalidClicks);
+            topic.earningsCents.addAndGet(earningsCents);
+        }
+    }
+
+    // Hands each subscriber the deltas of its link since the last push and starts a send for every
+    // subscriber with deltas and no send in flight; returns the number of sends started. Never
+    // writes to a client itself
+    @Scheduled(fixedRateString = "${app.live-stats.interval-ms:1000}",
+               scheduler = SchedulingConfig.LIVE_STATS)
+    public int push() {
+        int started = 0;
+        long now = System.nanoTime();
+        for (Map.Entry<Long, Topic> entry : topics.entrySet()) {
+            Topic topic = entry.getValue();
+            long valid = topic.validClicks.getAndSet(0);
+            long invalid = topic.invalidClicks.getAndSet(0);
+            long cents = topic.earningsCents.getAndSet(0);
+            for (Subscriber subscriber : topic.subscribers) {
+                subscriber.add(valid, invalid, cents);
+                if (subscriber.sending.get()) {
+                    long sendStartedAt = subscriber.sendStartedAt;
+                    if (sendStartedAt != 0 && now - sendStartedAt > sendTimeoutNanos) {
+                        dropSlow(entry.getKey(), subscriber);
+                    }
+                } else if (subscriber.hasPending() && subscriber.sending.compareAndSet(false, true)) {
+                    subscriber.send = sender.submit(() -> send(entry.getKey(), topic.shortCode, subscriber));
+                    started++;
+                }
+            }
+        }
+        return started;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+
+    // Overridden by tests to stand in for a client
+    SseEmitter newEmitter(long timeoutMs) {
+        return new SseEmitter(timeoutMs);
+    }
+
+    private void send(long linkId, String shortCode, Subscriber subscriber) {
+        subscriber.sendStartedAt = System.nanoTime();
+        boolean failed = false;
+        try {
+            LiveStatsEvent event = new LiveStatsEvent(shortCode, subscriber.validClicks.getAndSet(0),
+                subscriber.invalidClicks.getAndSet(0), BigDecimal.valueOf(subscriber.earningsCents.getAndSet(0), 2));
+            subscriber.emitter.send(SseEmitter.event().name("clicks").data(event, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            // Client went away, or the write was interrupted by dropSlow
+            failed = true;
+            subscriber.emitter.completeWithError(e);
+            unsubscribe(linkId, subscriber);
+        } finally {
+            subscriber.sendStartedAt = 0;
+            subscriber.sending.set(false);
+        }
+        if (!failed && subscriber.dropped.get()) {
+            subscriber.emitter.completeWithError(new TimeoutException("Live stats client too slow"));
+        }
+    }
+
+    // Frees the slot at once; the emitter is completed by its send thread, which holds its lock
+    private void dropSlow(long linkId, Subscriber subscriber) {
+        if (subscriber.dropped.compareAndSet(false, true)) {
+            droppedSlow.increment();
+            unsubscribe(linkId, subscriber);
+            Future<?> send = subscriber.send;
+            if (send != null) {
+                send.cancel(true);
+            }
+        }
+    }
+
+    private void unsubscribe(long linkId, Subscriber subscriber) {
+        topics.computeIfPresent(linkId, (id, topic) -> {
+            if (topic.subscribers.remove(subscriber)) {
+                subscribers.decrementAndGet();
+            }
+            return topic.subscribers.isEmpty() ? null : topic;
+        });
+    }
+
+    private static final class Topic {
+        private final String shortCode;
+        private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        private final AtomicLong validClicks = new AtomicLong();
+        private final AtomicLong invalidClicks = new AtomicLong();
+        private final AtomicLong earningsCents = new AtomicLong();
+
+        private Topic(String shortCode) {
+            this.shortCode = shortCode;
+        }
+    }
+
+    // Deltas not yet sent to one client, and its send in flight
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final AtomicLong validClicks = new AtomicLong();
+        private final AtomicLong invalidClicks = new AtomicLong();
+        private final AtomicLong earningsCents = new AtomicLong();
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private final AtomicBoolean dropped = new AtomicBoolean();
+        private volatile long sendStartedAt;
+        private volatile Future<?> send;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private void add(long valid, long invalid, long cents) {
+            if (valid != 0 || invalid != 0 || cents != 0) {
+                validClicks.addAndGet(valid);
+                invalidClicks.addAndGet(invalid);
+                earningsCents.addAndGet(cents);
+            }
+        }
+
+        private boolean hasPending() {
+            return validClicks.get() != 0 || invalidClicks.get() != 0 || earningsCents.get() != 0;
+        }
+    }
+}
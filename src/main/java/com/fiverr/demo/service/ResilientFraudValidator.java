@@ -0,0 +1,199 @@
+package com.fiverr.demo.service;
+
+import com.fiverr.demo.util.CircuitBreaker;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Calls the fraud backend (HedgedFraudBackend) behind a bulkhead, a per-call deadline and a
+// circuit breaker. Whenever the real verdict is unavailable the configured fallback applies,
+// except for validateWithoutFallback and validateBatch.
+@Service
+public class ResilientFraudValidator {
+
+    public enum Fallback {
+        ACCEPT_PROVISIONAL,
+        ACCEPT,
+        REJECT
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(ResilientFraudValidator.class);
+
+    private final FraudBackend fraudBackend;
+    private final MeterRegistry meterRegistry;
+    private final CircuitBreaker circuitBreaker;
+    private final Semaphore bulkhead;
+    private final ExecutorService executor;
+    private final long timeoutMs;
+    private final long batchTimeoutMs;
+    private final long bulkheadWaitMs;
+    private final Fallback fallback;
+
+    public ResilientFraudValidator(FraudBackend fraudBackend,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.fraud.timeout-ms:500}") long timeoutMs,
+                                   @Value("${app.fraud.batch-timeout-ms:5000}") long batchTimeoutMs,
+                                   @Value("${app.fraud.max-concurrent-calls:32}") int maxConcurrentCalls,
+                                   @Value("${app.fraud.bulkhead-wait-ms:20}") long bulkheadWaitMs,
+                                   @Value("${app.fraud.circuit.failure-threshold:5}") int failureThreshold,
+                                   @Value("${app.fraud.circuit.open-ms:10000}") long openMs,
+                                   @Value("${app.fraud.fallback:ACCEPT_PROVISIONAL}") Fallback fallback) {
+        this.fraudBackend = fraudBackend;
+        this.meterRegistry = meterRegistry;
+        this.timeoutMs = timeoutMs;
+        this.batchTimeoutMs = batchTimeoutMs;
+        this.bulkheadWaitMs = bulkheadWaitMs;
+        this.fallback = fallback;
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, openMs, (from, to) -> {
+            log.warn("Fraud check circuit {} -> {}", from, to);
+            meterRegistry.counter("fraud.circuit.transitions", "to", to.name()).increment();
+        });
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(maxConcurrentCalls, maxConcurrentCalls, 60, TimeUnit.SECONDS,
+            new SynchronousQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "fraud-check-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        ((ThreadPoolExecutor) executor).allowCoreThreadTimeOut(true);
+
+        Gauge.builder("fraud.circuit.state", circuitBreaker, cb -> cb.getState().ordinal())
+            .description("0 = closed, 1 = open, 2 = half-open")
+            .register(meterRegistry);
+        Gauge.builder("fraud.bulkhead.available", bulkhead, Semaphore::availablePermits).register(meterRegistry);
+    }
+
+    public FraudVerdict validate() {
+        FraudVerdict verdict = check();
+        return verdict != null ? verdict : fallbackVerdict();
+    }
+
+    // The backend's verdict, or empty when it gave none and validate() would have applied the
+    // fallback. For re-checks, which must not take a fallback for a verdict
+    public Optional<FraudVerdict> validateWithoutFallback() {
+        return Optional.ofNullable(check());
+    }
+
+    // Null when the backend gave no verdict
+    private FraudVerdict check() {
+        Boolean isValid = guarded(fraudBackend::validateClick, timeoutMs);
+        if (isValid == null) {
+            return null;
+        }
+        return isValid ? FraudVerdict.VALID : FraudVerdict.INVALID;
+    }
+
+    // One verdict per click for a bulk import, or empty when the backend gave none. The batch is
+    // one backend call, so it takes one bulkhead permit and one worker, with its own deadline of
+    // app.fraud.batch-timeout-ms. No fallback: an import has no latency budget, so it retries
+    public Optional<FraudVerdict[]> validateBatch(int count) {
+        FraudVerdict[] verdicts = new FraudVerdict[count];
+        if (count == 0) {
+            return Optional.of(verdicts);
+        }
+        boolean[] results = guarded(() -> fraudBackend.validateClicks(count), batchTimeoutMs);
+        if (results == null) {
+            return Optional.empty();
+        }
+        for (int i = 0; i < count; i++) {
+            verdicts[i] = results[i] ? FraudVerdict.VALID : FraudVerdict.INVALID;
+        }
+        return Optional.of(verdicts);
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    // The backend call behind the bulkhead, the circuit breaker and the deadline; null when it
+    // gave no result
+    private <T> T guarded(Callable<T> backendCall, long deadlineMs) {
+        try {
+            if (!bulkhead.tryAcquire(bulkheadWaitMs, TimeUnit.MILLISECONDS)) {
+                return unavailable("bulkhead_full");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return unavailable("interrupted");
+        }
+        try {
+            if (!circuitBreaker.tryAcquirePermission()) {
+                return unavailable("circuit_open");
+            }
+            return call(backendCall, deadlineMs);
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    private <T> T call(Callable<T> backendCall, long deadlineMs) {
+        Future<T> future;
+        try {
+            future = executor.submit(backendCall);
+        } catch (RejectedExecutionException e) {
+            // A timed out call that ignored cancellation still holds its worker
+            circuitBreaker.releasePermission();
+            return unavailable("bulkhead_full");
+        }
+
+        try {
+            T result = future.get(deadlineMs, TimeUnit.MILLISECONDS);
+            circuitBreaker.onSuccess();
+            return result;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            circuitBreaker.onFailure();
+            return unavailable("timeout");
+        } catch (ExecutionException e) {
+            circuitBreaker.onFailure();
+            log.warn("Fraud check failed", e.getCause());
+            return unavailable("error");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            circuitBreaker.releasePermission();
+            return unavailable("interrupted");
+        }
+    }
+
+    private <T> T unavailable(String reason) {
+        meterRegistry.counter("fraud.calls.rejected", "reason", reason).increment();
+        return null;
+    }
+
+    private FraudVerdict fallbackVerdict() {
+        switch (fallback) {
+            case ACCEPT:
+                return FraudVerdict.VALID;
+            case REJECT:
+                return FraudVerdict.INVALID;
+            default:
+                return FraudVerdict.PROVISIONAL;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,143 @@
+package com.fiverr.demo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fiverr.demo.dto.ClickEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// Click events as NDJSON in numbered local files, click-events-<n>.ndjson, one event per line.
+// A batch is forced to disk before publish returns. A file is rolled once it reaches
+// maxFileBytes, after a failed write and on every start, so files below the newest never grow.
+// A partial line can only come from a failed write or a crash: a failed write is cut off again
+// before its file is left, and a start cuts a partial last line off the newest file before
+// opening the next one. Consumers read files in number order and checkpoint (file, line); a
+// line without its newline is still being written, or was left where a cut failed, and is skipped.
+public class RollingFileClickEventSink implements ClickEventSink {
+
+    private static final Pattern FILE_NAME = Pattern.compile("click-events-(\\d+)\\.ndjson");
+
+    private final Path directory;
+    private final long maxFileBytes;
+    private final ObjectMapper objectMapper;
+    private long fileNumber;
+    private FileChannel current;
+    private long currentBytes;
+
+    public RollingFileClickEventSink(Path directory, long maxFileBytes, ObjectMapper objectMapper) throws IOException {
+        this.directory = directory;
+        this.maxFileBytes = maxFileBytes;
+        this.objectMapper = objectMapper;
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            this.fileNumber = files.map(file -> FILE_NAME.matcher(file.getFileName().toString()))
+                .filter(Matcher::matches)
+                .mapToLong(name -> Long.parseLong(name.group(1)))
+                .max()
+                .orElse(0);
+        }
+        if (fileNumber > 0) {
+            cutPartialLine(directory.resolve(fileName(fileNumber)));
+        }
+    }
+
+    public static String fileName(long number) {
+        return "click-events-%012d.ndjson".formatted(number);
+    }
+
+    @Override
+    public synchronized void publish(List<ClickEvent> events) throws IOException {
+        if (events.isEmpty()) {
+            return;
+        }
+        ByteArrayOutputStream lines = new ByteArrayOutputStream(events.size() * 128);
+        for (ClickEvent event : events) {
+            objectMapper.writeValue(lines, event);
+            lines.write('\n');
+        }
+        if (current == null || currentBytes >= maxFileBytes) {
+            roll();
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+        try {
+            while (buffer.hasRemaining()) {
+                current.write(buffer);
+            }
+            current.force(false);
+        } catch (IOException e) {
+            // The batch is published again, into a new file rather than after a partial line
+            FileChannel failed = current;
+            current = null;
+            try {
+                failed.truncate(currentBytes);
+                failed.force(false);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            try {
+                failed.close();
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+        currentBytes += lines.size();
+    }
+
+    private void roll() throws IOException {
+        if (current != null) {
+            current.close();
+        }
+        fileNumber++;
+        current = FileChannel.open(directory.resolve(fileName(fileNumber)), StandardOpenOption.CREATE_NEW,
+            StandardOpenOption.WRITE);
+        currentBytes = 0;
+    }
+
+    // Truncates the file after its last newline
+    private static void cutPartialLine(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            ByteBuffer buffer = ByteBuffer.allocate(8192);
+            long end = size;
+            while (end > 0) {
+                long start = Math.max(0, end - buffer.capacity());
+                buffer.clear().limit((int) (end - start));
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, start + buffer.position()) < 0) {
+                        break;
+                    }
+                }
+                for (int i = buffer.position() - 1; i >= 0; i--) {
+                    if (buffer.get(i) == '\n') {
+                        if (start + i + 1 < size) {
+                            channel.truncate(start + i + 1);
+                            channel.force(false);
+                        }
+                        return;
+                    }
+                }
+                end = start;
+            }
+            channel.truncate(0);
+            channel.force(false);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (current != null) {
+            current.close();
+            current = null;
+        }
+    }
+}
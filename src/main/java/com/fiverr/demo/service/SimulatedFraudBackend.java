@@ -0,0 +1,55 @@
+package com.fiverr.demo.service;
+
+import java.util.Random;
+
+// Local stand-in for a fraud backend: every call takes latencyMs, except a tailProbability
+// share that takes tailLatencyMs, and fraudRate of the verdicts are "invalid".
+public class SimulatedFraudBackend implements FraudBackend {
+
+    private final String name;
+    private final long latencyMs;
+    private final long tailLatencyMs;
+    private final double tailProbability;
+    private final double fraudRate;
+    private final Random random;
+
+    public SimulatedFraudBackend(String name, long latencyMs, long tailLatencyMs,
+                                 double tailProbability, double fraudRate) {
+        this(name, latencyMs, tailLatencyMs, tailProbability, fraudRate, new Random());
+    }
+
+    public SimulatedFraudBackend(String name, long latencyMs, long tailLatencyMs,
+                                 double tailProbability, double fraudRate, Random random) {
+        this.name = name;
+        this.latencyMs = latencyMs;
+        this.tailLatencyMs = tailLatencyMs;
+        this.tailProbability = tailProbability;
+        this.fraudRate = fraudRate;
+        this.random = random;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean validateClick() throws InterruptedException {
+        return validateClicks(1)[0];
+    }
+
+    // A batch costs one round trip
+    @Override
+    public boolean[] validateClicks(int count) throws InterruptedException {
+        double latencyDraw;
+        boolean[] verdicts = new boolean[count];
+        synchronized (random) {
+            latencyDraw = random.nextDouble();
+            for (int i = 0; i < count; i++) {
+                verdicts[i] = random.nextDouble() >= fraudRate;
+            }
+        }
+        Thread.sleep(latencyDraw < tailProbability ? tailLatencyMs : latencyMs);
+        return verdicts;
+    }
+}
@@ -0,0 +1,93 @@
+package com.fiverr.demo.service;
+
+import com.fiverr.demo.util.UrlNormalizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Rewrites target URLs stored before creation normalized them (see {@link UrlNormalizer}), so
+ * that creating a link for another spelling of the same URL finds the existing row instead of
+ * adding a second one. A row whose normalized URL another link already holds is left as it is:
+ * both short links keep redirecting, and new creates find the normalized one. Rows are visited
+ * in id order and rewritten one by one, so an interrupted run can simply be started again.
+ * Cached redirects may keep the old spelling, which leads to the same page.
+ */
+@Service
+public class TargetUrlBackfill implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(TargetUrlBackfill.class);
+
+    private static final String SELECT_BATCH_SQL =
+        "SELECT id, target_url FROM shortened_links WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String UPDATE_SQL = """
+        UPDATE shortened_links SET target_url = ?
+        WHERE id = ? AND target_url = ?
+          AND NOT EXISTS (SELECT 1 FROM shortened_links WHERE target_url = ?)
+        """;
+
+    private final JdbcTemplate primary;
+    private final boolean runOnStartup;
+    private final int batchSize;
+
+    public TargetUrlBackfill(JdbcTemplate primary,
+                             @Value("${app.link-creation.normalize-on-startup:false}") boolean runOnStartup,
+                             @Value("${app.link-creation.normalize-batch-size:1000}") int batchSize) {
+        this.primary = primary;
+        this.runOnStartup = runOnStartup;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (runOnStartup) {
+            backfill();
+        }
+    }
+
+    // Returns the number of target URLs rewritten
+    public long backfill() {
+        long rewritten = 0;
+        long kept = 0;
+        long afterId = Long.MIN_VALUE;
+        while (true) {
+            List<Object[]> rows = primary.query(SELECT_BATCH_SQL,
+                (rs, rowNum) -> new Object[] {rs.getLong(1), rs.getString(2)}, afterId, batchSize);
+            if (rows.isEmpty()) {
+                break;
+            }
+            for (Object[] row : rows) {
+                String stored = (String) row[1];
+                String normalized = UrlNormalizer.normalize(stored);
+                if (normalized.equals(stored)) {
+                    continue;
+                }
+                if (rewrite((long) row[0], stored, normalized)) {
+                    rewritten++;
+                } else {
+                    kept++;
+                }
+            }
+            afterId = (long) rows.get(rows.size() - 1)[0];
+        }
+        log.info("Target URL backfill done, {} rewritten, {} kept as duplicates of a normalized link",
+            rewritten, kept);
+        return rewritten;
+    }
+
+    private boolean rewrite(long id, String stored, String normalized) {
+        try {
+            return primary.update(UPDATE_SQL, normalized, id, stored, normalized) == 1;
+        } catch (DataIntegrityViolationException e) {
+            // A create of the normalized URL committed after the NOT EXISTS check
+            return false;
+        }
+    }
+}
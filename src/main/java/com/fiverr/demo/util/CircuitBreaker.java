@@ -0,0 +1,93 @@
+package com.fiverr.demo.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+// Consecutive-failure circuit breaker. OPEN rejects every call until the open
+// duration elapses, then HALF_OPEN lets exactly one probe through: a success
+// closes the circuit, a failure opens it again.
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier clock;
+    private final BiConsumer<State, State> onTransition;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    public CircuitBreaker(int failureThreshold, long openMillis, BiConsumer<State, State> onTransition) {
+        this(failureThreshold, openMillis, onTransition, System::nanoTime);
+    }
+
+    public CircuitBreaker(int failureThreshold, long openMillis,
+                          BiConsumer<State, State> onTransition, LongSupplier clock) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+        this.onTransition = onTransition;
+        this.clock = clock;
+    }
+
+    public synchronized boolean tryAcquirePermission() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (clock.getAsLong() - openedAt < openNanos) {
+                    return false;
+                }
+                transition(State.HALF_OPEN);
+                probeInFlight = true;
+                return true;
+            default:
+                if (probeInFlight) {
+                    return false;
+                }
+                probeInFlight = true;
+                return true;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        probeInFlight = false;
+        if (state == State.HALF_OPEN) {
+            transition(State.CLOSED);
+        }
+    }
+
+    public synchronized void onFailure() {
+        probeInFlight = false;
+        if (state == State.HALF_OPEN || ++consecutiveFailures >= failureThreshold) {
+            openedAt = clock.getAsLong();
+            consecutiveFailures = 0;
+            if (state != State.OPEN) {
+                transition(State.OPEN);
+            }
+        }
+    }
+
+    // The permitted call was abandoned before it produced an outcome
+    public synchronized void releasePermission() {
+        probeInFlight = false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void transition(State next) {
+        State previous = state;
+        state = next;
+        onTransition.accept(previous, next);
+    }
+}
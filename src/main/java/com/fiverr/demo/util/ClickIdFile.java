@@ -0,0 +1,111 @@
+package com.fiverr.demo.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Click ids spilled to disk, eight bytes each in the order added. ClickArchiver records the ids
+ * of the rows it put into a segment here, so it can delete exactly those rows, also after a
+ * crash, without holding a month of ids in memory.
+ */
+public final class ClickIdFile {
+
+    private ClickIdFile() {
+    }
+
+    public static final class Writer implements Closeable {
+        private final FileChannel channel;
+        private final DataOutputStream out;
+        private long count;
+
+        public Writer(Path file) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+            this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 65536));
+        }
+
+        public void add(long clickId) throws IOException {
+            out.writeLong(clickId);
+            count++;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        // Makes the ids durable; call before anything relies on the file
+        public void force() throws IOException {
+            out.flush();
+            channel.force(true);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    // The ids in chunks of at most chunkSize, for IN-list deletes
+    public static final class Reader implements Iterator<List<Long>>, Closeable {
+        private final DataInputStream in;
+        private final int chunkSize;
+        private List<Long> next;
+
+        public Reader(Path file, int chunkSize) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 65536));
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                next = readChunk();
+            }
+            return !next.isEmpty();
+        }
+
+        @Override
+        public List<Long> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            List<Long> chunk = next;
+            next = null;
+            return chunk;
+        }
+
+        private List<Long> readChunk() {
+            List<Long> chunk = new ArrayList<>(chunkSize);
+            try {
+                while (chunk.size() < chunkSize) {
+                    chunk.add(in.readLong());
+                }
+            } catch (EOFException e) {
+                // End of the file; a torn last id cannot occur, as the file is forced before use
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return chunk;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package com.fiverr.demo.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Immutable columnar file of archived clicks. After a fixed header, each column is stored as
+ * {@code [int length][deflate stream]}:
+ * <ul>
+ *   <li>link ids: varint deltas. Rows are sorted by link id (then clicked_at), so most deltas
+ *       are 0 and compress to almost nothing, and a scan can stop past the last wanted link.</li>
+ *   <li>clicked_at: zigzag varint deltas of epoch microseconds (UTC wall clock, as stored).</li>
+ *   <li>is_valid: one bit per row, 8 rows per byte, least significant bit first.</li>
+ * </ul>
+ * The header holds the row count and the link id, time and click id bounds, so readers can skip
+ * a segment without inflating it. Files are written to a temporary name, forced and then moved
+ * into place, so a segment either exists whole or not at all.
+ */
+public final class ClickSegment {
+
+    private static final long MAGIC = 0x434C4B5345474D31L; // "CLKSEGM1"
+    private static final int VERSION = 1;
+
+    @FunctionalInterface
+    public interface RowVisitor {
+        // Returns false to stop the scan
+        boolean accept(long linkId, long clickedAtMicros, boolean valid);
+    }
+
+    private final int rowCount;
+    private final long minLinkId;
+    private final long maxLinkId;
+    private final long minClickedAt;
+    private final long maxClickedAt;
+    private final long maxClickId;
+    private final byte[][] columns;
+
+    private ClickSegment(int rowCount, long minLinkId, long maxLinkId, long minClickedAt,
+                         long maxClickedAt, long maxClickId, byte[][] columns) {
+        this.rowCount = rowCount;
+        this.minLinkId = minLinkId;
+        this.maxLinkId = maxLinkId;
+        this.minClickedAt = minClickedAt;
+        this.maxClickedAt = maxClickedAt;
+        this.maxClickId = maxClickId;
+        this.columns = columns;
+    }
+
+    public static ClickSegment read(Path path) throws IOException {
+        return read(path, true);
+    }
+
+    // Only the header: enough to decide whether a segment needs scanning
+    public static ClickSegment readHeader(Path path) throws IOException {
+        return read(path, false);
+    }
+
+    private static ClickSegment read(Path path, boolean withColumns) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readLong() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a click segment: " + path);
+            }
+            int rowCount = in.readInt();
+            long minLinkId = in.readLong();
+            long maxLinkId = in.readLong();
+            long minClickedAt = in.readLong();
+            long maxClickedAt = in.readLong();
+            long maxClickId = in.readLong();
+            byte[][] columns = withColumns ? new byte[3][] : null;
+            for (int i = 0; withColumns && i < columns.length; i++) {
+                columns[i] = new byte[in.readInt()];
+                in.readFully(columns[i]);
+            }
+            return new ClickSegment(rowCount, minLinkId, maxLinkId, minClickedAt, maxClickedAt, maxClickId, columns);
+        }
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public long getMinLinkId() {
+        return minLinkId;
+    }
+
+    public long getMaxLinkId() {
+        return maxLinkId;
+    }
+
+    // Epoch microseconds of the oldest and newest click
+    public long getMinClickedAt() {
+        return minClickedAt;
+    }
+
+    public long getMaxClickedAt() {
+        return maxClickedAt;
+    }
+
+    // Highest clicks.id archived into this segment
+    public long getMaxClickId() {
+        return maxClickId;
+    }
+
+    // Inflates the three columns side by side, one row at a time
+    public void scan(RowVisitor visitor) throws IOException {
+        if (columns == null) {
+            throw new IllegalStateException("Segment was opened without its columns");
+        }
+        try (InputStream linkIds = inflate(columns[0]);
+             InputStream times = inflate(columns[1]);
+             InputStream validity = inflate(columns[2])) {
+            long linkId = 0;
+            long clickedAt = 0;
+            int bits = 0;
+            for (int row = 0; row < rowCount; row++) {
+                linkId += readVarLong(linkIds);
+                clickedAt += unzigzag(readVarLong(times));
+                if ((row & 7) == 0) {
+                    bits = readByte(validity);
+                }
+                if (!visitor.accept(linkId, clickedAt, (bits & (1 << (row & 7))) != 0)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    public static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    public static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+            (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    // Collects rows in memory in compressed form. Rows must come in link id order, and in
+    // clicked_at order within a link for the best ratio. Not thread-safe
+    public static final class Writer {
+        private final ByteArrayOutputStream[] buffers = {
+            new ByteArrayOutputStream(), new ByteArrayOutputStream(), new ByteArrayOutputStream()};
+        private final Deflater[] deflaters = new Deflater[3];
+        private final OutputStream linkIds;
+        private final OutputStream times;
+        private final OutputStream validity;
+        private int rowCount;
+        private long previousLinkId;
+        private long previousClickedAt;
+        private int bits;
+        private long minLinkId = Long.MAX_VALUE;
+        private long maxLinkId = Long.MIN_VALUE;
+        private long minClickedAt = Long.MAX_VALUE;
+        private long maxClickedAt = Long.MIN_VALUE;
+
+        public Writer() {
+            for (int i = 0; i < deflaters.length; i++) {
+                deflaters[i] = new Deflater(Deflater.BEST_COMPRESSION);
+            }
+            linkIds = new BufferedOutputStream(new DeflaterOutputStream(buffers[0], deflaters[0]), 8192);
+            times = new BufferedOutputStream(new DeflaterOutputStream(buffers[1], deflaters[1]), 8192);
+            validity = new BufferedOutputStream(new DeflaterOutputStream(buffers[2], deflaters[2]), 8192);
+        }
+
+        public void add(long linkId, LocalDateTime clickedAt, boolean valid) throws IOException {
+            if (linkId < previousLinkId) {
+                throw new IllegalArgumentException("Rows must be added in link id order");
+            }
+            long micros = toMicros(clickedAt);
+            writeVarLong(linkIds, linkId - previousLinkId);
+            writeVarLong(times, zigzag(micros - previousClickedAt));
+            previousLinkId = linkId;
+            previousClickedAt = micros;
+            if (valid) {
+                bits |= 1 << (rowCount & 7);
+            }
+            rowCount++;
+            if ((rowCount & 7) == 0) {
+                validity.write(bits);
+                bits = 0;
+            }
+            minLinkId = Math.min(minLinkId, linkId);
+            maxLinkId = Math.max(maxLinkId, linkId);
+            minClickedAt = Math.min(minClickedAt, micros);
+            maxClickedAt = Math.max(maxClickedAt, micros);
+        }
+
+        public int getRowCount() {
+            return rowCount;
+        }
+
+        // Writes the segment and makes it visible under target in one atomic rename
+        public void finish(Path target, long maxClickId) throws IOException {
+            if ((rowCount & 7) != 0) {
+                validity.write(bits);
+            }
+            linkIds.close();
+            times.close();
+            validity.close();
+            for (Deflater deflater : deflaters) {
+                deflater.end();
+            }
+
+            Files.createDirectories(target.getParent());
+            Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                 DataOutputStream out = new DataOutputStream(Channels.newOutputStream(channel))) {
+                out.writeLong(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(rowCount);
+                out.writeLong(minLinkId);
+                out.writeLong(maxLinkId);
+                out.writeLong(minClickedAt);
+                out.writeLong(maxClickedAt);
+                out.writeLong(maxClickId);
+                for (ByteArrayOutputStream buffer : buffers) {
+                    out.writeInt(buffer.size());
+                    buffer.writeTo(out);
+                }
+                out.flush();
+                channel.force(true);
+            }
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    private static InputStream inflate(byte[] column) {
+        return new BufferedInputStream(new InflaterInputStream(new ByteArrayInputStream(column), new Inflater()) {
+            @Override
+            public void close() throws IOException {
+                super.close();
+                inf.end();
+            }
+        }, 8192);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte(in);
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in click segment");
+    }
+
+    private static int readByte(InputStream in) throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException("Truncated click segment");
+        }
+        return b;
+    }
+}
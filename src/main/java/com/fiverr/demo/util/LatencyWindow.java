@@ -0,0 +1,45 @@
+package com.fiverr.demo.util;
+
+import java.util.Arrays;
+
+// Percentiles over the last `capacity` latency samples. The sorted copy behind percentile()
+// is rebuilt at most every `capacity / 16` samples, so reads on the hot path are O(1).
+public class LatencyWindow {
+
+    private final long[] samples;
+    private final int refreshEvery;
+    private long[] sorted = new long[0];
+    private int next;
+    private int size;
+    private int sinceRefresh;
+
+    public LatencyWindow(int capacity) {
+        this.samples = new long[capacity];
+        this.refreshEvery = Math.max(1, capacity / 16);
+    }
+
+    public synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        size = Math.min(size + 1, samples.length);
+        sinceRefresh++;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    // Latency below which `quantile` (0..1) of the samples fall, or -1 without samples
+    public synchronized long percentile(double quantile) {
+        if (size == 0) {
+            return -1;
+        }
+        if (sorted.length != size || sinceRefresh >= refreshEvery) {
+            sorted = Arrays.copyOf(samples, size);
+            Arrays.sort(sorted);
+            sinceRefresh = 0;
+        }
+        int rank = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.min(sorted.length - 1, Math.max(0, rank))];
+    }
+}
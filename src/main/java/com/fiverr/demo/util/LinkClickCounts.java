@@ -0,0 +1,97 @@
+package com.fiverr.demo.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Valid clicks per link of one {@link ClickSegment}, as two arrays sorted by link id. ClickArchive
+ * keeps one per segment, so lifetime stats and whole months are answered by binary search without
+ * a scan, and stores it beside the segment in a {@code <segment>.counts} file, so a start reads
+ * these small files instead of inflating every segment. Links with no valid click are left out.
+ */
+public final class LinkClickCounts {
+
+    private static final long MAGIC = 0x434C4B434E545331L; // "CLKCNTS1"
+
+    private final long[] linkIds;
+    private final int[] counts;
+
+    private LinkClickCounts(long[] linkIds, int[] counts) {
+        this.linkIds = linkIds;
+        this.counts = counts;
+    }
+
+    // One scan of the segment, which stores its rows in link id order
+    public static LinkClickCounts count(ClickSegment segment) throws IOException {
+        int capacity = (int) Math.min(segment.getRowCount(), segment.getMaxLinkId() - segment.getMinLinkId() + 1);
+        long[] linkIds = new long[Math.max(capacity, 0)];
+        int[] counts = new int[linkIds.length];
+        int[] size = {0};
+        segment.scan((linkId, clickedAt, valid) -> {
+            if (valid) {
+                int last = size[0] - 1;
+                if (last >= 0 && linkIds[last] == linkId) {
+                    counts[last]++;
+                } else {
+                    linkIds[size[0]] = linkId;
+                    counts[size[0]++] = 1;
+                }
+            }
+            return true;
+        });
+        return new LinkClickCounts(Arrays.copyOf(linkIds, size[0]), Arrays.copyOf(counts, size[0]));
+    }
+
+    public static LinkClickCounts read(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readLong() != MAGIC) {
+                throw new IOException("Not a link click counts file: " + path);
+            }
+            int size = in.readInt();
+            long[] linkIds = new long[size];
+            int[] counts = new int[size];
+            for (int i = 0; i < size; i++) {
+                linkIds[i] = in.readLong();
+                counts[i] = in.readInt();
+            }
+            return new LinkClickCounts(linkIds, counts);
+        }
+    }
+
+    // Writes the counts and makes them visible under target in one atomic rename
+    public void write(Path target) throws IOException {
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                 StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)))) {
+            out.writeLong(MAGIC);
+            out.writeInt(linkIds.length);
+            for (int i = 0; i < linkIds.length; i++) {
+                out.writeLong(linkIds[i]);
+                out.writeInt(counts[i]);
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public long get(long linkId) {
+        int index = Arrays.binarySearch(linkIds, linkId);
+        return index < 0 ? 0 : counts[index];
+    }
+
+    public int size() {
+        return linkIds.length;
+    }
+}
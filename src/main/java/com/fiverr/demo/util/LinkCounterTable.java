@@ -0,0 +1,372 @@
+package com.fiverr.demo.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Open-addressing map from a primitive link id to a cell of {@link LongAdder} counters.
+ * Keys are spread over independently locked stripes; lookups of existing cells and
+ * increments never take a lock, only inserting or evicting a link does. Cells that had
+ * nothing to drain for a number of drains in a row are evicted, so the table holds the
+ * links clicked lately rather than every link ever clicked.
+ */
+public class LinkCounterTable {
+
+    private static final int STRIPES = 16;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    // Versions of the evicted cells, added to every link's version so none ever goes back
+    private final AtomicLong evictedVersions = new AtomicLong();
+
+    public LinkCounterTable() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    public Cell cell(long linkId) {
+        int hash = mix(linkId);
+        return stripes[hash & (STRIPES - 1)].getOrCreate(linkId, hash);
+    }
+
+    public Cell peek(long linkId) {
+        int hash = mix(linkId);
+        return stripes[hash & (STRIPES - 1)].find(linkId, hash);
+    }
+
+    // Adds to the link's cell, or to its replacement when it was evicted meanwhile
+    public void add(long linkId, long valid, long invalid, long cents) {
+        while (!cell(linkId).add(valid, invalid, cents)) {
+            Thread.onSpinWait();
+        }
+    }
+
+    public void addDeduplicated(long linkId, long deduplicated) {
+        while (!cell(linkId).addDeduplicated(deduplicated)) {
+            Thread.onSpinWait();
+        }
+    }
+
+    // Grows with every add for the link and never goes back, eviction included; 0 before the first
+    public long version(long linkId) {
+        while (true) {
+            long evicted = evictedVersions.get();
+            Cell cell = peek(linkId);
+            long version = cell != null ? cell.getVersion() : 0;
+            // An eviction folds the cell's version in before removing it; read both on one side of it
+            if (evictedVersions.get() == evicted) {
+                return evicted + version;
+            }
+        }
+    }
+
+    // Removes the cells that had nothing to drain for idleDrains drains in a row; returns how many
+    public int evictIdle(int idleDrains) {
+        int evicted = 0;
+        for (Stripe stripe : stripes) {
+            List<Cell> idle = new ArrayList<>();
+            AtomicReferenceArray<Cell> table = stripe.table;
+            for (int i = 0; i < table.length(); i++) {
+                Cell cell = table.get(i);
+                if (cell != null && cell.idleDrains >= idleDrains) {
+                    idle.add(cell);
+                }
+            }
+            if (!idle.isEmpty()) {
+                evicted += stripe.evict(idle, evictedVersions);
+            }
+        }
+        return evicted;
+    }
+
+    public void forEach(Consumer<Cell> action) {
+        for (Stripe stripe : stripes) {
+            AtomicReferenceArray<Cell> table = stripe.table;
+            for (int i = 0; i < table.length(); i++) {
+                Cell cell = table.get(i);
+                if (cell != null) {
+                    action.accept(cell);
+                }
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size;
+            }
+        }
+        return size;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static final class Stripe {
+        private volatile AtomicReferenceArray<Cell> table = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+        private int size;
+
+        Cell find(long linkId, int hash) {
+            AtomicReferenceArray<Cell> t = table;
+            int mask = t.length() - 1;
+            // Low bits chose the stripe, so probe with the high bits
+            for (int i = (hash >>> 4) & mask; ; i = (i + 1) & mask) {
+                Cell cell = t.get(i);
+                if (cell == null || cell.linkId == linkId) {
+                    return cell;
+                }
+            }
+        }
+
+        Cell getOrCreate(long linkId, int hash) {
+            Cell cell = find(linkId, hash);
+            if (cell != null) {
+                return cell;
+            }
+            synchronized (this) {
+                cell = find(linkId, hash);
+                if (cell != null) {
+                    return cell;
+                }
+                if ((size + 1) * 4 > table.length() * 3) {
+                    resize();
+                }
+                cell = new Cell(linkId);
+                insert(table, cell, hash);
+                size++;
+                return cell;
+            }
+        }
+
+        private void resize() {
+            table = copy(table, table.length() * 2);
+        }
+
+        // Retires the cells that are still empty and publishes a table without them, so lock-free
+        // lookups see either the old table or the new one, never a half-moved probe sequence
+        synchronized int evict(List<Cell> idle, AtomicLong evictedVersions) {
+            int retired = 0;
+            for (Cell cell : idle) {
+                if (cell.retire()) {
+                    evictedVersions.addAndGet(cell.getVersion());
+                    retired++;
+                }
+            }
+            if (retired > 0) {
+                table = copy(table, table.length());
+                size -= retired;
+            }
+            return retired;
+        }
+
+        private static AtomicReferenceArray<Cell> copy(AtomicReferenceArray<Cell> old, int length) {
+            AtomicReferenceArray<Cell> copy = new AtomicReferenceArray<>(length);
+            for (int i = 0; i < old.length(); i++) {
+                Cell cell = old.get(i);
+                if (cell != null && !cell.isRetired()) {
+                    insert(copy, cell, mix(cell.linkId));
+                }
+            }
+            return copy;
+        }
+
+        private static void insert(AtomicReferenceArray<Cell> t, Cell cell, int hash) {
+            int mask = t.length() - 1;
+            int i = (hash >>> 4) & mask;
+            while (t.get(i) != null) {
+                i = (i + 1) & mask;
+            }
+            t.set(i, cell);
+        }
+    }
+
+    public static final class Cell {
+        private final long linkId;
+        private final AtomicReference<Counts> counts = new AtomicReference<>(new Counts());
+        // Number of add calls ever made; never drained, so it only grows
+        private final LongAdder version = new LongAdder();
+        // Drains in a row that found nothing; drains and evictions run one at a time
+        private int idleDrains;
+
+        private Cell(long linkId) {
+            this.linkId = linkId;
+        }
+
+        // False, without adding, when the cell was evicted: add to the table's new cell instead
+        public boolean add(long valid, long invalid, long cents) {
+            Counts current = enter();
+            if (current == null) {
+                return false;
+            }
+            try {
+                if (valid != 0) {
+                    current.validClicks.add(valid);
+                }
+                if (invalid != 0) {
+                    current.invalidClicks.add(invalid);
+                }
+                if (cents != 0) {
+                    current.earningsCents.add(cents);
+                }
+                // Before leaving, so an eviction waiting for this add folds in its version
+                version.increment();
+            } finally {
+                current.writers.decrement();
+            }
+            return true;
+        }
+
+        // Clicks suppressed as repeats; not part of the stats, so the version does not change
+        public boolean addDeduplicated(long deduplicated) {
+            Counts current = enter();
+            if (current == null) {
+                return false;
+            }
+            try {
+                current.deduplicatedClicks.add(deduplicated);
+            } finally {
+                current.writers.decrement();
+            }
+            return true;
+        }
+
+        // The live counters, registered as written to, or null once the cell is retired; the
+        // caller decrements writers when done
+        private Counts enter() {
+            while (true) {
+                Counts current = counts.get();
+                if (current == Counts.RETIRED) {
+                    return null;
+                }
+                current.writers.increment();
+                // A drain retired these counters meanwhile: add to their replacement instead
+                if (counts.get() == current) {
+                    return current;
+                }
+                current.writers.decrement();
+            }
+        }
+
+        public long getLinkId() {
+            return linkId;
+        }
+
+        public long getValidClicks() {
+            return counts.get().validClicks.sum();
+        }
+
+        public long getInvalidClicks() {
+            return counts.get().invalidClicks.sum();
+        }
+
+        public long getEarningsCents() {
+            return counts.get().earningsCents.sum();
+        }
+
+        public long getDeduplicatedClicks() {
+            return counts.get().deduplicatedClicks.sum();
+        }
+
+        public long getVersion() {
+            return version.sum();
+        }
+
+        // Swaps in fresh counters and returns the retired ones once the adds already under way
+        // on them have finished, so no add is lost and the values belong together. A cell with
+        // nothing to drain keeps its counters and returns Drained.EMPTY. An add still under way
+        // then lands in the kept counters for the next drain
+        public Drained drain() {
+            if (counts.get().isEmpty()) {
+                idleDrains++;
+                return Drained.EMPTY;
+            }
+            idleDrains = 0;
+            Counts retired = counts.getAndSet(new Counts());
+            awaitWriters(retired);
+            return new Drained(retired.validClicks.sum(), retired.invalidClicks.sum(), retired.earningsCents.sum(),
+                retired.deduplicatedClicks.sum());
+        }
+
+        // Takes the cell out of use if it still has nothing to drain once the adds under way
+        // have finished; otherwise puts its counters back
+        private boolean retire() {
+            Counts current = counts.getAndSet(Counts.RETIRED);
+            awaitWriters(current);
+            if (!current.isEmpty()) {
+                counts.set(current);
+                idleDrains = 0;
+                return false;
+            }
+            return true;
+        }
+
+        private boolean isRetired() {
+            return counts.get() == Counts.RETIRED;
+        }
+
+        private static void awaitWriters(Counts counts) {
+            while (counts.writers.sum() != 0) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private static final class Counts {
+        // Counters of an evicted cell; never written to
+        private static final Counts RETIRED = new Counts();
+
+        private final LongAdder validClicks = new LongAdder();
+        private final LongAdder invalidClicks = new LongAdder();
+        private final LongAdder earningsCents = new LongAdder();
+        private final LongAdder deduplicatedClicks = new LongAdder();
+        // Adds in progress on these counters
+        private final LongAdder writers = new LongAdder();
+
+        boolean isEmpty() {
+            return validClicks.sum() == 0 && invalidClicks.sum() == 0 && earningsCents.sum() == 0
+                && deduplicatedClicks.sum() == 0;
+        }
+    }
+
+    public static final class Drained {
+        public static final Drained EMPTY = new Drained(0, 0, 0, 0);
+
+        private final long validClicks;
+        private final long invalidClicks;
+        private final long earningsCents;
+        private final long deduplicatedClicks;
+
+        private Drained(long validClicks, long invalidClicks, long earningsCents, long deduplicatedClicks) {
+            this.validClicks = validClicks;
+            this.invalidClicks = invalidClicks;
+            this.earningsCents = earningsCents;
+            this.deduplicatedClicks = deduplicatedClicks;
+        }
+
+        public long getValidClicks() {
+            return validClicks;
+        }
+
+        public long getInvalidClicks() {
+            return invalidClicks;
+        }
+
+        public long getEarningsCents() {
+            return earningsCents;
+        }
+
+        public long getDeduplicatedClicks() {
+            return deduplicatedClicks;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.fiverr.demo.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Off-heap map from link id to short code and target URL, kept in two memory-mapped files:
+ * <ul>
+ *   <li>{@code links.idx}: a header, then one 8-byte slot per id holding the record offset + 1
+ *       (0 = absent). Ids are dense, so the slot position is computed, never searched.</li>
+ *   <li>{@code links.dat}: append-only records {@code [int urlLength][byte codeLength][code][url]},
+ *       UTF-8, never crossing a segment boundary.</li>
+ * </ul>
+ * Files are mapped in fixed-size segments (a single mapping is limited to 2 GB). Appends are
+ * serialised; lookups take no lock and allocate only the returned strings. A record is published
+ * by a release-store of its index slot after the bytes and the header are written, so a reader
+ * that sees the slot sees the whole record, and a crash can only leak unreferenced bytes.
+ */
+public class MappedLinkStore implements Closeable {
+
+    private static final long MAGIC = 0x4C4E4B53544F5245L; // "LNKSTORE"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 8;
+    private static final int DATA_END_OFFSET = 16;
+    private static final int HIGHEST_ID_OFFSET = 24;
+    private static final int COUNT_OFFSET = 32;
+    private static final int RECORD_OVERHEAD = Integer.BYTES + 1;
+
+    private static final VarHandle LONGS =
+        MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final SegmentedFile index;
+    private final SegmentedFile data;
+    private final int segmentBytes;
+    private long dataEnd;
+    private long highestId;
+    private long count;
+
+    public MappedLinkStore(Path directory, int segmentBytes) throws IOException {
+        if (segmentBytes < 8192 || Integer.bitCount(segmentBytes) != 1) {
+            throw new IllegalArgumentException("segmentBytes must be a power of two >= 8192");
+        }
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(directory);
+        this.index = new SegmentedFile(directory.resolve("links.idx"), segmentBytes);
+        this.data = new SegmentedFile(directory.resolve("links.dat"), segmentBytes);
+        index.mapExisting();
+        data.mapExisting();
+
+        MappedByteBuffer header = index.segment(0);
+        long magic = (long) LONGS.get(header, MAGIC_OFFSET);
+        if (magic == 0) {
+            LONGS.set(header, VERSION_OFFSET, (long) VERSION);
+            LONGS.setRelease(header, MAGIC_OFFSET, MAGIC);
+        } else if (magic != MAGIC || (long) LONGS.get(header, VERSION_OFFSET) != VERSION) {
+            close();
+            throw new IOException("Not a link store: " + directory);
+        }
+        dataEnd = (long) LONGS.getAcquire(header, DATA_END_OFFSET);
+        highestId = (long) LONGS.get(header, HIGHEST_ID_OFFSET);
+        count = (long) LONGS.get(header, COUNT_OFFSET);
+    }
+
+    // Target URL of the link, or null when the id is unknown or stored under another short code
+    public String targetUrl(long id, String shortCode) {
+        if (id < 0) {
+            return null;
+        }
+        long slot = HEADER_BYTES + id * Long.BYTES;
+        MappedByteBuffer indexSegment = index.segmentIfMapped(slot);
+        if (indexSegment == null) {
+            return null;
+        }
+        long stored = (long) LONGS.getAcquire(indexSegment, index.offsetIn(slot));
+        if (stored == 0) {
+            return null;
+        }
+
+        long offset = stored - 1;
+        MappedByteBuffer segment = data.segmentIfMapped(offset);
+        int position = data.offsetIn(offset);
+        int urlLength = segment.getInt(position);
+        int codeLength = segment.get(position + Integer.BYTES) & 0xFF;
+        int codeStart = position + RECORD_OVERHEAD;
+        if (!matches(segment, codeStart, codeLength, shortCode)) {
+            return null;
+        }
+        byte[] url = new byte[urlLength];
+        segment.get(codeStart + codeLength, url);
+        return new String(url, StandardCharsets.UTF_8);
+    }
+
+    // Returns false when the id is already stored
+    public synchronized boolean append(long id, String shortCode, String targetUrl) throws IOException {
+        if (id < 0) {
+            throw new IllegalArgumentException("Negative link id: " + id);
+        }
+        long slot = HEADER_BYTES + id * Long.BYTES;
+        MappedByteBuffer indexSegment = index.segment(slot);
+        int slotOffset = index.offsetIn(slot);
+        if ((long) LONGS.getAcquire(indexSegment, slotOffset) != 0) {
+            return false;
+        }
+
+        byte[] code = shortCode.getBytes(StandardCharsets.US_ASCII);
+        byte[] url = targetUrl.getBytes(StandardCharsets.UTF_8);
+        int recordBytes = RECORD_OVERHEAD + code.length + url.length;
+        if (code.length > 255 || recordBytes > segmentBytes) {
+            throw new IllegalArgumentException("Link " + id + " is too large for the store");
+        }
+
+        long offset = dataEnd;
+        if (data.offsetIn(offset) + recordBytes > segmentBytes) {
+            offset = (offset / segmentBytes + 1) * segmentBytes;
+        }
+        MappedByteBuffer segment = data.segment(offset);
+        int position = data.offsetIn(offset);
+        segment.putInt(position, url.length);
+        segment.put(position + Integer.BYTES, (byte) code.length);
+        segment.put(position + RECORD_OVERHEAD, code);
+        segment.put(position + RECORD_OVERHEAD + code.length, url);
+
+        dataEnd = offset + recordBytes;
+        highestId = Math.max(highestId, id);
+        count++;
+        MappedByteBuffer header = index.segment(0);
+        LONGS.setRelease(header, DATA_END_OFFSET, dataEnd);
+        LONGS.set(header, HIGHEST_ID_OFFSET, highestId);
+        LONGS.set(header, COUNT_OFFSET, count);
+        LONGS.setRelease(indexSegment, slotOffset, offset + 1);
+        return true;
+    }
+
+    public synchronized long getHighestId() {
+        return highestId;
+    }
+
+    public synchronized long size() {
+        return count;
+    }
+
+    // Writes dirty pages to disk; the OS does this anyway, this bounds the loss on power failure
+    public synchronized void force() {
+        index.force();
+        data.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        force();
+        index.close();
+        data.close();
+    }
+
+    private static boolean matches(MappedByteBuffer segment, int start, int length, String shortCode) {
+        if (shortCode.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (segment.get(start + i) != shortCode.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class SegmentedFile implements Closeable {
+        private final FileChannel channel;
+        private final int segmentShift;
+        private final int segmentMask;
+        private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+
+        SegmentedFile(Path path, int segmentBytes) throws IOException {
+            this.channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.segmentShift = Integer.numberOfTrailingZeros(segmentBytes);
+            this.segmentMask = segmentBytes - 1;
+        }
+
+        int offsetIn(long position) {
+            return (int) (position & segmentMask);
+        }
+
+        MappedByteBuffer segmentIfMapped(long position) {
+            MappedByteBuffer[] current = segments;
+            long segmentIndex = position >>> segmentShift;
+            return segmentIndex < current.length ? current[(int) segmentIndex] : null;
+        }
+
+        void mapExisting() throws IOException {
+            long size = channel.size();
+            if (size > 0) {
+                segment(size - 1);
+            }
+        }
+
+        // Maps (and grows the file to) every segment up to the one holding position; writer only
+        MappedByteBuffer segment(long position) throws IOException {
+            int segmentIndex = (int) (position >>> segmentShift);
+            MappedByteBuffer[] current = segments;
+            if (segmentIndex < current.length) {
+                return current[segmentIndex];
+            }
+            synchronized (this) {
+                current = segments;
+                if (segmentIndex >= current.length) {
+                    MappedByteBuffer[] grown = Arrays.copyOf(current, segmentIndex + 1);
+                    long segmentBytes = segmentMask + 1L;
+                    for (int i = current.length; i < grown.length; i++) {
+                        grown[i] = channel.map(FileChannel.MapMode.READ_WRITE, i * segmentBytes, segmentBytes);
+                    }
+                    segments = grown;
+                    current = grown;
+                }
+                return current[segmentIndex];
+            }
+        }
+
+        void force() {
+            for (MappedByteBuffer segment : segments) {
+                segment.force();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
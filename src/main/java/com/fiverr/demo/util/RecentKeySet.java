@@ -0,0 +1,96 @@
+package com.fiverr.demo.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Approximate set of 64-bit keys seen within a sliding time window, in fixed memory.
+// The window is split into time buckets; each bucket is an open-addressing table of keys
+// that is cleared when the bucket is reused, so a key is remembered for the window give or
+// take one bucket. A full table stops recording, and inserts racing a bucket rollover may be
+// lost: both only let a repeat through as new, which is acceptable for deduplication.
+public class RecentKeySet {
+
+    private static final int MAX_PROBES = 16;
+    private static final long EMPTY = 0;
+
+    private final int buckets;
+    private final long bucketMillis;
+    private final int capacity;
+    private final AtomicLongArray keys;
+    private final AtomicLongArray bucketEpochs;
+
+    // Room for maxKeys new keys per window at a load factor of at most one half
+    public RecentKeySet(long windowMillis, int buckets, int maxKeys) {
+        this.buckets = buckets;
+        this.bucketMillis = Math.max(1, windowMillis / buckets);
+        int wanted = (int) Math.max(8, 2L * maxKeys / buckets);
+        this.capacity = Integer.highestOneBit(wanted - 1) << 1;
+        this.keys = new AtomicLongArray(buckets * capacity);
+        this.bucketEpochs = new AtomicLongArray(buckets);
+        for (int i = 0; i < buckets; i++) {
+            bucketEpochs.set(i, Long.MIN_VALUE);
+        }
+    }
+
+    // Records the key; false when it was already seen within the window
+    public boolean add(long key, long nowMillis) {
+        long stored = key == EMPTY ? 1 : key;
+        long epoch = nowMillis / bucketMillis;
+        int current = (int) Math.floorMod(epoch, (long) buckets);
+        roll(current, epoch);
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            long bucketEpoch = bucketEpochs.get(bucket);
+            if (bucket != current && bucketEpoch <= epoch && epoch - bucketEpoch < buckets
+                && contains(bucket, stored)) {
+                return false;
+            }
+        }
+        int start = current * capacity;
+        int slot = mix(stored) & (capacity - 1);
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            int index = start + ((slot + probe) & (capacity - 1));
+            long seen = keys.get(index);
+            if (seen == stored) {
+                return false;
+            }
+            if (seen == EMPTY) {
+                if (keys.compareAndSet(index, EMPTY, stored)) {
+                    return true;
+                }
+                if (keys.get(index) == stored) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean contains(int bucket, long stored) {
+        int start = bucket * capacity;
+        int slot = mix(stored) & (capacity - 1);
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            long seen = keys.get(start + ((slot + probe) & (capacity - 1)));
+            if (seen == stored) {
+                return true;
+            }
+            if (seen == EMPTY) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private void roll(int bucket, long epoch) {
+        long seen = bucketEpochs.get(bucket);
+        if (seen < epoch && bucketEpochs.compareAndSet(bucket, seen, epoch)) {
+            int start = bucket * capacity;
+            for (int i = start; i < start + capacity; i++) {
+                keys.set(i, EMPTY);
+            }
+        }
+    }
+
+    private static int mix(long key) {
+        long h = key * 0xBF58476D1CE4E5B9L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,34 @@
+package com.fiverr.demo.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+// One timed phase of a request; emitted through RequestPhases
+@Name("com.fiverr.demo.RequestPhase")
+@Label("Request Phase")
+@Category({"Fiverr", "Links"})
+@Description("Duration and outcome of one phase of a redirect, link creation or stats request")
+@StackTrace(false)
+@Threshold("1 ms")
+public class RequestPhaseEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Link ID")
+    long linkId;
+
+    @Label("Outcome")
+    String outcome;
+
+    // Only set while Server-Timing is collected; transient fields are not recorded
+    transient long startNanos;
+}
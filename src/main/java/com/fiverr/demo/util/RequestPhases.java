@@ -0,0 +1,56 @@
+package com.fiverr.demo.util;
+
+/**
+ * Times the phases of a request as {@link RequestPhaseEvent}s, which JFR records at no more
+ * than an allocation when the event is disabled or under its threshold. Between
+ * {@link #startServerTiming()} and {@link #stopServerTiming()} the phases of the current
+ * thread are also collected as a {@code Server-Timing} header value.
+ */
+public final class RequestPhases {
+
+    private static final ThreadLocal<StringBuilder> SERVER_TIMING = new ThreadLocal<>();
+
+    private RequestPhases() {
+    }
+
+    public static RequestPhaseEvent begin(String operation, String phase) {
+        RequestPhaseEvent event = new RequestPhaseEvent();
+        event.operation = operation;
+        event.phase = phase;
+        if (SERVER_TIMING.get() != null) {
+            event.startNanos = System.nanoTime();
+        }
+        event.begin();
+        return event;
+    }
+
+    // linkId is 0 when the phase is not about a single link
+    public static void end(RequestPhaseEvent event, long linkId, String outcome) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.linkId = linkId;
+            event.outcome = outcome;
+            event.commit();
+        }
+        StringBuilder timing = SERVER_TIMING.get();
+        if (timing != null && event.startNanos != 0) {
+            if (timing.length() > 0) {
+                timing.append(", ");
+            }
+            timing.append(event.phase)
+                .append(";desc=\"").append(outcome).append('"')
+                .append(";dur=").append((System.nanoTime() - event.startNanos) / 1000 / 1000.0);
+        }
+    }
+
+    public static void startServerTiming() {
+        SERVER_TIMING.set(new StringBuilder());
+    }
+
+    // The collected header value; empty when no phase ended
+    public static String stopServerTiming() {
+        StringBuilder timing = SERVER_TIMING.get();
+        SERVER_TIMING.remove();
+        return timing != null ? timing.toString() : "";
+    }
+}
@@ -0,0 +1,91 @@
+package com.fiverr.demo.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Approximate per-key event counts over a sliding time window with fixed memory.
+// The window is split into time buckets; each bucket is a count-min sketch (two rows
+// of atomic counters), so any number of keys fits in buckets * 2 * width longs.
+// Counts can only be overestimated by hash collisions, and increments racing a bucket
+// rollover may be lost, which is acceptable for rate limiting.
+public class SlidingWindowCounter {
+
+    private static final int DEPTH = 2;
+    private static final long[] SEEDS = {0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL};
+
+    private final int buckets;
+    private final long bucketMillis;
+    private final int width;
+    private final AtomicLongArray counts;
+    private final AtomicLongArray bucketEpochs;
+
+    public SlidingWindowCounter(long windowMillis, int buckets, int width) {
+        if (Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException("Width must be a power of two: " + width);
+        }
+        this.buckets = buckets;
+        this.bucketMillis = Math.max(1, windowMillis / buckets);
+        this.width = width;
+        this.counts = new AtomicLongArray(buckets * DEPTH * width);
+        this.bucketEpochs = new AtomicLongArray(buckets);
+        for (int i = 0; i < buckets; i++) {
+            bucketEpochs.set(i, Long.MIN_VALUE);
+        }
+    }
+
+    // Records one event for the key and returns the estimated count within the window
+    public long incrementAndGet(long key, long nowMillis) {
+        long epoch = nowMillis / bucketMillis;
+        int bucket = (int) Math.floorMod(epoch, (long) buckets);
+        roll(bucket, epoch);
+        for (int row = 0; row < DEPTH; row++) {
+            counts.incrementAndGet(slot(bucket, row, key));
+        }
+        return estimate(key, epoch);
+    }
+
+    public long get(long key, long nowMillis) {
+        return estimate(key, nowMillis / bucketMillis);
+    }
+
+    private long estimate(long key, long epoch) {
+        long total = 0;
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            long bucketEpoch = bucketEpochs.get(bucket);
+            if (bucketEpoch > epoch || epoch - bucketEpoch >= buckets) {
+                continue;
+            }
+            long min = Long.MAX_VALUE;
+            for (int row = 0; row < DEPTH; row++) {
+                min = Math.min(min, counts.get(slot(bucket, row, key)));
+            }
+            total += min;
+        }
+        return total;
+    }
+
+    private void roll(int bucket, long epoch) {
+        long seen = bucketEpochs.get(bucket);
+        if (seen < epoch && bucketEpochs.compareAndSet(bucket, seen, epoch)) {
+            int start = bucket * DEPTH * width;
+            for (int i = start; i < start + DEPTH * width; i++) {
+                counts.set(i, 0);
+            }
+        }
+    }
+
+    private int slot(int bucket, int row, long key) {
+        long h = (key ^ SEEDS[row]) * 0xBF58476D1CE4E5B9L;
+        h ^= h >>> 31;
+        return (bucket * DEPTH + row) * width + (int) (h & (width - 1));
+    }
+
+    public static long hash(String value) {
+        // 64-bit FNV-1a, so distinct keys rarely share both sketch rows
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        return h;
+    }
+}
@@ -0,0 +1,99 @@
+package com.fiverr.demo.util;
+
+/**
+ * SQL statements, rows and time of one unit of work: a request, a transaction or a block of a
+ * test. Scopes nest per thread; a statement counts towards the innermost open scope and all of
+ * its parents. Statements run while no scope is open are not counted anywhere. Work handed to
+ * other threads runs in scopes of its own there, added back with addToCurrent once it is done.
+ */
+public final class StatementStats implements AutoCloseable {
+
+    private static final ThreadLocal<StatementStats> CURRENT = new ThreadLocal<>();
+
+    private final String name;
+    private final StatementStats parent;
+    private final long openedNanos = System.nanoTime();
+    private int statements;
+    private long rows;
+    private long statementNanos;
+    private long elapsedNanos = -1;
+
+    private StatementStats(String name, StatementStats parent) {
+        this.name = name;
+        this.parent = parent;
+    }
+
+    public static StatementStats open(String name) {
+        StatementStats stats = new StatementStats(name, CURRENT.get());
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static boolean isOpen() {
+        return CURRENT.get() != null;
+    }
+
+    public static void recordStatement(long nanos, long rows) {
+        for (StatementStats stats = CURRENT.get(); stats != null; stats = stats.parent) {
+            stats.statements++;
+            stats.statementNanos += nanos;
+            stats.rows += rows;
+        }
+    }
+
+    public static void recordRows(long rows) {
+        for (StatementStats stats = CURRENT.get(); stats != null; stats = stats.parent) {
+            stats.rows += rows;
+        }
+    }
+
+    // Adds a finished scope of another thread to the open scopes of this one
+    public void addToCurrent() {
+        for (StatementStats stats = CURRENT.get(); stats != null; stats = stats.parent) {
+            stats.statements += statements;
+            stats.statementNanos += statementNanos;
+            stats.rows += rows;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (elapsedNanos < 0) {
+            elapsedNanos = System.nanoTime() - openedNanos;
+        }
+        if (CURRENT.get() == this) {
+            if (parent != null) {
+                CURRENT.set(parent);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    // Time spent executing statements, excluding reading their results
+    public long getStatementNanos() {
+        return statementNanos;
+    }
+
+    // Wall-clock time the scope was open; -1 while it still is
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return statements + " statements, " + rows + " rows, " + statementNanos / 1_000_000 + " ms";
+    }
+}
@@ -0,0 +1,11 @@
+-- Seeds link_click_totals from the clicks recorded before the counter table existed.
+-- Run once, with click traffic stopped, before deploying the counter-based /stats;
+-- links that already have a row are left untouched.
+INSERT INTO link_click_totals (link_id, valid_clicks, invalid_clicks, earnings)
+SELECT link_id,
+       COUNT(*) FILTER (WHERE is_valid),
+       COUNT(*) FILTER (WHERE NOT is_valid),
+       0.05 * COUNT(*) FILTER (WHERE is_valid)
+FROM clicks
+GROUP BY link_id
+ON CONFLICT (link_id) DO NOTHING;
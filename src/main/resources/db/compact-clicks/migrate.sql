@@ -0,0 +1,129 @@
+-- Migrates an existing legacy "clicks" table to the compact layout used by Click.
+--
+-- Legacy: id, link_id, clicked_at, is_valid, earnings NUMERIC(10,2)
+--         + B-tree idx_clicked_at + B-tree idx_link_id and/or idx_link_clicked_at
+-- Compact: id, link_id, clicked_at, is_valid (8-byte columns first, no padding)
+--         + BRIN idx_clicked_at_brin + B-tree idx_link_clicked_at
+--
+-- Earnings are no longer stored: they are Click.earningsFor(is_valid).
+-- Run with psql against PostgreSQL 11+ while the application keeps writing;
+-- only step 3 takes a lock on "clicks", for a last catch-up by id and the swap.
+
+-- Step 1: new table in the compact column order: the 8-byte columns first and the
+-- 1-byte verdict last, so PostgreSQL adds no interior alignment padding. The order is
+-- set here because Hibernate's ddl-auto orders columns on its own, not by field order.
+CREATE TABLE IF NOT EXISTS clicks_compact (
+    id         BIGINT    NOT NULL,
+    link_id    BIGINT    NOT NULL,
+    clicked_at TIMESTAMP NOT NULL,
+    is_valid   BOOLEAN   NOT NULL
+);
+
+-- Step 2: copy existing rows in id ranges, committing after each batch so the
+-- copy never holds a long transaction. Re-runnable: resumes after the highest
+-- id already copied. Ids that commit late below that point, fraud re-checks that
+-- flip is_valid and deletes by the archiver or the rebalancer are caught up by
+-- id in steps 2b and 3, not by this range.
+DO $$
+DECLARE
+    batch_size CONSTANT BIGINT := 1000000;
+    next_id BIGINT;
+    last_id BIGINT;
+BEGIN
+    SELECT COALESCE(MAX(id), 0) INTO next_id FROM clicks_compact;
+    SELECT COALESCE(MAX(id), 0) INTO last_id FROM clicks;
+    WHILE next_id < last_id LOOP
+        INSERT INTO clicks_compact (id, link_id, clicked_at, is_valid)
+        SELECT id, link_id, clicked_at, is_valid
+        FROM clicks
+        WHERE id > next_id AND id <= next_id + batch_size
+        ORDER BY id;
+        next_id := next_id + batch_size;
+        COMMIT;
+    END LOOP;
+END $$;
+
+-- Indexes are built before the swap so step 3 stays short. clicked_at is
+-- insert-ordered, which is exactly the correlation BRIN needs.
+CREATE UNIQUE INDEX IF NOT EXISTS clicks_compact_pkey_idx ON clicks_compact (id);
+CREATE INDEX IF NOT EXISTS idx_compact_link_clicked_at ON clicks_compact (link_id, clicked_at);
+CREATE INDEX IF NOT EXISTS idx_clicked_at_brin ON clicks_compact USING BRIN (clicked_at)
+    WITH (pages_per_range = 32);
+
+-- Step 2b: catch up without the lock, so step 3 has little left to change. Rows
+-- are matched by id: a row that committed after a range was copied is missing
+-- whatever its id, and a copied row may have been invalidated or deleted since.
+INSERT INTO clicks_compact (id, link_id, clicked_at, is_valid)
+SELECT l.id, l.link_id, l.clicked_at, l.is_valid
+FROM clicks l
+WHERE NOT EXISTS (SELECT 1 FROM clicks_compact c WHERE c.id = l.id);
+
+UPDATE clicks_compact c SET is_valid = l.is_valid
+FROM clicks l
+WHERE l.id = c.id AND c.is_valid IS DISTINCT FROM l.is_valid;
+
+DELETE FROM clicks_compact c
+WHERE NOT EXISTS (SELECT 1 FROM clicks l WHERE l.id = c.id);
+
+-- Step 3: the same catch-up under the lock, which no write can pass, then swap
+-- the tables atomically. Each statement is one anti-join or join on id against
+-- the unique index built above.
+BEGIN;
+LOCK TABLE clicks IN EXCLUSIVE MODE;
+
+INSERT INTO clicks_compact (id, link_id, clicked_at, is_valid)
+SELECT l.id, l.link_id, l.clicked_at, l.is_valid
+FROM clicks l
+WHERE NOT EXISTS (SELECT 1 FROM clicks_compact c WHERE c.id = l.id);
+
+UPDATE clicks_compact c SET is_valid = l.is_valid
+FROM clicks l
+WHERE l.id = c.id AND c.is_valid IS DISTINCT FROM l.is_valid;
+
+DELETE FROM clicks_compact c
+WHERE NOT EXISTS (SELECT 1 FROM clicks l WHERE l.id = c.id);
+
+ALTER TABLE clicks RENAME TO clicks_legacy;
+
+-- The legacy table keeps the names of its constraints, indexes and identity sequence, and
+-- the compact table needs clicks_pkey, idx_link_clicked_at and clicks_id_seq. Move every
+-- legacy name aside with a legacy_ prefix first (renaming the primary key also renames its
+-- index, hence the filter).
+DO $$
+DECLARE
+    legacy RECORD;
+    sequence_name TEXT;
+BEGIN
+    FOR legacy IN SELECT conname FROM pg_constraint
+                  WHERE conrelid = 'clicks_legacy'::regclass AND contype IN ('p', 'u', 'f') LOOP
+        EXECUTE format('ALTER TABLE clicks_legacy RENAME CONSTRAINT %I TO %I',
+                       legacy.conname, 'legacy_' || legacy.conname);
+    END LOOP;
+    FOR legacy IN SELECT indexname FROM pg_indexes
+                  WHERE schemaname = current_schema() AND tablename = 'clicks_legacy'
+                    AND indexname NOT LIKE 'legacy\_%' LOOP
+        EXECUTE format('ALTER INDEX %I RENAME TO %I', legacy.indexname, 'legacy_' || legacy.indexname);
+    END LOOP;
+    sequence_name := pg_get_serial_sequence('clicks_legacy', 'id');
+    IF sequence_name IS NOT NULL THEN
+        EXECUTE format('ALTER SEQUENCE %s RENAME TO clicks_legacy_id_seq', sequence_name);
+    END IF;
+END $$;
+
+ALTER TABLE clicks_compact RENAME TO clicks;
+
+ALTER TABLE clicks ADD CONSTRAINT clicks_pkey PRIMARY KEY USING INDEX clicks_compact_pkey_idx;
+ALTER TABLE clicks ALTER COLUMN id ADD GENERATED BY DEFAULT AS IDENTITY;
+SELECT setval(pg_get_serial_sequence('clicks', 'id'), (SELECT COALESCE(MAX(id), 1) FROM clicks));
+
+ALTER INDEX idx_compact_link_clicked_at RENAME TO idx_link_clicked_at;
+
+ALTER TABLE clicks ADD CONSTRAINT fk_clicks_link
+    FOREIGN KEY (link_id) REFERENCES shortened_links (id) NOT VALID;
+COMMIT;
+
+-- Validates the foreign key without blocking writers.
+ALTER TABLE clicks VALIDATE CONSTRAINT fk_clicks_link;
+
+-- Step 4 (after verifying row counts and stats): reclaim the legacy storage.
+-- DROP TABLE clicks_legacy;
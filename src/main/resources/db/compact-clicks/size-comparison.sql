@@ -0,0 +1,72 @@
+-- Builds the legacy and the compact clicks layouts side by side with the same
+-- 100M synthetic rows and reports heap and index sizes for each.
+--
+--   psql -U postgres -d postgres -f size-comparison.sql
+--
+-- Needs roughly 20 GB of free disk and takes tens of minutes. The synthetic data
+-- mimics production: clicked_at increases with id, link_id is skewed over 1M
+-- links, 10% of clicks are invalid.
+
+\timing on
+SET maintenance_work_mem = '1GB';
+
+DROP TABLE IF EXISTS size_cmp_legacy;
+DROP TABLE IF EXISTS size_cmp_compact;
+
+-- Column order Hibernate used for the legacy entity.
+CREATE UNLOGGED TABLE size_cmp_legacy (
+    id         BIGINT        NOT NULL PRIMARY KEY,
+    clicked_at TIMESTAMP     NOT NULL,
+    earnings   NUMERIC(10,2) NOT NULL,
+    is_valid   BOOLEAN       NOT NULL,
+    link_id    BIGINT        NOT NULL
+);
+
+CREATE UNLOGGED TABLE size_cmp_compact (
+    id         BIGINT    NOT NULL PRIMARY KEY,
+    link_id    BIGINT    NOT NULL,
+    clicked_at TIMESTAMP NOT NULL,
+    is_valid   BOOLEAN   NOT NULL
+);
+
+INSERT INTO size_cmp_legacy (id, clicked_at, earnings, is_valid, link_id)
+SELECT g,
+       TIMESTAMP '2024-01-01' + g * INTERVAL '300 milliseconds',
+       CASE WHEN g % 10 = 0 THEN 0.00 ELSE 0.05 END,
+       g % 10 <> 0,
+       1 + (floor(power(random(), 3) * 1000000))::BIGINT
+FROM generate_series(1, 100000000) AS g;
+
+INSERT INTO size_cmp_compact (id, link_id, clicked_at, is_valid)
+SELECT id, link_id, clicked_at, is_valid FROM size_cmp_legacy ORDER BY id;
+
+CREATE INDEX size_cmp_legacy_link_id ON size_cmp_legacy (link_id);
+CREATE INDEX size_cmp_legacy_clicked_at ON size_cmp_legacy (clicked_at);
+CREATE INDEX size_cmp_compact_link_id ON size_cmp_compact (link_id);
+CREATE INDEX size_cmp_compact_clicked_at ON size_cmp_compact USING BRIN (clicked_at)
+    WITH (pages_per_range = 32);
+
+VACUUM ANALYZE size_cmp_legacy;
+VACUUM ANALYZE size_cmp_compact;
+
+SELECT c.relname AS layout,
+       pg_size_pretty(pg_relation_size(c.oid)) AS heap,
+       pg_size_pretty(pg_indexes_size(c.oid)) AS indexes,
+       pg_size_pretty(pg_total_relation_size(c.oid)) AS total,
+       round(pg_relation_size(c.oid)::NUMERIC / c.reltuples) AS heap_bytes_per_row
+FROM pg_class c
+WHERE c.relname IN ('size_cmp_legacy', 'size_cmp_compact')
+ORDER BY c.relname DESC;
+
+SELECT indexrelid::regclass AS index, pg_size_pretty(pg_relation_size(indexrelid)) AS size
+FROM pg_index
+WHERE indrelid IN ('size_cmp_legacy'::regclass, 'size_cmp_compact'::regclass)
+ORDER BY indrelid, indexrelid;
+
+-- Sanity check that the BRIN index still serves a one-day range scan.
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT COUNT(*) FROM size_cmp_compact
+WHERE clicked_at >= TIMESTAMP '2024-03-01' AND clicked_at < TIMESTAMP '2024-03-02';
+
+DROP TABLE size_cmp_legacy;
+DROP TABLE size_cmp_compact;
@@ -0,0 +1,34 @@
+-- Baseline schema, matching the JPA entities (ShortenedLink, Click, LinkClickTotals).
+-- Applied by Flyway in the fast-start profile. Databases created earlier by
+-- ddl-auto=update are baselined at version 1 instead (spring.flyway.baseline-on-migrate);
+-- bring their clicks table to the compact layout with db/compact-clicks/migrate.sql.
+
+CREATE TABLE shortened_links (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    short_code VARCHAR(10) UNIQUE,
+    target_url VARCHAR(2048) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT unique_target_url UNIQUE (target_url)
+);
+
+CREATE INDEX idx_short_code ON shortened_links (short_code);
+CREATE INDEX idx_target_url ON shortened_links (target_url);
+
+-- Compact layout: 8-byte columns first, verdict last, earnings derived
+CREATE TABLE clicks (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    link_id    BIGINT       NOT NULL,
+    clicked_at TIMESTAMP(6) NOT NULL,
+    is_valid   BOOLEAN      NOT NULL,
+    CONSTRAINT fk_clicks_link FOREIGN KEY (link_id) REFERENCES shortened_links (id)
+);
+
+CREATE INDEX idx_link_id ON clicks (link_id);
+CREATE INDEX idx_clicked_at_brin ON clicks USING BRIN (clicked_at) WITH (pages_per_range = 32);
+
+CREATE TABLE link_click_totals (
+    link_id        BIGINT         PRIMARY KEY,
+    valid_clicks   BIGINT         NOT NULL,
+    invalid_clicks BIGINT         NOT NULL,
+    earnings       NUMERIC(14, 2) NOT NULL
+);
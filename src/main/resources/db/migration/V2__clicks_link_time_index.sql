@@ -0,0 +1,8 @@
+-- Per-link stats over a time range seek to (link_id, from) and scan only the range.
+-- The composite index also serves every link_id-only lookup, so idx_link_id goes.
+-- On a large live table run the CREATE by hand first with CONCURRENTLY; IF NOT EXISTS
+-- then makes this migration a no-op for it.
+
+CREATE INDEX IF NOT EXISTS idx_link_clicked_at ON clicks (link_id, clicked_at);
+
+DROP INDEX IF EXISTS idx_link_id;
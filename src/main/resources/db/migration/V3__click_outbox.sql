@@ -0,0 +1,12 @@
+-- Transactional outbox of click events (ClickOutboxEntry). Rows live from the click's commit
+-- until ClickOutboxRelay has published them, so the table stays small; the relay reads it in
+-- primary key order.
+
+CREATE TABLE IF NOT EXISTS click_outbox (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    event_type SMALLINT     NOT NULL,
+    click_id   BIGINT,
+    link_id    BIGINT       NOT NULL,
+    clicked_at TIMESTAMP(6) NOT NULL,
+    is_valid   BOOLEAN      NOT NULL
+);
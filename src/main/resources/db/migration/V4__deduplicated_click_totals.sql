@@ -0,0 +1,5 @@
+-- Per-link count of the repeat clicks ClickDeduplicator suppressed, flushed with the other
+-- click counters. Existing rows start at 0; adding a column with a constant default does not
+-- rewrite the table.
+
+ALTER TABLE link_click_totals ADD COLUMN IF NOT EXISTS deduplicated_clicks BIGINT NOT NULL DEFAULT 0;
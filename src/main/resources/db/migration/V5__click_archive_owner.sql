@@ -0,0 +1,7 @@
+-- Single-row table ClickArchiver locks for a run, so only one instance archives at a time, and
+-- that records the id of the archive directory every instance has to share.
+
+CREATE TABLE IF NOT EXISTS click_archive_owner (
+    name       VARCHAR(64) PRIMARY KEY,
+    storage_id VARCHAR(64)
+);
@@ -0,0 +1,8 @@
+-- Provisional clicks still owed a fraud check (PendingFraudCheck). Rows live from the click's
+-- commit until DeferredFraudCheckService has a verdict, so the table stays small; a restart
+-- reloads the queue from it in click id order.
+
+CREATE TABLE IF NOT EXISTS pending_fraud_checks (
+    click_id BIGINT PRIMARY KEY,
+    link_id  BIGINT NOT NULL
+);
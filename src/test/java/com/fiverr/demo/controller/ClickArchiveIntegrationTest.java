@@ -0,0 +1,191 @@
+package com.fiverr.demo.controller;
+
+import com.fiverr.demo.entity.ShortenedLink;
+import com.fiverr.demo.repository.ClickArchive;
+import com.fiverr.demo.repository.ClickArchiveLock;
+import com.fiverr.demo.repository.ShortenedLinkRepository;
+import com.fiverr.demo.service.ClickArchiver;
+import com.fiverr.demo.util.Base62Encoder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs against the servlet runtime; ReactiveClickArchiveIntegrationTest runs it against the reactive one
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureWebTestClient
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:archivedb",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "app.click-counters.flush-interval-ms=3600000",
+    "app.warmup.enabled=false"
+})
+public class ClickArchiveIntegrationTest {
+
+    @TempDir
+    static Path archiveDirectory;
+
+    @DynamicPropertySource
+    static void archiveProperties(DynamicPropertyRegistry registry) {
+        registry.add("app.click-archive.directory", () -> archiveDirectory.toString());
+    }
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ShortenedLinkRepository linkRepository;
+
+    @Autowired
+    private ClickArchiver clickArchiver;
+
+    @Autowired
+    private ClickArchive clickArchive;
+
+    @Autowired
+    private ClickArchiveLock clickArchiveLock;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM clicks");
+        linkRepository.deleteAll();
+    }
+
+    @Test
+    void testArchivedMonthsLeaveTheTableButStayInStats() throws Exception {
+        ShortenedLink link = createLink("https://fiverr.com/archived");
+        ShortenedLink other = createLink("https://fiverr.com/other");
+        insertClick(link, LocalDateTime.of(2026, 1, 5, 10, 0), true);
+        insertClick(link, LocalDateTime.of(2026, 1, 5, 11, 30), true);
+        insertClick(link, LocalDateTime.of(2026, 1, 20, 8, 0), false);
+        insertClick(link, LocalDateTime.of(2026, 1, 31, 23, 59, 59), true);
+        insertClick(link, LocalDateTime.of(2026, 2, 1, 0, 0), true);
+        insertClick(other, LocalDateTime.of(2026, 2, 14, 12, 0), true);
+        insertClick(link, LocalDateTime.of(2026, 4, 2, 9, 0), true);
+        String code = link.getShortCode();
+        long firstClickId = count("SELECT MIN(id) FROM clicks");
+
+        assertEquals(6, clickArchiver.archiveBefore(YearMonth.of(2026, 4)));
+
+        assertEquals(1, count("SELECT COUNT(*) FROM clicks"));
+        assertEquals(2, clickArchive.size());
+        webTestClient.get().uri("/stats/" + code)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.totalClicks").isEqualTo(5)
+            .jsonPath("$.monthlyBreakdown['2026-04']").isEqualTo(1)
+            .jsonPath("$.monthlyBreakdown['2026-02']").isEqualTo(1)
+            .jsonPath("$.monthlyBreakdown['2026-01']").isEqualTo(3);
+        webTestClient.get().uri("/stats/" + code + "?from=2026-01-05&to=2026-02-01&granularity=day")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.breakdown['2026-01-05']").isEqualTo(2)
+            .jsonPath("$.breakdown['2026-01-31']").isEqualTo(1)
+            .jsonPath("$.clicksInRange").isEqualTo(3);
+        // Whole archived months come from the per-month totals, a partial one from a scan
+        webTestClient.get().uri("/stats/" + code + "?from=2026-01-10&to=2026-03-01&granularity=month")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.breakdown['2026-01']").isEqualTo(1)
+            .jsonPath("$.breakdown['2026-02']").isEqualTo(1)
+            .jsonPath("$.clicksInRange").isEqualTo(2);
+
+        // A late import into an archived month goes into a further segment on the next run
+        insertClick(link, LocalDateTime.of(2026, 1, 6, 12, 0), true);
+        assertEquals(1, clickArchiver.archiveBefore(YearMonth.of(2026, 4)));
+        assertEquals(0, clickArchiver.archiveBefore(YearMonth.of(2026, 4)));
+
+        assertEquals(3, clickArchive.size());
+        webTestClient.get().uri("/stats/" + code)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.totalClicks").isEqualTo(6)
+            .jsonPath("$.monthlyBreakdown['2026-01']").isEqualTo(4);
+
+        // A row moved in from another shard keeps its id, however low, and is archived, not deleted
+        jdbcTemplate.update("INSERT INTO clicks (id, link_id, clicked_at, is_valid) VALUES (?, ?, ?, ?)",
+            firstClickId, link.getId(), Timestamp.valueOf(LocalDateTime.of(2026, 2, 3, 7, 0)), true);
+        assertEquals(1, clickArchiver.archiveBefore(YearMonth.of(2026, 4)));
+        assertEquals(0, clickArchiver.archiveBefore(YearMonth.of(2026, 4)));
+
+        assertEquals(4, clickArchive.size());
+        assertEquals(1, count("SELECT COUNT(*) FROM clicks"));
+        assertEquals(0, clickArchive.pendingDeletes().size());
+        webTestClient.get().uri("/stats/" + code)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.monthlyBreakdown['2026-02']").isEqualTo(2);
+
+        // Segments are found again after a restart
+        ClickArchive reopened = new ClickArchive(archiveDirectory.toString());
+        reopened.load();
+        assertEquals(4, reopened.size());
+        assertEquals(8, reopened.rowCount());
+        Map<Long, Long> archivedValid = new HashMap<>();
+        reopened.addValidClicks(List.of(link.getId(), other.getId()), archivedValid);
+        assertEquals(6, archivedValid.get(link.getId()));
+        assertEquals(1, archivedValid.get(other.getId()));
+    }
+
+    @Test
+    void testOneInstanceArchivesAtATimeAndOnlyToTheSharedDirectory(@TempDir Path localDirectory) throws Exception {
+        String sharedId = clickArchive.storageId();
+        boolean[] secondRan = {true};
+        assertTrue(clickArchiveLock.runExclusively(sharedId,
+            () -> secondRan[0] = clickArchiveLock.runExclusively(sharedId, () -> fail("Ran while locked"))));
+        assertFalse(secondRan[0]);
+        assertEquals(sharedId, clickArchiveLock.ownerStorageId());
+
+        // An instance archiving to a directory of its own would delete rows no other instance sees
+        ClickArchive local = new ClickArchive(localDirectory.toString());
+        assertThrows(InvalidDataAccessApiUsageException.class,
+            () -> clickArchiveLock.runExclusively(local.storageId(), () -> fail("Ran on another directory")));
+    }
+
+    private ShortenedLink createLink(String targetUrl) {
+        ShortenedLink link = new ShortenedLink();
+        link.setTargetUrl(targetUrl);
+        link = linkRepository.save(link);
+        link.setShortCode(Base62Encoder.encode(link.getId()));
+        return linkRepository.save(link);
+    }
+
+    private void insertClick(ShortenedLink link, LocalDateTime clickedAt, boolean isValid) {
+        jdbcTemplate.update("INSERT INTO clicks (link_id, clicked_at, is_valid) VALUES (?, ?, ?)",
+            link.getId(), Timestamp.valueOf(clickedAt), isValid);
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
@@ -0,0 +1,151 @@
+package com.fiverr.demo.controller;
+
+import com.fiverr.demo.entity.LinkClickTotals;
+import com.fiverr.demo.entity.ShortenedLink;
+import com.fiverr.demo.repository.ClickRepository;
+import com.fiverr.demo.repository.LinkClickTotalsRepository;
+import com.fiverr.demo.repository.ShortenedLinkRepository;
+import com.fiverr.demo.service.ClickCounterService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Bulk import through JDBC batches on H2 (COPY needs PostgreSQL), with a fraud backend that
+// accepts every click and a batch size small enough to span several batches
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:importdb",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "app.click-counters.flush-interval-ms=3600000",
+    "app.warmup.enabled=false",
+    "app.click-load.deferred-interval-ms=3600000",
+    "app.fraud.backends=stub",
+    "app.fraud.backend.stub.type=simulated",
+    "app.fraud.backend.stub.latency-ms=1",
+    "app.fraud.backend.stub.tail-latency-ms=1",
+    "app.fraud.backend.stub.fraud-rate=0",
+    "app.click-import.enabled=true",
+    "app.click-import.batch-size=3"
+})
+class ClickImportIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ShortenedLinkRepository linkRepository;
+
+    @Autowired
+    private ClickRepository clickRepository;
+
+    @Autowired
+    private LinkClickTotalsRepository totalsRepository;
+
+    @Autowired
+    private ClickCounterService clickCounterService;
+
+    private ShortenedLink first;
+    private ShortenedLink second;
+
+    @BeforeEach
+    void setUp() {
+        clickCounterService.flush();
+        totalsRepository.deleteAll();
+        clickRepository.deleteAll();
+        linkRepository.deleteAll();
+        first = createLink("https://fiverr.com/seller/imported1");
+        second = createLink("https://fiverr.com/seller/imported2");
+    }
+
+    @Test
+    void testCsvImportUpdatesStats() throws Exception {
+        String csv = String.join("\n",
+            "short_code,clicked_at",
+            first.getShortCode() + ",2025-11-03T10:15:30",
+            first.getShortCode() + ",2025-11-20T08:00:00",
+            first.getShortCode() + ",2025-12-01T00:00:01",
+            second.getShortCode() + ",\"2025-12-24 18:30:00\"",
+            "nosuchcode,2025-12-24T18:30:00",
+            first.getShortCode() + ",yesterday",
+            "",
+            second.getShortCode() + ",2025-12-25T09:00:00");
+
+        mockMvc.perform(post("/admin/clicks/import").contentType("text/csv").content(csv))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.rows").value(7))
+            .andExpect(jsonPath("$.importedClicks").value(5))
+            .andExpect(jsonPath("$.validClicks").value(5))
+            .andExpect(jsonPath("$.invalidClicks").value(0))
+            .andExpect(jsonPath("$.unknownShortCodes").value(1))
+            .andExpect(jsonPath("$.malformedRows").value(1));
+
+        assertEquals(5, clickRepository.count());
+        mockMvc.perform(get("/stats"))
+            .andExpect(jsonPath("$.content[0].totalClicks").value(3))
+            .andExpect(jsonPath("$.content[0].monthlyBreakdown['2025-11']").value(2))
+            .andExpect(jsonPath("$.content[0].monthlyBreakdown['2025-12']").value(1))
+            .andExpect(jsonPath("$.content[1].totalClicks").value(2))
+            .andExpect(jsonPath("$.content[1].totalEarnings").value(0.1));
+
+        // The counters carry the import into link_click_totals; stats must not count it twice
+        clickCounterService.flush();
+        LinkClickTotals totals = totalsRepository.findById(first.getId()).orElseThrow();
+        assertEquals(3, totals.getValidClicks());
+        assertEquals(0, new BigDecimal("0.15").compareTo(totals.getEarnings()));
+        mockMvc.perform(get("/stats"))
+            .andExpect(jsonPath("$.content[0].totalClicks").value(3))
+            .andExpect(jsonPath("$.content[1].totalClicks").value(2));
+    }
+
+    @Test
+    void testNdjsonImport() throws Exception {
+        long epochMillis = LocalDateTime.of(2025, 10, 5, 12, 0)
+            .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        String ndjson = String.join("\n",
+            "{\"shortCode\":\"" + first.getShortCode() + "\",\"clickedAt\":\"2025-10-01T12:00:00Z\"}",
+            "{\"shortCode\":\"" + first.getShortCode() + "\",\"clickedAt\":\"" + epochMillis + "\"}",
+            "{\"shortCode\":\"" + second.getShortCode() + "\"}",
+            "not json");
+
+        mockMvc.perform(post("/admin/clicks/import").contentType(MediaType.APPLICATION_NDJSON).content(ndjson))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.rows").value(4))
+            .andExpect(jsonPath("$.importedClicks").value(2))
+            .andExpect(jsonPath("$.malformedRows").value(2));
+
+        mockMvc.perform(get("/stats"))
+            .andExpect(jsonPath("$.content[0].totalClicks").value(2))
+            .andExpect(jsonPath("$.content[0].monthlyBreakdown['2025-10']").value(2));
+    }
+
+    @Test
+    void testUnsupportedContentType() throws Exception {
+        mockMvc.perform(post("/admin/clicks/import").contentType(MediaType.APPLICATION_JSON).content("{}"))
+            .andExpect(status().isUnsupportedMediaType());
+    }
+
+    private ShortenedLink createLink(String targetUrl) {
+        ShortenedLink link = new ShortenedLink();
+        link.setTargetUrl(targetUrl);
+        link = linkRepository.save(link);
+        link.setShortCode("imp" + link.getId());
+        return linkRepository.save(link);
+    }
+}
@@ -0,0 +1,115 @@
+package com.fiverr.demo.controller;
+
+import com.fiverr.demo.dto.ClickEvent;
+import com.fiverr.demo.entity.ShortenedLink;
+import com.fiverr.demo.repository.ShardedClickRepository;
+import com.fiverr.demo.repository.ShortenedLinkRepository;
+import com.fiverr.demo.service.ClickEventSink;
+import com.fiverr.demo.service.ClickOutboxRelay;
+import com.fiverr.demo.service.InMemoryClickEventSink;
+import com.fiverr.demo.util.Base62Encoder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs against the servlet runtime; ReactiveClickOutboxIntegrationTest runs it against the reactive one
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureWebTestClient
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:outboxdb",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "app.click-counters.flush-interval-ms=3600000",
+    "app.warmup.enabled=false",
+    "app.click-outbox.enabled=true",
+    "app.click-outbox.sink=memory",
+    "app.click-outbox.memory.capacity=2",
+    "app.click-outbox.relay.batch-size=2",
+    "app.click-outbox.relay.interval-ms=3600000"
+})
+public class ClickOutboxIntegrationTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ShortenedLinkRepository linkRepository;
+
+    @Autowired
+    private ShardedClickRepository clickRepository;
+
+    @Autowired
+    private ClickOutboxRelay relay;
+
+    @Autowired
+    private ClickEventSink sink;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM click_outbox");
+        jdbcTemplate.update("DELETE FROM clicks");
+        linkRepository.deleteAll();
+    }
+
+    @Test
+    void testClicksArePublishedAtLeastOnceThroughTheOutbox() throws Exception {
+        ShortenedLink link = new ShortenedLink();
+        link.setTargetUrl("https://fiverr.com/seller/streamed");
+        link = linkRepository.save(link);
+        link.setShortCode(Base62Encoder.encode(link.getId()));
+        link = linkRepository.save(link);
+        for (int i = 0; i < 3; i++) {
+            webTestClient.get().uri("/" + link.getShortCode())
+                .header(HttpHeaders.USER_AGENT, "visitor-" + i)
+                .exchange()
+                .expectStatus().isFound();
+        }
+        assertEquals(3, count("SELECT COUNT(*) FROM click_outbox WHERE event_type = 0"));
+        List<Long> clickIds = jdbcTemplate.queryForList("SELECT id FROM clicks ORDER BY id", Long.class);
+
+        // The queue takes two events; the third is refused and stays in the outbox
+        InMemoryClickEventSink queue = (InMemoryClickEventSink) sink;
+        assertEquals(2, relay.relay());
+        assertEquals(1, count("SELECT COUNT(*) FROM click_outbox"));
+        List<ClickEvent> first = queue.poll(10, 1, TimeUnit.SECONDS);
+        assertEquals(2, first.size());
+        assertEquals(clickIds.subList(0, 2), first.stream().map(ClickEvent::getClickId).toList());
+        assertTrue(first.stream().allMatch(event -> event.getType() == ClickEvent.Type.CLICK));
+        assertTrue(first.get(0).getSequence() < first.get(1).getSequence());
+
+        // An invalidated click is published as a further event
+        jdbcTemplate.update("UPDATE clicks SET is_valid = TRUE WHERE id = ?", clickIds.get(0));
+        assertEquals(1, clickRepository.markInvalid(link.getId(), clickIds.get(0)));
+        assertEquals(2, relay.relay());
+        List<ClickEvent> second = queue.poll(10, 1, TimeUnit.SECONDS);
+        assertEquals(clickIds.get(2), second.get(0).getClickId());
+        assertEquals(ClickEvent.Type.INVALIDATED, second.get(1).getType());
+        assertEquals(clickIds.get(0), second.get(1).getClickId());
+        assertFalse(second.get(1).isValid());
+        assertEquals(link.getId(), second.get(1).getLinkId());
+
+        assertEquals(0, count("SELECT COUNT(*) FROM click_outbox"));
+        assertEquals(0, relay.relay());
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
@@ -0,0 +1,224 @@
+package com.fiverr.demo.controller;
+
+import com.fiverr.demo.entity.ShortenedLink;
+import com.fiverr.demo.repository.ClickShards;
+import com.fiverr.demo.repository.ShardedClickRepository;
+import com.fiverr.demo.repository.ShortenedLinkRepository;
+import com.fiverr.demo.service.ClickRebalancer;
+import com.fiverr.demo.util.StatementStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Clicks spread over three in-memory H2 databases, links in a fourth (the primary)
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:shardprimary",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "app.click-counters.flush-interval-ms=3600000",
+    "app.warmup.enabled=false",
+    "app.click-shards.urls=jdbc:h2:mem:clickshard0;DB_CLOSE_DELAY=-1,"
+        + "jdbc:h2:mem:clickshard1;DB_CLOSE_DELAY=-1,jdbc:h2:mem:clickshard2;DB_CLOSE_DELAY=-1",
+    "app.click-shards.username=sa",
+    "app.click-shards.rebalance-batch-size=2",
+    "app.sql-budget.enabled=true"
+})
+class ClickShardingIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ShortenedLinkRepository linkRepository;
+
+    @Autowired
+    private ClickShards clickShards;
+
+    @Autowired
+    private ShardedClickRepository shardedClickRepository;
+
+    @Autowired
+    private ClickRebalancer clickRebalancer;
+
+    @Autowired
+    private JdbcTemplate primary;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < clickShards.size(); i++) {
+            clickShards.shard(i).update("DELETE FROM pending_fraud_checks");
+            clickShards.shard(i).update("DELETE FROM clicks");
+        }
+        primary.update("DELETE FROM clicks");
+        linkRepository.deleteAll();
+    }
+
+    @Test
+    void testClicksAreWrittenToTheLinksShard() throws Exception {
+        List<ShortenedLink> links = createLinks(6);
+        for (ShortenedLink link : links) {
+            mockMvc.perform(get("/" + link.getShortCode())).andExpect(status().isFound());
+        }
+
+        Set<Integer> usedShards = new HashSet<>();
+        for (ShortenedLink link : links) {
+            int shard = clickShards.shardFor(link.getId());
+            usedShards.add(shard);
+            for (int i = 0; i < clickShards.size(); i++) {
+                assertEquals(i == shard ? 1 : 0, clicksOf(clickShards.shard(i), link.getId()),
+                    "link " + link.getId() + " on shard " + i);
+            }
+        }
+        assertTrue(usedShards.size() > 1, "all links routed to one shard");
+        assertEquals(0, primary.queryForObject("SELECT COUNT(*) FROM clicks", Long.class));
+    }
+
+    @Test
+    void testStatsGatherCountsAndMonthsFromAllShards() throws Exception {
+        List<ShortenedLink> links = createLinks(3);
+        for (ShortenedLink link : links) {
+            shardedClickRepository.insertClick(link.getId(), true);
+            shardedClickRepository.insertClick(link.getId(), true);
+            shardedClickRepository.insertClick(link.getId(), false);
+        }
+        // A click left on another shard, as in the middle of a rebalance
+        ShortenedLink first = links.get(0);
+        int elsewhere = (clickShards.shardFor(first.getId()) + 1) % clickShards.size();
+        insertClick(clickShards.shard(elsewhere), 1L, first.getId());
+
+        String month = LocalDateTime.now().toString().substring(0, 7);
+        mockMvc.perform(get("/stats").param("size", "10"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[0].totalClicks").value(3))
+            .andExpect(jsonPath("$.content[0].monthlyBreakdown['" + month + "']").value(3))
+            .andExpect(jsonPath("$.content[1].totalClicks").value(2))
+            .andExpect(jsonPath("$.content[2].totalClicks").value(2))
+            .andExpect(jsonPath("$.content[2].totalEarnings").value(0.1));
+    }
+
+    @Test
+    void testStatementsOnShardPoolsCountTowardsTheCallersScope() {
+        ShortenedLink link = createLinks(1).get(0);
+        try (StatementStats stats = StatementStats.open("test")) {
+            shardedClickRepository.insertClick(link.getId(), true);
+            assertEquals(1, stats.getStatements());
+
+            // One query per shard, each on a scatter thread
+            shardedClickRepository.countValidClicks(List.of(link.getId()));
+            assertEquals(1 + clickShards.size(), stats.getStatements());
+        }
+    }
+
+    @Test
+    void testRebalanceBackfillsThePrimaryAndFixesMisplacedClicks() {
+        List<ShortenedLink> links = createLinks(4);
+        // Clicks from before sharding, still in the primary database
+        for (ShortenedLink link : links) {
+            for (long id = 1; id <= 3; id++) {
+                insertClick(primary, link.getId() * 10 + id, link.getId());
+            }
+        }
+        ShortenedLink misplaced = links.get(0);
+        int wrongShard = (clickShards.shardFor(misplaced.getId()) + 1) % clickShards.size();
+        insertClick(clickShards.shard(wrongShard), 999L, misplaced.getId());
+
+        assertEquals(13, clickRebalancer.rebalance());
+
+        assertEquals(0, primary.queryForObject("SELECT COUNT(*) FROM clicks", Long.class));
+        for (ShortenedLink link : links) {
+            JdbcTemplate shard = clickShards.forLink(link.getId());
+            assertEquals(link == misplaced ? 4 : 3, clicksOf(shard, link.getId()));
+            // Ids survive the move
+            assertEquals(1, shard.queryForObject("SELECT COUNT(*) FROM clicks WHERE id = ?", Long.class,
+                link.getId() * 10 + 1));
+        }
+        assertEquals(0, clickRebalancer.rebalance());
+    }
+
+    @Test
+    void testRebalanceKeepsAClickMarkedInvalidAfterItWasCopied() {
+        ShortenedLink link = createLinks(1).get(0);
+        // A previous batch copied the click, then the fraud re-check marked the source row invalid
+        insertClick(primary, 7L, link.getId());
+        insertClick(clickShards.forLink(link.getId()), 7L, link.getId());
+        primary.update("UPDATE clicks SET is_valid = FALSE WHERE id = 7");
+
+        assertEquals(1, clickRebalancer.rebalance());
+
+        assertEquals(0, primary.queryForObject("SELECT COUNT(*) FROM clicks", Long.class));
+        assertFalse(clickShards.forLink(link.getId())
+            .queryForObject("SELECT is_valid FROM clicks WHERE id = 7", Boolean.class));
+    }
+
+    @Test
+    void testShardsAllocateDisjointClickIds() {
+        List<ShortenedLink> links = createLinks(6);
+        Set<Long> ids = new HashSet<>();
+        for (ShortenedLink link : links) {
+            long id = shardedClickRepository.insertClick(link.getId(), true);
+            assertEquals(clickShards.shardFor(link.getId()) + 1, id >>> 48);
+            ids.add(id);
+        }
+        assertEquals(6, ids.size());
+    }
+
+    @Test
+    void testProvisionalClicksOweTheirCheckOnTheirShard() {
+        List<ShortenedLink> links = createLinks(2);
+        long first = shardedClickRepository.insertProvisionalClick(links.get(0).getId());
+        long second = shardedClickRepository.insertProvisionalClick(links.get(1).getId());
+
+        // The checks are owed in the database, not only in the in-memory queue
+        assertEquals(Map.of(first, links.get(0).getId(), second, links.get(1).getId()),
+            shardedClickRepository.pendingChecks(10));
+        assertEquals(1, clickShards.forLink(links.get(0).getId())
+            .queryForObject("SELECT COUNT(*) FROM pending_fraud_checks WHERE click_id = ?", Long.class, first));
+
+        assertEquals(1, shardedClickRepository.resolvePendingCheck(links.get(0).getId(), first, true));
+        assertEquals(0, shardedClickRepository.resolvePendingCheck(links.get(1).getId(), second, false));
+        assertTrue(shardedClickRepository.pendingChecks(10).isEmpty());
+        assertFalse(clickShards.forLink(links.get(0).getId())
+            .queryForObject("SELECT is_valid FROM clicks WHERE id = ?", Boolean.class, first));
+    }
+
+    private List<ShortenedLink> createLinks(int count) {
+        List<ShortenedLink> links = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ShortenedLink link = new ShortenedLink();
+            link.setTargetUrl("https://fiverr.com/seller/sharded" + i);
+            link = linkRepository.save(link);
+            link.setShortCode("x" + link.getId());
+            links.add(linkRepository.save(link));
+        }
+        return links;
+    }
+
+    private static void insertClick(JdbcTemplate database, long id, long linkId) {
+        database.update("INSERT INTO clicks (id, link_id, clicked_at, is_valid) VALUES (?, ?, ?, TRUE)",
+            id, linkId, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    private static long clicksOf(JdbcTemplate database, long linkId) {
+        return database.queryForObject("SELECT COUNT(*) FROM clicks WHERE link_id = ?", Long.class, linkId);
+    }
+}
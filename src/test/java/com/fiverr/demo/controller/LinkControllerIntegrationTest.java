@@ -1,43 +1,64 @@
 package com.fiverr.demo.controller;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fiverr.demo.dto.CreateLinkRequest;
+import com.fiverr.demo.dto.LinkResponse;
+import com.fiverr.demo.dto.ResolveRequest;
 import com.fiverr.demo.entity.Click;
 import com.fiverr.demo.entity.ShortenedLink;
 import com.fiverr.demo.repository.ClickRepository;
+import com.fiverr.demo.repository.LinkClickTotalsRepository;
 import com.fiverr.demo.repository.ShortenedLinkRepository;
+import com.fiverr.demo.service.ClickCounterService;
+import com.fiverr.demo.service.TargetUrlBackfill;
+import com.fiverr.demo.util.Base62Encoder;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.DisabledIf;
+import org.springframework.test.web.reactive.server.WebTestClient;
 import org.springframework.test.web.servlet.MockMvc;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 import static org.hamcrest.Matchers.*;
-import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+// Runs against the servlet runtime; ReactiveLinkControllerIntegrationTest runs the same cases
+// against the reactive one. Data is committed, not rolled back, so that R2DBC sees it too
 @SpringBootTest
 @AutoConfigureMockMvc
+@AutoConfigureWebTestClient
 @TestPropertySource(properties = {
     "spring.datasource.url=jdbc:h2:mem:testdb",
     "spring.datasource.driver-class-name=org.h2.Driver",
     "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
-    "spring.jpa.hibernate.ddl-auto=create-drop"
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "app.click-counters.flush-interval-ms=3600000",
+    // Links are deleted before each test, which production never does to a cached link
+    "app.link-creation.recent-max-entries=0"
 })
-@Transactional
-class LinkControllerIntegrationTest {
+public class LinkControllerIntegrationTest {
 
-    @Autowired
-    private MockMvc mockMvc;
+    // For the cases only the servlet runtime serves
+    static final String REACTIVE = "#{environment.matchesProfiles('reactive')}";
 
     @Autowired
-    private ObjectMapper objectMapper;
+    private WebTestClient webTestClient;
+
+    // Servlet runtime only
+    @Autowired(required = false)
+    private MockMvc mockMvc;
 
     @Autowired
     private ShortenedLinkRepository linkRepository;
@@ -45,175 +66,387 @@ class LinkControllerIntegrationTest {
     @Autowired
     private ClickRepository clickRepository;
 
+    @Autowired
+    private LinkClickTotalsRepository totalsRepository;
+
+    @Autowired
+    private ClickCounterService clickCounterService;
+
+    @Autowired
+    private TargetUrlBackfill targetUrlBackfill;
+
     @BeforeEach
     void setUp() {
+        // Earlier tests' pending counters would otherwise be flushed for deleted links
+        clickCounterService.flush();
         clickRepository.deleteAll();
+        totalsRepository.deleteAll();
         linkRepository.deleteAll();
     }
 
     @Test
-    void testCreateLink_Success() throws Exception {
-        CreateLinkRequest request = new CreateLinkRequest();
-        request.setTargetUrl("https://fiverr.com/seller/gig123");
-
-        mockMvc.perform(post("/links")
-                .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(request)))
-            .andExpect(status().isOk())
-            .andExpect(jsonPath("$.shortCode").exists())
-            .andExpect(jsonPath("$.shortUrl").exists())
-            .andExpect(jsonPath("$.targetUrl").value("https://fiverr.com/seller/gig123"));
+    void testCreateLink_Success() {
+        webTestClient.post().uri("/links")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(createRequest("https://fiverr.com/seller/gig123"))
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.shortCode").exists()
+            .jsonPath("$.shortUrl").exists()
+            .jsonPath("$.targetUrl").isEqualTo("https://fiverr.com/seller/gig123");
     }
 
     @Test
-    void testCreateLink_DuplicateUrl() throws Exception {
-        CreateLinkRequest request = new CreateLinkRequest();
-        request.setTargetUrl("https://fiverr.com/seller/gig123");
-
-        // Create first link
-        String response1 = mockMvc.perform(post("/links")
-                .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(request)))
-            .andExpect(status().isOk())
-            .andReturn()
-            .getResponse()
-            .getContentAsString();
-
-        // Create duplicate link
-        String response2 = mockMvc.perform(post("/links")
-                .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(request)))
-            .andExpect(status().isOk())
-            .andReturn()
-            .getResponse()
-            .getContentAsString();
+    void testCreateLink_DuplicateUrl() {
+        LinkResponse first = createViaApi("https://fiverr.com/seller/gig123");
+        LinkResponse second = createViaApi("https://fiverr.com/seller/gig123");
 
         // Should return same short code
-        assertEquals(response1, response2);
+        Assertions.assertNotNull(first.getShortCode());
+        Assertions.assertEquals(first.getShortCode(), second.getShortCode());
+        Assertions.assertEquals(1, linkRepository.count());
     }
 
     @Test
-    void testCreateLink_EmptyUrl() throws Exception {
-        CreateLinkRequest request = new CreateLinkRequest();
-        request.setTargetUrl("");
+    void testCreateLink_EquivalentUrlSpellingsShareOneLink() {
+        LinkResponse first = createViaApi("https://fiverr.com/seller/Gig123");
+        LinkResponse second = createViaApi(" HTTPS://Fiverr.COM:443/seller/Gig123");
 
-        mockMvc.perform(post("/links")
-                .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(request)))
-            .andExpect(status().isBadRequest());
+        Assertions.assertEquals(first.getShortCode(), second.getShortCode());
+        Assertions.assertEquals("https://fiverr.com/seller/Gig123", second.getTargetUrl());
     }
 
     @Test
-    void testCreateLink_NullUrl() throws Exception {
-        CreateLinkRequest request = new CreateLinkRequest();
-        request.setTargetUrl(null);
+    void testCreateLink_FindsLegacySpellingsAfterBackfill() {
+        // Stored before creation normalized URLs; the second is a duplicate of the first's form
+        ShortenedLink legacy = createEncodedLink("HTTPS://Fiverr.COM:443/legacy");
+        ShortenedLink normalized = createEncodedLink("https://fiverr.com/kept");
+        ShortenedLink duplicate = createEncodedLink("https://FIVERR.com/kept");
+
+        Assertions.assertEquals(1, targetUrlBackfill.backfill());
 
-        mockMvc.perform(post("/links")
-                .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(request)))
-            .andExpect(status().isBadRequest());
+        Assertions.assertEquals(legacy.getShortCode(), createViaApi("https://fiverr.com/legacy").getShortCode());
+        Assertions.assertEquals(normalized.getShortCode(), createViaApi("https://FIVERR.com/kept").getShortCode());
+        // The duplicate still redirects to its own spelling
+        webTestClient.get().uri("/" + duplicate.getShortCode())
+            .exchange()
+            .expectStatus().isFound()
+            .expectHeader().valueEquals("Location", "https://FIVERR.com/kept");
     }
 
     @Test
-    void testCreateLink_UrlTooLong() throws Exception {
-        CreateLinkRequest request = new CreateLinkRequest();
-        request.setTargetUrl("https://example.com/" + "a".repeat(2050));
-
-        mockMvc.perform(post("/links")
-                .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(request)))
-            .andExpect(status().isBadRequest());
-    }
-
-    @Test
-    void testGetStats_EmptyDatabase() throws Exception {
-        mockMvc.perform(get("/stats")
-                .param("page", "0")
-                .param("size", "10"))
-            .andExpect(status().isOk())
-            .andExpect(jsonPath("$.content").isArray())
-            .andExpect(jsonPath("$.content").isEmpty())
-            .andExpect(jsonPath("$.totalElements").value(0))
-            .andExpect(jsonPath("$.totalPages").value(0));
-    }
-
-    @Test
-    void testGetStats_WithData() throws Exception {
-        // Create links
-        ShortenedLink link1 = new ShortenedLink();
-        link1.setTargetUrl("https://fiverr.com/seller/gig1");
-        link1 = linkRepository.save(link1);
-        link1.setShortCode(String.valueOf(link1.getId()));
-        link1 = linkRepository.save(link1);
-
-        // Create clicks
-        Click click1 = new Click();
-        click1.setLink(link1);
-        click1.setIsValid(true);
-        click1.setEarnings(new BigDecimal("0.05"));
-        clickRepository.save(click1);
-
-        Click click2 = new Click();
-        click2.setLink(link1);
-        click2.setIsValid(true);
-        click2.setEarnings(new BigDecimal("0.05"));
-        clickRepository.save(click2);
-
-        mockMvc.perform(get("/stats")
-                .param("page", "0")
-                .param("size", "10"))
-            .andExpect(status().isOk())
-            .andExpect(jsonPath("$.content").isArray())
-            .andExpect(jsonPath("$.content", hasSize(1)))
-            .andExpect(jsonPath("$.content[0].totalClicks").value(2))
-            .andExpect(jsonPath("$.content[0].totalEarnings").value(0.1))
-            .andExpect(jsonPath("$.totalElements").value(1));
-    }
-
-    @Test
-    void testGetStats_Pagination() throws Exception {
-        // Create 15 links
+    void testCreateLink_EmptyUrl() {
+        webTestClient.post().uri("/links")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(createRequest(""))
+            .exchange()
+            .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void testCreateLink_NullUrl() {
+        webTestClient.post().uri("/links")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(createRequest(null))
+            .exchange()
+            .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void testCreateLink_UrlTooLong() {
+        webTestClient.post().uri("/links")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(createRequest("https://example.com/" + "a".repeat(2050)))
+            .exchange()
+            .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void testGetStats_EmptyDatabase() {
+        webTestClient.get().uri("/stats?page=0&size=10")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.content").isArray()
+            .jsonPath("$.content").isEmpty()
+            .jsonPath("$.totalElements").isEqualTo(0)
+            .jsonPath("$.totalPages").isEqualTo(0);
+    }
+
+    @Test
+    void testGetStats_WithData() {
+        ShortenedLink link = createLink("https://fiverr.com/seller/gig1");
+        saveClick(link, LocalDateTime.now(), true);
+        saveClick(link, LocalDateTime.now(), true);
+
+        webTestClient.get().uri("/stats?page=0&size=10")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.content.length()").isEqualTo(1)
+            .jsonPath("$.content[0].totalClicks").isEqualTo(2)
+            .jsonPath("$.content[0].totalEarnings").isEqualTo(0.1)
+            .jsonPath("$.content[0].monthlyBreakdown.length()").isEqualTo(1)
+            .jsonPath("$.totalElements").isEqualTo(1);
+    }
+
+    @Test
+    void testGetStats_DateRangeBreakdown() {
+        ShortenedLink link = createLink("https://fiverr.com/seller/ranged");
+        saveClick(link, LocalDateTime.of(2025, 10, 31, 23, 59), true);
+        saveClick(link, LocalDateTime.of(2025, 11, 3, 9, 0), true);
+        saveClick(link, LocalDateTime.of(2025, 11, 3, 18, 0), true);
+        saveClick(link, LocalDateTime.of(2025, 11, 5, 12, 0), false);
+        saveClick(link, LocalDateTime.of(2025, 11, 10, 8, 0), true);
+        // "to" is exclusive
+        saveClick(link, LocalDateTime.of(2025, 12, 1, 0, 0), true);
+
+        webTestClient.get().uri("/stats?from=2025-11-01&to=2025-12-01&granularity=day")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.content[0].totalClicks").isEqualTo(5)
+            .jsonPath("$.content[0].clicksInRange").isEqualTo(3)
+            .jsonPath("$.content[0].breakdown['2025-11-03']").isEqualTo(2)
+            .jsonPath("$.content[0].breakdown['2025-11-10']").isEqualTo(1)
+            .jsonPath("$.content[0].breakdown['2025-11-05']").doesNotExist()
+            .jsonPath("$.content[0].monthlyBreakdown").doesNotExist();
+
+        webTestClient.get().uri("/stats/" + link.getShortCode() + "?from=2025-10-27&granularity=WEEK")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.shortCode").isEqualTo(link.getShortCode())
+            .jsonPath("$.clicksInRange").isEqualTo(5)
+            .jsonPath("$.breakdown['2025-W44']").isEqualTo(1)
+            .jsonPath("$.breakdown['2025-W45']").isEqualTo(2)
+            .jsonPath("$.breakdown['2025-W46']").isEqualTo(1)
+            .jsonPath("$.breakdown['2025-W49']").isEqualTo(1);
+
+        // Without range parameters the lifetime monthly breakdown is unchanged
+        webTestClient.get().uri("/stats/" + link.getShortCode())
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.monthlyBreakdown['2025-10']").isEqualTo(1)
+            .jsonPath("$.monthlyBreakdown['2025-11']").isEqualTo(3)
+            .jsonPath("$.monthlyBreakdown['2025-12']").isEqualTo(1)
+            .jsonPath("$.breakdown").doesNotExist()
+            .jsonPath("$.clicksInRange").doesNotExist();
+    }
+
+    @Test
+    void testGetStats_InvalidRange() {
+        webTestClient.get().uri("/stats?from=2025-12-01&to=2025-11-01")
+            .exchange()
+            .expectStatus().isBadRequest();
+        webTestClient.get().uri("/stats?granularity=hour")
+            .exchange()
+            .expectStatus().isBadRequest();
+        webTestClient.get().uri("/stats?from=last week")
+            .exchange()
+            .expectStatus().isBadRequest();
+        webTestClient.get().uri("/stats/nosuchcode")
+            .exchange()
+            .expectStatus().isNotFound();
+    }
+
+    @Test
+    void testGetStats_Pagination() {
         for (int i = 1; i <= 15; i++) {
-            ShortenedLink link = new ShortenedLink();
-            link.setTargetUrl("https://fiverr.com/seller/gig" + i);
-            link = linkRepository.save(link);
-            link.setShortCode(String.valueOf(link.getId()));
-            linkRepository.save(link);
+            createLink("https://fiverr.com/seller/gig" + i);
         }
 
-        // Test first page
-        mockMvc.perform(get("/stats")
-                .param("page", "0")
-                .param("size", "5"))
-            .andExpect(status().isOk())
-            .andExpect(jsonPath("$.content", hasSize(5)))
-            .andExpect(jsonPath("$.totalElements").value(15))
-            .andExpect(jsonPath("$.totalPages").value(3))
-            .andExpect(jsonPath("$.first").value(true))
-            .andExpect(jsonPath("$.last").value(false));
-
-        // Test second page
-        mockMvc.perform(get("/stats")
-                .param("page", "1")
-                .param("size", "5"))
-            .andExpect(status().isOk())
-            .andExpect(jsonPath("$.content", hasSize(5)))
-            .andExpect(jsonPath("$.first").value(false))
-            .andExpect(jsonPath("$.last").value(false));
-
-        // Test last page
-        mockMvc.perform(get("/stats")
-                .param("page", "2")
-                .param("size", "5"))
-            .andExpect(status().isOk())
-            .andExpect(jsonPath("$.content", hasSize(5)))
-            .andExpect(jsonPath("$.first").value(false))
-            .andExpect(jsonPath("$.last").value(true));
-    }
-
-    private void assertEquals(String response1, String response2) {
-        if (!response1.equals(response2)) {
-            throw new AssertionError("Responses are not equal");
+        // First page
+        webTestClient.get().uri("/stats?page=0&size=5")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.content.length()").isEqualTo(5)
+            .jsonPath("$.totalElements").isEqualTo(15)
+            .jsonPath("$.totalPages").isEqualTo(3)
+            .jsonPath("$.first").isEqualTo(true)
+            .jsonPath("$.last").isEqualTo(false);
+
+        // Second page
+        webTestClient.get().uri("/stats?page=1&size=5")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.content.length()").isEqualTo(5)
+            .jsonPath("$.first").isEqualTo(false)
+            .jsonPath("$.last").isEqualTo(false);
+
+        // Last page
+        webTestClient.get().uri("/stats?page=2&size=5")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.content.length()").isEqualTo(5)
+            .jsonPath("$.first").isEqualTo(false)
+            .jsonPath("$.last").isEqualTo(true);
+    }
+
+    @Test
+    void testGetStats_MergesFlushedAndPendingCounters() {
+        ShortenedLink link = createLink("https://fiverr.com/seller/counted");
+
+        // Three clicks flushed to link_click_totals, two still only in memory
+        for (int i = 0; i < 3; i++) {
+            clickCounterService.recordClick(link.getId(), true);
         }
+        clickCounterService.recordClick(link.getId(), false);
+        clickCounterService.flush();
+        clickCounterService.recordClick(link.getId(), true);
+        clickCounterService.recordClick(link.getId(), true);
+
+        webTestClient.get().uri("/stats?page=0&size=10")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.content[0].totalClicks").isEqualTo(5)
+            .jsonPath("$.content[0].totalEarnings").isEqualTo(0.25);
+    }
+
+    @Test
+    @DisabledIf(expression = REACTIVE, loadContext = true, reason = "The reactive runtime sends no stats ETags")
+    void testGetStats_ConditionalRequests() {
+        ShortenedLink link = createLink("https://fiverr.com/seller/etag");
+
+        String eTag = webTestClient.get().uri("/stats")
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().value(HttpHeaders.CACHE_CONTROL, containsString("no-cache"))
+            .returnResult(String.class)
+            .getResponseHeaders().getETag();
+
+        webTestClient.get().uri("/stats").header(HttpHeaders.IF_NONE_MATCH, eTag)
+            .exchange()
+            .expectStatus().isNotModified()
+            .expectHeader().value(HttpHeaders.ETAG, equalTo(eTag))
+            .expectBody().isEmpty();
+
+        // A recorded click bumps the link's version, so the page is served again
+        clickCounterService.recordClick(link.getId(), true);
+
+        String newETag = webTestClient.get().uri("/stats").header(HttpHeaders.IF_NONE_MATCH, eTag)
+            .exchange()
+            .expectStatus().isOk()
+            .returnResult(String.class)
+            .getResponseHeaders().getETag();
+        Assertions.assertNotEquals(eTag, newETag);
+
+        // Another page has another ETag
+        webTestClient.get().uri("/stats?size=5").header(HttpHeaders.IF_NONE_MATCH, newETag)
+            .exchange()
+            .expectStatus().isOk();
+    }
+
+    @Test
+    @DisabledIf(expression = REACTIVE, loadContext = true, reason = "Only the servlet runtime serves live stats")
+    void testLiveStats_StartsEventStream() throws Exception {
+        ShortenedLink link = createLink("https://fiverr.com/live");
+
+        // The stream opens with the link's current totals
+        mockMvc.perform(get("/stats/" + link.getShortCode() + "/live"))
+            .andExpect(request().asyncStarted())
+            .andExpect(content().string(containsString("event:totals")))
+            .andExpect(content().string(containsString("\"validClicks\":0")));
+    }
+
+    @Test
+    @DisabledIf(expression = REACTIVE, loadContext = true, reason = "Only the servlet runtime serves live stats")
+    void testLiveStats_UnknownShortCode() {
+        webTestClient.get().uri("/stats/unknown/live")
+            .exchange()
+            .expectStatus().isNotFound();
+    }
+
+    @Test
+    void testResolve_ReturnsTargetsWithoutTrackingClicks() {
+        ShortenedLink first = createEncodedLink("https://fiverr.com/resolve/1");
+        ShortenedLink second = createEncodedLink("https://fiverr.com/resolve/2");
+
+        webTestClient.post().uri("/resolve")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(Map.of("shortCodes",
+                List.of(second.getShortCode(), "zzzzzz", first.getShortCode(), "0" + first.getShortCode(), "bad-code")))
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.targetUrls.length()").isEqualTo(2)
+            .jsonPath("$.targetUrls['" + first.getShortCode() + "']").isEqualTo("https://fiverr.com/resolve/1")
+            .jsonPath("$.targetUrls['" + second.getShortCode() + "']").isEqualTo("https://fiverr.com/resolve/2")
+            .jsonPath("$.notFound").value(contains("zzzzzz", "0" + first.getShortCode(), "bad-code"));
+
+        Assertions.assertEquals(0, clickRepository.count());
+    }
+
+    @Test
+    void testResolve_RejectsEmptyAndOversizedRequests() {
+        webTestClient.post().uri("/resolve")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(Map.of("shortCodes", List.of()))
+            .exchange()
+            .expectStatus().isBadRequest();
+
+        List<String> tooMany = Collections.nCopies(ResolveRequest.MAX_SHORT_CODES + 1, "1");
+        webTestClient.post().uri("/resolve")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(Map.of("shortCodes", tooMany))
+            .exchange()
+            .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void testClickImportIsOffByDefault() {
+        webTestClient.post().uri("/admin/clicks/import")
+            .contentType(MediaType.parseMediaType("text/csv"))
+            .bodyValue("a,2025-01-01T00:00:00")
+            .exchange()
+            .expectStatus().isNotFound();
+        Assertions.assertEquals(0, clickRepository.count());
+    }
+
+    private LinkResponse createViaApi(String targetUrl) {
+        return webTestClient.post().uri("/links")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(createRequest(targetUrl))
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(LinkResponse.class)
+            .returnResult()
+            .getResponseBody();
+    }
+
+    private ShortenedLink createEncodedLink(String targetUrl) {
+        ShortenedLink link = new ShortenedLink();
+        link.setTargetUrl(targetUrl);
+        link = linkRepository.save(link);
+        link.setShortCode(Base62Encoder.encode(link.getId()));
+        return linkRepository.save(link);
+    }
+
+    private ShortenedLink createLink(String targetUrl) {
+        ShortenedLink link = new ShortenedLink();
+        link.setTargetUrl(targetUrl);
+        link = linkRepository.save(link);
+        link.setShortCode(String.valueOf(link.getId()));
+        return linkRepository.save(link);
+    }
+
+    private void saveClick(ShortenedLink link, LocalDateTime clickedAt, boolean isValid) {
+        Click click = new Click();
+        click.setLink(link);
+        click.setClickedAt(clickedAt);
+        click.setIsValid(isValid);
+        clickRepository.save(click);
+    }
+
+    private static CreateLinkRequest createRequest(String targetUrl) {
+        CreateLinkRequest request = new CreateLinkRequest();
+        request.setTargetUrl(targetUrl);
+        return request;
     }
 }
@@ -6,30 +6,31 @@ import com.fiverr.demo.repository.ShortenedLinkRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.test.context.TestPropertySource;
-import org.springframework.test.web.servlet.MockMvc;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.test.web.reactive.server.WebTestClient;
 
-import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+// Runs against the servlet runtime; ReactiveRedirectControllerIntegrationTest runs the same
+// cases against the reactive one. Data is committed, not rolled back, so that R2DBC sees it too
 @SpringBootTest
 @AutoConfigureMockMvc
+@AutoConfigureWebTestClient
 @TestPropertySource(properties = {
     "spring.datasource.url=jdbc:h2:mem:testdb",
     "spring.datasource.driver-class-name=org.h2.Driver",
     "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
-    "spring.jpa.hibernate.ddl-auto=create-drop"
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "app.click-counters.flush-interval-ms=3600000"
 })
-@Transactional
-class RedirectControllerIntegrationTest {
+public class RedirectControllerIntegrationTest {
 
     @Autowired
-    private MockMvc mockMvc;
+    private WebTestClient webTestClient;
 
     @Autowired
     private ShortenedLinkRepository linkRepository;
@@ -44,75 +45,69 @@ class RedirectControllerIntegrationTest {
     }
 
     @Test
-    void testRedirect_Success() throws Exception {
-        // Create a link
-        ShortenedLink link = new ShortenedLink();
-        link.setTargetUrl("https://fiverr.com/seller/gig123");
-        link = linkRepository.save(link);
-        link.setShortCode(String.valueOf(link.getId()));
-        link = linkRepository.save(link);
+    void testRedirect_Success() {
+        ShortenedLink link = createLink("https://fiverr.com/seller/gig123");
 
-        String shortCode = link.getShortCode();
-
-        mockMvc.perform(get("/" + shortCode))
-            .andExpect(status().isFound())
-            .andExpect(header().string("Location", "https://fiverr.com/seller/gig123"));
+        webTestClient.get().uri("/" + link.getShortCode())
+            .exchange()
+            .expectStatus().isFound()
+            .expectHeader().valueEquals("Location", "https://fiverr.com/seller/gig123");
 
         // Verify click was recorded
-        long clickCount = clickRepository.count();
-        assertEquals(1, clickCount);
+        assertEquals(1, clickRepository.count());
     }
 
     @Test
-    void testRedirect_InvalidShortCode() throws Exception {
-        mockMvc.perform(get("/invalidcode"))
-            .andExpect(status().isNotFound());
+    void testRedirect_InvalidShortCode() {
+        webTestClient.get().uri("/invalidcode")
+            .exchange()
+            .expectStatus().isNotFound();
 
         // Verify no click was recorded
-        long clickCount = clickRepository.count();
-        assertEquals(0, clickCount);
+        assertEquals(0, clickRepository.count());
     }
 
     @Test
-    void testRedirect_MultipleClicks() throws Exception {
-        // Create a link
-        ShortenedLink link = new ShortenedLink();
-        link.setTargetUrl("https://fiverr.com/seller/gig123");
-        link = linkRepository.save(link);
-        link.setShortCode(String.valueOf(link.getId()));
-        link = linkRepository.save(link);
-
-        String shortCode = link.getShortCode();
+    void testRedirect_MultipleClicks() {
+        ShortenedLink link = createLink("https://fiverr.com/seller/gig123");
 
-        // Click 5 times
+        // Click 5 times, from distinct visitors: repeats of one client are deduplicated
         for (int i = 0; i < 5; i++) {
-            mockMvc.perform(get("/" + shortCode))
-                .andExpect(status().isFound());
+            webTestClient.get().uri("/" + link.getShortCode())
+                .header(HttpHeaders.USER_AGENT, "visitor-" + i)
+                .exchange()
+                .expectStatus().isFound();
         }
 
         // Verify all clicks were recorded
-        long clickCount = clickRepository.count();
-        assertEquals(5, clickCount);
+        assertEquals(5, clickRepository.count());
     }
 
     @Test
-    void testRedirect_FraudDetectionDelay() throws Exception {
-        // Create a link
-        ShortenedLink link = new ShortenedLink();
-        link.setTargetUrl("https://fiverr.com/seller/gig123");
-        link = linkRepository.save(link);
-        link.setShortCode(String.valueOf(link.getId()));
-        link = linkRepository.save(link);
+    void testRedirect_DuplicateClicksAreRedirectedButNotRecorded() {
+        ShortenedLink link = createLink("https://fiverr.com/seller/double-tap");
+
+        for (int i = 0; i < 3; i++) {
+            webTestClient.get().uri("/" + link.getShortCode())
+                .header(HttpHeaders.USER_AGENT, "double-tapper")
+                .exchange()
+                .expectStatus().isFound()
+                .expectHeader().valueEquals("Location", "https://fiverr.com/seller/double-tap");
+        }
 
-        String shortCode = link.getShortCode();
+        assertEquals(1, clickRepository.count());
+    }
+
+    @Test
+    void testRedirect_FraudDetectionDelay() {
+        ShortenedLink link = createLink("https://fiverr.com/seller/gig123");
 
         // Measure response time
         long startTime = System.currentTimeMillis();
-        mockMvc.perform(get("/" + shortCode))
-            .andExpect(status().isFound());
-        long endTime = System.currentTimeMillis();
-
-        long duration = endTime - startTime;
+        webTestClient.get().uri("/" + link.getShortCode())
+            .exchange()
+            .expectStatus().isFound();
+        long duration = System.currentTimeMillis() - startTime;
 
         // Should take at least 100ms due to fraud detection
         // Using >= 80ms to account for test environment variance
@@ -120,29 +115,31 @@ class RedirectControllerIntegrationTest {
     }
 
     @Test
-    void testRedirect_ClicksRecordedWithValidAndInvalidFlags() throws Exception {
-        // Create a link
-        ShortenedLink link = new ShortenedLink();
-        link.setTargetUrl("https://fiverr.com/seller/gig123");
-        link = linkRepository.save(link);
-        link.setShortCode(String.valueOf(link.getId()));
-        link = linkRepository.save(link);
-
-        String shortCode = link.getShortCode();
+    void testRedirect_ClicksRecordedWithValidAndInvalidFlags() {
+        ShortenedLink link = createLink("https://fiverr.com/seller/gig123");
 
         // Click multiple times to get mix of valid/invalid
         for (int i = 0; i < 20; i++) {
-            mockMvc.perform(get("/" + shortCode))
-                .andExpect(status().isFound());
+            webTestClient.get().uri("/" + link.getShortCode())
+                .header(HttpHeaders.USER_AGENT, "visitor-" + i)
+                .exchange()
+                .expectStatus().isFound();
         }
 
         // Verify clicks were recorded
-        long totalClicks = clickRepository.count();
-        assertEquals(20, totalClicks);
+        assertEquals(20, clickRepository.count());
 
         // With 10% fraud rate, we expect some invalid clicks
         // (though randomness means this isn't guaranteed)
         long validClicks = clickRepository.countByLinkIdAndIsValidTrue(link.getId());
         assert(validClicks > 0 && validClicks <= 20);
     }
+
+    private ShortenedLink createLink(String targetUrl) {
+        ShortenedLink link = new ShortenedLink();
+        link.setTargetUrl(targetUrl);
+        link = linkRepository.save(link);
+        link.setShortCode(String.valueOf(link.getId()));
+        return linkRepository.save(link);
+    }
 }
@@ -0,0 +1,92 @@
+package com.fiverr.demo.controller;
+
+import com.fiverr.demo.dto.ClientInfo;
+import com.fiverr.demo.service.LinkService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedirectFilterTest {
+
+    @Mock
+    private LinkService linkService;
+
+    private RedirectFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new RedirectFilter(linkService, true);
+    }
+
+    @Test
+    void testRedirectsWithoutCallingTheChain() throws Exception {
+        when(linkService.tryRedirectAndTrack(eq("aB3"), any(ClientInfo.class)))
+            .thenReturn(Optional.of("https://fiverr.com/seller/gig123"));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/aB3"), response, chain);
+
+        assertEquals(302, response.getStatus());
+        assertEquals("https://fiverr.com/seller/gig123", response.getHeader("Location"));
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void testUnknownShortCodeIsNotFound() throws Exception {
+        when(linkService.tryRedirectAndTrack(eq("zzz"), any(ClientInfo.class))).thenReturn(Optional.empty());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/zzz"), response, chain);
+
+        assertEquals(404, response.getStatus());
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void testOtherRequestsPassThrough() throws Exception {
+        String[][] requests = {
+            {"GET", "/stats"}, {"GET", "/actuator"}, {"POST", "/links"}, {"POST", "/abc"},
+            {"GET", "/"}, {"GET", "/abc/def"}, {"GET", "/abc-def"}, {"GET", "/abcdefghijkl"}
+        };
+        for (String[] request : requests) {
+            MockFilterChain chain = new MockFilterChain();
+            filter.doFilter(new MockHttpServletRequest(request[0], request[1]), new MockHttpServletResponse(), chain);
+            assertNotNull(chain.getRequest(), request[0] + " " + request[1]);
+        }
+        verifyNoInteractions(linkService);
+    }
+
+    @Test
+    void testDisabledFilterPassesThrough() throws Exception {
+        filter = new RedirectFilter(linkService, false);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/aB3"), new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+        verifyNoInteractions(linkService);
+    }
+
+    @Test
+    void testShortCodeHonoursContextPath() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/app/aB3");
+        request.setContextPath("/app");
+
+        assertEquals("aB3", RedirectFilter.shortCode(request));
+    }
+}
@@ -0,0 +1,59 @@
+package com.fiverr.demo.controller;
+
+import com.fiverr.demo.util.RequestPhases;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServerTimingFilterTest {
+
+    private final MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+        @Override
+        protected void service(HttpServletRequest req,
+                               HttpServletResponse resp) throws IOException {
+            RequestPhases.end(RequestPhases.begin("stats", "snapshot"), 0, "1 links");
+            resp.getWriter().write("{}");
+        }
+    });
+
+    @Test
+    void testAddsServerTimingHeaderBeforeTheBody() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new ServerTimingFilter(true).doFilter(new MockHttpServletRequest("GET", "/stats"), response, chain);
+
+        assertTrue(response.getHeader("Server-Timing").startsWith("snapshot;desc=\"1 links\";dur="));
+        assertEquals("{}", response.getContentAsString());
+    }
+
+    @Test
+    void testDisabledByDefault() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new ServerTimingFilter(false).doFilter(new MockHttpServletRequest("GET", "/stats"), response, chain);
+
+        assertNull(response.getHeader("Server-Timing"));
+        assertEquals("{}", response.getContentAsString());
+    }
+
+    @Test
+    void testSkipsOnlyLiveStatsStreams() {
+        assertTrue(ServerTimingFilter.isLiveStats(new MockHttpServletRequest("GET", "/stats/abc/live")));
+        // A redirect whose short code is "live", and other paths ending in it
+        assertFalse(ServerTimingFilter.isLiveStats(new MockHttpServletRequest("GET", "/live")));
+        assertFalse(ServerTimingFilter.isLiveStats(new MockHttpServletRequest("GET", "/stats/live")));
+        assertFalse(ServerTimingFilter.isLiveStats(new MockHttpServletRequest("GET", "/stats/a/b/live")));
+
+        MockHttpServletRequest underContextPath = new MockHttpServletRequest("GET", "/app/stats/abc/live");
+        underContextPath.setContextPath("/app");
+        assertTrue(ServerTimingFilter.isLiveStats(underContextPath));
+    }
+}
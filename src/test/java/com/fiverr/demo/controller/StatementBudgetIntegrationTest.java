@@ -0,0 +1,117 @@
+package com.fiverr.demo.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fiverr.demo.dto.CreateLinkRequest;
+import com.fiverr.demo.entity.ShortenedLink;
+import com.fiverr.demo.repository.ClickRepository;
+import com.fiverr.demo.repository.ShortenedLinkRepository;
+import com.fiverr.demo.util.StatementStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Statement budgets of the main endpoints; a new per-link query in any of them fails here
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:budgetdb",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "app.click-counters.flush-interval-ms=3600000",
+    "app.sql-budget.enabled=true"
+})
+class StatementBudgetIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ShortenedLinkRepository linkRepository;
+
+    @Autowired
+    private ClickRepository clickRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        clickRepository.deleteAll();
+        linkRepository.deleteAll();
+    }
+
+    @Test
+    void testCreateLink_StatementBudget() throws Exception {
+        CreateLinkRequest request = new CreateLinkRequest();
+        request.setTargetUrl("https://fiverr.com/seller/budget");
+
+        StatementStats stats = perform(post("/links")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)), status().isOk());
+
+        assertTrue(stats.getStatements() <= 3, stats.toString());
+    }
+
+    @Test
+    void testRedirect_StatementBudget() throws Exception {
+        ShortenedLink link = new ShortenedLink();
+        link.setTargetUrl("https://fiverr.com/seller/budget");
+        link = linkRepository.save(link);
+        link.setShortCode("b" + link.getId());
+        link = linkRepository.save(link);
+
+        // Cold: short code lookup and click insert
+        StatementStats cold = perform(get("/" + link.getShortCode()), status().isFound());
+        assertTrue(cold.getStatements() <= 2, cold.toString());
+
+        // Cached: only the click insert
+        StatementStats cached = perform(get("/" + link.getShortCode()), status().isFound());
+        assertTrue(cached.getStatements() <= 1, cached.toString());
+    }
+
+    @Test
+    void testStats_StatementBudgetDoesNotGrowWithPageSize() throws Exception {
+        List<ShortenedLink> links = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            ShortenedLink link = new ShortenedLink();
+            link.setTargetUrl("https://fiverr.com/seller/budget" + i);
+            link.setShortCode("s" + i);
+            links.add(link);
+        }
+        linkRepository.saveAll(links);
+
+        // Page and count, totals, fallback click counts, monthly breakdown
+        StatementStats stats = perform(get("/stats").param("size", "100"), status().isOk());
+        assertTrue(stats.getStatements() <= 5, stats.toString());
+        assertTrue(stats.getRows() >= 100, stats.toString());
+
+        assertEquals(1, meterRegistry.get("sql.statements")
+            .tags("scope", "request", "name", "GET /stats").summary().count());
+    }
+
+    private StatementStats perform(RequestBuilder request, ResultMatcher expected) throws Exception {
+        try (StatementStats stats = StatementStats.open("test")) {
+            mockMvc.perform(request).andExpect(expected);
+            return stats;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.fiverr.demo.controller;
+
+import com.fiverr.demo.entity.ShortenedLink;
+import com.fiverr.demo.repository.ShortenedLinkRepository;
+import com.fiverr.demo.repository.WorkloadPools;
+import com.fiverr.demo.repository.WorkloadPools.Workload;
+import com.fiverr.demo.util.Base62Encoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:pooldb;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "app.click-counters.flush-interval-ms=3600000",
+    "app.warmup.enabled=false",
+    "app.pools.redirect.size=2",
+    "app.pools.clicks.size=2",
+    "app.pools.analytics.size=1",
+    "app.pools.analytics.connection-timeout-ms=250"
+})
+class WorkloadPoolIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ShortenedLinkRepository linkRepository;
+
+    @Autowired
+    private WorkloadPools workloadPools;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM clicks");
+        linkRepository.deleteAll();
+    }
+
+    @Test
+    void testStarvedAnalyticsPoolDoesNotBlockRedirects() throws Exception {
+        assertTrue(workloadPools.isIsolated(Workload.REDIRECT));
+        assertTrue(workloadPools.isIsolated(Workload.ANALYTICS));
+        String code = createLink("https://fiverr.com/seller/isolated");
+
+        // A long stats query holds the only analytics connection
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> longQuery = CompletableFuture.runAsync(() ->
+            workloadPools.jdbc(Workload.ANALYTICS).execute((ConnectionCallback<Void>) connection -> {
+                held.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            }));
+        try {
+            assertTrue(held.await(5, TimeUnit.SECONDS));
+
+            mockMvc.perform(get("/" + code))
+                .andExpect(status().isFound())
+                .andExpect(header().string("Location", "https://fiverr.com/seller/isolated"));
+            assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM clicks", Long.class));
+
+            // Stats give up after the analytics connection timeout instead of queueing forever
+            assertThrows(Exception.class, () -> mockMvc.perform(get("/stats/" + code)));
+        } finally {
+            release.countDown();
+            longQuery.get(5, TimeUnit.SECONDS);
+        }
+
+        mockMvc.perform(get("/stats/" + code))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalClicks").value(1));
+
+        // Per-pool wait time and timeouts
+        assertNotNull(meterRegistry.find("hikaricp.connections.acquire").tag("pool", "redirect").timer());
+        assertTrue(meterRegistry.find("hikaricp.connections.acquire").tag("pool", "analytics").timer().count() > 0);
+        assertEquals(1.0, meterRegistry.find("hikaricp.connections.timeout").tag("pool", "analytics").counter().count());
+    }
+
+    @Test
+    void testBusyClicksPoolShedsTheClickInsteadOfHoldingTheRedirect() throws Exception {
+        String code = createLink("https://fiverr.com/seller/busy");
+        double shedBefore = meterRegistry.get("clicks.shed").tag("reason", "pool_busy").counter().count();
+
+        // Two long flushes hold both clicks connections
+        CountDownLatch held = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        List<CompletableFuture<Void>> holders = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            holders.add(CompletableFuture.runAsync(() ->
+                workloadPools.jdbc(Workload.CLICKS).execute((ConnectionCallback<Void>) connection -> {
+                    held.countDown();
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return null;
+                })));
+        }
+        try {
+            assertTrue(held.await(5, TimeUnit.SECONDS));
+
+            // Served after the 50 ms redirect wait, well before the pool's 5 s connection timeout
+            long start = System.nanoTime();
+            mockMvc.perform(get("/" + code))
+                .andExpect(status().isFound())
+                .andExpect(header().string("Location", "https://fiverr.com/seller/busy"));
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2_000);
+        } finally {
+            release.countDown();
+            CompletableFuture.allOf(holders.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+        }
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM clicks", Long.class));
+        assertEquals(shedBefore + 1, meterRegistry.get("clicks.shed").tag("reason", "pool_busy").counter().count());
+
+        // Another client, so click dedup does not skip it, once the pool has connections again
+        mockMvc.perform(get("/" + code).with(request -> {
+            request.setRemoteAddr("10.0.0.2");
+            return request;
+        })).andExpect(status().isFound());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM clicks", Long.class));
+    }
+
+    private String createLink(String targetUrl) {
+        ShortenedLink link = new ShortenedLink();
+        link.setTargetUrl(targetUrl);
+        link = linkRepository.save(link);
+        link.setShortCode(Base62Encoder.encode(link.getId()));
+        return linkRepository.save(link).getShortCode();
+    }
+}
@@ -0,0 +1,15 @@
+package com.fiverr.demo.reactive;
+
+import com.fiverr.demo.controller.ClickArchiveIntegrationTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+// The cases of ClickArchiveIntegrationTest against the reactive runtime, whose stats add the
+// archived months too
+@ActiveProfiles("reactive")
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:reactivearchivedb;DB_CLOSE_DELAY=-1",
+    "spring.r2dbc.url=r2dbc:h2:mem:///reactivearchivedb;DB_CLOSE_DELAY=-1"
+})
+class ReactiveClickArchiveIntegrationTest extends ClickArchiveIntegrationTest {
+}
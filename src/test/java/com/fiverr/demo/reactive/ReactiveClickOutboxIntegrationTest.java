@@ -0,0 +1,15 @@
+package com.fiverr.demo.reactive;
+
+import com.fiverr.demo.controller.ClickOutboxIntegrationTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+// The case of ClickOutboxIntegrationTest against the reactive runtime, which writes the click
+// and its outbox event through R2DBC
+@ActiveProfiles("reactive")
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:reactiveoutboxdb;DB_CLOSE_DELAY=-1",
+    "spring.r2dbc.url=r2dbc:h2:mem:///reactiveoutboxdb;DB_CLOSE_DELAY=-1"
+})
+class ReactiveClickOutboxIntegrationTest extends ClickOutboxIntegrationTest {
+}
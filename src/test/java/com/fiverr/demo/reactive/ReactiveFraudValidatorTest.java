@@ -0,0 +1,112 @@
+package com.fiverr.demo.reactive;
+
+import com.fiverr.demo.service.FraudDetectionService;
+import com.fiverr.demo.service.FraudVerdict;
+import com.fiverr.demo.service.HedgedFraudBackend;
+import com.fiverr.demo.service.ResilientFraudValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveFraudValidatorTest {
+
+    @Mock
+    private FraudDetectionService fraudDetectionService;
+
+    @Mock
+    private HedgedFraudBackend fraudBackend;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ReactiveFraudValidator validator;
+
+    @AfterEach
+    void tearDown() {
+        if (validator != null) {
+            validator.shutdown();
+        }
+    }
+
+    private ReactiveFraudValidator validator(List<String> backendNames, int maxConcurrent) {
+        // 100ms deadline, circuit opens after 2 consecutive failures
+        validator = new ReactiveFraudValidator(fraudDetectionService, fraudBackend, meterRegistry, backendNames,
+            100, maxConcurrent, 2, 60_000, ResilientFraudValidator.Fallback.ACCEPT_PROVISIONAL);
+        return validator;
+    }
+
+    @Test
+    void testWithoutBackendsUsesNonBlockingCheck() {
+        when(fraudDetectionService.validateClickReactive()).thenReturn(Mono.just(false));
+        ReactiveFraudValidator validator = validator(List.of(), 4);
+
+        assertEquals(FraudVerdict.INVALID, validator.validate().block());
+        verifyNoInteractions(fraudBackend);
+    }
+
+    @Test
+    void testWithBackendsUsesHedgedBackendOffTheCallingThread() throws Exception {
+        Thread caller = Thread.currentThread();
+        when(fraudBackend.validateClick()).thenAnswer(invocation -> {
+            assertNotSame(caller, Thread.currentThread());
+            return false;
+        });
+        ReactiveFraudValidator validator = validator(List.of("primary", "secondary"), 4);
+
+        assertEquals(FraudVerdict.INVALID, validator.validate().block());
+        verify(fraudBackend).validateClick();
+        verify(fraudDetectionService, never()).validateClickReactive();
+    }
+
+    @Test
+    void testBackendTimeoutUsesFallbackAndInterruptsTheCall() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(fraudBackend.validateClick()).thenAnswer(invocation -> {
+            try {
+                Thread.sleep(5_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return true;
+        });
+        ReactiveFraudValidator validator = validator(List.of("primary"), 4);
+
+        assertEquals(FraudVerdict.PROVISIONAL, validator.validate().block());
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+        assertEquals(1.0, meterRegistry.get("fraud.calls.rejected").tag("reason", "timeout").counter().count());
+    }
+
+    @Test
+    void testBulkheadRejectsExcessCallsWithoutWaiting() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(fraudBackend.validateClick()).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(1, TimeUnit.SECONDS);
+            return true;
+        });
+        ReactiveFraudValidator validator = validator(List.of("primary"), 1);
+
+        Disposable holder = validator.validate().subscribe();
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+
+        assertEquals(FraudVerdict.PROVISIONAL, validator.validate().block());
+        assertEquals(1.0, meterRegistry.get("fraud.calls.rejected").tag("reason", "bulkhead_full").counter().count());
+        verify(fraudBackend, times(1)).validateClick();
+
+        release.countDown();
+        holder.dispose();
+    }
+}
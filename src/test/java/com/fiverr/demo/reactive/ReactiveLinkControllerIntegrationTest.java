@@ -0,0 +1,14 @@
+package com.fiverr.demo.reactive;
+
+import com.fiverr.demo.controller.LinkControllerIntegrationTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+// The cases of LinkControllerIntegrationTest against the reactive runtime
+@ActiveProfiles("reactive")
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:reactivedb;DB_CLOSE_DELAY=-1",
+    "spring.r2dbc.url=r2dbc:h2:mem:///reactivedb;DB_CLOSE_DELAY=-1"
+})
+class ReactiveLinkControllerIntegrationTest extends LinkControllerIntegrationTest {
+}
@@ -0,0 +1,31 @@
+package com.fiverr.demo.reactive;
+
+import com.fiverr.demo.controller.RedirectControllerIntegrationTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.server.WebFilter;
+
+import java.net.InetSocketAddress;
+
+// The cases of RedirectControllerIntegrationTest against the reactive runtime
+@ActiveProfiles("reactive")
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:reactivedb;DB_CLOSE_DELAY=-1",
+    "spring.r2dbc.url=r2dbc:h2:mem:///reactivedb;DB_CLOSE_DELAY=-1"
+})
+class ReactiveRedirectControllerIntegrationTest extends RedirectControllerIntegrationTest {
+
+    @TestConfiguration
+    static class ClientAddress {
+
+        // Mock requests have no remote address, which deduplication needs; MockMvc's is 127.0.0.1
+        @Bean
+        WebFilter loopbackRemoteAddress() {
+            return (exchange, chain) -> chain.filter(exchange.mutate()
+                .request(request -> request.remoteAddress(new InetSocketAddress("127.0.0.1", 0)))
+                .build());
+        }
+    }
+}
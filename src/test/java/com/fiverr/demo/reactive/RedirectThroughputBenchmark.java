@@ -0,0 +1,107 @@
+package com.fiverr.demo.reactive;
+
+import com.fiverr.demo.HelloApiApplication;
+import com.fiverr.demo.entity.ShortenedLink;
+import com.fiverr.demo.repository.ShortenedLinkRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Redirect throughput of the servlet and reactive stacks at high concurrency.
+// Excluded from the default build; run with:
+//   mvn test -Dgroups=benchmark -DexcludedGroups= -Dtest=RedirectThroughputBenchmark
+@Tag("benchmark")
+class RedirectThroughputBenchmark {
+
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 1000);
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 20000);
+    private static final int WARMUP_REQUESTS = 2000;
+
+    @Test
+    void compareServletAndReactiveStacks() throws Exception {
+        double servlet = measure("servlet", null);
+        double reactive = measure("reactive", "reactive");
+        System.out.printf("Redirect throughput at concurrency %d: servlet %.0f req/s, reactive %.0f req/s%n",
+            CONCURRENCY, servlet, reactive);
+    }
+
+    private double measure(String name, String profile) throws Exception {
+        // Passed as arguments: SpringApplicationBuilder.properties() would lose to application.properties
+        String[] args = Stream.of(
+                "server.port=0",
+                "spring.datasource.url=jdbc:h2:mem:bench-" + name + ";DB_CLOSE_DELAY=-1",
+                "spring.datasource.driver-class-name=org.h2.Driver",
+                "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "spring.jpa.show-sql=false",
+                "spring.r2dbc.url=r2dbc:h2:mem:///bench-" + name + ";DB_CLOSE_DELAY=-1",
+                // One client drives all the load: keep the per-client limits and shedding out of the way
+                "app.fraud.prefilter.max-per-ip=100000000",
+                "app.fraud.prefilter.max-per-ip-and-link=100000000",
+                "app.click-load.defer-backlog=1000000",
+                "app.click-load.sample-backlog=1000000",
+                "app.click-load.drop-backlog=1000000",
+                "app.fraud.max-concurrent-calls=" + CONCURRENCY,
+                "spring.r2dbc.pool.max-size=50",
+                "spring.datasource.hikari.maximum-pool-size=50",
+                "server.tomcat.threads.max=200")
+            .map(property -> "--" + property)
+            .toArray(String[]::new);
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(HelloApiApplication.class);
+        if (profile != null) {
+            builder.profiles(profile);
+        }
+
+        try (ConfigurableApplicationContext context = builder.run(args)) {
+            ShortenedLinkRepository links = context.getBean(ShortenedLinkRepository.class);
+            ShortenedLink link = new ShortenedLink();
+            link.setTargetUrl("https://fiverr.com/seller/benchmark");
+            link = links.save(link);
+            link.setShortCode(String.valueOf(link.getId()));
+            links.save(link);
+
+            URI uri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+                + "/" + link.getShortCode());
+            HttpClient client = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.NEVER).build();
+
+            run(client, uri, WARMUP_REQUESTS);
+            long start = System.nanoTime();
+            int redirects = run(client, uri, REQUESTS);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            assertEquals(REQUESTS, redirects);
+            return REQUESTS / seconds;
+        }
+    }
+
+    private int run(HttpClient client, URI uri, int requests) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        AtomicInteger redirects = new AtomicInteger();
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[requests];
+        HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquire();
+            futures[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    inFlight.release();
+                    if (response != null && response.statusCode() == 302) {
+                        redirects.incrementAndGet();
+                    }
+                });
+        }
+        CompletableFuture.allOf(futures).exceptionally(error -> null).join();
+        return redirects.get();
+    }
+}
@@ -0,0 +1,70 @@
+package com.fiverr.demo.reactive;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+
+import java.net.InetSocketAddress;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrustedProxyForwardedHeadersTest {
+
+    // Tomcat's default: private, loopback and link-local ranges
+    private final TrustedProxyForwardedHeaders headers =
+        new TrustedProxyForwardedHeaders(new ServerProperties().getTomcat().getRemoteip().getInternalProxies());
+
+    private static InetSocketAddress address(String ip) {
+        return new InetSocketAddress(ip, 443);
+    }
+
+    @Test
+    void testIgnoresHeaderFromUntrustedPeer() {
+        InetSocketAddress peer = address("198.51.100.20");
+
+        assertSame(peer, headers.clientAddress(peer, "203.0.113.7"));
+    }
+
+    @Test
+    void testTakesClientBehindTrustedProxy() {
+        InetSocketAddress client = headers.clientAddress(address("10.0.0.5"), "203.0.113.7");
+
+        assertEquals("203.0.113.7", client.getAddress().getHostAddress());
+    }
+
+    @Test
+    void testSkipsValueTheClientPrepended() {
+        // The client sent "X-Forwarded-For: 192.0.2.1"; the balancer appended the real address
+        InetSocketAddress client = headers.clientAddress(address("10.0.0.5"), "192.0.2.1, 203.0.113.7");
+
+        assertEquals("203.0.113.7", client.getAddress().getHostAddress());
+    }
+
+    @Test
+    void testSkipsTrustedHops() {
+        InetSocketAddress client = headers.clientAddress(address("10.0.0.5"), "203.0.113.7, 10.0.0.9");
+
+        assertEquals("203.0.113.7", client.getAddress().getHostAddress());
+    }
+
+    @Test
+    void testParsesPortsAndIpv6() {
+        assertEquals("203.0.113.7",
+            headers.clientAddress(address("10.0.0.5"), "203.0.113.7:4711").getAddress().getHostAddress());
+        assertEquals(new InetSocketAddress("2001:db8::1", 4711),
+            headers.clientAddress(address("10.0.0.5"), "[2001:db8::1]:4711"));
+    }
+
+    @Test
+    void testStopsAtHostname() {
+        InetSocketAddress client = headers.clientAddress(address("10.0.0.5"), "203.0.113.7, proxy.example.com");
+
+        assertEquals("10.0.0.5", client.getAddress().getHostAddress());
+    }
+
+    @Test
+    void testKeepsPeerWithoutHeader() {
+        InetSocketAddress peer = address("10.0.0.5");
+
+        assertSame(peer, headers.clientAddress(peer, null));
+    }
+}
@@ -0,0 +1,106 @@
+package com.fiverr.demo.repository;
+
+import com.fiverr.demo.dto.ResolvedLink;
+import com.fiverr.demo.entity.Click;
+import com.fiverr.demo.entity.ShortenedLink;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Per-redirect cost of resolving a short code and inserting its click: the former JPA path
+// (entity lookup + Click entity with a lazy link reference, in a transaction) against the
+// JDBC path used by LinkService. Excluded from the default build; run with:
+//   mvn test -Dgroups=benchmark -DexcludedGroups= -Dtest=RedirectPathBenchmark
+@Tag("benchmark")
+@SpringBootTest
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:redirectbench",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false",
+    "app.warmup.enabled=false"
+})
+class RedirectPathBenchmark {
+
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 50_000;
+
+    @Autowired
+    private ShortenedLinkRepository linkRepository;
+
+    @Autowired
+    private ClickRepository clickRepository;
+
+    @Autowired
+    private RedirectJdbcRepository redirectRepository;
+
+    @Autowired
+    private ShardedClickRepository shardedClickRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void compareJpaAndJdbcRedirectPaths() {
+        ShortenedLink link = new ShortenedLink();
+        link.setTargetUrl("https://fiverr.com/seller/benchmark");
+        link = linkRepository.save(link);
+        link.setShortCode(String.valueOf(link.getId()));
+        linkRepository.save(link);
+        String shortCode = link.getShortCode();
+
+        Runnable jpa = () -> transactionTemplate.executeWithoutResult(status -> {
+            ShortenedLink found = linkRepository.findByShortCode(shortCode).orElseThrow();
+            Click click = new Click();
+            click.setLink(found);
+            click.setIsValid(true);
+            clickRepository.save(click);
+        });
+        Runnable jdbc = () -> {
+            ResolvedLink found = redirectRepository.findByShortCode(shortCode).orElseThrow();
+            shardedClickRepository.insertClick(found.getId(), true);
+        };
+
+        Result jpaResult = measure(jpa);
+        Result jdbcResult = measure(jdbc);
+        System.out.printf("Redirect path per request: JPA %,d ns / %,d bytes, JDBC %,d ns / %,d bytes%n",
+            jpaResult.nanosPerOp, jpaResult.bytesPerOp, jdbcResult.nanosPerOp, jdbcResult.bytesPerOp);
+
+        assertEquals(2L * (WARMUP + ITERATIONS), clickRepository.count());
+    }
+
+    private static Result measure(Runnable operation) {
+        for (int i = 0; i < WARMUP; i++) {
+            operation.run();
+        }
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            operation.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+        return new Result(elapsed / ITERATIONS, allocated / ITERATIONS);
+    }
+
+    private static final class Result {
+        final long nanosPerOp;
+        final long bytesPerOp;
+
+        Result(long nanosPerOp, long bytesPerOp) {
+            this.nanosPerOp = nanosPerOp;
+            this.bytesPerOp = bytesPerOp;
+        }
+    }
+}
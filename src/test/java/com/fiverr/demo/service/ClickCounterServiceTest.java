@@ -0,0 +1,124 @@
+package com.fiverr.demo.service;
+
+import com.fiverr.demo.dto.ClickTotalsDelta;
+import com.fiverr.demo.entity.LinkClickTotals;
+import com.fiverr.demo.repository.LinkClickTotalsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ClickCounterServiceTest {
+
+    @Mock
+    private LinkClickTotalsRepository totalsRepository;
+
+    @Mock
+    private LiveStatsService liveStatsService;
+
+    private ClickCounterService clickCounterService;
+
+    @BeforeEach
+    void setUp() {
+        clickCounterService = new ClickCounterService(totalsRepository, liveStatsService, 2);
+    }
+
+    @Test
+    void testFlush_SendsOneBatchOfDeltas() {
+        clickCounterService.recordClick(1L, true);
+        clickCounterService.recordClick(1L, true);
+        clickCounterService.recordClick(1L, false);
+        clickCounterService.recordClick(2L, true);
+
+        assertEquals(2, clickCounterService.flush());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ClickTotalsDelta>> captor = ArgumentCaptor.forClass(List.class);
+        verify(totalsRepository, times(1)).addDeltas(captor.capture());
+        Map<Long, ClickTotalsDelta> byLink = new java.util.HashMap<>();
+        captor.getValue().forEach(delta -> byLink.put(delta.getLinkId(), delta));
+
+        assertEquals(2, byLink.get(1L).getValidClicks());
+        assertEquals(1, byLink.get(1L).getInvalidClicks());
+        assertEquals(new BigDecimal("0.10"), byLink.get(1L).getEarnings());
+        assertEquals(1, byLink.get(2L).getValidClicks());
+    }
+
+    @Test
+    void testFlush_DeduplicatedClicksLeaveTheStatsAlone() {
+        clickCounterService.recordClick(1L, true);
+        long version = clickCounterService.version(1L);
+        clickCounterService.recordDeduplicated(1L);
+        clickCounterService.recordDeduplicated(1L);
+
+        assertEquals(version, clickCounterService.version(1L));
+        assertEquals(1, clickCounterService.flush());
+        verify(totalsRepository).addDeltas(argThat(deltas -> deltas.size() == 1
+            && deltas.get(0).getValidClicks() == 1 && deltas.get(0).getDeduplicatedClicks() == 2));
+        verify(liveStatsService, times(1)).record(anyLong(), anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    void testFlush_NothingPending() {
+        assertEquals(0, clickCounterService.flush());
+        verify(totalsRepository, never()).addDeltas(anyList());
+    }
+
+    @Test
+    void testFlush_FailureKeepsDeltasForRetry() {
+        clickCounterService.recordClick(1L, true);
+        doThrow(new DataAccessResourceFailureException("down"))
+            .doNothing()
+            .when(totalsRepository).addDeltas(anyList());
+
+        assertEquals(0, clickCounterService.flush());
+        assertEquals(1, clickCounterService.flush());
+        verify(totalsRepository, times(2)).addDeltas(argThat(deltas ->
+            deltas.size() == 1 && deltas.get(0).getValidClicks() == 1));
+    }
+
+    @Test
+    void testFlush_EvictsIdleLinksWithoutResettingTheirVersion() {
+        clickCounterService.recordClick(1L, true);
+        clickCounterService.recordClick(1L, false);
+        assertEquals(1, clickCounterService.flush());
+        assertEquals(2, clickCounterService.version(1L));
+
+        // Two idle flushes evict the counters; the version carries on from where it was
+        clickCounterService.flush();
+        clickCounterService.flush();
+        assertEquals(2, clickCounterService.version(1L));
+        clickCounterService.recordClick(1L, true);
+        assertEquals(3, clickCounterService.version(1L));
+        assertEquals(1, clickCounterService.flush());
+        verify(totalsRepository, times(2)).addDeltas(anyList());
+    }
+
+    @Test
+    void testCurrentTotals_MergesPendingIntoPersisted() {
+        when(totalsRepository.findAllById(List.of(1L, 2L)))
+            .thenReturn(List.of(new LinkClickTotals(1L, 10L, 1L, new BigDecimal("0.50"))));
+        clickCounterService.recordClick(1L, true);
+        clickCounterService.recordClick(2L, true);
+
+        Map<Long, LinkClickTotals> totals = clickCounterService.currentTotals(List.of(1L, 2L));
+
+        assertEquals(11L, totals.get(1L).getValidClicks());
+        assertEquals(new BigDecimal("0.55"), totals.get(1L).getEarnings());
+        // Never flushed links are left for the caller to count from clicks
+        assertFalse(totals.containsKey(2L));
+    }
+}
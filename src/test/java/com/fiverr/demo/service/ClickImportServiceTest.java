@@ -0,0 +1,149 @@
+package com.fiverr.demo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fiverr.demo.dto.ClickImportReport;
+import com.fiverr.demo.dto.ImportedClick;
+import com.fiverr.demo.repository.RedirectJdbcRepository;
+import com.fiverr.demo.repository.ShardedClickRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.StringReader;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ClickImportServiceTest {
+
+    @Mock
+    private RedirectJdbcRepository redirectRepository;
+
+    @Mock
+    private ShardedClickRepository clickRepository;
+
+    @Mock
+    private ResilientFraudValidator fraudValidator;
+
+    @Mock
+    private ClickCounterService clickCounterService;
+
+    private ClickImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        importService = new ClickImportService(redirectRepository, clickRepository, fraudValidator,
+            clickCounterService, new ObjectMapper(), 2, 3, 1);
+    }
+
+    @Test
+    void testBatchesResolveEachShortCodeOnce() throws Exception {
+        when(redirectRepository.findIdsByShortCodes(anyCollection()))
+            .thenReturn(Map.of("a", 1L))
+            .thenReturn(Map.of("b", 2L));
+        when(fraudValidator.validateBatch(anyInt())).thenAnswer(invocation -> {
+            FraudVerdict[] verdicts = new FraudVerdict[(int) invocation.getArgument(0)];
+            Arrays.fill(verdicts, FraudVerdict.VALID);
+            return Optional.of(verdicts);
+        });
+        when(clickRepository.insertClicks(anyList()))
+            .thenAnswer(invocation -> (long) ((List<?>) invocation.getArgument(0)).size());
+
+        ClickImportReport report = importService.importClicks(new StringReader(
+            "a,2025-01-01T00:00:00\na,2025-01-02T00:00:00\na,2025-01-03T00:00:00\nb,2025-01-04T00:00:00\n"),
+            ClickImportService.Format.CSV);
+
+        assertEquals(4, report.getImportedClicks());
+        verify(redirectRepository).findIdsByShortCodes(Set.of("a"));
+        verify(redirectRepository).findIdsByShortCodes(Set.of("b"));
+        verify(redirectRepository, times(2)).findIdsByShortCodes(anyCollection());
+        verify(fraudValidator, times(2)).validateBatch(2);
+        verify(clickCounterService).recordClicks(1L, 2, 0);
+        verify(clickCounterService).recordClicks(1L, 1, 0);
+        verify(clickCounterService).recordClicks(2L, 1, 0);
+    }
+
+    @Test
+    void testVerdictsDecideValidity() throws Exception {
+        when(redirectRepository.findIdsByShortCodes(anyCollection())).thenReturn(Map.of("a", 1L));
+        when(fraudValidator.validateBatch(2))
+            .thenReturn(Optional.of(new FraudVerdict[] {FraudVerdict.INVALID, FraudVerdict.VALID}));
+        when(clickRepository.insertClicks(anyList())).thenReturn(2L);
+
+        ClickImportReport report = importService.importClicks(new StringReader(
+            "a,2025-01-01T00:00:00\na,2025-01-02T00:00:00\nmissing,2025-01-01T00:00:00\n"),
+            ClickImportService.Format.CSV);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ImportedClick>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(clickRepository).insertClicks(inserted.capture());
+        assertFalse(inserted.getValue().get(0).isValid());
+        assertTrue(inserted.getValue().get(1).isValid());
+        assertEquals(LocalDateTime.of(2025, 1, 2, 0, 0), inserted.getValue().get(1).getClickedAt());
+
+        assertEquals(2, report.getImportedClicks());
+        assertEquals(1, report.getValidClicks());
+        assertEquals(1, report.getInvalidClicks());
+        assertEquals(1, report.getUnknownShortCodes());
+        verify(clickCounterService).recordClicks(1L, 1, 1);
+    }
+
+    @Test
+    void testBatchWithoutAVerdictIsRetried() throws Exception {
+        when(redirectRepository.findIdsByShortCodes(anyCollection())).thenReturn(Map.of("a", 1L));
+        when(fraudValidator.validateBatch(1))
+            .thenReturn(Optional.empty())
+            .thenReturn(Optional.of(new FraudVerdict[] {FraudVerdict.VALID}));
+        when(clickRepository.insertClicks(anyList())).thenReturn(1L);
+
+        ClickImportReport report = importService.importClicks(new StringReader("a,2025-01-01T00:00:00\n"),
+            ClickImportService.Format.CSV);
+
+        assertEquals(1, report.getValidClicks());
+        verify(fraudValidator, times(2)).validateBatch(1);
+    }
+
+    @Test
+    void testImportStopsWhenTheFraudCheckStaysUnavailable() throws Exception {
+        when(redirectRepository.findIdsByShortCodes(anyCollection())).thenReturn(Map.of("a", 1L));
+        when(fraudValidator.validateBatch(2))
+            .thenReturn(Optional.of(new FraudVerdict[] {FraudVerdict.VALID, FraudVerdict.VALID}))
+            .thenReturn(Optional.empty());
+        when(clickRepository.insertClicks(anyList())).thenReturn(2L);
+
+        ClickImportService.FraudCheckUnavailableException e = assertThrows(
+            ClickImportService.FraudCheckUnavailableException.class,
+            () -> importService.importClicks(new StringReader(
+                "a,2025-01-01T00:00:00\na,2025-01-02T00:00:00\na,2025-01-03T00:00:00\na,2025-01-04T00:00:00\n"),
+                ClickImportService.Format.CSV));
+
+        // The first batch stays imported; the second is neither inserted nor counted
+        assertEquals(2, e.getReport().getRows());
+        assertEquals(2, e.getReport().getImportedClicks());
+        verify(fraudValidator, times(4)).validateBatch(2);
+        verify(clickRepository, times(1)).insertClicks(anyList());
+        verify(clickCounterService, times(1)).recordClicks(anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    void testParseTime() {
+        assertEquals(LocalDateTime.of(2025, 3, 1, 10, 0), ClickImportService.parseTime("2025-03-01T10:00:00"));
+        assertEquals(LocalDateTime.of(2025, 3, 1, 10, 0), ClickImportService.parseTime("2025-03-01 10:00:00"));
+        assertNotNull(ClickImportService.parseTime("2025-03-01T10:00:00+02:00"));
+        assertNotNull(ClickImportService.parseTime("2025-03-01T10:00:00Z"));
+        assertNotNull(ClickImportService.parseTime("1740823200000"));
+        assertNull(ClickImportService.parseTime("2025-03-01"));
+        assertNull(ClickImportService.parseTime("soon"));
+    }
+}
@@ -0,0 +1,103 @@
+package com.fiverr.demo.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClickLoadShedderTest {
+
+    private final List<Object> events = new ArrayList<>();
+    private final ApplicationEventPublisher publisher = events::add;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private ClickLoadShedder shedder(long cooldownMs, int sampleRate) {
+        // defer at 2 in flight, sample at 4, drop at 6, fraud latency limit 200ms
+        return new ClickLoadShedder(publisher, meterRegistry, 2, 4, 6, 200, 10_000, cooldownMs, sampleRate);
+    }
+
+    @Test
+    void testNormalUnderLimits() {
+        ClickLoadShedder shedder = shedder(0, 10);
+        assertEquals(ClickLoadShedder.Admission.ACCEPT, shedder.admit());
+        shedder.release();
+        assertEquals(ClickLoadMode.NORMAL, shedder.getMode());
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void testBacklogEscalatesInOrder() {
+        ClickLoadShedder shedder = shedder(60_000, 1);
+        shedder.admit();
+        shedder.admit();
+        assertEquals(ClickLoadShedder.Admission.ACCEPT_DEFER_FRAUD_CHECK, shedder.admit());
+        assertEquals(ClickLoadMode.DEFER_FRAUD_CHECK, shedder.getMode());
+
+        shedder.admit();
+        assertEquals(ClickLoadMode.SAMPLE, shedder.getMode());
+        shedder.admit();
+        shedder.admit();
+        assertEquals(ClickLoadShedder.Admission.REJECT, shedder.admit());
+        assertEquals(ClickLoadMode.DROP, shedder.getMode());
+
+        assertEquals(1.0, meterRegistry.get("clicks.shed").tag("reason", "dropped").counter().count());
+        assertEquals(3, events.size());
+        ClickLoadModeChangedEvent last = (ClickLoadModeChangedEvent) events.get(2);
+        assertEquals(ClickLoadMode.SAMPLE, last.getPreviousMode());
+        assertEquals(ClickLoadMode.DROP, last.getMode());
+        assertEquals(1.0, meterRegistry.get("clicks.load.transitions")
+            .tag("from", "SAMPLE").tag("to", "DROP").counter().count());
+    }
+
+    @Test
+    void testSlowFraudCheckDefersIt() {
+        ClickLoadShedder shedder = shedder(60_000, 10);
+        shedder.recordFraudLatency(1_000_000_000L);
+        assertEquals(ClickLoadShedder.Admission.ACCEPT_DEFER_FRAUD_CHECK, shedder.admit());
+        assertEquals(ClickLoadMode.DEFER_FRAUD_CHECK, shedder.getMode());
+    }
+
+    @Test
+    void testSampleModeKeepsOneInRate() {
+        ClickLoadShedder shedder = shedder(60_000, 5);
+        for (int i = 0; i < 4; i++) {
+            shedder.admit();
+        }
+        assertEquals(ClickLoadMode.SAMPLE, shedder.getMode());
+
+        int accepted = 0;
+        for (int i = 0; i < 10; i++) {
+            if (shedder.admit() != ClickLoadShedder.Admission.REJECT) {
+                accepted++;
+                shedder.release();
+            }
+        }
+        assertEquals(2, accepted);
+        assertEquals(8.0, meterRegistry.get("clicks.shed").tag("reason", "sampled").counter().count());
+    }
+
+    @Test
+    void testRecoveryStepsDownOneLevelPerCooldown() {
+        ClickLoadShedder shedder = shedder(0, 1);
+        for (int i = 0; i < 4; i++) {
+            shedder.admit();
+        }
+        assertEquals(ClickLoadMode.SAMPLE, shedder.getMode());
+        for (int i = 0; i < 4; i++) {
+            shedder.release();
+        }
+
+        assertEquals(ClickLoadMode.DEFER_FRAUD_CHECK, shedder.getMode());
+        assertEquals(ClickLoadMode.NORMAL, shedder.getMode());
+    }
+}
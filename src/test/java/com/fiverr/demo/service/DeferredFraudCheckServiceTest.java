@@ -0,0 +1,123 @@
+package com.fiverr.demo.service;
+
+import com.fiverr.demo.repository.ShardedClickRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeferredFraudCheckServiceTest {
+
+    @Mock
+    private ResilientFraudValidator fraudValidator;
+
+    @Mock
+    private ShardedClickRepository clickRepository;
+
+    @Mock
+    private ClickCounterService clickCounterService;
+
+    @Mock
+    private ClickLoadShedder clickLoadShedder;
+
+    private SimpleMeterRegistry meterRegistry;
+    private DeferredFraudCheckService service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        service = new DeferredFraudCheckService(fraudValidator, clickRepository,
+            clickCounterService, clickLoadShedder, meterRegistry, 2, 10);
+    }
+
+    @Test
+    void testFraudulentClickIsInvalidated() {
+        when(clickLoadShedder.getMode()).thenReturn(ClickLoadMode.NORMAL);
+        when(fraudValidator.validateWithoutFallback()).thenReturn(Optional.of(FraudVerdict.INVALID));
+        when(clickRepository.resolvePendingCheck(1L, 10L, true)).thenReturn(1);
+        service.enqueue(10L, 1L);
+
+        assertEquals(1, service.revalidatePending());
+
+        verify(clickCounterService).recordClickInvalidated(1L);
+        assertEquals(1.0, meterRegistry.get("clicks.deferred").tag("outcome", "rejected").counter().count());
+    }
+
+    @Test
+    void testValidClickIsLeftAlone() {
+        when(clickLoadShedder.getMode()).thenReturn(ClickLoadMode.NORMAL);
+        when(fraudValidator.validateWithoutFallback()).thenReturn(Optional.of(FraudVerdict.VALID));
+        service.enqueue(10L, 1L);
+
+        assertEquals(1, service.revalidatePending());
+
+        verify(clickRepository).resolvePendingCheck(1L, 10L, false);
+        verify(clickCounterService, never()).recordClickInvalidated(anyLong());
+        assertEquals(1.0, meterRegistry.get("clicks.deferred").tag("outcome", "confirmed").counter().count());
+    }
+
+    @Test
+    void testWaitsUntilLoadIsNormal() {
+        when(clickLoadShedder.getMode()).thenReturn(ClickLoadMode.DEFER_FRAUD_CHECK);
+        service.enqueue(10L, 1L);
+
+        assertEquals(0, service.revalidatePending());
+        assertEquals(1, service.getPendingCount());
+        verify(fraudValidator, never()).validateWithoutFallback();
+    }
+
+    @Test
+    void testOverflowIsCounted() {
+        service.enqueue(1L, 1L);
+        service.enqueue(2L, 1L);
+        service.enqueue(3L, 1L);
+
+        assertEquals(2, service.getPendingCount());
+        assertEquals(1.0, meterRegistry.get("clicks.deferred").tag("outcome", "overflow").counter().count());
+    }
+
+    @Test
+    void testUnavailableCheckIsRequeued() {
+        when(clickLoadShedder.getMode()).thenReturn(ClickLoadMode.NORMAL);
+        when(fraudValidator.validateWithoutFallback()).thenReturn(Optional.empty());
+        service.enqueue(10L, 1L);
+
+        assertEquals(0, service.revalidatePending());
+        assertEquals(1, service.getPendingCount());
+        verify(clickRepository, never()).resolvePendingCheck(anyLong(), anyLong(), anyBoolean());
+    }
+
+    @Test
+    void testPendingChecksAreReloadedAfterARestartAndAnOverflow() {
+        when(clickLoadShedder.getMode()).thenReturn(ClickLoadMode.NORMAL);
+        when(fraudValidator.validateWithoutFallback()).thenReturn(Optional.of(FraudVerdict.VALID));
+        // Written before the restart
+        when(clickRepository.pendingChecks(2)).thenReturn(Map.of(10L, 1L));
+
+        assertEquals(1, service.revalidatePending());
+        verify(clickRepository).resolvePendingCheck(1L, 10L, false);
+
+        // Drained: no reload until a check overflows the queue
+        assertEquals(0, service.revalidatePending());
+        verify(clickRepository, times(1)).pendingChecks(anyInt());
+
+        service.enqueue(11L, 1L);
+        service.enqueue(12L, 1L);
+        service.enqueue(13L, 1L);
+        when(clickRepository.pendingChecks(2)).thenReturn(Map.of(13L, 1L));
+        assertEquals(3, service.revalidatePending());
+        verify(clickRepository).resolvePendingCheck(1L, 13L, false);
+    }
+}
@@ -0,0 +1,59 @@
+package com.fiverr.demo.service;
+
+import com.fiverr.demo.dto.ClientInfo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FraudPreFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private FraudPreFilter preFilter(long lowRiskPerIp, long lowRiskPerIpAndLink) {
+        // At most 10 clicks per IP and 3 per IP+link per minute
+        return new FraudPreFilter(meterRegistry, 60_000, 1024, 10, 3, lowRiskPerIp, lowRiskPerIpAndLink);
+    }
+
+    @Test
+    void testRepeatedClicksOnSameLinkAreRejected() {
+        FraudPreFilter preFilter = preFilter(0, 0);
+        ClientInfo client = new ClientInfo("10.0.0.1", "bot");
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(FraudPreFilter.Decision.CHECK, preFilter.evaluate(client, 1L));
+        }
+        assertEquals(FraudPreFilter.Decision.REJECT, preFilter.evaluate(client, 1L));
+        assertEquals(FraudPreFilter.Decision.CHECK, preFilter.evaluate(client, 2L));
+        assertEquals(FraudPreFilter.Decision.CHECK, preFilter.evaluate(new ClientInfo("10.0.0.2", "bot"), 1L));
+    }
+
+    @Test
+    void testIpSpreadOverLinksIsRejected() {
+        FraudPreFilter preFilter = preFilter(0, 0);
+        ClientInfo client = new ClientInfo("10.0.0.1", "bot");
+
+        for (long linkId = 1; linkId <= 10; linkId++) {
+            assertEquals(FraudPreFilter.Decision.CHECK, preFilter.evaluate(client, linkId));
+        }
+        assertEquals(FraudPreFilter.Decision.REJECT, preFilter.evaluate(client, 11L));
+    }
+
+    @Test
+    void testLowRiskClicksAreAcceptedOutright() {
+        FraudPreFilter preFilter = preFilter(5, 1);
+        ClientInfo client = new ClientInfo("10.0.0.1", "Mozilla/5.0");
+
+        assertEquals(FraudPreFilter.Decision.ACCEPT, preFilter.evaluate(client, 1L));
+        assertEquals(FraudPreFilter.Decision.CHECK, preFilter.evaluate(client, 1L));
+
+        assertEquals(1.0, meterRegistry.get("fraud.prefilter.decisions").tag("decision", "accept").counter().count());
+        assertEquals(1.0, meterRegistry.get("fraud.prefilter.decisions").tag("decision", "check").counter().count());
+    }
+
+    @Test
+    void testUnknownClientIsChecked() {
+        FraudPreFilter preFilter = preFilter(5, 1);
+        assertEquals(FraudPreFilter.Decision.CHECK, preFilter.evaluate(ClientInfo.unknown(), 1L));
+    }
+}
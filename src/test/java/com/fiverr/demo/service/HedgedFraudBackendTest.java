@@ -0,0 +1,117 @@
+package com.fiverr.demo.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HedgedFraudBackendTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private HedgedFraudBackend hedged;
+
+    @AfterEach
+    void tearDown() {
+        if (hedged != null) {
+            hedged.shutdown();
+        }
+    }
+
+    private HedgedFraudBackend hedged(List<FraudBackend> backends, long minDelayMs, int minSamples) {
+        hedged = new HedgedFraudBackend(backends, meterRegistry, true, 0.95, minDelayMs, minSamples);
+        return hedged;
+    }
+
+    @Test
+    void testSingleBackendIsNeverHedged() throws Exception {
+        HedgedFraudBackend hedged = hedged(List.of(new SimulatedFraudBackend("only", 5, 5, 0, 0)), 1, 0);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(hedged.validateClick());
+        }
+        assertEquals(5.0, meterRegistry.get("fraud.hedge.calls").counter().count());
+        assertTrue(meterRegistry.find("fraud.hedge.sent").counters().isEmpty());
+        assertEquals(5.0, meterRegistry.get("fraud.hedge.wins").tag("attempt", "primary").counter().count());
+    }
+
+    @Test
+    void testSlowBackendIsHedgedAndCancelled() throws Exception {
+        FraudBackend stuck = new SimulatedFraudBackend("stuck", 10, 5_000, 1.0, 0);
+        FraudBackend fast = new SimulatedFraudBackend("fast", 10, 10, 0, 0);
+        HedgedFraudBackend hedged = hedged(List.of(stuck, fast), 30, 0);
+
+        for (int i = 0; i < 6; i++) {
+            long start = System.nanoTime();
+            assertTrue(hedged.validateClick());
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1_000);
+        }
+
+        // Every call that started on "stuck" was won by the hedge on "fast"
+        assertEquals(3.0, meterRegistry.get("fraud.hedge.sent").tag("backend", "fast").counter().count());
+        assertEquals(3.0, meterRegistry.get("fraud.hedge.wins")
+            .tags("attempt", "hedge", "backend", "fast").counter().count());
+        assertEquals(3.0, meterRegistry.get("fraud.hedge.wins")
+            .tags("attempt", "primary", "backend", "fast").counter().count());
+        // The losing calls were interrupted, not completed or failed
+        assertEquals(0, meterRegistry.get("fraud.backend.latency").tag("backend", "stuck").timers()
+            .stream().mapToLong(timer -> timer.count()).sum());
+        // but each left a censored sample of how long it ran, so "stuck" still reaches min-samples
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (hedged.latencySamples(0) < 3 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(3, hedged.latencySamples(0));
+        assertEquals(6, hedged.latencySamples(1));
+    }
+
+    @Test
+    void testFastBackendsAreNotHedged() throws Exception {
+        FraudBackend a = new SimulatedFraudBackend("a", 5, 5, 0, 0);
+        FraudBackend b = new SimulatedFraudBackend("b", 5, 5, 0, 0);
+        HedgedFraudBackend hedged = hedged(List.of(a, b), 200, 0);
+
+        for (int i = 0; i < 10; i++) {
+            hedged.validateClick();
+        }
+        assertTrue(meterRegistry.find("fraud.hedge.sent").counters().isEmpty());
+    }
+
+    @Test
+    void testFailedFirstAttemptIsHedgedImmediately() throws Exception {
+        FraudBackend broken = new FailingBackend();
+        FraudBackend fast = new SimulatedFraudBackend("fast", 5, 5, 0, 1.0);
+        // Not enough samples for a latency-based hedge: only the failure triggers it
+        HedgedFraudBackend hedged = hedged(List.of(broken, fast), 1, 1_000);
+
+        long start = System.nanoTime();
+        assertFalse(hedged.validateClick());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 500);
+        assertEquals(1.0, meterRegistry.get("fraud.hedge.wins").tags("attempt", "hedge").counter().count());
+        assertEquals(1, meterRegistry.get("fraud.backend.latency")
+            .tags("backend", "broken", "outcome", "error").timer().count());
+    }
+
+    @Test
+    void testAllAttemptsFailing() {
+        HedgedFraudBackend hedged = hedged(List.of(new FailingBackend(), new FailingBackend()), 1, 0);
+
+        assertThrows(IOException.class, hedged::validateClick);
+    }
+
+    private static final class FailingBackend implements FraudBackend {
+        @Override
+        public String getName() {
+            return "broken";
+        }
+
+        @Override
+        public boolean validateClick() throws IOException {
+            throw new IOException("backend down");
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.fiverr.demo.service;
+
+import com.fiverr.demo.entity.ShortenedLink;
+import com.fiverr.demo.repository.ShardedClickRepository;
+import com.fiverr.demo.repository.RedirectJdbcRepository;
+import com.fiverr.demo.repository.ShortenedLinkRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LinkCacheWarmerTest {
+
+    @Mock
+    private ShardedClickRepository clickRepository;
+
+    @Mock
+    private ShortenedLinkRepository linkRepository;
+
+    @Mock
+    private LinkStore linkStore;
+
+    @Mock
+    private RedirectJdbcRepository redirectRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private LinkResolver linkResolver;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        linkResolver = new LinkResolver(redirectRepository, linkStore, meterRegistry, 100);
+    }
+
+    @Test
+    void testPreloadsMostClickedLinks() {
+        when(clickRepository.findMostClickedLinkIdsSince(any(), eq(50)))
+            .thenReturn(List.of(2L, 1L));
+        when(linkRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(link(2L), link(1L)));
+
+        LinkCacheWarmer warmer = warmer(1000);
+
+        assertTrue(warmer.warmUp());
+        assertEquals(2, linkResolver.size());
+        // The JIT exercise runs against the cache only
+        verify(redirectRepository, never()).findByShortCode(any());
+        assertEquals(1, meterRegistry.get("startup.warmup").tag("outcome", "completed").timer().count());
+    }
+
+    @Test
+    void testGivesUpAfterTimeBudget() {
+        when(clickRepository.findMostClickedLinkIdsSince(any(), anyInt())).thenAnswer(invocation -> {
+            Thread.sleep(5000);
+            return List.of(1L);
+        });
+
+        long start = System.currentTimeMillis();
+        boolean completed = warmer(100).warmUp();
+
+        assertFalse(completed);
+        assertTrue(System.currentTimeMillis() - start < 2000);
+        assertEquals(0, linkResolver.size());
+        assertEquals(1, meterRegistry.get("startup.warmup").tag("outcome", "timed_out").timer().count());
+    }
+
+    @Test
+    void testFailureDoesNotBlockStartup() {
+        when(clickRepository.findMostClickedLinkIdsSince(any(), anyInt()))
+            .thenThrow(new IllegalStateException("database down"));
+
+        assertFalse(warmer(1000).warmUp());
+        assertEquals(1, meterRegistry.get("startup.warmup").tag("outcome", "failed").timer().count());
+    }
+
+    private LinkCacheWarmer warmer(long timeBudgetMs) {
+        return new LinkCacheWarmer(clickRepository, linkRepository, linkResolver, meterRegistry,
+            true, 24, 50, timeBudgetMs, 1000);
+    }
+
+    private static ShortenedLink link(Long id) {
+        ShortenedLink link = new ShortenedLink();
+        link.setId(id);
+        link.setShortCode(String.valueOf(id));
+        link.setTargetUrl("https://fiverr.com/" + id);
+        return link;
+    }
+}
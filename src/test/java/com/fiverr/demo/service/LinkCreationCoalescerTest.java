@@ -0,0 +1,142 @@
+package com.fiverr.demo.service;
+
+import com.fiverr.demo.dto.LinkResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LinkCreationCoalescerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testConcurrentCreatesRunOnce() throws Exception {
+        LinkCreationCoalescer coalescer = new LinkCreationCoalescer(meterRegistry, 100);
+        AtomicInteger creations = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<LinkResponse>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                String spelling = i % 2 == 0 ? "https://fiverr.com/viral" : "HTTPS://FIVERR.COM/viral";
+                results.add(executor.submit(() -> coalescer.create(spelling, url -> {
+                    creations.incrementAndGet();
+                    await(release);
+                    return response("abc", url);
+                })));
+            }
+            // Let every caller reach the coalescer before the creation finishes
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<LinkResponse> result : results) {
+                assertEquals("abc", result.get(5, TimeUnit.SECONDS).getShortCode());
+                assertEquals("https://fiverr.com/viral", result.get().getTargetUrl());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, creations.get());
+        assertEquals(1.0, meterRegistry.get("links.create").tag("outcome", "created").counter().count());
+        assertEquals(callers - 1.0, meterRegistry.get("links.create").tag("outcome", "coalesced").counter().count()
+            + meterRegistry.get("links.create").tag("outcome", "cached").counter().count());
+    }
+
+    @Test
+    void testRecentCreatesSkipTheCreator() {
+        LinkCreationCoalescer coalescer = new LinkCreationCoalescer(meterRegistry, 100);
+        AtomicInteger creations = new AtomicInteger();
+
+        coalescer.create("https://fiverr.com/a", url -> response("A" + creations.incrementAndGet(), url));
+        LinkResponse repeat = coalescer.create("https://Fiverr.com/a",
+            url -> response("A" + creations.incrementAndGet(), url));
+
+        assertEquals("A1", repeat.getShortCode());
+        assertEquals(1, creations.get());
+        assertEquals(1.0, meterRegistry.get("links.create").tag("outcome", "cached").counter().count());
+    }
+
+    @Test
+    void testDisabledRecentCacheCallsCreatorEachTime() {
+        LinkCreationCoalescer coalescer = new LinkCreationCoalescer(meterRegistry, 0);
+        AtomicInteger creations = new AtomicInteger();
+
+        coalescer.create("https://fiverr.com/a", url -> response("A", url));
+        coalescer.create("https://fiverr.com/a", url -> response("A" + creations.incrementAndGet(), url));
+
+        assertEquals(1, creations.get());
+    }
+
+    @Test
+    void testFailureReachesWaitersAndIsNotCached() throws Exception {
+        LinkCreationCoalescer coalescer = new LinkCreationCoalescer(meterRegistry, 100);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<LinkResponse> leader = executor.submit(() -> coalescer.create("https://fiverr.com/b", url -> {
+                entered.countDown();
+                await(release);
+                throw new IllegalStateException("database down");
+            }));
+            assertTrue(entered.await(1, TimeUnit.SECONDS));
+            Future<LinkResponse> waiter = executor.submit(() -> coalescer.create("https://fiverr.com/b",
+                url -> response("unexpected", url)));
+            Thread.sleep(100);
+            release.countDown();
+
+            assertInstanceOf(IllegalStateException.class,
+                assertThrows(ExecutionException.class, leader::get).getCause());
+            assertInstanceOf(IllegalStateException.class,
+                assertThrows(ExecutionException.class, waiter::get).getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals("B", coalescer.create("https://fiverr.com/b", url -> response("B", url)).getShortCode());
+    }
+
+    @Test
+    void testReactiveSubscribersShareOneCreation() {
+        LinkCreationCoalescer coalescer = new LinkCreationCoalescer(meterRegistry, 100);
+        AtomicInteger creations = new AtomicInteger();
+        Mono<LinkResponse> slow = Mono.delay(Duration.ofMillis(100))
+            .map(tick -> response("R" + creations.incrementAndGet(), "https://fiverr.com/r"));
+
+        List<LinkResponse> responses = Mono.zip(
+                coalescer.createReactive("https://fiverr.com/r", url -> slow),
+                coalescer.createReactive("https://FIVERR.com/r", url -> slow),
+                (first, second) -> List.of(first, second))
+            .block(Duration.ofSeconds(5));
+
+        assertEquals(1, creations.get());
+        assertEquals("R1", responses.get(0).getShortCode());
+        assertEquals("R1", responses.get(1).getShortCode());
+        assertEquals("R1", coalescer.createReactive("https://fiverr.com/r", url -> slow)
+            .block(Duration.ofSeconds(5)).getShortCode());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static LinkResponse response(String shortCode, String targetUrl) {
+        return new LinkResponse(shortCode, "http://localhost:8080/" + shortCode, targetUrl);
+    }
+}
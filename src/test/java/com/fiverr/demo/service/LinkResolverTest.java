@@ -0,0 +1,130 @@
+package com.fiverr.demo.service;
+
+import com.fiverr.demo.dto.ResolvedLink;
+import com.fiverr.demo.entity.ShortenedLink;
+import com.fiverr.demo.repository.RedirectJdbcRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LinkResolverTest {
+
+    @Mock
+    private RedirectJdbcRepository redirectRepository;
+
+    @Mock
+    private LinkStore linkStore;
+
+    private LinkResolver linkResolver;
+
+    @BeforeEach
+    void setUp() {
+        linkResolver = new LinkResolver(redirectRepository, linkStore, new SimpleMeterRegistry(), 100);
+    }
+
+    @Test
+    void testResolveCachesHits() {
+        when(redirectRepository.findByShortCode("A")).thenReturn(Optional.of(resolved(10L, "A")));
+
+        assertEquals("https://fiverr.com/10", linkResolver.resolve("A").orElseThrow().getTargetUrl());
+        assertEquals(10L, linkResolver.resolve("A").orElseThrow().getId());
+
+        verify(redirectRepository, times(1)).findByShortCode("A");
+    }
+
+    @Test
+    void testResolveDoesNotCacheMisses() {
+        when(redirectRepository.findByShortCode("B"))
+            .thenReturn(Optional.empty())
+            .thenReturn(Optional.of(resolved(11L, "B")));
+
+        assertTrue(linkResolver.resolve("B").isEmpty());
+        assertTrue(linkResolver.resolve("B").isPresent());
+    }
+
+    @Test
+    void testPreloadServesWithoutDatabase() {
+        ShortenedLink withoutCode = link(3L, null);
+        linkResolver.preload(List.of(link(1L, "1"), link(2L, "2"), withoutCode));
+
+        Optional<ResolvedLink> resolved = linkResolver.resolve("2");
+
+        assertEquals("https://fiverr.com/2", resolved.orElseThrow().getTargetUrl());
+        assertEquals(2, linkResolver.size());
+        verifyNoInteractions(redirectRepository);
+    }
+
+    @Test
+    void testStoreHitSkipsDatabase() {
+        when(linkStore.find("C")).thenReturn(Optional.of(resolved(12L, "C")));
+
+        assertEquals("https://fiverr.com/12", linkResolver.resolve("C").orElseThrow().getTargetUrl());
+
+        verifyNoInteractions(redirectRepository);
+    }
+
+    @Test
+    void testDatabaseHitIsAppendedToStore() {
+        when(redirectRepository.findByShortCode("D")).thenReturn(Optional.of(resolved(13L, "D")));
+
+        linkResolver.resolve("D");
+
+        verify(linkStore).append(argThat(link -> link.getId() == 13L && link.getShortCode().equals("D")));
+    }
+
+    @Test
+    void testResolveAllLooksUpOnlyUncachedLinksInOneQuery() {
+        linkResolver.put(resolved(1L, "1"));
+        when(linkStore.find(anyString())).thenReturn(Optional.empty());
+        when(linkStore.find("2")).thenReturn(Optional.of(resolved(2L, "2")));
+        when(redirectRepository.findByIds(anyCollection())).thenReturn(List.of(resolved(62L, "10")));
+
+        Map<String, ResolvedLink> links = linkResolver.resolveAll(List.of("1", "2", "10", "11", "1"));
+
+        assertEquals(Set.of("1", "2", "10"), links.keySet());
+        verify(redirectRepository).findByIds(argThat(ids -> ids.size() == 2 && ids.containsAll(List.of(62L, 63L))));
+        verify(linkStore).append(argThat(link -> link.getId() == 62L));
+        // Previews do not displace the hot links in the cache
+        assertTrue(linkResolver.getCached("10").isEmpty());
+    }
+
+    @Test
+    void testResolveAllSkipsCodesNoLinkCanHave() {
+        Map<String, ResolvedLink> links = linkResolver.resolveAll(List.of("01", "a-b", "", "zzzzzzzzzzzz"));
+
+        assertTrue(links.isEmpty());
+        verifyNoInteractions(redirectRepository);
+    }
+
+    @Test
+    void testIdOfRequiresCanonicalEncoding() {
+        assertEquals(62L, LinkResolver.idOf("10"));
+        assertEquals(0L, LinkResolver.idOf("010"));
+        assertEquals(0L, LinkResolver.idOf("0"));
+        assertEquals(0L, LinkResolver.idOf("!"));
+    }
+
+    private static ResolvedLink resolved(Long id, String shortCode) {
+        return new ResolvedLink(id, shortCode, "https://fiverr.com/" + id);
+    }
+
+    private static ShortenedLink link(Long id, String shortCode) {
+        ShortenedLink link = new ShortenedLink();
+        link.setId(id);
+        link.setShortCode(shortCode);
+        link.setTargetUrl("https://fiverr.com/" + id);
+        return link;
+    }
+}
@@ -1,16 +1,22 @@
 package com.fiverr.demo.service;
 
+import com.fiverr.demo.dto.ClientInfo;
 import com.fiverr.demo.dto.LinkResponse;
 import com.fiverr.demo.dto.LinkStatsDto;
+import com.fiverr.demo.dto.LiveStatsEvent;
 import com.fiverr.demo.dto.MonthlyClickStats;
-import com.fiverr.demo.entity.Click;
+import com.fiverr.demo.dto.ResolvedLink;
+import com.fiverr.demo.dto.StatsRange;
+import com.fiverr.demo.entity.LinkClickTotals;
 import com.fiverr.demo.entity.ShortenedLink;
-import com.fiverr.demo.repository.ClickRepository;
+import com.fiverr.demo.repository.RedirectJdbcRepository;
+import com.fiverr.demo.repository.ShardedClickRepository;
 import com.fiverr.demo.repository.ShortenedLinkRepository;
+import com.fiverr.demo.repository.StatsJdbcRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.DataIntegrityViolationException;
@@ -18,14 +24,16 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -38,17 +46,50 @@ class LinkServiceTest {
     private ShortenedLinkRepository linkRepository;
 
     @Mock
-    private ClickRepository clickRepository;
+    private LinkStore linkStore;
 
     @Mock
-    private FraudDetectionService fraudDetectionService;
+    private RedirectJdbcRepository redirectRepository;
+
+    @Mock
+    private ShardedClickRepository clickRepository;
+
+    @Mock
+    private ResilientFraudValidator fraudValidator;
+
+    @Mock
+    private FraudPreFilter fraudPreFilter;
+
+    @Mock
+    private ClickCounterService clickCounterService;
+
+    @Mock
+    private ClickLoadShedder clickLoadShedder;
+
+    @Mock
+    private DeferredFraudCheckService deferredFraudCheckService;
+
+    @Mock
+    private StatsJdbcRepository statsRepository;
+
+    private SimpleMeterRegistry meterRegistry;
 
-    @InjectMocks
     private LinkService linkService;
 
     @BeforeEach
     void setUp() {
+        // Real resolver over the mocked repository, so lookups go through findByShortCode
+        meterRegistry = new SimpleMeterRegistry();
+        LinkResolver linkResolver = new LinkResolver(redirectRepository, linkStore, meterRegistry, 100);
+        ClickDeduplicator clickDeduplicator = new ClickDeduplicator(clickCounterService, meterRegistry, 10_000, 1000);
+        linkService = new LinkService(linkRepository, clickRepository, fraudValidator, fraudPreFilter,
+            clickCounterService, clickLoadShedder, deferredFraudCheckService, linkResolver, redirectRepository,
+            clickDeduplicator, statsRepository);
         ReflectionTestUtils.setField(linkService, "baseUrl", "http://localhost:8080");
+        lenient().when(clickLoadShedder.admit()).thenReturn(ClickLoadShedder.Admission.ACCEPT);
+        lenient().when(fraudPreFilter.evaluate(any(), anyLong())).thenReturn(FraudPreFilter.Decision.CHECK);
+        lenient().when(statsRepository.inSnapshot(any()))
+            .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
     }
 
     @Test
@@ -130,19 +171,15 @@ class LinkServiceTest {
         link.setShortCode(shortCode);
         link.setTargetUrl("https://fiverr.com/seller/gig123");
 
-        when(linkRepository.findByShortCode(shortCode)).thenReturn(Optional.of(link));
-        when(fraudDetectionService.validateClick()).thenReturn(true);
-        when(clickRepository.save(any(Click.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(redirectRepository.findByShortCode(shortCode)).thenReturn(Optional.of(resolved(link)));
+        when(fraudValidator.validate()).thenReturn(FraudVerdict.VALID);
 
         // Act
         String targetUrl = linkService.redirectAndTrack(shortCode);
 
         // Assert
         assertEquals("https://fiverr.com/seller/gig123", targetUrl);
-        verify(clickRepository).save(argThat(click ->
-            click.getIsValid() &&
-            click.getEarnings().compareTo(new BigDecimal("0.05")) == 0
-        ));
+        verify(clickRepository).insertClick(1L, true);
     }
 
     @Test
@@ -154,32 +191,28 @@ class LinkServiceTest {
         link.setShortCode(shortCode);
         link.setTargetUrl("https://fiverr.com/seller/gig123");
 
-        when(linkRepository.findByShortCode(shortCode)).thenReturn(Optional.of(link));
-        when(fraudDetectionService.validateClick()).thenReturn(false);
-        when(clickRepository.save(any(Click.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(redirectRepository.findByShortCode(shortCode)).thenReturn(Optional.of(resolved(link)));
+        when(fraudValidator.validate()).thenReturn(FraudVerdict.INVALID);
 
         // Act
         String targetUrl = linkService.redirectAndTrack(shortCode);
 
         // Assert
         assertEquals("https://fiverr.com/seller/gig123", targetUrl);
-        verify(clickRepository).save(argThat(click ->
-            !click.getIsValid() &&
-            click.getEarnings().compareTo(BigDecimal.ZERO) == 0
-        ));
+        verify(clickRepository).insertClick(1L, false);
     }
 
     @Test
     void testRedirectAndTrack_InvalidShortCode() {
         // Arrange
         String shortCode = "invalid";
-        when(linkRepository.findByShortCode(shortCode)).thenReturn(Optional.empty());
+        when(redirectRepository.findByShortCode(shortCode)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(ResponseStatusException.class, () -> {
             linkService.redirectAndTrack(shortCode);
         });
-        verify(clickRepository, never()).save(any());
+        verify(clickRepository, never()).insertClick(anyLong(), anyBoolean());
     }
 
     @Test
@@ -199,10 +232,10 @@ class LinkServiceTest {
         Page<ShortenedLink> page = new PageImpl<>(links);
         Pageable pageable = PageRequest.of(0, 10);
 
-        when(linkRepository.findAll(pageable)).thenReturn(page);
-        when(clickRepository.countByLinkIdAndIsValidTrue(1L)).thenReturn(5L);
-        when(clickRepository.countByLinkIdAndIsValidTrue(2L)).thenReturn(3L);
-        when(clickRepository.getMonthlyStats(anyLong())).thenReturn(new ArrayList<>());
+        when(statsRepository.findLinks(pageable)).thenReturn(page);
+        when(clickRepository.countValidClicks(List.of(1L, 2L))).thenReturn(Map.of(1L, 5L, 2L, 3L));
+        when(clickRepository.validClicksByBucket(List.of(1L, 2L), StatsRange.LIFETIME))
+            .thenReturn(Map.of(1L, Map.of("2026-02", 5L)));
 
         // Act
         Page<LinkStatsDto> stats = linkService.getStats(pageable);
@@ -214,5 +247,204 @@ class LinkServiceTest {
         assertEquals(new BigDecimal("0.25"), stats.getContent().get(0).getTotalEarnings());
         assertEquals(3L, stats.getContent().get(1).getTotalClicks());
         assertEquals(new BigDecimal("0.15"), stats.getContent().get(1).getTotalEarnings());
+        assertEquals(Map.of("2026-02", 5L), stats.getContent().get(0).getMonthlyBreakdown());
+        assertEquals(Map.of(), stats.getContent().get(1).getMonthlyBreakdown());
+    }
+
+    @Test
+    void testGetStats_UsesCounterTotalsWhenPresent() {
+        // Arrange
+        ShortenedLink link = new ShortenedLink();
+        link.setId(1L);
+        link.setShortCode("1");
+        link.setTargetUrl("https://fiverr.com/seller/gig123");
+
+        Pageable pageable = PageRequest.of(0, 10);
+        List<LinkClickTotals> persisted = List.of(new LinkClickTotals(1L, 6L, 2L, new BigDecimal("0.30")));
+        when(statsRepository.findLinks(pageable)).thenReturn(new PageImpl<>(List.of(link)));
+        when(statsRepository.findTotals(List.of(1L))).thenReturn(persisted);
+        when(clickCounterService.withPending(persisted))
+            .thenReturn(Map.of(1L, new LinkClickTotals(1L, 7L, 2L, new BigDecimal("0.35"))));
+        when(clickRepository.validClicksByBucket(List.of(1L), StatsRange.LIFETIME)).thenReturn(Map.of());
+
+        // Act
+        Page<LinkStatsDto> stats = linkService.getStats(pageable);
+
+        // Assert
+        assertEquals(7L, stats.getContent().get(0).getTotalClicks());
+        assertEquals(new BigDecimal("0.35"), stats.getContent().get(0).getTotalEarnings());
+        verify(clickRepository).countValidClicks(List.of());
+    }
+
+    @Test
+    void testLiveTotals_CountsInvalidClicksOfNeverFlushedLink() {
+        // Arrange
+        when(statsRepository.findTotals(List.of(5L))).thenReturn(List.of());
+        when(clickCounterService.withPending(List.of())).thenReturn(Map.of());
+        when(clickRepository.countValidClicks(List.of(5L))).thenReturn(Map.of(5L, 3L));
+        when(clickRepository.countInvalidClicks(List.of(5L))).thenReturn(Map.of(5L, 2L));
+
+        // Act
+        LiveStatsEvent totals = linkService.liveTotals(new ResolvedLink(5L, "5", "https://fiverr.com/5"));
+
+        // Assert
+        assertEquals(3L, totals.getValidClicks());
+        assertEquals(2L, totals.getInvalidClicks());
+        assertEquals(new BigDecimal("0.15"), totals.getEarnings());
+    }
+
+    @Test
+    void testRedirectAndTrack_RecordsCounter() {
+        // Arrange
+        ShortenedLink link = new ShortenedLink();
+        link.setId(4L);
+        link.setShortCode("4");
+        link.setTargetUrl("https://fiverr.com/seller/gig123");
+
+        when(redirectRepository.findByShortCode("4")).thenReturn(Optional.of(resolved(link)));
+        when(fraudValidator.validate()).thenReturn(FraudVerdict.VALID);
+
+        // Act
+        linkService.redirectAndTrack("4");
+
+        // Assert
+        verify(clickCounterService).recordClick(4L, true);
+    }
+
+    @Test
+    void testRedirectAndTrack_DeferredFraudCheck() {
+        // Arrange
+        ShortenedLink link = new ShortenedLink();
+        link.setId(1L);
+        link.setShortCode("1");
+        link.setTargetUrl("https://fiverr.com/seller/gig123");
+
+        when(redirectRepository.findByShortCode("1")).thenReturn(Optional.of(resolved(link)));
+        when(clickLoadShedder.admit()).thenReturn(ClickLoadShedder.Admission.ACCEPT_DEFER_FRAUD_CHECK);
+        when(clickRepository.insertProvisionalClick(1L)).thenReturn(99L);
+
+        // Act
+        String targetUrl = linkService.redirectAndTrack("1");
+
+        // Assert
+        assertEquals("https://fiverr.com/seller/gig123", targetUrl);
+        verify(fraudValidator, never()).validate();
+        verify(clickRepository).insertProvisionalClick(1L);
+        verify(deferredFraudCheckService).enqueue(99L, 1L);
+        verify(clickLoadShedder).release();
+    }
+
+    @Test
+    void testRedirectAndTrack_ClickShed() {
+        // Arrange
+        ShortenedLink link = new ShortenedLink();
+        link.setId(1L);
+        link.setShortCode("1");
+        link.setTargetUrl("https://fiverr.com/seller/gig123");
+
+        when(redirectRepository.findByShortCode("1")).thenReturn(Optional.of(resolved(link)));
+        when(clickLoadShedder.admit()).thenReturn(ClickLoadShedder.Admission.REJECT);
+
+        // Act
+        String targetUrl = linkService.redirectAndTrack("1");
+
+        // Assert
+        assertEquals("https://fiverr.com/seller/gig123", targetUrl);
+        verify(fraudValidator, never()).validate();
+        verify(clickRepository, never()).insertClick(anyLong(), anyBoolean());
+        verify(clickLoadShedder, never()).release();
+    }
+
+    @Test
+    void testRedirectAndTrack_ClicksPoolBusy() {
+        // Arrange
+        ShortenedLink link = new ShortenedLink();
+        link.setId(1L);
+        link.setShortCode("1");
+        link.setTargetUrl("https://fiverr.com/seller/gig123");
+
+        when(redirectRepository.findByShortCode("1")).thenReturn(Optional.of(resolved(link)));
+        when(fraudValidator.validate()).thenReturn(FraudVerdict.VALID);
+        when(clickRepository.insertClick(1L, true))
+            .thenThrow(new CannotGetJdbcConnectionException("clicks - Connection is not available"));
+
+        // Act
+        String targetUrl = linkService.redirectAndTrack("1");
+
+        // Assert
+        assertEquals("https://fiverr.com/seller/gig123", targetUrl);
+        verify(clickLoadShedder).shedPoolBusy();
+        verify(clickCounterService, never()).recordClick(anyLong(), anyBoolean());
+        verify(clickLoadShedder).release();
+    }
+
+    @Test
+    void testRedirectAndTrack_FraudCheckUnavailable() {
+        // Arrange
+        ShortenedLink link = new ShortenedLink();
+        link.setId(1L);
+        link.setShortCode("1");
+        link.setTargetUrl("https://fiverr.com/seller/gig123");
+
+        when(redirectRepository.findByShortCode("1")).thenReturn(Optional.of(resolved(link)));
+        when(fraudValidator.validate()).thenReturn(FraudVerdict.PROVISIONAL);
+        when(clickRepository.insertProvisionalClick(1L)).thenReturn(7L);
+
+        // Act
+        linkService.redirectAndTrack("1");
+
+        // Assert
+        verify(clickRepository).insertProvisionalClick(1L);
+        verify(deferredFraudCheckService).enqueue(7L, 1L);
+    }
+
+    @Test
+    void testRedirectAndTrack_PreFilterRejectsWithoutFraudCheck() {
+        // Arrange
+        ShortenedLink link = new ShortenedLink();
+        link.setId(1L);
+        link.setShortCode("1");
+        link.setTargetUrl("https://fiverr.com/seller/gig123");
+        ClientInfo client = new ClientInfo("10.0.0.1", "curl/8.0");
+
+        when(redirectRepository.findByShortCode("1")).thenReturn(Optional.of(resolved(link)));
+        when(fraudPreFilter.evaluate(client, 1L)).thenReturn(FraudPreFilter.Decision.REJECT);
+
+        // Act
+        String targetUrl = linkService.redirectAndTrack("1", client);
+
+        // Assert
+        assertEquals("https://fiverr.com/seller/gig123", targetUrl);
+        verify(fraudValidator, never()).validate();
+        verify(clickRepository).insertClick(1L, false);
+    }
+
+    @Test
+    void testRedirectAndTrack_DuplicateClickSkipsFraudCheckAndInsert() {
+        // Arrange
+        ShortenedLink link = new ShortenedLink();
+        link.setId(1L);
+        link.setShortCode("1");
+        link.setTargetUrl("https://fiverr.com/seller/gig123");
+        ClientInfo client = new ClientInfo("10.0.0.1", "Mozilla/5.0");
+
+        when(redirectRepository.findByShortCode("1")).thenReturn(Optional.of(resolved(link)));
+        when(fraudValidator.validate()).thenReturn(FraudVerdict.VALID);
+
+        // Act: a double tap, then the same link from another device
+        linkService.redirectAndTrack("1", client);
+        String targetUrl = linkService.redirectAndTrack("1", client);
+        linkService.redirectAndTrack("1", new ClientInfo("10.0.0.1", "curl/8.0"));
+
+        // Assert
+        assertEquals("https://fiverr.com/seller/gig123", targetUrl);
+        verify(fraudValidator, times(2)).validate();
+        verify(clickRepository, times(2)).insertClick(1L, true);
+        assertEquals(1.0, meterRegistry.counter("clicks.deduplicated").count());
+        verify(clickCounterService).recordDeduplicated(1L);
+    }
+
+    private static ResolvedLink resolved(ShortenedLink link) {
+        return new ResolvedLink(link.getId(), link.getShortCode(), link.getTargetUrl());
     }
 }
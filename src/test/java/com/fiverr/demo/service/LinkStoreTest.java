@@ -0,0 +1,93 @@
+package com.fiverr.demo.service;
+
+import com.fiverr.demo.dto.ResolvedLink;
+import com.fiverr.demo.repository.ShortenedLinkRepository;
+import com.fiverr.demo.util.Base62Encoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LinkStoreTest {
+
+    @Mock
+    private ShortenedLinkRepository linkRepository;
+
+    @TempDir
+    Path directory;
+
+    private LinkStore linkStore;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (linkStore != null) {
+            linkStore.close();
+        }
+    }
+
+    @Test
+    void testSyncCopiesNewLinksInBatches() throws IOException {
+        linkStore = open(true);
+        when(linkRepository.findResolvedAfter(0L, PageRequest.of(0, 2))).thenReturn(List.of(link(1), link(2)));
+        when(linkRepository.findResolvedAfter(2L, PageRequest.of(0, 2))).thenReturn(List.of(link(3)));
+
+        assertEquals(3, linkStore.sync());
+
+        assertEquals("https://fiverr.com/3", linkStore.find("3").orElseThrow().getTargetUrl());
+        assertEquals(3L, linkStore.find("3").orElseThrow().getId());
+    }
+
+    @Test
+    void testStoreSurvivesRestart() throws IOException {
+        linkStore = open(true);
+        linkStore.append(link(70));
+        linkStore.close();
+
+        linkStore = open(true);
+        when(linkRepository.findResolvedAfter(70L, PageRequest.of(0, 2))).thenReturn(List.of());
+
+        assertEquals(0, linkStore.sync());
+        assertEquals("https://fiverr.com/70", linkStore.find(Base62Encoder.encode(70)).orElseThrow().getTargetUrl());
+    }
+
+    @Test
+    void testInvalidShortCodeMisses() throws IOException {
+        linkStore = open(true);
+
+        assertTrue(linkStore.find("not-base62!").isEmpty());
+    }
+
+    @Test
+    void testDisabledStoreNeverHits() throws IOException {
+        linkStore = open(false);
+        linkStore.append(link(1));
+
+        assertTrue(linkStore.find("1").isEmpty());
+        assertEquals(0, linkStore.sync());
+        verify(linkRepository, never()).findResolvedAfter(anyLong(), any());
+    }
+
+    private LinkStore open(boolean enabled) throws IOException {
+        LinkStore store = new LinkStore(linkRepository, new SimpleMeterRegistry(), enabled,
+            directory.toString(), 8192, 2);
+        store.open();
+        return store;
+    }
+
+    private static ResolvedLink link(long id) {
+        return new ResolvedLink(id, Base62Encoder.encode(id), "https://fiverr.com/" + id);
+    }
+}
@@ -0,0 +1,152 @@
+package com.fiverr.demo.service;
+
+import com.fiverr.demo.dto.LiveStatsEvent;
+import com.fiverr.demo.dto.ResolvedLink;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LiveStatsServiceTest {
+
+    @Mock
+    private LinkResolver linkResolver;
+
+    private LiveStatsService liveStatsService;
+
+    @BeforeEach
+    void setUp() {
+        liveStatsService = new LiveStatsService(linkResolver, new SimpleMeterRegistry(), 2, 60000, 2, 50);
+    }
+
+    @Test
+    void testClicksAreCoalescedIntoOneEventPerInterval() {
+        when(linkResolver.resolve("A")).thenReturn(Optional.of(new ResolvedLink(10L, "A", "https://fiverr.com/10")));
+        liveStatsService.subscribe("A", this::totals);
+
+        liveStatsService.record(10L, 1, 0, 5);
+        liveStatsService.record(10L, 0, 1, 0);
+        liveStatsService.record(10L, 1, 0, 5);
+
+        assertEquals(1, liveStatsService.push());
+        assertEquals(0, liveStatsService.push());
+    }
+
+    @Test
+    void testClicksOfUnwatchedLinksAreIgnored() {
+        liveStatsService.record(10L, 1, 0, 5);
+
+        assertEquals(0, liveStatsService.push());
+    }
+
+    @Test
+    void testSubscribeToUnknownLinkIsNotFound() {
+        when(linkResolver.resolve("nope")).thenReturn(Optional.empty());
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+            () -> liveStatsService.subscribe("nope", this::totals));
+        assertEquals(HttpStatus.NOT_FOUND, e.getStatusCode());
+        assertEquals(0, liveStatsService.getSubscriberCount());
+    }
+
+    @Test
+    void testFailedTotalsReleaseTheSubscriberSlot() {
+        when(linkResolver.resolve("A")).thenReturn(Optional.of(new ResolvedLink(10L, "A", "https://fiverr.com/10")));
+
+        assertThrows(IllegalStateException.class, () -> liveStatsService.subscribe("A", link -> {
+            throw new IllegalStateException("database down");
+        }));
+        assertEquals(0, liveStatsService.getSubscriberCount());
+        // Nobody joined the topic, so clicks are not accumulated
+        liveStatsService.record(10L, 1, 0, 5);
+        assertEquals(0, liveStatsService.push());
+    }
+
+    @Test
+    void testSubscribersAreBounded() {
+        when(linkResolver.resolve("A")).thenReturn(Optional.of(new ResolvedLink(10L, "A", "https://fiverr.com/10")));
+        liveStatsService.subscribe("A", this::totals);
+        liveStatsService.subscribe("A", this::totals);
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+            () -> liveStatsService.subscribe("A", this::totals));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatusCode());
+        assertEquals(2, liveStatsService.getSubscriberCount());
+    }
+
+    @Test
+    void testSlowClientIsDroppedWithoutHoldingUpOthers() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        AtomicInteger emitters = new AtomicInteger();
+        LiveStatsService service = new LiveStatsService(linkResolver, new SimpleMeterRegistry(), 2, 60000, 2, 50) {
+            @Override
+            SseEmitter newEmitter(long timeoutMs) {
+                // The first client takes the totals and then never reads another event
+                return emitters.getAndIncrement() == 0 ? new StalledEmitter(writing, interrupted) : new SseEmitter();
+            }
+        };
+        when(linkResolver.resolve("A")).thenReturn(Optional.of(new ResolvedLink(10L, "A", "https://fiverr.com/10")));
+        service.subscribe("A", this::totals);
+        service.subscribe("A", this::totals);
+
+        service.record(10L, 1, 0, 5);
+        assertEquals(2, service.push());
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+
+        // The stalled send is past its timeout: the client is dropped and its writer interrupted
+        service.record(10L, 1, 0, 5);
+        assertEquals(1, service.push());
+        assertEquals(1, service.getSubscriberCount());
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        service.shutdown();
+    }
+
+    private LiveStatsEvent totals(ResolvedLink link) {
+        return new LiveStatsEvent(link.getShortCode(), 0, 0, BigDecimal.ZERO);
+    }
+
+    private static final class StalledEmitter extends SseEmitter {
+        private final CountDownLatch writing;
+        private final CountDownLatch interrupted;
+        private boolean opened;
+
+        private StalledEmitter(CountDownLatch writing, CountDownLatch interrupted) {
+            this.writing = writing;
+            this.interrupted = interrupted;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (!opened) {
+                opened = true;
+                super.send(builder);
+                return;
+            }
+            writing.countDown();
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw new IOException("Write interrupted", e);
+            }
+        }
+    }
+}
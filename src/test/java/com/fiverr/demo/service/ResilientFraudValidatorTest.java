@@ -0,0 +1,138 @@
+package com.fiverr.demo.service;
+
+import com.fiverr.demo.util.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ResilientFraudValidatorTest {
+
+    @Mock
+    private FraudBackend fraudBackend;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ResilientFraudValidator validator;
+
+    @AfterEach
+    void tearDown() {
+        if (validator != null) {
+            validator.shutdown();
+        }
+    }
+
+    private ResilientFraudValidator validator(int maxConcurrent, ResilientFraudValidator.Fallback fallback) {
+        // 100ms deadline, circuit opens after 2 consecutive failures
+        validator = new ResilientFraudValidator(fraudBackend, meterRegistry,
+            100, 100, maxConcurrent, 0, 2, 60_000, fallback);
+        return validator;
+    }
+
+    @Test
+    void testPassesVerdictThrough() throws Exception {
+        when(fraudBackend.validateClick()).thenReturn(true, false);
+        ResilientFraudValidator validator = validator(4, ResilientFraudValidator.Fallback.ACCEPT_PROVISIONAL);
+
+        assertEquals(FraudVerdict.VALID, validator.validate());
+        assertEquals(FraudVerdict.INVALID, validator.validate());
+    }
+
+    @Test
+    void testTimeoutUsesFallback() throws Exception {
+        when(fraudBackend.validateClick()).thenAnswer(invocation -> {
+            Thread.sleep(5_000);
+            return true;
+        });
+        ResilientFraudValidator validator = validator(4, ResilientFraudValidator.Fallback.ACCEPT_PROVISIONAL);
+
+        long start = System.nanoTime();
+        assertEquals(FraudVerdict.PROVISIONAL, validator.validate());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1_000);
+        assertEquals(1.0, meterRegistry.get("fraud.calls.rejected").tag("reason", "timeout").counter().count());
+    }
+
+    @Test
+    void testReportsFallbackAsNoVerdict() throws Exception {
+        when(fraudBackend.validateClick()).thenThrow(new IllegalStateException("backend down")).thenReturn(false);
+        ResilientFraudValidator validator = validator(4, ResilientFraudValidator.Fallback.ACCEPT);
+
+        assertTrue(validator.validateWithoutFallback().isEmpty());
+        assertEquals(Optional.of(FraudVerdict.INVALID), validator.validateWithoutFallback());
+    }
+
+    @Test
+    void testCircuitOpensAndShortCircuits() throws Exception {
+        when(fraudBackend.validateClick()).thenThrow(new IllegalStateException("backend down"));
+        ResilientFraudValidator validator = validator(4, ResilientFraudValidator.Fallback.REJECT);
+
+        assertEquals(FraudVerdict.INVALID, validator.validate());
+        assertEquals(FraudVerdict.INVALID, validator.validate());
+        assertEquals(CircuitBreaker.State.OPEN, validator.getCircuitState());
+
+        assertEquals(FraudVerdict.INVALID, validator.validate());
+        verify(fraudBackend, times(2)).validateClick();
+        assertEquals(1.0, meterRegistry.get("fraud.calls.rejected").tag("reason", "circuit_open").counter().count());
+        assertEquals(1.0, meterRegistry.get("fraud.circuit.state").gauge().value());
+    }
+
+    @Test
+    void testBulkheadRejectsExcessCalls() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(fraudBackend.validateClick()).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(1, TimeUnit.SECONDS);
+            return true;
+        });
+        ResilientFraudValidator validator = validator(1, ResilientFraudValidator.Fallback.ACCEPT);
+
+        Thread holder = new Thread(validator::validate);
+        holder.start();
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+
+        assertEquals(FraudVerdict.VALID, validator.validate());
+        assertEquals(1.0, meterRegistry.get("fraud.calls.rejected").tag("reason", "bulkhead_full").counter().count());
+        verify(fraudBackend, times(1)).validateClick();
+
+        release.countDown();
+        holder.join(1_000);
+    }
+
+    @Test
+    void testBatchUsesOneBackendCallAndTakesNoFallback() throws Exception {
+        when(fraudBackend.validateClicks(3))
+            .thenReturn(new boolean[] {true, false, true})
+            .thenThrow(new IllegalStateException("backend down"));
+        ResilientFraudValidator validator = validator(4, ResilientFraudValidator.Fallback.ACCEPT_PROVISIONAL);
+
+        assertArrayEquals(new FraudVerdict[] {FraudVerdict.VALID, FraudVerdict.INVALID, FraudVerdict.VALID},
+            validator.validateBatch(3).orElseThrow());
+        assertTrue(validator.validateBatch(3).isEmpty());
+        verify(fraudBackend, never()).validateClick();
+        assertEquals(1.0, meterRegistry.get("fraud.calls.rejected").tag("reason", "error").counter().count());
+    }
+
+    @Test
+    void testBatchHasADeadline() throws Exception {
+        when(fraudBackend.validateClicks(2)).thenAnswer(invocation -> {
+            Thread.sleep(5_000);
+            return new boolean[] {true, true};
+        });
+        ResilientFraudValidator validator = validator(4, ResilientFraudValidator.Fallback.REJECT);
+
+        long start = System.nanoTime();
+        assertTrue(validator.validateBatch(2).isEmpty());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1_000);
+        assertEquals(1.0, meterRegistry.get("fraud.calls.rejected").tag("reason", "timeout").counter().count());
+    }
+}
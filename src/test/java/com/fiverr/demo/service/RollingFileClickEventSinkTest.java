@@ -0,0 +1,74 @@
+package com.fiverr.demo.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fiverr.demo.dto.ClickEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RollingFileClickEventSinkTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testBatchesRollOverAndRestartsOpenANewFile() throws IOException {
+        try (RollingFileClickEventSink sink = new RollingFileClickEventSink(directory, 1, objectMapper)) {
+            sink.publish(List.of(event(1, ClickEvent.Type.CLICK, 10L), event(2, ClickEvent.Type.CLICK, 11L)));
+            sink.publish(List.of(event(3, ClickEvent.Type.INVALIDATED, 10L)));
+        }
+
+        List<String> first = Files.readAllLines(directory.resolve(RollingFileClickEventSink.fileName(1)));
+        List<String> second = Files.readAllLines(directory.resolve(RollingFileClickEventSink.fileName(2)));
+        assertEquals(2, first.size());
+        assertEquals(1, second.size());
+        JsonNode invalidated = objectMapper.readTree(second.get(0));
+        assertEquals(3, invalidated.get("sequence").asLong());
+        assertEquals("INVALIDATED", invalidated.get("type").asText());
+        assertEquals(10, invalidated.get("clickId").asLong());
+        assertEquals("2026-03-01T12:00:00", invalidated.get("clickedAt").asText());
+
+        // A restart never appends to a file a consumer may already have read to the end
+        try (RollingFileClickEventSink sink = new RollingFileClickEventSink(directory, 1 << 20, objectMapper)) {
+            sink.publish(List.of(event(4, ClickEvent.Type.CLICK, 12L)));
+            sink.publish(List.of(event(5, ClickEvent.Type.CLICK, 13L)));
+        }
+        assertEquals(2, Files.readAllLines(directory.resolve(RollingFileClickEventSink.fileName(3))).size());
+        assertEquals(1, Files.readAllLines(directory.resolve(RollingFileClickEventSink.fileName(2))).size());
+    }
+
+    @Test
+    void testStartCutsThePartialLineACrashLeft() throws IOException {
+        try (RollingFileClickEventSink sink = new RollingFileClickEventSink(directory, 1 << 20, objectMapper)) {
+            sink.publish(List.of(event(1, ClickEvent.Type.CLICK, 10L), event(2, ClickEvent.Type.CLICK, 11L)));
+        }
+        Path newest = directory.resolve(RollingFileClickEventSink.fileName(1));
+        long whole = Files.size(newest);
+        Files.writeString(newest, "{\"shard\":0,\"seq", StandardOpenOption.APPEND);
+
+        try (RollingFileClickEventSink sink = new RollingFileClickEventSink(directory, 1 << 20, objectMapper)) {
+            sink.publish(List.of(event(3, ClickEvent.Type.CLICK, 12L)));
+        }
+        assertEquals(whole, Files.size(newest));
+        assertEquals(2, Files.readAllLines(newest).size());
+        assertEquals(1, Files.readAllLines(directory.resolve(RollingFileClickEventSink.fileName(2))).size());
+    }
+
+    private static ClickEvent event(long sequence, ClickEvent.Type type, Long clickId) {
+        return new ClickEvent(0, sequence, type, clickId, 7L, LocalDateTime.of(2026, 3, 1, 12, 0),
+            type == ClickEvent.Type.CLICK);
+    }
+}
@@ -0,0 +1,91 @@
+package com.fiverr.demo.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClickSegmentTest {
+
+    private static final LocalDateTime JANUARY = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRoundTrip() throws IOException {
+        ClickSegment.Writer writer = new ClickSegment.Writer();
+        List<String> written = new ArrayList<>();
+        for (long linkId = 1; linkId <= 3; linkId++) {
+            for (int i = 0; i < 11; i++) {
+                LocalDateTime clickedAt = JANUARY.plusDays(i).plusNanos(i * 1_000L);
+                boolean valid = (i + linkId) % 3 != 0;
+                writer.add(linkId, clickedAt, valid);
+                written.add(linkId + "@" + clickedAt + "=" + valid);
+            }
+        }
+        Path file = directory.resolve("2026-01/shard-0-42.seg");
+        writer.finish(file, 42);
+
+        ClickSegment segment = ClickSegment.read(file);
+        List<String> read = new ArrayList<>();
+        segment.scan((linkId, clickedAt, valid) ->
+            read.add(linkId + "@" + ClickSegment.fromMicros(clickedAt) + "=" + valid));
+
+        assertEquals(written, read);
+        assertEquals(33, segment.getRowCount());
+        assertEquals(1, segment.getMinLinkId());
+        assertEquals(3, segment.getMaxLinkId());
+        assertEquals(ClickSegment.toMicros(JANUARY), segment.getMinClickedAt());
+        assertEquals(42, segment.getMaxClickId());
+        assertFalse(Files.exists(directory.resolve("2026-01/shard-0-42.seg.tmp")));
+    }
+
+    @Test
+    void testScanStopsWhenTheVisitorSaysSo() throws IOException {
+        ClickSegment.Writer writer = new ClickSegment.Writer();
+        for (long linkId = 1; linkId <= 5; linkId++) {
+            writer.add(linkId, JANUARY, true);
+        }
+        Path file = directory.resolve("segment.seg");
+        writer.finish(file, 5);
+
+        List<Long> visited = new ArrayList<>();
+        ClickSegment.read(file).scan((linkId, clickedAt, valid) -> {
+            visited.add(linkId);
+            return linkId < 2;
+        });
+
+        assertEquals(List.of(1L, 2L), visited);
+    }
+
+    @Test
+    void testSortedColumnsCompressWell() throws IOException {
+        ClickSegment.Writer writer = new ClickSegment.Writer();
+        int rows = 100_000;
+        for (int i = 0; i < rows; i++) {
+            writer.add(1 + i / 1000, JANUARY.plusSeconds(i * 7L), i % 10 != 0);
+        }
+        Path file = directory.resolve("segment.seg");
+        writer.finish(file, rows);
+
+        // A row is 8 + 8 + 1 bytes in the table before any row overhead
+        assertTrue(Files.size(file) < rows * 2L, "segment is " + Files.size(file) + " bytes");
+        assertEquals(rows, ClickSegment.readHeader(file).getRowCount());
+    }
+
+    @Test
+    void testRowsMustBeInLinkIdOrder() throws IOException {
+        ClickSegment.Writer writer = new ClickSegment.Writer();
+        writer.add(2, JANUARY, true);
+
+        assertThrows(IllegalArgumentException.class, () -> writer.add(1, JANUARY, true));
+    }
+}
@@ -0,0 +1,36 @@
+package com.fiverr.demo.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyWindowTest {
+
+    @Test
+    void testPercentiles() {
+        LatencyWindow window = new LatencyWindow(100);
+        assertEquals(-1, window.percentile(0.95));
+
+        for (long i = 100; i >= 1; i--) {
+            window.record(i);
+        }
+        assertEquals(100, window.size());
+        assertEquals(50, window.percentile(0.5));
+        assertEquals(95, window.percentile(0.95));
+        assertEquals(100, window.percentile(1.0));
+        assertEquals(1, window.percentile(0.0));
+    }
+
+    @Test
+    void testOldSamplesAreEvicted() {
+        LatencyWindow window = new LatencyWindow(16);
+        for (int i = 0; i < 16; i++) {
+            window.record(1_000);
+        }
+        for (int i = 0; i < 16; i++) {
+            window.record(10);
+        }
+        assertEquals(16, window.size());
+        assertEquals(10, window.percentile(0.99));
+    }
+}
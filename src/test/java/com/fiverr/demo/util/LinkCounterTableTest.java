@@ -0,0 +1,160 @@
+package com.fiverr.demo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LinkCounterTableTest {
+
+    @Test
+    void testCellIsCreatedOnce() {
+        LinkCounterTable table = new LinkCounterTable();
+        LinkCounterTable.Cell first = table.cell(42L);
+        assertSame(first, table.cell(42L));
+        assertSame(first, table.peek(42L));
+        assertNull(table.peek(43L));
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    void testGrowsPastInitialCapacity() {
+        LinkCounterTable table = new LinkCounterTable();
+        for (long id = 1; id <= 10_000; id++) {
+            table.cell(id).add(id, 0, 0);
+        }
+        assertEquals(10_000, table.size());
+        for (long id = 1; id <= 10_000; id++) {
+            assertEquals(id, table.peek(id).getValidClicks(), "Wrong count for link " + id);
+        }
+    }
+
+    @Test
+    void testDrainResetsCounters() {
+        LinkCounterTable table = new LinkCounterTable();
+        table.cell(7L).add(3, 1, 15);
+
+        LinkCounterTable.Cell cell = table.peek(7L);
+        LinkCounterTable.Drained drained = cell.drain();
+        assertEquals(3, drained.getValidClicks());
+        assertEquals(1, drained.getInvalidClicks());
+        assertEquals(15, drained.getEarningsCents());
+        assertEquals(0, cell.getValidClicks());
+        assertEquals(0, cell.getInvalidClicks());
+        assertEquals(0, cell.getEarningsCents());
+    }
+
+    @Test
+    void testVersionGrowsWithEveryAddAndSurvivesDrain() {
+        LinkCounterTable table = new LinkCounterTable();
+        LinkCounterTable.Cell cell = table.cell(7L);
+        assertEquals(0, cell.getVersion());
+
+        cell.add(1, 0, 5);
+        cell.add(-1, 1, -5);
+        cell.drain();
+
+        assertEquals(2, cell.getVersion());
+    }
+
+    @Test
+    void testConcurrentIncrementsAreNotLost() throws InterruptedException {
+        LinkCounterTable table = new LinkCounterTable();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    table.cell(i % 500).add(1, 0, 5);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        long[] total = new long[2];
+        table.forEach(cell -> {
+            total[0] += cell.getValidClicks();
+            total[1] += cell.getEarningsCents();
+        });
+        assertEquals(500, table.size());
+        assertEquals(80_000, total[0]);
+        assertEquals(400_000, total[1]);
+    }
+
+    @Test
+    void testDrainsConcurrentWithAddsLoseNothing() throws Exception {
+        LinkCounterTable table = new LinkCounterTable();
+        LinkCounterTable.Cell cell = table.cell(7L);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    cell.add(1, 0, 5);
+                }
+            });
+        }
+        executor.shutdown();
+        long valid = 0;
+        long cents = 0;
+        while (!executor.isTerminated()) {
+            LinkCounterTable.Drained drained = cell.drain();
+            // Drained together, so every drained row is consistent
+            assertEquals(drained.getValidClicks() * 5, drained.getEarningsCents());
+            valid += drained.getValidClicks();
+            cents += drained.getEarningsCents();
+        }
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        LinkCounterTable.Drained rest = cell.drain();
+        assertEquals(200_000, valid + rest.getValidClicks());
+        assertEquals(1_000_000, cents + rest.getEarningsCents());
+    }
+
+    @Test
+    void testEmptyDrainKeepsTheCountersAndIdleCellsAreEvicted() {
+        LinkCounterTable table = new LinkCounterTable();
+        table.add(7L, 1, 0, 5);
+        table.add(8L, 1, 0, 5);
+        LinkCounterTable.Cell cell = table.peek(7L);
+        cell.drain();
+
+        assertSame(LinkCounterTable.Drained.EMPTY, cell.drain());
+        assertSame(LinkCounterTable.Drained.EMPTY, cell.drain());
+        assertEquals(1, table.evictIdle(2));
+        assertNull(table.peek(7L));
+        assertEquals(1, table.size());
+        // Still pending, so never evicted
+        assertEquals(1, table.peek(8L).getValidClicks());
+
+        // The evicted version is folded into every link's version, so none goes back
+        assertEquals(1, table.version(7L));
+        assertEquals(2, table.version(8L));
+        table.add(7L, 1, 0, 5);
+        assertEquals(2, table.version(7L));
+        assertNotSame(cell, table.peek(7L));
+    }
+
+    @Test
+    void testAddsConcurrentWithEvictionsLoseNothing() throws Exception {
+        LinkCounterTable table = new LinkCounterTable();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    table.add(i % 50, 1, 0, 5);
+                }
+            });
+        }
+        executor.shutdown();
+        long[] valid = new long[1];
+        while (!executor.isTerminated()) {
+            table.forEach(cell -> valid[0] += cell.drain().getValidClicks());
+            table.evictIdle(1);
+        }
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        table.forEach(cell -> valid[0] += cell.drain().getValidClicks());
+        assertEquals(200_000, valid[0]);
+    }
+}
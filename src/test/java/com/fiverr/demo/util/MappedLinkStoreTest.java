@@ -0,0 +1,138 @@
+package com.fiverr.demo.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedLinkStoreTest {
+
+    private static final int SEGMENT = 8192;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testAppendAndLookup() throws IOException {
+        try (MappedLinkStore store = new MappedLinkStore(directory, SEGMENT)) {
+            assertTrue(store.append(10, "A", "https://fiverr.com/seller/gig123"));
+
+            assertEquals("https://fiverr.com/seller/gig123", store.targetUrl(10, "A"));
+            assertNull(store.targetUrl(11, "B"));
+            assertEquals(1, store.size());
+            assertEquals(10, store.getHighestId());
+        }
+    }
+
+    @Test
+    void testShortCodeMustMatch() throws IOException {
+        try (MappedLinkStore store = new MappedLinkStore(directory, SEGMENT)) {
+            store.append(64, "64", "https://fiverr.com/custom-code");
+
+            // "12" decodes to 64 but is not the code this link was stored under
+            assertNull(store.targetUrl(64, "12"));
+            assertEquals("https://fiverr.com/custom-code", store.targetUrl(64, "64"));
+        }
+    }
+
+    @Test
+    void testDuplicateAppendIsIgnored() throws IOException {
+        try (MappedLinkStore store = new MappedLinkStore(directory, SEGMENT)) {
+            assertTrue(store.append(1, "1", "https://fiverr.com/first"));
+            assertFalse(store.append(1, "1", "https://fiverr.com/second"));
+
+            assertEquals("https://fiverr.com/first", store.targetUrl(1, "1"));
+            assertEquals(1, store.size());
+        }
+    }
+
+    @Test
+    void testUtf8Urls() throws IOException {
+        try (MappedLinkStore store = new MappedLinkStore(directory, SEGMENT)) {
+            store.append(2, "2", "https://fiverr.com/ü/日本語");
+
+            assertEquals("https://fiverr.com/ü/日本語", store.targetUrl(2, "2"));
+        }
+    }
+
+    @Test
+    void testRecordsSpanManySegments() throws IOException {
+        try (MappedLinkStore store = new MappedLinkStore(directory, SEGMENT)) {
+            // ~2 MB of data and ids whose index slots fill several index segments
+            for (long id = 1; id <= 5000; id++) {
+                store.append(id, Base62Encoder.encode(id), url(id));
+            }
+            for (long id = 1; id <= 5000; id++) {
+                assertEquals(url(id), store.targetUrl(id, Base62Encoder.encode(id)));
+            }
+            assertTrue(Files.size(directory.resolve("links.dat")) > 10L * SEGMENT);
+        }
+    }
+
+    @Test
+    void testReopenWithoutRebuild() throws IOException {
+        try (MappedLinkStore store = new MappedLinkStore(directory, SEGMENT)) {
+            for (long id = 1; id <= 1000; id++) {
+                store.append(id, Base62Encoder.encode(id), url(id));
+            }
+        }
+
+        try (MappedLinkStore reopened = new MappedLinkStore(directory, SEGMENT)) {
+            assertEquals(1000, reopened.size());
+            assertEquals(1000, reopened.getHighestId());
+            assertEquals(url(777), reopened.targetUrl(777, Base62Encoder.encode(777)));
+
+            // Appends continue after the existing data
+            reopened.append(1001, Base62Encoder.encode(1001), url(1001));
+            assertEquals(url(1001), reopened.targetUrl(1001, Base62Encoder.encode(1001)));
+            assertEquals(url(1), reopened.targetUrl(1, "1"));
+        }
+    }
+
+    @Test
+    void testRejectsForeignFiles() throws IOException {
+        Files.write(directory.resolve("links.idx"), new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+
+        assertThrows(IOException.class, () -> new MappedLinkStore(directory, SEGMENT));
+    }
+
+    @Test
+    void testReadersSeeCompleteRecordsWhileWriterAppends() throws Exception {
+        try (MappedLinkStore store = new MappedLinkStore(directory, SEGMENT)) {
+            ExecutorService readers = Executors.newFixedThreadPool(4);
+            Future<?>[] futures = new Future<?>[4];
+            for (int r = 0; r < futures.length; r++) {
+                futures[r] = readers.submit(() -> {
+                    for (int pass = 0; pass < 200; pass++) {
+                        for (long id = 1; id <= 2000; id++) {
+                            String found = store.targetUrl(id, Base62Encoder.encode(id));
+                            if (found != null && !found.equals(url(id))) {
+                                throw new AssertionError("Torn record for " + id + ": " + found);
+                            }
+                        }
+                    }
+                    return null;
+                });
+            }
+            for (long id = 1; id <= 2000; id++) {
+                store.append(id, Base62Encoder.encode(id), url(id));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+            readers.shutdown();
+        }
+    }
+
+    private static String url(long id) {
+        return "https://fiverr.com/seller/gig-" + id + "/" + "x".repeat((int) (id % 300));
+    }
+}
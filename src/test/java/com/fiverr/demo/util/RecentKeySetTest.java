@@ -0,0 +1,39 @@
+package com.fiverr.demo.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecentKeySetTest {
+
+    @Test
+    void testKeyIsRememberedForTheWindow() {
+        RecentKeySet recent = new RecentKeySet(10_000, 5, 100);
+
+        assertTrue(recent.add(42, 1_000));
+        assertFalse(recent.add(42, 1_500));
+        assertFalse(recent.add(42, 9_000));
+        assertTrue(recent.add(43, 9_000));
+        // Two buckets past the window, the first sighting has been cleared
+        assertTrue(recent.add(42, 14_000));
+    }
+
+    @Test
+    void testFullTableLetsKeysThroughInsteadOfGrowing() {
+        RecentKeySet recent = new RecentKeySet(10_000, 5, 10);
+
+        int recorded = 0;
+        for (long key = 1; key <= 1000; key++) {
+            recent.add(key, 0);
+        }
+        for (long key = 1; key <= 1000; key++) {
+            if (!recent.add(key, 0)) {
+                recorded++;
+            }
+        }
+
+        // 8 slots per bucket; keys that found no slot pass as new
+        assertTrue(recorded <= 8, recorded + " keys recorded");
+        assertTrue(recorded > 0);
+    }
+}
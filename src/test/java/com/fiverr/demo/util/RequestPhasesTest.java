@@ -0,0 +1,52 @@
+package com.fiverr.demo.util;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestPhasesTest {
+
+    @Test
+    void testPhasesAreRecordedAsJfrEvents() throws Exception {
+        Path file = Files.createTempFile("phases", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(RequestPhaseEvent.class).withThreshold(Duration.ZERO);
+            recording.start();
+            RequestPhases.end(RequestPhases.begin("redirect", "lookup"), 42L, "hit");
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        Files.delete(file);
+        RecordedEvent event = events.stream()
+            .filter(e -> e.getEventType().getName().equals("com.fiverr.demo.RequestPhase"))
+            .findFirst().orElseThrow();
+        assertEquals("redirect", event.getString("operation"));
+        assertEquals("lookup", event.getString("phase"));
+        assertEquals(42L, event.getLong("linkId"));
+        assertEquals("hit", event.getString("outcome"));
+        assertFalse(event.hasField("startNanos"));
+    }
+
+    @Test
+    void testServerTimingCollectsPhasesOnlyWhileStarted() {
+        RequestPhases.end(RequestPhases.begin("redirect", "lookup"), 1L, "hit");
+
+        RequestPhases.startServerTiming();
+        RequestPhases.end(RequestPhases.begin("redirect", "lookup"), 1L, "hit");
+        RequestPhases.end(RequestPhases.begin("redirect", "click-insert"), 1L, "valid");
+        String timing = RequestPhases.stopServerTiming();
+
+        assertTrue(timing.matches("lookup;desc=\"hit\";dur=[0-9.]+, click-insert;desc=\"valid\";dur=[0-9.]+"), timing);
+        assertEquals("", RequestPhases.stopServerTiming());
+    }
+}
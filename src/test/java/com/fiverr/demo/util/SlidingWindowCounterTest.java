@@ -0,0 +1,53 @@
+package com.fiverr.demo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingWindowCounterTest {
+
+    @Test
+    void testCountsWithinWindow() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(60_000, 6, 1024);
+        assertEquals(1, counter.incrementAndGet(1L, 0));
+        assertEquals(2, counter.incrementAndGet(1L, 15_000));
+        assertEquals(3, counter.incrementAndGet(1L, 59_000));
+        assertEquals(1, counter.incrementAndGet(2L, 59_000));
+    }
+
+    @Test
+    void testOldBucketsExpire() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(60_000, 6, 1024);
+        counter.incrementAndGet(1L, 0);
+        counter.incrementAndGet(1L, 30_000);
+
+        // The first bucket (0-10s) has left the window, the one at 30s has not
+        assertEquals(2, counter.incrementAndGet(1L, 65_000));
+        assertEquals(0, counter.get(1L, 200_000));
+    }
+
+    @Test
+    void testConcurrentIncrements() throws InterruptedException {
+        SlidingWindowCounter counter = new SlidingWindowCounter(60_000, 6, 1024);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < 5_000; i++) {
+                    counter.incrementAndGet(42L, 1_000);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(20_000, counter.get(42L, 1_000));
+    }
+
+    @Test
+    void testRejectsNonPowerOfTwoWidth() {
+        assertThrows(IllegalArgumentException.class, () -> new SlidingWindowCounter(60_000, 6, 1000));
+    }
+}
@@ -0,0 +1,68 @@
+package com.fiverr.demo.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatementStatsTest {
+
+    @Test
+    void testStatementsCountTowardsAllOpenScopes() {
+        try (StatementStats outer = StatementStats.open("request")) {
+            StatementStats.recordStatement(1_000, 1);
+            try (StatementStats inner = StatementStats.open("transaction")) {
+                StatementStats.recordStatement(2_000, 0);
+                StatementStats.recordRows(3);
+                assertEquals(1, inner.getStatements());
+                assertEquals(3, inner.getRows());
+            }
+            StatementStats.recordStatement(4_000, 2);
+
+            assertEquals(3, outer.getStatements());
+            assertEquals(6, outer.getRows());
+            assertEquals(7_000, outer.getStatementNanos());
+        }
+    }
+
+    @Test
+    void testNothingIsCountedOutsideAScope() {
+        StatementStats.recordStatement(1_000, 1);
+
+        try (StatementStats stats = StatementStats.open("test")) {
+            assertEquals(0, stats.getStatements());
+            assertEquals(-1, stats.getElapsedNanos());
+        }
+    }
+
+    @Test
+    void testCloseRestoresTheParentScope() {
+        StatementStats outer = StatementStats.open("outer");
+        StatementStats.open("inner").close();
+        StatementStats.recordStatement(1_000, 0);
+        outer.close();
+
+        assertEquals(1, outer.getStatements());
+        assertTrue(outer.getElapsedNanos() >= 0);
+    }
+
+    @Test
+    void testScopeOfAnotherThreadIsAddedToTheOpenScopes() throws Exception {
+        StatementStats[] worker = new StatementStats[1];
+        Thread thread = new Thread(() -> {
+            try (StatementStats stats = StatementStats.open("worker")) {
+                StatementStats.recordStatement(1_000, 2);
+                worker[0] = stats;
+            }
+        });
+        thread.start();
+        thread.join();
+
+        try (StatementStats outer = StatementStats.open("request");
+             StatementStats inner = StatementStats.open("transaction")) {
+            worker[0].addToCurrent();
+            assertEquals(1, inner.getStatements());
+            assertEquals(1, outer.getStatements());
+            assertEquals(2, outer.getRows());
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.fiverr.demo.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UrlNormalizerTest {
+
+    @Test
+    void testSchemeHostAndDefaultPort() {
+        assertEquals("https://fiverr.com/seller/Gig", UrlNormalizer.normalize("HTTPS://Fiverr.COM:443/seller/Gig"));
+        assertEquals("http://fiverr.com/a?q=B#Top", UrlNormalizer.normalize("  http://FIVERR.com:80/a?q=B#Top "));
+        assertEquals("https://fiverr.com:8443/a", UrlNormalizer.normalize("https://fiverr.com:8443/a"));
+        assertEquals("http://fiverr.com:443/a", UrlNormalizer.normalize("http://fiverr.com:443/a"));
+        assertEquals("https://fiverr.com", UrlNormalizer.normalize("https://fiverr.com"));
+    }
+
+    @Test
+    void testNormalizedUrlsAreUnchanged() {
+        String url = "https://fiverr.com/ü/%E6%97%A5?a=1&b=%20";
+        assertEquals(url, UrlNormalizer.normalize(url));
+    }
+
+    @Test
+    void testUnparseableInputIsOnlyTrimmed() {
+        assertEquals("not a url", UrlNormalizer.normalize(" not a url "));
+        assertEquals("fiverr.com/x", UrlNormalizer.normalize("fiverr.com/x"));
+    }
+}